@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
+import org.eclipse.lsp4j.Position;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs each benchmark against the fixture project and the synthetic
+ * project. Subclasses create the workspace in their trial setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class AbstractBenchmark {
+
+	@Param({ BenchmarkWorkspace.FIXTURE, BenchmarkWorkspace.SYNTHETIC })
+	public String workspaceName;
+
+	protected BenchmarkWorkspace workspace;
+
+	protected void createWorkspace() throws Exception {
+		workspace = BenchmarkWorkspace.create(workspaceName);
+	}
+
+	@TearDown
+	public void disposeWorkspace() throws Exception {
+		if (workspace != null) {
+			workspace.dispose();
+			workspace = null;
+		}
+	}
+
+	/**
+	 * Returns the position right after the last occurrence of the given text.
+	 *
+	 * @param unit
+	 *            a compilation unit
+	 * @param text
+	 *            a text of the unit
+	 * @return the position
+	 * @throws JavaModelException
+	 */
+	protected static Position getPositionAfter(ICompilationUnit unit, String text) throws JavaModelException {
+		String source = unit.getSource();
+		int offset = source.lastIndexOf(text);
+		if (offset < 0) {
+			throw new IllegalArgumentException(text + " not found in " + unit.getElementName());
+		}
+		int[] position = JsonRpcHelpers.toLine(unit.getBuffer(), offset + text.length());
+		return new Position(position[0], position[1]);
+	}
+
+}
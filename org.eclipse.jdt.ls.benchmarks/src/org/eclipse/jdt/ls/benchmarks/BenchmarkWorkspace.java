@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.JobHelpers;
+import org.eclipse.jdt.ls.core.internal.handlers.JDTLanguageServer;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.lsp4j.ClientCapabilities;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.TextDocumentItem;
+
+/**
+ * A workspace the benchmarks run against, with a language server connected
+ * to a client ignoring everything it's sent.
+ *
+ * The workspace contains either a copy of a fixture project of
+ * <code>org.eclipse.jdt.ls.tests</code> or a {@link SyntheticProject}, in
+ * which the unit the editing benchmarks work on is added.
+ */
+public final class BenchmarkWorkspace {
+
+	public static final String FIXTURE = "eclipse/hello";
+
+	public static final String SYNTHETIC = SyntheticProject.NAME;
+
+	private static final File FIXTURES = new File("../org.eclipse.jdt.ls.tests/projects");
+
+	private static final File WORKING_DIRECTORY = new File("target", "workspace");
+
+	private final PreferenceManager preferenceManager;
+
+	private final ProjectsManager projectsManager;
+
+	private final JavaClientConnection connection;
+
+	private final JDTLanguageServer server;
+
+	private IProject project;
+
+	private BenchmarkWorkspace() {
+		preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		preferenceManager.updateClientPrefences(new ClientCapabilities(), new HashMap<>());
+		projectsManager = JavaLanguageServerPlugin.getProjectsManager();
+		JavaLanguageClient client = (JavaLanguageClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { JavaLanguageClient.class }, (proxy, method, args) -> {
+			return CompletableFuture.class.equals(method.getReturnType()) ? CompletableFuture.completedFuture(null) : null;
+		});
+		connection = new JavaClientConnection(client);
+		server = new JDTLanguageServer(projectsManager, preferenceManager);
+		server.connectClient(client);
+	}
+
+	/**
+	 * Imports a workspace and waits for its build.
+	 *
+	 * @param name
+	 *            {@link #SYNTHETIC}, or the path of a fixture project of
+	 *            <code>org.eclipse.jdt.ls.tests</code> with a <code>src</code>
+	 *            source folder, such as {@link #FIXTURE}
+	 * @return the workspace
+	 * @throws Exception
+	 */
+	public static BenchmarkWorkspace create(String name) throws Exception {
+		File directory = new File(WORKING_DIRECTORY, name);
+		FileUtils.deleteQuietly(directory);
+		if (SYNTHETIC.equals(name)) {
+			SyntheticProject.generate(directory);
+		} else {
+			FileUtils.copyDirectory(new File(FIXTURES, name), directory);
+		}
+		SyntheticProject.generateBench(directory);
+
+		BenchmarkWorkspace workspace = new BenchmarkWorkspace();
+		IPath root = Path.fromOSString(directory.getAbsolutePath());
+		JavaCore.run(monitor -> workspace.projectsManager.initializeProjects(Collections.singleton(root), monitor), null, new NullProgressMonitor());
+		JobHelpers.waitForJobsToComplete();
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			if (project.getFile(SyntheticProject.BENCH_PATH).exists()) {
+				workspace.project = project;
+			}
+		}
+		if (workspace.project == null) {
+			throw new IllegalStateException("Failed to import " + name);
+		}
+		return workspace;
+	}
+
+	public PreferenceManager getPreferenceManager() {
+		return preferenceManager;
+	}
+
+	public ProjectsManager getProjectsManager() {
+		return projectsManager;
+	}
+
+	public JavaClientConnection getConnection() {
+		return connection;
+	}
+
+	public JDTLanguageServer getServer() {
+		return server;
+	}
+
+	/**
+	 * @return the unit the editing benchmarks work on
+	 */
+	public ICompilationUnit getBenchUnit() {
+		return (ICompilationUnit) JavaCore.create(project.getFile(SyntheticProject.BENCH_PATH));
+	}
+
+	public String getBenchUri() {
+		return JDTUtils.toURI(getBenchUnit());
+	}
+
+	/**
+	 * Opens the unit the editing benchmarks work on in the language server,
+	 * and waits for its validation.
+	 *
+	 * @return the opened unit
+	 * @throws Exception
+	 */
+	public ICompilationUnit openBench() throws Exception {
+		ICompilationUnit unit = getBenchUnit();
+		server.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(getBenchUri(), "java", 1, unit.getSource())));
+		JobHelpers.waitForJobsToComplete();
+		return unit;
+	}
+
+	/**
+	 * Deletes the projects of the workspace and disconnects the client.
+	 *
+	 * @throws Exception
+	 */
+	public void dispose() throws Exception {
+		server.shutdown().get();
+		server.disconnectClient();
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			project.delete(true, true, new NullProgressMonitor());
+		}
+		JobHelpers.waitForJobsToComplete();
+		FileUtils.deleteQuietly(WORKING_DIRECTORY);
+	}
+
+}
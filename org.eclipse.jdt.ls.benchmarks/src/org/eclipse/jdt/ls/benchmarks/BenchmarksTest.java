@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the <code>jdt.ls.benchmarks</code> system
+ * property, and writes their results as JSON to the file of the
+ * <code>jdt.ls.benchmarks.result</code> system property.
+ *
+ * The benchmarks aren't forked: they need the OSGi runtime of the test, where
+ * the workspace and the language server live.
+ */
+public class BenchmarksTest {
+
+	@Test
+	public void runBenchmarks() throws Exception {
+		File result = new File(System.getProperty("jdt.ls.benchmarks.result", "target/jmh-result.json"));
+		result.getParentFile().mkdirs();
+		//@formatter:off
+		Options options = new OptionsBuilder()
+				.include(System.getProperty("jdt.ls.benchmarks", ".*Benchmark.*"))
+				.forks(0)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.getAbsolutePath())
+				.build();
+		//@formatter:on
+		Collection<RunResult> results = new Runner(options).run();
+		assertFalse("No benchmark was run", results.isEmpty());
+	}
+
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
+import org.eclipse.jdt.ls.core.internal.handlers.CodeActionHandler;
+import org.eclipse.jdt.ls.core.internal.handlers.DiagnosticsHandler;
+import org.eclipse.lsp4j.CodeAction;
+import org.eclipse.lsp4j.CodeActionContext;
+import org.eclipse.lsp4j.CodeActionParams;
+import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Quick fixes, assists and source actions on the line of an unused import,
+ * with the diagnostics a client would send for that line.
+ */
+public class CodeActionBenchmark extends AbstractBenchmark {
+
+	private CodeActionHandler handler;
+
+	private CodeActionParams params;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		handler = new CodeActionHandler(workspace.getPreferenceManager());
+		ICompilationUnit unit = workspace.openBench();
+		Range range = new Range(getPositionAfter(unit, "import "), getPositionAfter(unit, "import java.util.Set"));
+		CompilationUnit ast = CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+		List<Diagnostic> diagnostics = DiagnosticsHandler.toDiagnosticsArray(unit, Stream.of(ast.getProblems()).collect(Collectors.toList())).stream()
+				.filter(diagnostic -> diagnostic.getRange().getStart().getLine() == range.getStart().getLine())
+				.collect(Collectors.toList());
+		params = new CodeActionParams(new TextDocumentIdentifier(workspace.getBenchUri()), range, new CodeActionContext(diagnostics));
+	}
+
+	@Benchmark
+	public List<Either<Command, CodeAction>> codeActions() {
+		return handler.getCodeActionCommands(params, new NullProgressMonitor());
+	}
+
+}
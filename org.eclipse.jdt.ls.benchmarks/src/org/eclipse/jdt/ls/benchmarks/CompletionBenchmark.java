@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.handlers.CompletionSession;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Member and type completions in an open document, serialized as the
+ * response sent to the client. The completion session is cleared before each
+ * invocation, so code assist runs every time; see
+ * {@link CompletionSessionBenchmark} for the completions answered from the
+ * session.
+ *
+ * The completions are measured with the maximum number of results of
+ * <code>java.completion.maxResults</code>, 0 being unlimited. The size of the
+ * serialized response of each configuration is printed once its workspace is
+ * set up, type completions on the synthetic project being the largest.
+ */
+public class CompletionBenchmark extends AbstractBenchmark {
+
+	@Param({ "names.", "= Str" })
+	public String completeBehind;
+
+	@Param({ "0", "50", "200" })
+	public int maxResults;
+
+	private final MessageJsonHandler jsonHandler = new MessageJsonHandler(Collections.emptyMap());
+
+	private CompletionParams params;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		workspace.getPreferenceManager().getPreferences().setMaxCompletionResults(maxResults);
+		ICompilationUnit unit = workspace.openBench();
+		params = new CompletionParams(new TextDocumentIdentifier(workspace.getBenchUri()), getPositionAfter(unit, completeBehind));
+		Either<List<CompletionItem>, CompletionList> result = workspace.getServer().completion(params).get();
+		int items = result.isLeft() ? result.getLeft().size() : result.getRight().getItems().size();
+		System.out.println(String.format("Completion behind '%s' in %s with maxResults=%d: %d item(s), %d bytes", completeBehind, workspaceName, maxResults, items, serialize(result).getBytes(StandardCharsets.UTF_8).length));
+	}
+
+	@TearDown
+	public void resetMaxResults() {
+		// the workspace may already be disposed
+		JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setMaxCompletionResults(Preferences.JAVA_COMPLETION_MAX_RESULTS_DEFAULT);
+	}
+
+	@Setup(Level.Invocation)
+	public void clearSession() {
+		CompletionSession.clear();
+	}
+
+	@Benchmark
+	public String completion() throws Exception {
+		return serialize(workspace.getServer().completion(params).get());
+	}
+
+	private String serialize(Either<List<CompletionItem>, CompletionList> result) {
+		ResponseMessage response = new ResponseMessage();
+		response.setId("1");
+		response.setResult(result);
+		return jsonHandler.serialize(response);
+	}
+
+}
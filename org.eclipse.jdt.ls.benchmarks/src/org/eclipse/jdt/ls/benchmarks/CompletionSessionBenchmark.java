@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.List;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Member and type completions answered from the completion session of a
+ * previous request at the same position, without running code assist.
+ */
+public class CompletionSessionBenchmark extends AbstractBenchmark {
+
+	@Param({ "names.", "= Str" })
+	public String completeBehind;
+
+	private CompletionParams params;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		ICompilationUnit unit = workspace.openBench();
+		params = new CompletionParams(new TextDocumentIdentifier(workspace.getBenchUri()), getPositionAfter(unit, completeBehind));
+		// runs code assist and keeps its proposals
+		workspace.getServer().completion(params).get();
+	}
+
+	@Benchmark
+	public Either<List<CompletionItem>, CompletionList> completion() throws Exception {
+		return workspace.getServer().completion(params).get();
+	}
+
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.Collections;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.handlers.DocumentLifeCycleHandler;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Opening and editing a document, each followed by its validation. The
+ * validation isn't delayed, so that it's part of the measured time.
+ */
+public class DocumentLifeCycleBenchmark extends AbstractBenchmark {
+
+	private DocumentLifeCycleHandler handler;
+
+	private String uri;
+
+	private String contents;
+
+	private Position editPosition;
+
+	private int version;
+
+	private boolean edited;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		handler = new DocumentLifeCycleHandler(workspace.getConnection(), workspace.getPreferenceManager(), workspace.getProjectsManager(), false);
+		ICompilationUnit unit = workspace.getBenchUnit();
+		uri = workspace.getBenchUri();
+		contents = unit.getSource();
+		editPosition = getPositionAfter(unit, "value * 31");
+		open();
+	}
+
+	/**
+	 * Inserts or removes a space, alternately, so the document stays the same
+	 * across iterations.
+	 */
+	@Benchmark
+	public void change() {
+		TextDocumentContentChangeEvent event;
+		if (edited) {
+			Position end = new Position(editPosition.getLine(), editPosition.getCharacter() + 1);
+			event = new TextDocumentContentChangeEvent(new Range(editPosition, end), 1, "");
+		} else {
+			event = new TextDocumentContentChangeEvent(new Range(editPosition, editPosition), 0, " ");
+		}
+		edited = !edited;
+		handler.didChange(new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(uri, ++version), Collections.singletonList(event)));
+	}
+
+	@Benchmark
+	public void reopen() {
+		handler.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uri)));
+		edited = false;
+		open();
+	}
+
+	private void open() {
+		handler.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uri, "java", ++version, contents)));
+	}
+
+}
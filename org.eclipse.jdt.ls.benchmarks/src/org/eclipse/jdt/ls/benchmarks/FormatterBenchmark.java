@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.DocumentFormattingParams;
+import org.eclipse.lsp4j.FormattingOptions;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextEdit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Formatting an open document, the edits aren't applied.
+ */
+public class FormatterBenchmark extends AbstractBenchmark {
+
+	private DocumentFormattingParams params;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		workspace.openBench();
+		params = new DocumentFormattingParams(new TextDocumentIdentifier(workspace.getBenchUri()), new FormattingOptions(4, true));
+	}
+
+	@Benchmark
+	public List<? extends TextEdit> formatting() throws Exception {
+		return workspace.getServer().formatting(params).get();
+	}
+
+}
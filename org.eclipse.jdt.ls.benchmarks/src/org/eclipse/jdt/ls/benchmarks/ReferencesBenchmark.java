@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.ls.core.internal.handlers.ReferencesHandler;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.ReferenceContext;
+import org.eclipse.lsp4j.ReferenceParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * References of <code>Bench.shared</code>, which every type of the synthetic
+ * project calls.
+ */
+public class ReferencesBenchmark extends AbstractBenchmark {
+
+	private ReferencesHandler handler;
+
+	private ReferenceParams params;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		handler = new ReferencesHandler(workspace.getPreferenceManager());
+		params = new ReferenceParams(new ReferenceContext(true));
+		params.setTextDocument(new TextDocumentIdentifier(workspace.getBenchUri()));
+		params.setPosition(getPositionAfter(workspace.getBenchUnit(), "static int sha"));
+	}
+
+	@Benchmark
+	public List<Location> findReferences() {
+		return handler.findReferences(params, new NullProgressMonitor());
+	}
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
+import org.eclipse.jdt.ls.core.internal.highlighting.HighlightedPositions;
+import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Highlighting an open document, from its shared AST to the notification of
+ * the client.
+ */
+public class SemanticHighlightingBenchmark extends AbstractBenchmark {
+
+	private SemanticHighlightingService service;
+
+	private ICompilationUnit unit;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		service = new SemanticHighlightingService(workspace.getConnection(), SharedASTProvider.getInstance(), () -> true);
+		unit = workspace.openBench();
+	}
+
+	@Benchmark
+	public HighlightedPositions install() throws Exception {
+		return service.install(unit);
+	}
+
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Generates the sources of the benchmarks: an Eclipse project with many
+ * interdependent types, and the unit the editing benchmarks work on.
+ *
+ * The size of the synthetic project is set with the
+ * <code>jdt.ls.benchmarks.packages</code> and
+ * <code>jdt.ls.benchmarks.types</code> system properties.
+ */
+public final class SyntheticProject {
+
+	public static final String NAME = "synthetic";
+
+	public static final String BENCH_PATH = "src/bench/Bench.java";
+
+	private static final int PACKAGES = Integer.getInteger("jdt.ls.benchmarks.packages", 20);
+
+	private static final int TYPES_PER_PACKAGE = Integer.getInteger("jdt.ls.benchmarks.types", 50);
+
+	private static final int METHODS_PER_TYPE = 8;
+
+	private static final int BENCH_METHODS = 60;
+
+	private SyntheticProject() {
+	}
+
+	/**
+	 * Writes the synthetic project.
+	 *
+	 * @param directory
+	 *            the directory of the project
+	 * @throws IOException
+	 */
+	public static void generate(File directory) throws IOException {
+		write(new File(directory, ".project"), projectDescription());
+		write(new File(directory, ".classpath"), classpath());
+		int types = PACKAGES * TYPES_PER_PACKAGE;
+		for (int i = 0; i < types; i++) {
+			write(new File(directory, "src/" + packageName(i).replace('.', '/') + "/" + typeName(i) + ".java"), typeSource(i, types));
+		}
+	}
+
+	/**
+	 * Writes the unit the editing benchmarks work on in the given project. It
+	 * only depends on the JDK, and declares the <code>bench.Bench.shared</code>
+	 * method the types of the synthetic project call.
+	 *
+	 * @param directory
+	 *            the directory of a project with a <code>src</code> source
+	 *            folder
+	 * @throws IOException
+	 */
+	public static void generateBench(File directory) throws IOException {
+		write(new File(directory, BENCH_PATH), benchSource());
+	}
+
+	private static String packageName(int type) {
+		return "synthetic.p" + type / TYPES_PER_PACKAGE;
+	}
+
+	private static String typeName(int type) {
+		return "Type" + type;
+	}
+
+	private static String projectDescription() {
+		//@formatter:off
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<projectDescription>\n"
+				+ "	<name>" + NAME + "</name>\n"
+				+ "	<comment></comment>\n"
+				+ "	<projects>\n"
+				+ "	</projects>\n"
+				+ "	<buildSpec>\n"
+				+ "		<buildCommand>\n"
+				+ "			<name>org.eclipse.jdt.core.javabuilder</name>\n"
+				+ "			<arguments>\n"
+				+ "			</arguments>\n"
+				+ "		</buildCommand>\n"
+				+ "	</buildSpec>\n"
+				+ "	<natures>\n"
+				+ "		<nature>org.eclipse.jdt.core.javanature</nature>\n"
+				+ "	</natures>\n"
+				+ "</projectDescription>\n";
+		//@formatter:on
+	}
+
+	private static String classpath() {
+		//@formatter:off
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<classpath>\n"
+				+ "	<classpathentry kind=\"src\" path=\"src\"/>\n"
+				+ "	<classpathentry kind=\"con\" path=\"org.eclipse.jdt.launching.JRE_CONTAINER/org.eclipse.jdt.internal.debug.ui.launcher.StandardVMType/JavaSE-1.8\"/>\n"
+				+ "	<classpathentry kind=\"output\" path=\"bin\"/>\n"
+				+ "</classpath>\n";
+		//@formatter:on
+	}
+
+	private static String typeSource(int type, int types) {
+		int next = (type + 1) % types;
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName(type)).append(";\n\n");
+		source.append("import java.util.ArrayList;\n");
+		source.append("import java.util.List;\n\n");
+		source.append("import bench.Bench;\n\n");
+		source.append("/**\n * Synthetic type ").append(type).append(".\n */\n");
+		source.append("public class ").append(typeName(type)).append(" {\n\n");
+		source.append("\tprivate final List<String> names = new ArrayList<>();\n\n");
+		source.append("\tprivate ").append(packageName(next)).append('.').append(typeName(next)).append(" next;\n\n");
+		for (int m = 0; m < METHODS_PER_TYPE; m++) {
+			source.append("\tpublic int compute").append(m).append("(int value) {\n");
+			source.append("\t\tint result = value;\n");
+			source.append("\t\tfor (String name : names) {\n");
+			source.append("\t\t\tresult += name.length();\n");
+			source.append("\t\t}\n");
+			source.append("\t\tif (next != null && value > 0) {\n");
+			source.append("\t\t\tresult += next.compute").append(m).append("(value - 1);\n");
+			source.append("\t\t}\n");
+			source.append("\t\treturn Bench.shared(result);\n");
+			source.append("\t}\n\n");
+		}
+		source.append("\t@Override\n");
+		source.append("\tpublic String toString() {\n");
+		source.append("\t\treturn \"").append(typeName(type)).append("\" + names;\n");
+		source.append("\t}\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static String benchSource() {
+		StringBuilder source = new StringBuilder();
+		source.append("package bench;\n\n");
+		source.append("import java.util.ArrayList;\n");
+		source.append("import java.util.HashMap;\n");
+		source.append("import java.util.List;\n");
+		source.append("import java.util.Map;\n");
+		// unused, for the code action benchmarks
+		source.append("import java.util.Set;\n\n");
+		source.append("public class Bench {\n\n");
+		source.append("\tprivate final Map<String, List<Integer>> values = new HashMap<>();\n\n");
+		source.append("\tpublic static int shared(int value) {\n");
+		source.append("\t\treturn value * 31;\n");
+		source.append("\t}\n\n");
+		source.append("\tpublic int complete(List<String> names) {\n");
+		source.append("\t\tnames.size();\n");
+		source.append("\t\tString value = String.valueOf(names);\n");
+		source.append("\t\treturn value.length();\n");
+		source.append("\t}\n\n");
+		for (int m = 0; m < BENCH_METHODS; m++) {
+			source.append("\tpublic List<Integer> method").append(m).append("(String key, int count) {\n");
+			source.append("\t\tList<Integer> result = values.get(key);\n");
+			source.append("\t\tif (result == null) {\n");
+			source.append("\t\t\tresult = new ArrayList<>();\n");
+			source.append("\t\t\tvalues.put(key, result);\n");
+			source.append("\t\t}\n");
+			source.append("\t\tfor (int i = 0; i < count; i++) {\n");
+			source.append("\t\t\tresult.add(shared(i) + key.length());\n");
+			source.append("\t\t}\n");
+			// badly formatted, for the formatter benchmarks
+			source.append("\t\tif(result.size()>count){result.remove( 0 );}\n");
+			source.append("\t\treturn result;\n");
+			source.append("\t}\n\n");
+		}
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static void write(File file, String contents) throws IOException {
+		FileUtils.writeStringToFile(file, contents, "UTF-8");
+	}
+
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.benchmarks;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.ls.core.internal.handlers.WorkspaceSymbolHandler;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Workspace symbol searches, from a short prefix matching many types to an
+ * exact type name.
+ */
+public class WorkspaceSymbolBenchmark extends AbstractBenchmark {
+
+	@Param({ "T", "Type1", "Bench" })
+	public String query;
+
+	private WorkspaceSymbolHandler handler;
+
+	@Setup
+	public void setUp() throws Exception {
+		createWorkspace();
+		handler = new WorkspaceSymbolHandler(workspace.getPreferenceManager());
+	}
+
+	@Benchmark
+	public List<SymbolInformation> search() {
+		return handler.search(query, new NullProgressMonitor());
+	}
+
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hits, misses and evictions of a cache, and the time its values took to be
+ * computed.
+ */
+public class CacheMetrics {
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong shared = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicInteger entries = new AtomicInteger();
+	private final AtomicLong size = new AtomicLong();
+	private final LatencyHistogram loads = new LatencyHistogram();
+
+	/**
+	 * Counts a lookup which found a computed value.
+	 */
+	public void hit() {
+		hits.incrementAndGet();
+	}
+
+	/**
+	 * Counts a lookup which found a value being computed, and waited for it.
+	 */
+	public void shared() {
+		shared.incrementAndGet();
+	}
+
+	/**
+	 * Counts a lookup which computed the value.
+	 */
+	public void miss() {
+		misses.incrementAndGet();
+	}
+
+	public void evicted() {
+		evictions.incrementAndGet();
+	}
+
+	/**
+	 * Updates the size of the cache.
+	 *
+	 * @param entries
+	 *            the number of entries
+	 * @param size
+	 *            the estimated size of the entries, in bytes
+	 */
+	public void setSize(int entries, long size) {
+		this.entries.set(entries);
+		this.size.set(size);
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getShared() {
+		return shared.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public int getEntries() {
+		return entries.get();
+	}
+
+	public long getSize() {
+		return size.get();
+	}
+
+	/**
+	 * @return the ratio of the lookups which didn't compute the value, 0 if
+	 *         there was no lookup
+	 */
+	public double getHitRate() {
+		long hitCount = hits.get() + shared.get();
+		long lookups = hitCount + misses.get();
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	/**
+	 * @return the time the values took to be computed
+	 */
+	public LatencyHistogram getLoads() {
+		return loads;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("hits=%d, shared=%d, misses=%d, evictions=%d, entries=%d, size=%d, loads: [%s]", getHits(), getShared(), getMisses(), getEvictions(), getEntries(), getSize(), loads);
+	}
+
+}
@@ -18,6 +18,7 @@ import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -78,19 +79,77 @@ public class ChangeUtil {
 	 * @throws CoreException
 	 */
 	public static void convertCompositeChange(Change change, WorkspaceEdit edit) throws CoreException {
+		convertCompositeChange(change, edit, null);
+	}
+
+	/**
+	 * Converts changes to resource operations if resource operations are supported
+	 * by the client otherwise converts to TextEdit changes.
+	 *
+	 * @param change
+	 *            changes after Refactoring operation
+	 * @param edit
+	 *            instance of workspace edit changes
+	 * @param monitor
+	 *            the progress monitor, reporting one unit of work per change,
+	 *            can be <code>null</code>. The conversion stops once it's
+	 *            cancelled.
+	 * @throws CoreException
+	 */
+	public static void convertCompositeChange(Change change, WorkspaceEdit edit, IProgressMonitor monitor) throws CoreException {
 		if (!(change instanceof CompositeChange)) {
 			return;
 		}
 
-		Change[] changes = ((CompositeChange) change).getChildren();
-		for (Change ch : changes) {
+		List<Change> changes = new ArrayList<>();
+		for (Change ch : ((CompositeChange) change).getChildren()) {
 			if (ch instanceof DynamicValidationRefactoringChange) {
 				CompositeChange compositeChange = (CompositeChange) ch;
-				for (Change child : compositeChange.getChildren()) {
-					doConvertCompositeChange(child, edit);
-				}
+				changes.addAll(Arrays.asList(compositeChange.getChildren()));
 			} else {
-				doConvertCompositeChange(ch, edit);
+				changes.add(ch);
+			}
+		}
+		// the ranges of the text changes are computed from the contents of their units, which are opened in parallel
+		List<WorkspaceEdit> textEdits = ParallelUnitProcessor.process(changes, ch -> {
+			Object modifiedElement = ch.getModifiedElement();
+			if (!(ch instanceof TextChange) || !(modifiedElement instanceof IJavaElement)) {
+				return null;
+			}
+			WorkspaceEdit textEdit = new WorkspaceEdit();
+			convertTextChange(textEdit, (IJavaElement) modifiedElement, (TextChange) ch);
+			return textEdit;
+		}, monitor);
+		for (int i = 0; i < changes.size(); i++) {
+			WorkspaceEdit textEdit = textEdits.get(i);
+			if (textEdit != null) {
+				mergeTextEdit(edit, textEdit);
+			} else {
+				doConvertCompositeChange(changes.get(i), edit);
+			}
+		}
+	}
+
+	/**
+	 * Appends the changes of a text change, converted on its own.
+	 */
+	private static void mergeTextEdit(WorkspaceEdit root, WorkspaceEdit textEdit) {
+		if (textEdit.getDocumentChanges() != null) {
+			List<Either<TextDocumentEdit, ResourceOperation>> changes = root.getDocumentChanges();
+			if (changes == null) {
+				changes = new LinkedList<>();
+				root.setDocumentChanges(changes);
+			}
+			changes.addAll(textEdit.getDocumentChanges());
+		}
+		if (textEdit.getChanges() != null) {
+			Map<String, List<org.eclipse.lsp4j.TextEdit>> changes = root.getChanges();
+			for (Map.Entry<String, List<org.eclipse.lsp4j.TextEdit>> entry : textEdit.getChanges().entrySet()) {
+				if (changes.containsKey(entry.getKey())) {
+					changes.get(entry.getKey()).addAll(entry.getValue());
+				} else {
+					changes.put(entry.getKey(), entry.getValue());
+				}
 			}
 		}
 	}
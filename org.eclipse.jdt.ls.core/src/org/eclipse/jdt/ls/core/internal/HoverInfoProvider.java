@@ -31,6 +31,12 @@ import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.ITypeParameter;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
@@ -39,6 +45,8 @@ import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.core.BinaryMember;
+import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
+import org.eclipse.jdt.ls.core.internal.hover.HoverCache;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.managers.IBuildSupport;
@@ -106,8 +114,15 @@ public class HoverInfoProvider {
 			} else {
 				curr = elements[0];
 			}
-			boolean resolved = isResolved(curr, monitor);
+			boolean resolved = isResolved(curr, line, column, monitor);
 			if (resolved) {
+				HoverCache cache = HoverCache.getInstance();
+				String stamp = cache.getStamp(curr);
+				List<Either<String, MarkedString>> cached = stamp == null ? null : cache.get(curr, stamp);
+				if (cached != null) {
+					res.addAll(cached);
+					return res;
+				}
 				IBuffer buffer = curr.getOpenable().getBuffer();
 				if (buffer == null && curr instanceof BinaryMember) {
 					IClassFile classFile = ((BinaryMember) curr).getClassFile();
@@ -115,6 +130,7 @@ public class HoverInfoProvider {
 						Optional<IBuildSupport> bs = JavaLanguageServerPlugin.getProjectsManager().getBuildSupport(curr.getJavaProject().getProject());
 						if (bs.isPresent()) {
 							bs.get().discoverSource(classFile, monitor);
+							stamp = cache.getStamp(curr);
 						}
 					}
 				}
@@ -126,6 +142,9 @@ public class HoverInfoProvider {
 				if (javadoc != null && javadoc.getValue() != null) {
 					res.add(Either.forLeft(javadoc.getValue()));
 				}
+				if (stamp != null && !monitor.isCanceled()) {
+					cache.put(curr, stamp, res);
+				}
 			}
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Error computing hover", e);
@@ -133,7 +152,7 @@ public class HoverInfoProvider {
 		return res;
 	}
 
-	private boolean isResolved(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+	private boolean isResolved(IJavaElement element, int line, int column, IProgressMonitor monitor) throws CoreException {
 		if (!(unit instanceof ICompilationUnit)) {
 			return true;
 		}
@@ -143,6 +162,19 @@ public class HoverInfoProvider {
 		if (element.getElementType() != IJavaElement.TYPE) {
 			return true;
 		}
+		// the shared AST of an open document is usually built already, the
+		// other units aren't parsed for a hover
+		CompilationUnit ast = SharedASTProvider.isCached(unit) ? SharedASTProvider.getInstance().getAST(unit, monitor) : null;
+		if (ast != null) {
+			int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+			ASTNode node = offset < 0 ? null : NodeFinder.perform(ast, offset, 0);
+			if (node instanceof Name) {
+				IBinding binding = ((Name) node).resolveBinding();
+				if (binding instanceof ITypeBinding) {
+					return !((ITypeBinding) binding).isRecovered();
+				}
+			}
+		}
 		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.ALL_OCCURRENCES);
 		final boolean[] res = new boolean[1];
 		res[0] = false;
@@ -12,7 +12,10 @@
 package org.eclipse.jdt.ls.core.internal;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -22,6 +25,7 @@ import org.eclipse.jdt.ls.core.internal.lsp.ExecuteCommandProposedClient;
 import org.eclipse.lsp4j.ApplyWorkspaceEditParams;
 import org.eclipse.lsp4j.ApplyWorkspaceEditResponse;
 import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.ExecuteCommandParams;
 import org.eclipse.lsp4j.MessageActionItem;
 import org.eclipse.lsp4j.MessageParams;
@@ -67,6 +71,10 @@ public class JavaClientConnection {
 
 	private final LogHandler logHandler;
 	private final JavaLanguageClient client;
+	/**
+	 * uri -> the diagnostics last published for the uri, when not empty
+	 */
+	private final Map<String, List<Diagnostic>> publishedDiagnostics = new ConcurrentHashMap<>();
 
 	public JavaClientConnection(JavaLanguageClient client) {
 		this.client = client;
@@ -164,9 +172,39 @@ public class JavaClientConnection {
 	}
 
 	public void publishDiagnostics(PublishDiagnosticsParams diagnostics){
+		if (diagnostics.getDiagnostics().isEmpty()) {
+			publishedDiagnostics.remove(diagnostics.getUri());
+		} else {
+			publishedDiagnostics.put(diagnostics.getUri(), new ArrayList<>(diagnostics.getDiagnostics()));
+		}
 		client.publishDiagnostics(diagnostics);
 	}
 
+	/**
+	 * Returns whether the given diagnostics are the ones last published for
+	 * their uri.
+	 *
+	 * @param diagnostics
+	 *            the diagnostics of a uri
+	 * @return <code>true</code> if publishing them would not change the
+	 *         diagnostics of the client
+	 */
+	public boolean isPublished(PublishDiagnosticsParams diagnostics) {
+		List<Diagnostic> published = publishedDiagnostics.get(diagnostics.getUri());
+		return published != null && published.equals(diagnostics.getDiagnostics());
+	}
+
+	/**
+	 * Forgets the diagnostics last published for a uri, such as the ones of a
+	 * closed document, so that the next ones are published whatever they are.
+	 *
+	 * @param uri
+	 *            the uri of the diagnostics
+	 */
+	public void forgetDiagnostics(String uri) {
+		publishedDiagnostics.remove(uri);
+	}
+
 
 	/**
 	 * Sends a message to client to apply the given workspace edit.
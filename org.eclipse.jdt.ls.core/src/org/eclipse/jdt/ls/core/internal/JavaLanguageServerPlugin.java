@@ -102,6 +102,8 @@ public class JavaLanguageServerPlugin extends Plugin {
 	private ProjectsManager projectsManager;
 	private DigestStore digestStore;
 	private ContentProviderManager contentProviderManager;
+	private ServerMetrics metrics;
+	private RequestScheduler requestScheduler;
 
 	private JDTLanguageServer protocol;
 
@@ -145,6 +147,10 @@ public class JavaLanguageServerPlugin extends Plugin {
 			logException(e.getMessage(), e);
 		}
 		contentProviderManager = new ContentProviderManager(preferenceManager);
+		metrics = new ServerMetrics(getStateLocation().append(ServerMetrics.DUMP_FILE).toFile());
+		metrics.install();
+		requestScheduler = new RequestScheduler();
+		metrics.setScheduler(requestScheduler);
 		logInfo(getClass() + " is started");
 		configureProxy();
 	}
@@ -277,6 +283,7 @@ public class JavaLanguageServerPlugin extends Plugin {
 
 	private void startConnection() throws IOException {
 		Launcher<JavaLanguageClient> launcher;
+		// only runs the message reader, the requests are run by the RequestScheduler
 		ExecutorService executorService = Executors.newCachedThreadPool();
 		protocol = new JDTLanguageServer(projectsManager, preferenceManager);
 		if (JDTEnvironmentUtils.inSocketStreamDebugMode()) {
@@ -319,6 +326,14 @@ public class JavaLanguageServerPlugin extends Plugin {
 		JavaLanguageServerPlugin.pluginInstance = null;
 		JavaLanguageServerPlugin.context = null;
 		ResourcesPlugin.getWorkspace().removeSaveParticipant(IConstants.PLUGIN_ID);
+		if (metrics != null) {
+			metrics.uninstall();
+		}
+		if (requestScheduler != null) {
+			requestScheduler.shutdown();
+		}
+		SharedASTProvider.getInstance().dispose();
+		TypeHierarchyCache.getInstance().clear();
 		projectsManager = null;
 		contentProviderManager = null;
 		languageServer = null;
@@ -391,6 +406,20 @@ public class JavaLanguageServerPlugin extends Plugin {
 		return pluginInstance.contentProviderManager;
 	}
 
+	/**
+	 * @return the metrics of the language server
+	 */
+	public static ServerMetrics getMetrics() {
+		return pluginInstance.metrics;
+	}
+
+	/**
+	 * @return the scheduler of the requests of the client
+	 */
+	public static RequestScheduler getRequestScheduler() {
+		return pluginInstance.requestScheduler;
+	}
+
 	/**
 	 * @return the Java Language Server version
 	 */
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with power of two buckets, from 1 microsecond
+ * up to about 36 minutes. Percentiles are reported as the upper bound of the
+ * bucket they fall in, so they are accurate within a factor of 2.
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 32;
+
+	/**
+	 * bucket <code>i</code> counts the samples in
+	 * <code>[2^(i-1), 2^i)</code> microseconds, bucket 0 counts samples under
+	 * 1 microsecond.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Records a sample.
+	 *
+	 * @param nanos
+	 *            the duration, in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets.incrementAndGet(bucket);
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		long max;
+		do {
+			max = maxNanos.get();
+		} while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the mean duration in milliseconds, 0 if there is no sample
+	 */
+	public double getMean() {
+		long samples = count.get();
+		return samples == 0 ? 0 : totalNanos.get() / (samples * 1_000_000d);
+	}
+
+	/**
+	 * @return the max duration in milliseconds
+	 */
+	public double getMax() {
+		return maxNanos.get() / 1_000_000d;
+	}
+
+	/**
+	 * Returns an estimate of the given percentile.
+	 *
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the upper bound of the bucket holding the percentile, in
+	 *         milliseconds, or 0 if there is no sample
+	 */
+	public double getPercentile(double percentile) {
+		long samples = count.get();
+		if (samples == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(samples * Math.min(100, Math.max(0, percentile)) / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank && seen > 0) {
+				return Math.min(getMax(), (1L << i) / 1000d);
+			}
+		}
+		return getMax();
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.2fms, p50=%.2fms, p95=%.2fms, p99=%.2fms, max=%.2fms", getCount(), getMean(), getPercentile(50), getPercentile(95), getPercentile(99), getMax());
+	}
+
+}
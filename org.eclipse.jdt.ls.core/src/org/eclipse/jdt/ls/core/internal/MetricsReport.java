@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A snapshot of the {@link ServerMetrics}, as returned by the
+ * <code>java/metrics</code> request. Durations are in milliseconds and sizes
+ * in bytes.
+ */
+public class MetricsReport {
+
+	/**
+	 * the time of the snapshot, in milliseconds since the epoch
+	 */
+	public long timestamp;
+
+	/**
+	 * the time since the metrics were installed
+	 */
+	public long uptime;
+
+	/**
+	 * request method -> metrics
+	 */
+	public Map<String, Latencies> requests = new LinkedHashMap<>();
+
+	/**
+	 * job family -> metrics
+	 */
+	public Map<String, Latencies> jobs = new LinkedHashMap<>();
+
+	/**
+	 * cache -> metrics
+	 */
+	public Map<String, Cache> caches = new LinkedHashMap<>();
+
+	/**
+	 * the queue of the requests, <code>null</code> if they aren't scheduled
+	 */
+	public Scheduler scheduler;
+
+	public Memory memory = new Memory();
+
+	/**
+	 * garbage collector -> collections
+	 */
+	public Map<String, GarbageCollections> garbageCollectors = new LinkedHashMap<>();
+
+	public static class Latencies {
+
+		public long count;
+
+		public int inFlight;
+
+		public long cancelled;
+
+		public long failed;
+
+		/**
+		 * the time between being received, or scheduled, and being started
+		 */
+		public Histogram queueWait;
+
+		public Histogram execution;
+
+		public Latencies(RequestLatency latency) {
+			count = latency.getCount();
+			inFlight = latency.getInFlight();
+			cancelled = latency.getCancelled();
+			failed = latency.getFailed();
+			queueWait = new Histogram(latency.getQueueWait());
+			execution = new Histogram(latency.getExecution());
+		}
+
+	}
+
+	public static class Histogram {
+
+		public long count;
+
+		public double mean;
+
+		public double p50;
+
+		public double p95;
+
+		public double p99;
+
+		public double max;
+
+		public Histogram(LatencyHistogram histogram) {
+			count = histogram.getCount();
+			mean = histogram.getMean();
+			p50 = histogram.getPercentile(50);
+			p95 = histogram.getPercentile(95);
+			p99 = histogram.getPercentile(99);
+			max = histogram.getMax();
+		}
+
+	}
+
+	public static class Scheduler {
+
+		public int threads;
+
+		/**
+		 * the requests being run
+		 */
+		public int active;
+
+		/**
+		 * the requests waiting for a worker
+		 */
+		public int queueDepth;
+
+		/**
+		 * priority -> requests waiting for a worker
+		 */
+		public Map<String, Integer> queued = new LinkedHashMap<>();
+
+		/**
+		 * the requests cancelled by a later request for the same document
+		 */
+		public long superseded;
+
+		public Scheduler(RequestScheduler scheduler) {
+			threads = scheduler.getThreads();
+			active = scheduler.getActiveCount();
+			queueDepth = scheduler.getQueueDepth();
+			for (RequestScheduler.Priority priority : RequestScheduler.Priority.values()) {
+				queued.put(priority.name().toLowerCase(Locale.ENGLISH), scheduler.getQueueDepth(priority));
+			}
+			superseded = scheduler.getSuperseded();
+		}
+
+	}
+
+	public static class Cache {
+
+		public long hits;
+
+		/**
+		 * the lookups which waited for a value being computed by another one
+		 */
+		public long shared;
+
+		public long misses;
+
+		public long evictions;
+
+		public double hitRate;
+
+		public int entries;
+
+		/**
+		 * the estimated size of the entries
+		 */
+		public long size;
+
+		/**
+		 * the time the values took to be computed
+		 */
+		public Histogram loads;
+
+		public Cache(CacheMetrics metrics) {
+			hits = metrics.getHits();
+			shared = metrics.getShared();
+			misses = metrics.getMisses();
+			evictions = metrics.getEvictions();
+			hitRate = metrics.getHitRate();
+			entries = metrics.getEntries();
+			size = metrics.getSize();
+			loads = new Histogram(metrics.getLoads());
+		}
+
+	}
+
+	public static class Memory {
+
+		public long heapUsed;
+
+		public long heapCommitted;
+
+		/**
+		 * the max heap size, -1 if it's undefined
+		 */
+		public long heapMax;
+
+		public long nonHeapUsed;
+
+	}
+
+	public static class GarbageCollections {
+
+		public long count;
+
+		/**
+		 * the accumulated collection time
+		 */
+		public long time;
+
+	}
+
+}
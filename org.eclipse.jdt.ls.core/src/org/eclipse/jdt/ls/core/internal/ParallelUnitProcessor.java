@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+
+/**
+ * Processes independent items, such as the compilation units affected by a
+ * refactoring, on a bounded pool of workers.
+ *
+ * The progress is reported on the calling thread, one unit of work per item
+ * processed, and the calling thread checks the cancellation while it waits.
+ * The results are returned in the order of the items, whatever the order they
+ * were processed in.
+ *
+ * The workers are separate from the ones of the {@link RequestScheduler}, so
+ * a request waiting for its items never waits for a worker it holds. The
+ * number of workers is set by the <code>jdt.ls.unitThreads</code> system
+ * property, at least 1, and defaults to the number of processors.
+ */
+public final class ParallelUnitProcessor {
+
+	/**
+	 * The system property holding the number of workers
+	 */
+	public static final String UNIT_THREADS = "jdt.ls.unitThreads";
+
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	/**
+	 * how long the calling thread waits for a result before checking the
+	 * cancellation, in milliseconds
+	 */
+	private static final long POLL_MILLIS = 100;
+
+	private static final ThreadPoolExecutor EXECUTOR = createExecutor(Math.max(1, Integer.getInteger(UNIT_THREADS, Runtime.getRuntime().availableProcessors())));
+
+	/**
+	 * The processing of an item.
+	 */
+	@FunctionalInterface
+	public interface UnitTask<T, R> {
+
+		/**
+		 * Processes an item, on a worker.
+		 *
+		 * @param item
+		 *            the item
+		 * @return the result
+		 * @throws CoreException
+		 *             if the item couldn't be processed
+		 */
+		R process(T item) throws CoreException;
+
+	}
+
+	private ParallelUnitProcessor() {
+	}
+
+	/**
+	 * Processes items in parallel. When an item fails or the processing is
+	 * cancelled, the items not started yet are skipped, and the ones being
+	 * processed are waited for, so no item is processed once this method
+	 * returns.
+	 *
+	 * @param items
+	 *            the items
+	 * @param task
+	 *            the processing of an item, which must be safe to run for
+	 *            several items at once
+	 * @param monitor
+	 *            the progress monitor, can be <code>null</code>
+	 * @return the results, in the order of the items
+	 * @throws CoreException
+	 *             if an item couldn't be processed
+	 * @throws OperationCanceledException
+	 *             if the processing was cancelled
+	 */
+	public static <T, R> List<R> process(List<T> items, UnitTask<T, R> task, IProgressMonitor monitor) throws CoreException {
+		SubMonitor progress = SubMonitor.convert(monitor, items.size());
+		if (items.size() <= 1 || EXECUTOR.getMaximumPoolSize() <= 1) {
+			List<R> results = new ArrayList<>(items.size());
+			for (T item : items) {
+				checkCanceled(progress);
+				results.add(task.process(item));
+				progress.worked(1);
+			}
+			return results;
+		}
+		CompletionService<R> completionService = new ExecutorCompletionService<>(EXECUTOR);
+		Map<Future<R>, Integer> indexes = new IdentityHashMap<>(items.size());
+		List<R> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+		AtomicBoolean stopped = new AtomicBoolean();
+		boolean completed = false;
+		try {
+			for (int i = 0; i < items.size(); i++) {
+				T item = items.get(i);
+				indexes.put(completionService.submit(() -> stopped.get() ? null : task.process(item)), i);
+			}
+			for (int done = 0; done < items.size();) {
+				checkCanceled(progress);
+				Future<R> future = completionService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				results.set(indexes.get(future), getResult(future));
+				progress.worked(1);
+				done++;
+			}
+			completed = true;
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			if (!completed) {
+				stopped.set(true);
+				await(indexes.keySet());
+			}
+		}
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	private static <R> R getResult(Future<R> future) throws CoreException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(StatusFactory.newErrorStatus(cause.getMessage(), cause));
+		}
+	}
+
+	/**
+	 * Waits for the items being processed, the others being skipped.
+	 */
+	private static void await(Iterable<? extends Future<?>> futures) {
+		boolean interrupted = false;
+		for (Future<?> future : futures) {
+			while (!future.isDone()) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					// already reported
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static ThreadPoolExecutor createExecutor(int threads) {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "Unit worker " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Latencies of a request type, split between the time the request waited
+ * before being computed and the time it took to compute it, along with the
+ * number of requests received, in flight, cancelled and failed.
+ */
+public class RequestLatency {
+
+	private final String method;
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+	private final LatencyHistogram execution = new LatencyHistogram();
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong cancelled = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	public RequestLatency(String method) {
+		this.method = method;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return the time between the request being received and its computation
+	 *         being started
+	 */
+	public LatencyHistogram getQueueWait() {
+		return queueWait;
+	}
+
+	/**
+	 * @return the time spent computing the request
+	 */
+	public LatencyHistogram getExecution() {
+		return execution;
+	}
+
+	/**
+	 * Counts a received request, until it's {@link #completed(Throwable)}.
+	 *
+	 * @return the time the request was received, in nanoseconds
+	 */
+	public long received() {
+		count.incrementAndGet();
+		inFlight.incrementAndGet();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Counts a request as completed.
+	 *
+	 * @param error
+	 *            the error the request completed with, or <code>null</code>
+	 */
+	public void completed(Throwable error) {
+		inFlight.decrementAndGet();
+		if (error instanceof CompletionException && error.getCause() != null) {
+			error = error.getCause();
+		}
+		if (error instanceof CancellationException || error instanceof OperationCanceledException) {
+			cancelled.incrementAndGet();
+		} else if (error != null) {
+			failed.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return the number of requests received
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the number of requests received and not completed yet
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getCancelled() {
+		return cancelled.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	@Override
+	public String toString() {
+		return method + " count: " + getCount() + ", in flight: " + getInFlight() + ", cancelled: " + getCancelled() + ", failed: " + getFailed() + ", queue wait: [" + queueWait + "], execution: [" + execution + "]";
+	}
+
+}
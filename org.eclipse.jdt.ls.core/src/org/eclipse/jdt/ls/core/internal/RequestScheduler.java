@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4j.jsonrpc.CompletableFutures.FutureCancelChecker;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Runs the requests of the client on a bounded pool of workers.
+ *
+ * The queued requests are run by priority, then in order: the interactive
+ * requests, which the user waits for as they type, go ahead of the others,
+ * and the background requests, which refresh decorations of the editor, go
+ * after them. A request only goes ahead of the ones of a lower priority
+ * queued long enough before it, so that they aren't starved while the user
+ * types. A request for a document supersedes the request of the same method
+ * for the same document which is still queued, and cancels it. A request
+ * which is already running is left running, it's only cancelled by the
+ * client.
+ *
+ * The number of workers is set by the <code>jdt.ls.requestThreads</code>
+ * system property, and defaults to the number of processors, at least 2.
+ */
+public class RequestScheduler {
+
+	/**
+	 * The system property holding the number of workers
+	 */
+	public static final String REQUEST_THREADS = "jdt.ls.requestThreads";
+
+	public enum Priority {
+		INTERACTIVE(0), NORMAL(250), BACKGROUND(2000);
+
+		/**
+		 * how long a request waits at most for the later requests of higher
+		 * priorities, in milliseconds
+		 */
+		private final long delay;
+
+		private Priority(long delay) {
+			this.delay = delay;
+		}
+	}
+
+	private static final Set<String> INTERACTIVE_REQUESTS = ImmutableSet.of("textDocument/completion", "completionItem/resolve", "textDocument/signatureHelp", "textDocument/hover");
+
+	private static final Set<String> BACKGROUND_REQUESTS = ImmutableSet.of("textDocument/codeLens", "codeLens/resolve", "textDocument/foldingRange", "textDocument/documentSymbol", "textDocument/documentHighlight", "workspace/symbol");
+
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private final ThreadPoolExecutor executor;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * the time in nanoseconds
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * method and document -> latest request
+	 */
+	private final Map<String, Task> latest = new ConcurrentHashMap<>();
+
+	private final AtomicInteger[] queued = new AtomicInteger[Priority.values().length];
+
+	private final AtomicLong superseded = new AtomicLong();
+
+	public RequestScheduler() {
+		this(Integer.getInteger(REQUEST_THREADS, Math.max(2, Runtime.getRuntime().availableProcessors())));
+	}
+
+	/**
+	 * @param threads
+	 *            the number of workers
+	 */
+	public RequestScheduler(int threads) {
+		this(threads, System::nanoTime);
+	}
+
+	/**
+	 * @param threads
+	 *            the number of workers
+	 * @param clock
+	 *            the time in nanoseconds
+	 */
+	RequestScheduler(int threads, LongSupplier clock) {
+		this.clock = clock;
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "Request worker " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		for (int i = 0; i < queued.length; i++) {
+			queued[i] = new AtomicInteger();
+		}
+	}
+
+	/**
+	 * @return the priority of the requests of a method
+	 */
+	public static Priority getPriority(String method) {
+		if (INTERACTIVE_REQUESTS.contains(method)) {
+			return Priority.INTERACTIVE;
+		}
+		if (BACKGROUND_REQUESTS.contains(method)) {
+			return Priority.BACKGROUND;
+		}
+		return Priority.NORMAL;
+	}
+
+	/**
+	 * Schedules a request.
+	 *
+	 * @param method
+	 *            the method of the request
+	 * @param uri
+	 *            the document the request supersedes the queued request of
+	 *            the method for, or <code>null</code> if it doesn't supersede
+	 *            any
+	 * @param code
+	 *            the computation of the result, given a checker of the
+	 *            cancellation of the request
+	 * @return the result, which can be cancelled
+	 */
+	public <R> CompletableFuture<R> schedule(String method, String uri, Function<CancelChecker, R> code) {
+		CompletableFuture<R> result = new CompletableFuture<>();
+		CancelChecker checker = new FutureCancelChecker(result);
+		Priority priority = getPriority(method);
+		long deadline = clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(priority.delay);
+		Task task = new Task(priority, deadline, sequence.getAndIncrement(), result, () -> {
+			queued[priority.ordinal()].decrementAndGet();
+			if (result.isDone()) {
+				// cancelled while queued
+				return;
+			}
+			try {
+				result.complete(code.apply(checker));
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		});
+		if (uri != null) {
+			String key = method + ' ' + uri;
+			Task previous = latest.put(key, task);
+			if (previous != null && previous.supersede()) {
+				superseded.incrementAndGet();
+			}
+			result.whenComplete((value, error) -> latest.remove(key, task));
+		}
+		queued[priority.ordinal()].incrementAndGet();
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			queued[priority.ordinal()].decrementAndGet();
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of requests waiting for a worker
+	 */
+	public int getQueueDepth() {
+		int depth = 0;
+		for (AtomicInteger count : queued) {
+			depth += count.get();
+		}
+		return depth;
+	}
+
+	/**
+	 * @return the number of requests of a priority waiting for a worker
+	 */
+	public int getQueueDepth(Priority priority) {
+		return queued[priority.ordinal()].get();
+	}
+
+	/**
+	 * @return the number of requests being run
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public int getThreads() {
+		return executor.getMaximumPoolSize();
+	}
+
+	/**
+	 * @return the number of queued requests cancelled by a later request for
+	 *         the same document
+	 */
+	public long getSuperseded() {
+		return superseded.get();
+	}
+
+	/**
+	 * Stops the workers once the scheduled requests are run.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private static final class Task implements Runnable, Comparable<Task> {
+
+		private final Priority priority;
+
+		/**
+		 * the time the request should be run by, given its priority, in
+		 * nanoseconds
+		 */
+		private final long deadline;
+
+		private final long sequence;
+
+		private final CompletableFuture<?> result;
+
+		private final Runnable runnable;
+
+		/**
+		 * whether the request is run or cancelled
+		 */
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private Task(Priority priority, long deadline, long sequence, CompletableFuture<?> result, Runnable runnable) {
+			this.priority = priority;
+			this.deadline = deadline;
+			this.sequence = sequence;
+			this.result = result;
+			this.runnable = runnable;
+		}
+
+		/**
+		 * Cancels the request if it isn't running yet.
+		 *
+		 * @return whether the request was cancelled
+		 */
+		private boolean supersede() {
+			return claimed.compareAndSet(false, true) && result.cancel(true);
+		}
+
+		@Override
+		public void run() {
+			if (!claimed.compareAndSet(false, true)) {
+				// superseded while queued, it may not be cancelled yet
+				result.cancel(true);
+			}
+			runnable.run();
+		}
+
+		@Override
+		public int compareTo(Task other) {
+			// the deadlines age the requests of lower priorities
+			int result = Long.compare(deadline - other.deadline, 0);
+			if (result == 0) {
+				result = priority.compareTo(other.priority);
+			}
+			return result != 0 ? result : Long.compare(sequence, other.sequence);
+		}
+
+	}
+
+}
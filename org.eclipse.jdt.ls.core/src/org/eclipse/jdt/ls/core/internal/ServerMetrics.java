@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.ls.core.internal.handlers.DocumentLifeCycleHandler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Registry of the language server metrics: the latencies of the requests,
+ * the timings of the document life cycle and build jobs, the hit rates of the
+ * caches, and the heap and garbage collections.
+ *
+ * When the <code>jdt.ls.metrics.dumpInterval</code> system property is set
+ * to a number of seconds, a {@link MetricsReport} is periodically written to
+ * a file, for servers which can't be queried.
+ */
+public class ServerMetrics {
+
+	/**
+	 * The system property holding the interval between two dumps of the
+	 * metrics, in seconds
+	 */
+	public static final String DUMP_INTERVAL = "jdt.ls.metrics.dumpInterval";
+
+	/**
+	 * The name of the file the metrics are dumped to, in the state location
+	 */
+	public static final String DUMP_FILE = "metrics.json";
+
+	/**
+	 * method -> latencies
+	 */
+	private final Map<String, RequestLatency> requests = new ConcurrentHashMap<>();
+
+	/**
+	 * job family name -> family
+	 */
+	private final Map<String, Object> families = new LinkedHashMap<>();
+
+	/**
+	 * job family name -> latencies
+	 */
+	private final Map<String, RequestLatency> jobs = new LinkedHashMap<>();
+
+	/**
+	 * cache name -> metrics
+	 */
+	private final Map<String, CacheMetrics> caches = new LinkedHashMap<>();
+
+	/**
+	 * the jobs of the families which were scheduled, and aren't done yet
+	 */
+	private final Map<Job, JobTiming> jobTimings = new ConcurrentHashMap<>();
+
+	private final IJobChangeListener jobListener = new JobChangeAdapter() {
+
+		@Override
+		public void scheduled(IJobChangeEvent event) {
+			jobScheduled(event.getJob(), event.getDelay());
+		}
+
+		@Override
+		public void running(IJobChangeEvent event) {
+			jobRunning(event.getJob());
+		}
+
+		@Override
+		public void done(IJobChangeEvent event) {
+			jobDone(event.getJob(), event.getResult());
+		}
+	};
+
+	private volatile RequestScheduler scheduler;
+
+	private final File dumpFile;
+
+	private final long dumpInterval;
+
+	private Job dumpJob;
+
+	private volatile long installed = System.currentTimeMillis();
+
+	/**
+	 * @param dumpFile
+	 *            the file to dump the metrics to, or <code>null</code>
+	 */
+	public ServerMetrics(File dumpFile) {
+		this.dumpFile = dumpFile;
+		this.dumpInterval = TimeUnit.SECONDS.toMillis(Long.getLong(DUMP_INTERVAL, 0));
+		addFamily("documentLifeCycle", DocumentLifeCycleHandler.DOCUMENT_LIFE_CYCLE_JOBS);
+		addFamily("publishDiagnostics", DocumentLifeCycleHandler.PUBLISH_DIAGNOSTICS_JOBS);
+		addFamily("autoBuild", ResourcesPlugin.FAMILY_AUTO_BUILD);
+		addFamily("manualBuild", ResourcesPlugin.FAMILY_MANUAL_BUILD);
+		addFamily("updateProject", IConstants.UPDATE_PROJECT_FAMILY);
+		caches.put("ast", SharedASTProvider.getInstance().getMetrics());
+		caches.put("typeHierarchy", TypeHierarchyCache.getInstance().getMetrics());
+	}
+
+	private void addFamily(String name, Object family) {
+		families.put(name, family);
+		jobs.put(name, new RequestLatency(name));
+	}
+
+	/**
+	 * Starts timing the jobs, and dumping the metrics if a dump interval is
+	 * set.
+	 */
+	public synchronized void install() {
+		installed = System.currentTimeMillis();
+		Job.getJobManager().addJobChangeListener(jobListener);
+		if (dumpInterval > 0 && dumpFile != null && dumpJob == null) {
+			dumpJob = new Job("Dump metrics") {
+
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					dump();
+					if (!monitor.isCanceled()) {
+						schedule(dumpInterval);
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			dumpJob.setSystem(true);
+			dumpJob.schedule(dumpInterval);
+		}
+	}
+
+	public synchronized void uninstall() {
+		Job.getJobManager().removeJobChangeListener(jobListener);
+		jobTimings.clear();
+		if (dumpJob != null) {
+			dumpJob.cancel();
+			dumpJob = null;
+			dump();
+		}
+	}
+
+	/**
+	 * Returns the latencies of a request method, created on first use.
+	 *
+	 * @param method
+	 *            the request method, such as
+	 *            <code>textDocument/completion</code>
+	 * @return the latencies
+	 */
+	public RequestLatency getRequest(String method) {
+		return requests.computeIfAbsent(method, RequestLatency::new);
+	}
+
+	/**
+	 * @param family
+	 *            the name of a job family, such as
+	 *            <code>documentLifeCycle</code>
+	 * @return the latencies of the jobs of the family, or <code>null</code>
+	 *         if the family isn't timed
+	 */
+	public RequestLatency getJobs(String family) {
+		return jobs.get(family);
+	}
+
+	/**
+	 * @param cache
+	 *            the name of a cache, such as <code>ast</code>
+	 * @return the metrics of the cache, or <code>null</code> if it isn't
+	 *         measured
+	 */
+	public CacheMetrics getCache(String cache) {
+		return caches.get(cache);
+	}
+
+	/**
+	 * @param scheduler
+	 *            the scheduler of the requests, whose queue is reported
+	 */
+	public void setScheduler(RequestScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * @return a snapshot of the metrics
+	 */
+	public MetricsReport getReport() {
+		MetricsReport report = new MetricsReport();
+		report.timestamp = System.currentTimeMillis();
+		report.uptime = report.timestamp - installed;
+		for (Entry<String, RequestLatency> entry : new TreeMap<>(requests).entrySet()) {
+			report.requests.put(entry.getKey(), new MetricsReport.Latencies(entry.getValue()));
+		}
+		for (Entry<String, RequestLatency> entry : jobs.entrySet()) {
+			report.jobs.put(entry.getKey(), new MetricsReport.Latencies(entry.getValue()));
+		}
+		for (Entry<String, CacheMetrics> entry : caches.entrySet()) {
+			report.caches.put(entry.getKey(), new MetricsReport.Cache(entry.getValue()));
+		}
+		if (scheduler != null) {
+			report.scheduler = new MetricsReport.Scheduler(scheduler);
+		}
+		MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+		MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+		report.memory.heapUsed = heap.getUsed();
+		report.memory.heapCommitted = heap.getCommitted();
+		report.memory.heapMax = heap.getMax();
+		report.memory.nonHeapUsed = memoryBean.getNonHeapMemoryUsage().getUsed();
+		for (GarbageCollectorMXBean collectorBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			MetricsReport.GarbageCollections collections = new MetricsReport.GarbageCollections();
+			collections.count = collectorBean.getCollectionCount();
+			collections.time = collectorBean.getCollectionTime();
+			report.garbageCollectors.put(collectorBean.getName(), collections);
+		}
+		return report;
+	}
+
+	/**
+	 * Writes a snapshot of the metrics, as JSON, to the dump file.
+	 */
+	public void dump() {
+		if (dumpFile == null) {
+			return;
+		}
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		String json = gson.toJson(getReport());
+		try {
+			// replace the previous dump at once, so it can be read at any time
+			File tmpFile = new File(dumpFile.getParentFile(), dumpFile.getName() + ".tmp");
+			Files.write(tmpFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+			Files.move(tmpFile.toPath(), dumpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to dump the metrics to " + dumpFile, e);
+		}
+	}
+
+	private void jobScheduled(Job job, long delay) {
+		JobTiming timing = jobTimings.get(job);
+		if (timing == null) {
+			RequestLatency latency = getLatency(job);
+			if (latency == null) {
+				return;
+			}
+			timing = new JobTiming(latency);
+			jobTimings.put(job, timing);
+		}
+		// the delay the job was scheduled with isn't waiting
+		timing.scheduled = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+	}
+
+	private void jobRunning(Job job) {
+		JobTiming timing = jobTimings.get(job);
+		if (timing != null) {
+			timing.started = System.nanoTime();
+			timing.latency.getQueueWait().record(timing.started - timing.scheduled);
+		}
+	}
+
+	private void jobDone(Job job, IStatus result) {
+		JobTiming timing = jobTimings.remove(job);
+		if (timing == null) {
+			return;
+		}
+		if (timing.started != 0) {
+			timing.latency.getExecution().record(System.nanoTime() - timing.started);
+		}
+		if (result == null || result.isOK()) {
+			timing.latency.completed(null);
+		} else if (result.getSeverity() == IStatus.CANCEL) {
+			timing.latency.completed(new OperationCanceledException());
+		} else if (result.matches(IStatus.ERROR)) {
+			timing.latency.completed(new CoreException(result));
+		} else {
+			timing.latency.completed(null);
+		}
+	}
+
+	private RequestLatency getLatency(Job job) {
+		for (Entry<String, Object> family : families.entrySet()) {
+			if (job.belongsTo(family.getValue())) {
+				return jobs.get(family.getKey());
+			}
+		}
+		return null;
+	}
+
+	private static final class JobTiming {
+
+		private final RequestLatency latency;
+
+		private volatile long scheduled;
+
+		private volatile long started;
+
+		private JobTiming(RequestLatency latency) {
+			this.latency = latency;
+			latency.received();
+		}
+
+	}
+
+}
@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.BufferChangedEvent;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IBufferChangedListener;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+
+/**
+ * ASTs of the open working copies, shared by all the handlers.
+ *
+ * An AST is keyed by its unit and the buffer it was built from, and it's
+ * dropped as soon as the buffer changes. When the unit is reopened, such as
+ * when its document is saved, the AST is kept if the new buffer has the same
+ * contents. The ASTs of the units depending on a changed API are
+ * {@link #invalidate(ICompilationUnit) invalidated} by the document life
+ * cycle. The changes of the Java model only drop the ASTs of the units they
+ * name, unless units, packages or projects are added or removed, or a
+ * classpath changes, in which case the bindings of all the ASTs may be stale.
+ *
+ * The least recently used ASTs are evicted when the estimated size of the
+ * ASTs exceeds the memory budget. When several threads ask for the same AST,
+ * it's only built once.
+ *
+ * The ASTs of the other type roots are provided by {@link CoreASTProvider}.
+ */
+public final class SharedASTProvider {
+
+	/**
+	 * the estimated size of an AST with resolved bindings, besides its nodes
+	 */
+	private static final long AST_OVERHEAD = 1L << 20;
+
+	/**
+	 * the estimated size of the nodes of an AST, per character of the source
+	 */
+	private static final long BYTES_PER_CHARACTER = 50;
+
+	private static final SharedASTProvider INSTANCE = new SharedASTProvider(Runtime.getRuntime().maxMemory() / 16);
+
+	private final long memoryBudget;
+
+	/**
+	 * unit -> AST, in access order, guarded by itself
+	 */
+	private final Map<ICompilationUnit, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long size;
+
+	private final CacheMetrics metrics = new CacheMetrics();
+
+	private final IElementChangedListener listener = event -> processDelta(event.getDelta());
+
+	private final IBufferChangedListener bufferListener = this::bufferChanged;
+
+	private boolean listening;
+
+	/**
+	 * the unit which stopped being a working copy last, and its AST, kept
+	 * until it becomes a working copy again, guarded by {@link #entries}
+	 */
+	private ICompilationUnit detachedUnit;
+
+	private Entry detachedEntry;
+
+	/**
+	 * @param memoryBudget
+	 *            the estimated size of the ASTs above which the least
+	 *            recently used ones are evicted, in bytes
+	 */
+	public SharedASTProvider(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+
+	public static SharedASTProvider getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the AST of a type root, with resolved bindings and statements
+	 * and bindings recovery.
+	 *
+	 * @param input
+	 *            the type root
+	 * @param monitor
+	 *            the progress monitor, can be <code>null</code>
+	 * @return the AST, or <code>null</code> if it couldn't be built or the
+	 *         monitor was cancelled
+	 */
+	public CompilationUnit getAST(ITypeRoot input, IProgressMonitor monitor) {
+		if (!isCached(input)) {
+			return CoreASTProvider.getInstance().getAST(input, CoreASTProvider.WAIT_YES, monitor);
+		}
+		ICompilationUnit unit = (ICompilationUnit) input;
+		IBuffer buffer = getBuffer(unit);
+		if (buffer == null) {
+			return createAST(unit, monitor);
+		}
+		// the changes of the buffer drop its AST, the listener is only added once
+		buffer.addBufferChangedListener(bufferListener);
+		while (true) {
+			Entry entry;
+			boolean build = false;
+			boolean built = false;
+			synchronized (entries) {
+				if (!listening) {
+					JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE);
+					listening = true;
+				}
+				entry = entries.get(unit);
+				if (entry == null || entry.buffer != buffer) {
+					if (entry != null) {
+						remove(unit);
+					}
+					entry = new Entry(buffer);
+					entries.put(unit, entry);
+					build = true;
+				} else {
+					built = entry.built;
+				}
+			}
+			if (build) {
+				metrics.miss();
+				return build(unit, buffer, entry, monitor);
+			}
+			CompilationUnit ast = entry.await(monitor);
+			if (ast != null) {
+				if (built) {
+					metrics.hit();
+				} else {
+					metrics.shared();
+				}
+				return ast;
+			}
+			if ((monitor != null && monitor.isCanceled()) || Thread.currentThread().isInterrupted()) {
+				return null;
+			}
+			// the build was cancelled, build it again
+		}
+	}
+
+	/**
+	 * Drops the AST of a unit.
+	 *
+	 * @param unit
+	 *            the unit
+	 */
+	public void invalidate(ICompilationUnit unit) {
+		synchronized (entries) {
+			remove(unit);
+			if (unit.equals(detachedUnit)) {
+				clearDetached();
+			}
+			updateMetrics();
+		}
+	}
+
+	/**
+	 * Drops all the ASTs.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			size = 0;
+			clearDetached();
+			updateMetrics();
+		}
+	}
+
+	/**
+	 * Drops all the ASTs, and stops listening to the changes of the Java
+	 * model.
+	 */
+	public void dispose() {
+		synchronized (entries) {
+			if (listening) {
+				JavaCore.removeElementChangedListener(listener);
+				listening = false;
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * @return the hits, misses and build times of the ASTs
+	 */
+	public CacheMetrics getMetrics() {
+		return metrics;
+	}
+
+	private CompilationUnit build(ICompilationUnit unit, IBuffer buffer, Entry entry, IProgressMonitor monitor) {
+		CompilationUnit ast = null;
+		long start = System.nanoTime();
+		try {
+			// read before the AST, a change in between drops the entry
+			entry.contents = buffer.getContents();
+			ast = createAST(unit, monitor);
+		} finally {
+			metrics.getLoads().record(System.nanoTime() - start);
+			entry.complete(ast);
+			synchronized (entries) {
+				if (entries.get(unit) == entry) {
+					if (ast == null) {
+						entries.remove(unit);
+					} else {
+						entry.accounted = true;
+						size += entry.size;
+						evict();
+					}
+				}
+				updateMetrics();
+			}
+		}
+		return ast;
+	}
+
+	private static CompilationUnit createAST(ICompilationUnit unit, IProgressMonitor monitor) {
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setResolveBindings(true);
+		parser.setStatementsRecovery(IASTSharedValues.SHARED_AST_STATEMENT_RECOVERY);
+		parser.setBindingsRecovery(IASTSharedValues.SHARED_BINDING_RECOVERY);
+		parser.setSource(unit);
+		try {
+			return (CompilationUnit) parser.createAST(monitor);
+		} catch (OperationCanceledException e) {
+			return null;
+		} catch (IllegalStateException e) {
+			JavaLanguageServerPlugin.logException("Failed to create the AST of " + unit.getElementName(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Evicts the least recently used ASTs until their size fits in the
+	 * budget, keeping the most recent one. Must be called holding
+	 * {@link #entries}.
+	 */
+	private void evict() {
+		for (Iterator<Entry> iterator = entries.values().iterator(); size > memoryBudget && entries.size() > 1 && iterator.hasNext();) {
+			Entry entry = iterator.next();
+			if (entry.accounted) {
+				iterator.remove();
+				size -= entry.size;
+				metrics.evicted();
+			}
+		}
+	}
+
+	/**
+	 * Must be called holding {@link #entries}.
+	 */
+	private void remove(ICompilationUnit unit) {
+		Entry entry = entries.remove(unit);
+		if (entry != null && entry.accounted) {
+			size -= entry.size;
+		}
+	}
+
+	private void updateMetrics() {
+		metrics.setSize(entries.size(), size);
+	}
+
+	/**
+	 * Must be called holding {@link #entries}.
+	 */
+	private void clearDetached() {
+		detachedUnit = null;
+		detachedEntry = null;
+	}
+
+	private void bufferChanged(BufferChangedEvent event) {
+		IBuffer buffer = event.getBuffer();
+		// a closed buffer is handled with the working copy changes
+		if (buffer.isClosed() || !(buffer.getOwner() instanceof ICompilationUnit)) {
+			return;
+		}
+		ICompilationUnit unit = (ICompilationUnit) buffer.getOwner();
+		synchronized (entries) {
+			Entry entry = entries.get(unit);
+			if (entry != null && entry.buffer == buffer) {
+				remove(unit);
+				updateMetrics();
+			}
+			if (unit.equals(detachedUnit)) {
+				// it's being reopened
+				clearDetached();
+			}
+		}
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		if (element.getElementType() == IJavaElement.COMPILATION_UNIT) {
+			processUnitDelta((ICompilationUnit) element, delta);
+		} else if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT)) != 0) {
+			// an element was added or removed, or a classpath changed
+			clear();
+		} else {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				processDelta(child);
+			}
+		}
+	}
+
+	private void processUnitDelta(ICompilationUnit unit, IJavaElementDelta delta) {
+		if (delta.getKind() != IJavaElementDelta.CHANGED) {
+			// the bindings of the other units may refer to it
+			clear();
+		} else if ((delta.getFlags() & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0) {
+			if (unit.isWorkingCopy()) {
+				reattach(unit);
+			} else {
+				detach(unit);
+			}
+		} else if (!unit.isWorkingCopy()) {
+			invalidate(unit);
+		}
+		// otherwise the contents of the working copy come from its buffer,
+		// whose changes drop its AST
+	}
+
+	/**
+	 * Drops the AST of a unit which stopped being a working copy, keeping it
+	 * aside in case the unit is reopened.
+	 */
+	private void detach(ICompilationUnit unit) {
+		synchronized (entries) {
+			Entry entry = entries.get(unit);
+			if (entry == null) {
+				return;
+			}
+			remove(unit);
+			if (entry.accounted && entry.contents != null) {
+				detachedUnit = unit;
+				detachedEntry = entry;
+			}
+			updateMetrics();
+		}
+	}
+
+	/**
+	 * Brings back the AST of a unit which became a working copy again, if it
+	 * has the same contents as when the AST was built.
+	 */
+	private void reattach(ICompilationUnit unit) {
+		Entry entry;
+		synchronized (entries) {
+			if (!unit.equals(detachedUnit)) {
+				return;
+			}
+			entry = detachedEntry;
+		}
+		IBuffer buffer = getBuffer(unit);
+		boolean same = false;
+		if (buffer != null) {
+			// added before reading the contents, a change in between clears the detached AST
+			buffer.addBufferChangedListener(bufferListener);
+			same = entry.contents.equals(buffer.getContents());
+		}
+		synchronized (entries) {
+			if (detachedEntry != entry) {
+				return;
+			}
+			clearDetached();
+			if (same && !entries.containsKey(unit)) {
+				entry.buffer = buffer;
+				entries.put(unit, entry);
+				size += entry.size;
+				evict();
+			}
+			updateMetrics();
+		}
+	}
+
+	/**
+	 * @param input
+	 *            a type root
+	 * @return whether the AST of the type root is cached and shared, rather
+	 *         than built for each caller
+	 */
+	public static boolean isCached(ITypeRoot input) {
+		if (!(input instanceof ICompilationUnit)) {
+			return false;
+		}
+		ICompilationUnit unit = (ICompilationUnit) input;
+		// the working copies of other owners are short lived
+		return unit.isWorkingCopy() && unit.getOwner() == null;
+	}
+
+	private static IBuffer getBuffer(ICompilationUnit unit) {
+		try {
+			IBuffer buffer = unit.getBuffer();
+			return buffer == null || buffer.isClosed() ? null : buffer;
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	private static final class Entry {
+
+		/**
+		 * the buffer the AST is built from, guarded by
+		 * {@link SharedASTProvider#entries}
+		 */
+		private IBuffer buffer;
+
+		/**
+		 * the contents the AST is built from
+		 */
+		private volatile String contents;
+
+		/**
+		 * whether the build is over
+		 */
+		private volatile boolean built;
+
+		/**
+		 * the AST, guarded by this
+		 */
+		private CompilationUnit ast;
+
+		/**
+		 * the estimated size of the AST, once built
+		 */
+		private long size;
+
+		/**
+		 * whether the size is counted in the size of the cache, guarded by
+		 * {@link SharedASTProvider#entries}
+		 */
+		private boolean accounted;
+
+		private Entry(IBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		private synchronized void complete(CompilationUnit ast) {
+			this.ast = ast;
+			if (ast != null) {
+				this.size = AST_OVERHEAD + BYTES_PER_CHARACTER * ast.getLength();
+			}
+			this.built = true;
+			notifyAll();
+		}
+
+		/**
+		 * Waits for the AST to be built.
+		 *
+		 * @return the AST, or <code>null</code> if its build was cancelled or
+		 *         the monitor was cancelled
+		 */
+		private synchronized CompilationUnit await(IProgressMonitor monitor) {
+			while (!built) {
+				if (monitor != null && monitor.isCanceled()) {
+					return null;
+				}
+				try {
+					wait(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return null;
+				}
+			}
+			return ast;
+		}
+
+	}
+
+}
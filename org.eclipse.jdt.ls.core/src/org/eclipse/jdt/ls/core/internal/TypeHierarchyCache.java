@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
+
+/**
+ * Type hierarchies shared by all the handlers.
+ *
+ * The hierarchies are kept live: they listen to the changes of the Java model,
+ * and the ones affected by a change are rebuilt the next time they're needed,
+ * while the others are left intact. A hierarchy handed out is never modified,
+ * so it can be read while its type changes. A full hierarchy also answers the
+ * lookups of the supertype hierarchy of its type.
+ *
+ * Each cached hierarchy listens to all the changes of the Java model, so few
+ * of them are kept: the least recently used hierarchies are evicted when there
+ * are too many of them, or when their estimated size exceeds the memory
+ * budget. The full hierarchies, costly to build, and the supertype
+ * hierarchies, looked up by hovers, have separate budgets, so a burst of
+ * supertype lookups doesn't evict the full hierarchies.
+ */
+public final class TypeHierarchyCache {
+
+	/**
+	 * the estimated size of a hierarchy, per type in it
+	 */
+	private static final long BYTES_PER_TYPE = 500;
+
+	/**
+	 * the number of hierarchies of each kind kept, as many as JDT's
+	 * SuperTypeHierarchyCache
+	 */
+	private static final int MAX_ENTRIES = 8;
+
+	private static final TypeHierarchyCache INSTANCE = new TypeHierarchyCache(Runtime.getRuntime().maxMemory() / 128);
+
+	private final long memoryBudget;
+
+	private final int maxEntries;
+
+	/**
+	 * type -> hierarchy, in access order, guarded by itself
+	 */
+	private final Map<IType, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final Usage fullUsage = new Usage();
+
+	private final Usage supertypeUsage = new Usage();
+
+	private final CacheMetrics metrics = new CacheMetrics();
+
+	/**
+	 * @param memoryBudget
+	 *            the estimated size of the hierarchies of each kind above which
+	 *            the least recently used ones of that kind are evicted, in
+	 *            bytes
+	 */
+	public TypeHierarchyCache(long memoryBudget) {
+		this(memoryBudget, MAX_ENTRIES);
+	}
+
+	/**
+	 * @param memoryBudget
+	 *            the estimated size of the hierarchies of each kind above which
+	 *            the least recently used ones of that kind are evicted, in
+	 *            bytes
+	 * @param maxEntries
+	 *            the number of hierarchies of each kind above which the least
+	 *            recently used ones of that kind are evicted
+	 */
+	public TypeHierarchyCache(long memoryBudget, int maxEntries) {
+		this.memoryBudget = memoryBudget;
+		this.maxEntries = maxEntries;
+	}
+
+	public static TypeHierarchyCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the hierarchy of a type, with all its supertypes and subtypes in
+	 * the workspace.
+	 *
+	 * @param type
+	 *            the type
+	 * @param monitor
+	 *            the progress monitor, can be <code>null</code>
+	 * @return the hierarchy
+	 * @throws JavaModelException
+	 *             if the hierarchy couldn't be built
+	 */
+	public ITypeHierarchy getTypeHierarchy(IType type, IProgressMonitor monitor) throws JavaModelException {
+		return getHierarchy(type, true, monitor);
+	}
+
+	/**
+	 * Returns the hierarchy of a type, with at least all its supertypes.
+	 *
+	 * @param type
+	 *            the type
+	 * @param monitor
+	 *            the progress monitor, can be <code>null</code>
+	 * @return the hierarchy
+	 * @throws JavaModelException
+	 *             if the hierarchy couldn't be built
+	 */
+	public ITypeHierarchy getSupertypeHierarchy(IType type, IProgressMonitor monitor) throws JavaModelException {
+		return getHierarchy(type, false, monitor);
+	}
+
+	/**
+	 * @return a method override tester of a type, using its cached supertype
+	 *         hierarchy, and kept as long as the hierarchy is
+	 * @throws JavaModelException
+	 *             if the hierarchy couldn't be built
+	 */
+	public MethodOverrideTester getMethodOverrideTester(IType type) throws JavaModelException {
+		ITypeHierarchy hierarchy = getSupertypeHierarchy(type, null);
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(type);
+		}
+		if (entry == null) {
+			// evicted meanwhile
+			return new MethodOverrideTester(type, hierarchy);
+		}
+		return entry.getMethodOverrideTester(type, hierarchy);
+	}
+
+	/**
+	 * Drops all the hierarchies.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			for (Entry entry : entries.values()) {
+				entry.dispose();
+			}
+			entries.clear();
+			fullUsage.clear();
+			supertypeUsage.clear();
+			updateMetrics();
+		}
+	}
+
+	/**
+	 * @return the hits, misses and build times of the hierarchies
+	 */
+	public CacheMetrics getMetrics() {
+		return metrics;
+	}
+
+	private ITypeHierarchy getHierarchy(IType type, boolean full, IProgressMonitor monitor) throws JavaModelException {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(type);
+		}
+		if (entry != null && (entry.full || !full)) {
+			ITypeHierarchy hierarchy = entry.get(type, monitor);
+			if (hierarchy != null) {
+				metrics.hit();
+				return hierarchy;
+			}
+			// the type doesn't exist anymore
+			remove(type, entry);
+		}
+		metrics.miss();
+		long start = System.nanoTime();
+		ITypeHierarchy hierarchy;
+		try {
+			hierarchy = full ? type.newTypeHierarchy(monitor) : type.newSupertypeHierarchy(monitor);
+		} finally {
+			metrics.getLoads().record(System.nanoTime() - start);
+		}
+		Entry newEntry = new Entry(this, hierarchy, full);
+		synchronized (entries) {
+			Entry previous = entries.get(type);
+			if (previous != null && previous.full && !full) {
+				// a full hierarchy was built meanwhile
+				newEntry.dispose();
+				return hierarchy;
+			}
+			if (previous != null) {
+				entries.remove(type);
+				getUsage(previous).remove(previous);
+				previous.dispose();
+			}
+			entries.put(type, newEntry);
+			getUsage(newEntry).add(newEntry);
+			evict(getUsage(newEntry), full);
+			updateMetrics();
+		}
+		return hierarchy;
+	}
+
+	private void remove(IType type, Entry entry) {
+		synchronized (entries) {
+			if (entries.get(type) == entry) {
+				entries.remove(type);
+				getUsage(entry).remove(entry);
+				entry.dispose();
+				updateMetrics();
+			}
+		}
+	}
+
+	/**
+	 * Accounts for the new size of a rebuilt hierarchy.
+	 */
+	private void resized(Entry entry, long delta) {
+		synchronized (entries) {
+			if (entries.containsValue(entry)) {
+				getUsage(entry).size += delta;
+				evict(getUsage(entry), entry.full);
+				updateMetrics();
+			}
+		}
+	}
+
+	private Usage getUsage(Entry entry) {
+		return entry.full ? fullUsage : supertypeUsage;
+	}
+
+	/**
+	 * Evicts the least recently used hierarchies of a kind until they fit in
+	 * the budget, keeping the most recent one. Must be called holding
+	 * {@link #entries}.
+	 */
+	private void evict(Usage usage, boolean full) {
+		for (Iterator<Entry> iterator = entries.values().iterator(); (usage.size > memoryBudget || usage.entries > maxEntries) && usage.entries > 1 && iterator.hasNext();) {
+			Entry entry = iterator.next();
+			if (entry.full != full) {
+				continue;
+			}
+			iterator.remove();
+			usage.remove(entry);
+			entry.dispose();
+			metrics.evicted();
+		}
+	}
+
+	private void updateMetrics() {
+		metrics.setSize(entries.size(), fullUsage.size + supertypeUsage.size);
+	}
+
+	/**
+	 * The number and estimated size of the cached hierarchies of a kind.
+	 */
+	private static final class Usage {
+
+		private int entries;
+
+		private long size;
+
+		private void add(Entry entry) {
+			entries++;
+			size += entry.size;
+		}
+
+		private void remove(Entry entry) {
+			entries--;
+			size -= entry.size;
+		}
+
+		private void clear() {
+			entries = 0;
+			size = 0;
+		}
+
+	}
+
+	private static final class Entry implements ITypeHierarchyChangedListener {
+
+		private final TypeHierarchyCache cache;
+
+		/**
+		 * whether the hierarchy has the subtypes
+		 */
+		private final boolean full;
+
+		private volatile ITypeHierarchy hierarchy;
+
+		/**
+		 * the method override tester of the hierarchy, if any
+		 */
+		private MethodOverrideTester tester;
+
+		/**
+		 * the estimated size of the hierarchy, when it was built
+		 */
+		private volatile long size;
+
+		/**
+		 * whether the hierarchy changed since it was built
+		 */
+		private volatile boolean stale;
+
+		private volatile boolean disposed;
+
+		private Entry(TypeHierarchyCache cache, ITypeHierarchy hierarchy, boolean full) {
+			this.cache = cache;
+			this.hierarchy = hierarchy;
+			this.full = full;
+			this.size = estimateSize(hierarchy);
+			hierarchy.addTypeHierarchyChangedListener(this);
+		}
+
+		private static long estimateSize(ITypeHierarchy hierarchy) {
+			return BYTES_PER_TYPE * hierarchy.getAllTypes().length;
+		}
+
+		@Override
+		public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
+			stale = true;
+		}
+
+		/**
+		 * @return the hierarchy, rebuilt if it changed, or <code>null</code>
+		 *         if its type doesn't exist anymore
+		 */
+		private ITypeHierarchy get(IType type, IProgressMonitor monitor) throws JavaModelException {
+			ITypeHierarchy result;
+			long delta = 0;
+			synchronized (this) {
+				if (!stale || disposed) {
+					return hierarchy;
+				}
+				if (!type.exists()) {
+					return null;
+				}
+				// cleared first, so the changes made during the rebuild are not lost
+				stale = false;
+				ITypeHierarchy newHierarchy;
+				long start = System.nanoTime();
+				try {
+					newHierarchy = full ? type.newTypeHierarchy(monitor) : type.newSupertypeHierarchy(monitor);
+				} catch (JavaModelException | RuntimeException e) {
+					stale = true;
+					throw e;
+				} finally {
+					cache.metrics.getLoads().record(System.nanoTime() - start);
+				}
+				// the previous hierarchy is left as is for the callers reading it
+				hierarchy.removeTypeHierarchyChangedListener(this);
+				newHierarchy.addTypeHierarchyChangedListener(this);
+				hierarchy = newHierarchy;
+				if (disposed) {
+					// evicted meanwhile
+					newHierarchy.removeTypeHierarchyChangedListener(this);
+				}
+				tester = null;
+				long newSize = estimateSize(newHierarchy);
+				delta = newSize - size;
+				size = newSize;
+				result = newHierarchy;
+			}
+			// outside of the lock of the entry, the cache locks its entries the other way around
+			if (delta != 0) {
+				cache.resized(this, delta);
+			}
+			return result;
+		}
+
+		private synchronized MethodOverrideTester getMethodOverrideTester(IType type, ITypeHierarchy typeHierarchy) {
+			if (typeHierarchy != hierarchy) {
+				// rebuilt meanwhile
+				return new MethodOverrideTester(type, typeHierarchy);
+			}
+			if (tester == null) {
+				tester = new MethodOverrideTester(type, hierarchy);
+			}
+			return tester;
+		}
+
+		/**
+		 * Stops listening, without waiting for a rebuild in progress.
+		 */
+		private void dispose() {
+			disposed = true;
+			hierarchy.removeTypeHierarchyChangedListener(this);
+		}
+
+	}
+
+}
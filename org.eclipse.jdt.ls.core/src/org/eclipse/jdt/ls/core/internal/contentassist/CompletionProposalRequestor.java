@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ls.core.internal.contentassist;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponse;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponses;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
 
@@ -46,6 +48,7 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	private CompletionResponse response;
 	private boolean fIsTestCodeExcluded;
 	private CompletionContext context;
+	private boolean isComplete = true;
 
 	// Update SUPPORTED_KINDS when mapKind changes
 	// @formatter:off
@@ -110,16 +113,92 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	}
 
 	public List<CompletionItem> getCompletionItems() {
+		return getCompletionItems(response, proposals);
+	}
+
+	/**
+	 * Returns the completion items for a subset of the proposals accepted by
+	 * this requestor, when completion is invoked again at the given offset,
+	 * without running code assist again.
+	 *
+	 * @param subset
+	 *            the proposals to convert
+	 * @param offset
+	 *            the offset completion was invoked at
+	 * @return the completion items
+	 */
+	public List<CompletionItem> getCompletionItems(List<CompletionProposal> subset, int offset) {
+		CompletionResponse narrowed = new CompletionResponse();
+		narrowed.setOffset(offset);
+		narrowed.setContext(context);
+		return getCompletionItems(narrowed, subset);
+	}
+
+	private List<CompletionItem> getCompletionItems(CompletionResponse response, List<CompletionProposal> proposals) {
+		int maxResults = getMaxCompletionResults();
+		isComplete = maxResults == 0 || proposals.size() <= maxResults;
+		if (!isComplete) {
+			proposals = getMostRelevant(proposals, maxResults);
+		}
 		response.setProposals(proposals);
 		CompletionResponses.store(response);
 		List<CompletionItem> completionItems = new ArrayList<>(proposals.size());
 		for (int i = 0; i < proposals.size(); i++) {
-			completionItems.add(toCompletionItem(proposals.get(i), i));
+			completionItems.add(toCompletionItem(response, proposals.get(i), i));
 		}
 		return completionItems;
 	}
 
+	/**
+	 * Returns the <code>max</code> most relevant proposals, in their original
+	 * order.
+	 */
+	private static List<CompletionProposal> getMostRelevant(List<CompletionProposal> proposals, int max) {
+		int[] relevances = new int[proposals.size()];
+		List<Integer> indexes = new ArrayList<>(proposals.size());
+		for (int i = 0; i < proposals.size(); i++) {
+			relevances[i] = SortTextHelper.computeRelevance(proposals.get(i));
+			indexes.add(i);
+		}
+		// stable sort, keeps the code assist order for proposals of same relevance
+		indexes.sort((i1, i2) -> Integer.compare(relevances[i2], relevances[i1]));
+		List<Integer> kept = new ArrayList<>(indexes.subList(0, max));
+		Collections.sort(kept);
+		List<CompletionProposal> result = new ArrayList<>(max);
+		for (Integer index : kept) {
+			result.add(proposals.get(index));
+		}
+		return result;
+	}
+
+	private static int getMaxCompletionResults() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager == null || preferenceManager.getPreferences() == null) {
+			return 0;
+		}
+		return Math.max(0, preferenceManager.getPreferences().getMaxCompletionResults());
+	}
+
+	/**
+	 * @return <code>false</code> if the last completion items returned by this
+	 *         requestor were truncated to the maximum number of results
+	 */
+	public boolean isComplete() {
+		return isComplete;
+	}
+
+	/**
+	 * @return all the proposals accepted by this requestor
+	 */
+	public List<CompletionProposal> getProposals() {
+		return proposals;
+	}
+
 	public CompletionItem toCompletionItem(CompletionProposal proposal, int index) {
+		return toCompletionItem(response, proposal, index);
+	}
+
+	private CompletionItem toCompletionItem(CompletionResponse response, CompletionProposal proposal, int index) {
 		final CompletionItem $ = new CompletionItem();
 		$.setKind(mapKind(proposal));
 		Map<String, String> data = new HashMap<>();
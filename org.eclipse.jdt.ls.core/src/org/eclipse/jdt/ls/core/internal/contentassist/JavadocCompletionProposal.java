@@ -32,9 +32,9 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.manipulation.CodeGeneration;
 import org.eclipse.jdt.internal.core.manipulation.StubUtility;
 import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
-import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.TypeHierarchyCache;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jface.text.BadLocationException;
@@ -269,7 +269,7 @@ public class JavadocCompletionProposal {
 
 	private IMethod getInheritedMethod(IMethod method) throws JavaModelException {
 		IType declaringType = method.getDeclaringType();
-		MethodOverrideTester tester = SuperTypeHierarchyCache.getMethodOverrideTester(declaringType);
+		MethodOverrideTester tester = TypeHierarchyCache.getInstance().getMethodOverrideTester(declaringType);
 		return tester.findOverriddenMethod(method, true);
 	}
 }
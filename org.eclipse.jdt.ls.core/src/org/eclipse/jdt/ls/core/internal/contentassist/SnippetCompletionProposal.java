@@ -33,7 +33,6 @@ import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.Initializer;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.codeassist.InternalCompletionContext;
 import org.eclipse.jdt.internal.codeassist.complete.CompletionOnFieldType;
 import org.eclipse.jdt.internal.codeassist.complete.CompletionOnKeyword2;
@@ -45,6 +44,7 @@ import org.eclipse.jdt.internal.core.manipulation.util.Strings;
 import org.eclipse.jdt.internal.corext.dom.TokenScanner;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.corext.refactoring.structure.ASTNodeSearchUtil;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
 import org.eclipse.jdt.ls.core.internal.preferences.CodeGenerationTemplate;
@@ -126,7 +126,7 @@ public class SnippetCompletionProposal {
 				}
 				if (acceptClass && node instanceof CompletionOnSingleNameReference) {
 					if (completionContext.getEnclosingElement() instanceof IMethod) {
-						CompilationUnit ast = CoreASTProvider.getInstance().getAST(cu, CoreASTProvider.WAIT_YES, null);
+						CompilationUnit ast = SharedASTProvider.getInstance().getAST(cu, null);
 						org.eclipse.jdt.core.dom.ASTNode astNode = ASTNodeSearchUtil.getAstNode(ast, completionContext.getTokenStart(), completionContext.getTokenEnd() - completionContext.getTokenStart() + 1);
 						return (astNode == null || (astNode.getParent() instanceof ExpressionStatement));
 					}
@@ -174,7 +174,7 @@ public class SnippetCompletionProposal {
 						JavaLanguageServerPlugin.logException(e.getMessage(), e);
 					}
 					if (node instanceof CompletionOnSingleNameReference) {
-						CompilationUnit ast = CoreASTProvider.getInstance().getAST(cu, CoreASTProvider.WAIT_YES, null);
+						CompilationUnit ast = SharedASTProvider.getInstance().getAST(cu, null);
 						if (monitor.isCanceled()) {
 							return false;
 						}
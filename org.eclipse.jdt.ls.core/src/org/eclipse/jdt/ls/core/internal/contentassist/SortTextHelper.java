@@ -43,37 +43,48 @@ public final class SortTextHelper {
 	}
 
 	/**
-	 * Computes the relevance for a given <code>CompletionProposal</code>.
+	 * Computes the sort text for a given <code>CompletionProposal</code>.
+	 *
+	 * @param proposal the proposal to compute the sort text for
+	 * @return the sort text for <code>proposal</code>
+	 */
+	public static String computeSortText(CompletionProposal proposal) {
+		return convertRelevance(computeRelevance(proposal));
+	}
+
+	/**
+	 * Computes the relevance for a given <code>CompletionProposal</code>, the
+	 * higher the more relevant.
 	 *
 	 * @param proposal the proposal to compute the relevance for
 	 * @return the relevance for <code>proposal</code>
 	 */
-	public static String computeSortText(CompletionProposal proposal) {
+	public static int computeRelevance(CompletionProposal proposal) {
 		final int baseRelevance= proposal.getRelevance() * 16;
 		switch (proposal.getKind()) {
 		case CompletionProposal.LABEL_REF:
-			return convertRelevance( baseRelevance + 1);
+			return baseRelevance + 1;
 		case CompletionProposal.KEYWORD:
-			return convertRelevance(baseRelevance + 2);
+			return baseRelevance + 2;
 		case CompletionProposal.TYPE_REF:
 		case CompletionProposal.ANONYMOUS_CLASS_DECLARATION:
 		case CompletionProposal.ANONYMOUS_CLASS_CONSTRUCTOR_INVOCATION:
-			return convertRelevance(baseRelevance + 3);
+			return baseRelevance + 3;
 		case CompletionProposal.METHOD_REF:
 		case CompletionProposal.CONSTRUCTOR_INVOCATION:
 		case CompletionProposal.METHOD_NAME_REFERENCE:
 		case CompletionProposal.METHOD_DECLARATION:
 		case CompletionProposal.ANNOTATION_ATTRIBUTE_REF:
 		case CompletionProposal.POTENTIAL_METHOD_DECLARATION:
-			return convertRelevance(baseRelevance + 4);
+			return baseRelevance + 4;
 		case CompletionProposal.FIELD_REF:
-			return convertRelevance(baseRelevance + 5);
+			return baseRelevance + 5;
 		case CompletionProposal.LOCAL_VARIABLE_REF:
 		case CompletionProposal.VARIABLE_DECLARATION:
-			return convertRelevance(baseRelevance + 6);
+			return baseRelevance + 6;
 		case CompletionProposal.PACKAGE_REF://intentional fall-through
 		default:
-			return convertRelevance(baseRelevance);
+			return baseRelevance;
 		}
 	}
 }
@@ -18,8 +18,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Assert;
@@ -53,6 +56,7 @@ import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
 import org.eclipse.jdt.internal.corext.refactoring.util.JavaStatusContext;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 import org.eclipse.jdt.ls.core.internal.Messages;
+import org.eclipse.jdt.ls.core.internal.ParallelUnitProcessor;
 import org.eclipse.jdt.ls.core.internal.corext.SourceRangeFactory;
 import org.eclipse.jdt.ls.core.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.ls.core.internal.corext.refactoring.base.JavaStringStatusContext;
@@ -182,15 +186,35 @@ class RenameAnalyzeUtil {
 		return null;
 	}
 
+	/**
+	 * Creates the working copies of the compilation units with their changes
+	 * applied. The units are reconciled in parallel, one unit of work per unit.
+	 */
 	static ICompilationUnit[] createNewWorkingCopies(ICompilationUnit[] compilationUnitsToModify, TextChangeManager manager, WorkingCopyOwner owner, SubProgressMonitor pm) throws CoreException {
-		pm.beginTask("", compilationUnitsToModify.length); //$NON-NLS-1$
-		ICompilationUnit[] newWorkingCopies= new ICompilationUnit[compilationUnitsToModify.length];
-		for (int i= 0; i < compilationUnitsToModify.length; i++) {
-			ICompilationUnit cu= compilationUnitsToModify[i];
-			newWorkingCopies[i]= createNewWorkingCopy(cu, manager, owner, new SubProgressMonitor(pm, 1));
-		}
-		pm.done();
-		return newWorkingCopies;
+		// the manager isn't thread safe, the changes are looked up beforehand
+		Map<ICompilationUnit, TextChange> changes= new HashMap<>();
+		for (ICompilationUnit cu : compilationUnitsToModify) {
+			changes.put(cu, manager.get(cu));
+		}
+		Queue<ICompilationUnit> created= new ConcurrentLinkedQueue<>();
+		try {
+			List<ICompilationUnit> newWorkingCopies= ParallelUnitProcessor.process(Arrays.asList(compilationUnitsToModify), cu -> {
+				ICompilationUnit newWc= cu.getWorkingCopy(owner, null);
+				created.add(newWc);
+				String previewContent= changes.get(cu).getPreviewContent(new NullProgressMonitor());
+				newWc.getBuffer().setContents(previewContent);
+				newWc.reconcile(ICompilationUnit.NO_AST, false, owner, null);
+				return newWc;
+			}, pm);
+			created.clear();
+			return newWorkingCopies.toArray(new ICompilationUnit[newWorkingCopies.size()]);
+		} finally {
+			// discards the working copies of a failed or cancelled analysis
+			for (ICompilationUnit newWc : created) {
+				newWc.discardWorkingCopy();
+			}
+			pm.done();
+		}
 	}
 
 	static ICompilationUnit createNewWorkingCopy(ICompilationUnit cu, TextChangeManager manager,
@@ -23,6 +23,9 @@ import org.eclipse.ltk.core.refactoring.IUndoManager;
 import org.eclipse.ltk.core.refactoring.NullChange;
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextChange;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.TextEdit;
 
 
 public class ChangeCorrectionProposal {
@@ -157,6 +160,28 @@ public class ChangeCorrectionProposal {
 		return fChange;
 	}
 
+	/**
+	 * Returns whether the change of the proposal is known to be empty, without
+	 * computing it.
+	 *
+	 * @return <code>true</code> if the change was passed in or already computed,
+	 *         and makes no edit
+	 */
+	public final boolean hasEmptyChange() {
+		Change change;
+		synchronized (this) {
+			change = fChange;
+		}
+		if (change instanceof NullChange) {
+			return true;
+		}
+		if (change instanceof TextChange) {
+			TextEdit edit = ((TextChange) change).getEdit();
+			return edit == null || (edit instanceof MultiTextEdit && !edit.hasChildren());
+		}
+		return false;
+	}
+
 	/**
 	 * Creates the change for this proposal.
 	 * This method is only called once and only when no change has been passed in
@@ -18,8 +18,8 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.SimpleName;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.corext.dom.LinkedNodeFinder;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.CodeActionKind;
 import org.eclipse.text.edits.ReplaceEdit;
@@ -43,7 +43,7 @@ public class RenameNodeCorrectionProposal extends CUCorrectionProposal {
 		super.addEdits(doc, root);
 
 		// build a full AST
-		CompilationUnit unit = CoreASTProvider.getInstance().getAST(getCompilationUnit(), CoreASTProvider.WAIT_YES, null);
+		CompilationUnit unit = SharedASTProvider.getInstance().getAST(getCompilationUnit(), null);
 
 		ASTNode name= NodeFinder.perform(unit, fOffset, fLength);
 		if (name instanceof SimpleName) {
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Structural fingerprint of the API a compilation unit exposes to other units:
+ * its types, and their non private methods and fields. Comparing two
+ * fingerprints of the same unit tells which simple names were structurally
+ * changed, in the same spirit as the JDT incremental builder.
+ */
+public final class ApiFingerprint {
+
+	private static final ApiFingerprint EMPTY = new ApiFingerprint(Collections.emptyMap(), Collections.emptyMap());
+
+	/**
+	 * element key -> signature
+	 */
+	private final Map<String, String> signatures;
+
+	/**
+	 * element key -> simple name
+	 */
+	private final Map<String, String> names;
+
+	private ApiFingerprint(Map<String, String> signatures, Map<String, String> names) {
+		this.signatures = signatures;
+		this.names = names;
+	}
+
+	/**
+	 * Computes the fingerprint of the given compilation unit from its current
+	 * (working copy) model.
+	 *
+	 * @param unit
+	 *            the compilation unit
+	 * @return the fingerprint, never <code>null</code>
+	 */
+	public static ApiFingerprint compute(ICompilationUnit unit) {
+		if (unit == null || !unit.exists()) {
+			return EMPTY;
+		}
+		Map<String, String> signatures = new HashMap<>();
+		Map<String, String> names = new HashMap<>();
+		try {
+			for (IType type : unit.getTypes()) {
+				collect(type, signatures, names);
+			}
+		} catch (JavaModelException e) {
+			// the unit can't be read, consider it as having no API
+			return EMPTY;
+		}
+		return new ApiFingerprint(signatures, names);
+	}
+
+	private static void collect(IType type, Map<String, String> signatures, Map<String, String> names) throws JavaModelException {
+		String typeName = type.getFullyQualifiedName('.');
+		StringBuilder typeSignature = new StringBuilder();
+		typeSignature.append(type.getFlags()).append('|');
+		typeSignature.append(type.getSuperclassTypeSignature()).append('|');
+		typeSignature.append(Arrays.toString(type.getSuperInterfaceTypeSignatures())).append('|');
+		typeSignature.append(Arrays.toString(type.getTypeParameterSignatures()));
+		put("T:" + typeName, typeSignature.toString(), type.getElementName(), signatures, names);
+		for (IMethod method : type.getMethods()) {
+			if (Flags.isPrivate(method.getFlags())) {
+				continue;
+			}
+			StringBuilder methodSignature = new StringBuilder();
+			methodSignature.append(method.getFlags()).append('|');
+			methodSignature.append(method.getReturnType()).append('|');
+			methodSignature.append(Arrays.toString(method.getTypeParameterSignatures())).append('|');
+			methodSignature.append(Arrays.toString(method.getExceptionTypes()));
+			put("M:" + typeName + "#" + method.getElementName() + Arrays.toString(method.getParameterTypes()), methodSignature.toString(), method.getElementName(), signatures, names);
+		}
+		for (IField field : type.getFields()) {
+			if (Flags.isPrivate(field.getFlags())) {
+				continue;
+			}
+			String fieldSignature = field.getFlags() + "|" + field.getTypeSignature() + "|" + field.getConstant();
+			put("F:" + typeName + "#" + field.getElementName(), fieldSignature, field.getElementName(), signatures, names);
+		}
+		for (IType memberType : type.getTypes()) {
+			if (!Flags.isPrivate(memberType.getFlags())) {
+				collect(memberType, signatures, names);
+			}
+		}
+	}
+
+	private static void put(String key, String signature, String name, Map<String, String> signatures, Map<String, String> names) {
+		signatures.put(key, signature);
+		names.put(key, name);
+	}
+
+	/**
+	 * Returns the fingerprint of a unit which exposes no API.
+	 *
+	 * @return the empty fingerprint
+	 */
+	public static ApiFingerprint empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Returns the simple names of the elements which were added, removed or
+	 * changed between the given previous fingerprint and this one.
+	 *
+	 * @param previous
+	 *            the previous fingerprint of the same unit
+	 * @return the changed simple names, empty if the API didn't change
+	 */
+	public Set<String> getChangedNames(ApiFingerprint previous) {
+		Set<String> changed = new HashSet<>();
+		for (Entry<String, String> entry : signatures.entrySet()) {
+			if (!entry.getValue().equals(previous.signatures.get(entry.getKey()))) {
+				changed.add(names.get(entry.getKey()));
+			}
+		}
+		for (String key : previous.signatures.keySet()) {
+			if (!signatures.containsKey(key)) {
+				changed.add(previous.names.get(key));
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns whether the given unit may be affected by a structural change of
+	 * the given names in <code>changedUnit</code>: the unit must be able to see
+	 * <code>changedUnit</code> through the resolved classpath of its project,
+	 * including the projects exported by the projects it requires, and its
+	 * source must mention one of the changed names.
+	 *
+	 * @param unit
+	 *            the potentially dependent unit
+	 * @param changedUnit
+	 *            the unit whose API changed
+	 * @param changedNames
+	 *            the simple names that changed
+	 * @return <code>true</code> if <code>unit</code> should be re-validated
+	 * @throws JavaModelException
+	 */
+	public static boolean isAffected(ICompilationUnit unit, ICompilationUnit changedUnit, Set<String> changedNames) throws JavaModelException {
+		if (changedNames.isEmpty() || unit.equals(changedUnit)) {
+			return false;
+		}
+		IJavaProject project = unit.getJavaProject();
+		IJavaProject changedProject = changedUnit.getJavaProject();
+		if (project == null || changedProject == null) {
+			return false;
+		}
+		if (!project.equals(changedProject) && !isRequired(project, changedProject, true, new HashSet<>())) {
+			return false;
+		}
+		String source = unit.getSource();
+		if (source == null) {
+			return false;
+		}
+		for (String name : changedNames) {
+			if (containsIdentifier(source, name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Walks the project entries of the resolved classpath of <code>project</code>,
+	 * and the exported ones of the projects it requires, transitively.
+	 *
+	 * @param all
+	 *            whether the entries which aren't exported are visible too
+	 * @param visited
+	 *            the projects already walked, to break cycles
+	 */
+	private static boolean isRequired(IJavaProject project, IJavaProject requiredProject, boolean all, Set<IJavaProject> visited) throws JavaModelException {
+		if (!visited.add(project) || !project.exists()) {
+			return false;
+		}
+		for (IClasspathEntry entry : project.getResolvedClasspath(true)) {
+			if (entry.getEntryKind() != IClasspathEntry.CPE_PROJECT || !(all || entry.isExported())) {
+				continue;
+			}
+			IJavaProject candidate = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(entry.getPath().lastSegment()));
+			if (candidate.equals(requiredProject) || isRequired(candidate, requiredProject, false, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static boolean containsIdentifier(String source, String name) {
+		if (name == null || name.isEmpty()) {
+			return false;
+		}
+		int index = source.indexOf(name);
+		while (index >= 0) {
+			int end = index + name.length();
+			boolean startsWord = index == 0 || !Character.isJavaIdentifierPart(source.charAt(index - 1));
+			boolean endsWord = end == source.length() || !Character.isJavaIdentifierPart(source.charAt(end));
+			if (startsWord && endsWord) {
+				return true;
+			}
+			index = source.indexOf(name, end);
+		}
+		return false;
+	}
+
+}
@@ -11,10 +11,13 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.CoreException;
@@ -23,12 +26,13 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.ui.text.correction.IProblemLocationCore;
 import org.eclipse.jdt.internal.ui.text.correction.ProblemLocationCore;
 import org.eclipse.jdt.ls.core.internal.ChangeUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
+import org.eclipse.jdt.ls.core.internal.StatusFactory;
 import org.eclipse.jdt.ls.core.internal.TextEditConverter;
 import org.eclipse.jdt.ls.core.internal.corrections.DiagnosticsHelper;
 import org.eclipse.jdt.ls.core.internal.corrections.InnovationContext;
@@ -37,6 +41,7 @@ import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionPropos
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.text.correction.QuickAssistProcessor;
 import org.eclipse.jdt.ls.core.internal.text.correction.SourceAssistProcessor;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeActionContext;
 import org.eclipse.lsp4j.CodeActionParams;
@@ -54,6 +59,8 @@ public class CodeActionHandler {
 
 	public static final String COMMAND_ID_APPLY_EDIT = "java.apply.workspaceEdit";
 
+	public static final String COMMAND_ID_APPLY_CODE_ACTION = "java.edit.applyCodeAction";
+
 	private QuickFixProcessor quickFixProcessor = new QuickFixProcessor();
 
 	private QuickAssistProcessor quickAssistProcessor = new QuickAssistProcessor();
@@ -111,6 +118,21 @@ public class CodeActionHandler {
 			candidates = resultList;
 		}
 
+		long stamp = isLazyEditsEnabled() ? CodeActionProposalCache.getModificationStamp(unit) : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		if (stamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			// the edits are computed once a code action is applied
+			String requestId = CodeActionProposalCache.getInstance().put(unit, stamp, candidates);
+			Set<List<Object>> proposalKeys = new HashSet<>();
+			for (int i = 0; i < candidates.size(); i++) {
+				CUCorrectionProposal proposal = candidates.get(i);
+				if (proposal.hasEmptyChange() || !proposalKeys.add(getProposalKey(proposal))) {
+					continue;
+				}
+				$.add(getLazyCodeActionFromProposal(proposal, requestId, i, params.getContext()));
+			}
+			candidates = Collections.emptyList();
+		}
+
 		try {
 			for (CUCorrectionProposal proposal : candidates) {
 				Optional<Either<Command, CodeAction>> codeActionFromProposal = getCodeActionFromProposal(proposal, params.getContext());
@@ -148,6 +170,57 @@ public class CodeActionHandler {
 		}
 	}
 
+	private Either<Command, CodeAction> getLazyCodeActionFromProposal(CUCorrectionProposal proposal, String requestId, int index, CodeActionContext context) {
+		String name = proposal.getName();
+		Command command = new Command(name, COMMAND_ID_APPLY_CODE_ACTION, Arrays.asList(requestId, Integer.toString(index)));
+		if (preferenceManager.getClientPreferences().isSupportedCodeActionKind(proposal.getKind())) {
+			CodeAction codeAction = new CodeAction(name);
+			codeAction.setKind(proposal.getKind());
+			codeAction.setCommand(command);
+			codeAction.setDiagnostics(context.getDiagnostics());
+			return Either.forRight(codeAction);
+		} else {
+			return Either.forLeft(command);
+		}
+	}
+
+	/**
+	 * Returns the key of a proposal whose edits aren't computed yet. The same
+	 * proposal made twice, such as a quick fix also proposed as a quick
+	 * assist, has the same title, kind and type, and is shown once, while
+	 * distinct proposals sharing a title are all shown.
+	 */
+	private static List<Object> getProposalKey(CUCorrectionProposal proposal) {
+		return Arrays.asList(proposal.getName(), proposal.getKind(), proposal.getClass());
+	}
+
+	private boolean isLazyEditsEnabled() {
+		return preferenceManager.getPreferences().isCodeActionLazyEditsEnabled() && preferenceManager.getClientPreferences().isWorkspaceApplyEditSupported();
+	}
+
+	/**
+	 * Computes the edit of a code action returned by a previous request, when
+	 * it's applied with {@link #COMMAND_ID_APPLY_CODE_ACTION}.
+	 *
+	 * @param arguments
+	 *            the id of the code action request and the index of the code
+	 *            action
+	 * @return the edit of the code action
+	 * @throws CoreException
+	 *             if the document changed since the code action was computed,
+	 *             or its edit cannot be computed
+	 */
+	public static WorkspaceEdit resolveCodeAction(List<Object> arguments) throws CoreException {
+		if (arguments == null || arguments.size() < 2 || !(arguments.get(0) instanceof String) || !(arguments.get(1) instanceof String)) {
+			throw new IllegalArgumentException("Expected the request id and the index of the code action, got " + arguments);
+		}
+		CUCorrectionProposal proposal = CodeActionProposalCache.getInstance().get((String) arguments.get(0), Integer.parseInt((String) arguments.get(1)));
+		if (proposal == null) {
+			throw new CoreException(StatusFactory.newErrorStatus("The code action is outdated, the document changed since it was computed"));
+		}
+		return convertChangeToWorkspaceEdit(proposal.getCompilationUnit(), proposal.getChange());
+	}
+
 
 	private IProblemLocationCore[] getProblemLocationCores(ICompilationUnit unit, List<Diagnostic> diagnostics) {
 		IProblemLocationCore[] locations = new IProblemLocationCore[diagnostics.size()];
@@ -189,7 +262,7 @@ public class CodeActionHandler {
 	}
 
 	private static CompilationUnit getASTRoot(ICompilationUnit unit) {
-		return CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+		return SharedASTProvider.getInstance().getAST(unit, new NullProgressMonitor());
 	}
 
 	private static class CUCorrectionProposalComparator implements Comparator<CUCorrectionProposal> {
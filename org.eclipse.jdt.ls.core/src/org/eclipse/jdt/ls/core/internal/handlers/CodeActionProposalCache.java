@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+/**
+ * Proposals of the most recent code action requests, kept until they're
+ * applied or their document is modified, so their edits are only computed
+ * for the code action the user picks.
+ */
+final class CodeActionProposalCache {
+
+	private static final int MAX_REQUESTS = 4;
+
+	private static final CodeActionProposalCache INSTANCE = new CodeActionProposalCache();
+
+	private final AtomicLong requestIds = new AtomicLong();
+
+	/**
+	 * request id -> proposals
+	 */
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_REQUESTS;
+		}
+	};
+
+	private CodeActionProposalCache() {
+	}
+
+	static CodeActionProposalCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Caches the proposals of a code action request.
+	 *
+	 * @param unit
+	 *            the compilation unit the proposals apply to
+	 * @param stamp
+	 *            the modification stamp of the unit the proposals were
+	 *            computed for
+	 * @param proposals
+	 *            the proposals
+	 * @return the id of the request
+	 */
+	String put(ICompilationUnit unit, long stamp, List<CUCorrectionProposal> proposals) {
+		String requestId = Long.toString(requestIds.incrementAndGet());
+		synchronized (entries) {
+			entries.put(requestId, new Entry(unit, stamp, proposals));
+		}
+		return requestId;
+	}
+
+	/**
+	 * Returns a cached proposal.
+	 *
+	 * @param requestId
+	 *            the id of the code action request
+	 * @param index
+	 *            the index of the proposal in the request
+	 * @return the proposal, or <code>null</code> if it is unknown or its unit
+	 *         was modified since it was computed
+	 */
+	CUCorrectionProposal get(String requestId, int index) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(requestId);
+		}
+		if (entry == null || index < 0 || index >= entry.proposals.size()) {
+			return null;
+		}
+		if (entry.stamp != getModificationStamp(entry.unit)) {
+			synchronized (entries) {
+				entries.remove(requestId);
+			}
+			return null;
+		}
+		return entry.proposals.get(index);
+	}
+
+	/**
+	 * Returns the modification stamp of the document of the given unit.
+	 *
+	 * @param unit
+	 *            a compilation unit
+	 * @return the modification stamp of the document, or
+	 *         {@link IDocumentExtension4#UNKNOWN_MODIFICATION_STAMP} if the unit
+	 *         isn't backed by a document tracking its modifications
+	 */
+	static long getModificationStamp(ICompilationUnit unit) {
+		try {
+			IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
+			if (document instanceof IDocumentExtension4) {
+				return ((IDocumentExtension4) document).getModificationStamp();
+			}
+		} catch (JavaModelException e) {
+			// unknown
+		}
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
+	private static final class Entry {
+		private final ICompilationUnit unit;
+		private final long stamp;
+		private final List<CUCorrectionProposal> proposals;
+
+		private Entry(ICompilationUnit unit, long stamp, List<CUCorrectionProposal> proposals) {
+			this.unit = unit;
+			this.stamp = stamp;
+			this.proposals = proposals;
+		}
+	}
+
+}
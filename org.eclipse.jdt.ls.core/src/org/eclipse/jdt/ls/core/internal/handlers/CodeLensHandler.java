@@ -14,8 +14,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -25,6 +27,7 @@ import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
@@ -33,11 +36,13 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.MethodReferenceMatch;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.core.search.TypeReferenceMatch;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -95,7 +100,7 @@ public class CodeLensHandler {
 				IJavaElement element = JDTUtils.findElementAtSelection(typeRoot, position.getLine(), position.getCharacter(), this.preferenceManager, monitor);
 				if (REFERENCES_TYPE.equals(type)) {
 					try {
-						locations = findReferences(element, monitor);
+						locations = getReferences(typeRoot, element, monitor);
 					} catch (CoreException e) {
 						JavaLanguageServerPlugin.logException(e.getMessage(), e);
 					}
@@ -134,6 +139,135 @@ public class CodeLensHandler {
 		return searcher.findImplementations(monitor);
 	}
 
+	/**
+	 * Returns the references of the given code lens target. The references of
+	 * all the code lens targets of the type root are searched at once, and
+	 * cached until the workspace changes, so resolving the other code lenses of
+	 * the type root doesn't search again.
+	 */
+	private List<Location> getReferences(ITypeRoot typeRoot, IJavaElement element, IProgressMonitor monitor) throws CoreException {
+		if (element == null) {
+			return Collections.emptyList();
+		}
+		ReferencesCodeLensCache cache = ReferencesCodeLensCache.getInstance();
+		List<Location> locations = cache.get(typeRoot, element);
+		if (locations != null) {
+			return locations;
+		}
+		long stamp = cache.getModificationStamp();
+		Map<String, List<Location>> references = findReferences(typeRoot, monitor);
+		if (monitor.isCanceled()) {
+			return Collections.emptyList();
+		}
+		cache.put(typeRoot, stamp, references);
+		locations = references.get(element.getHandleIdentifier());
+		return locations != null ? locations : findReferences(element, monitor);
+	}
+
+	/**
+	 * Searches the references of all the code lens targets of the given type
+	 * root with a single search. Matches are attributed to their target by the
+	 * name they reference, so the targets sharing their name with another one,
+	 * like overloaded methods and constructors, are searched separately.
+	 *
+	 * @return element handle -> references
+	 */
+	private Map<String, List<Location>> findReferences(ITypeRoot typeRoot, IProgressMonitor monitor) throws CoreException {
+		List<IJavaElement> targets = new ArrayList<>();
+		collectReferencesTargets(typeRoot.getChildren(), targets);
+		Map<String, List<Location>> references = new HashMap<>();
+		Map<String, IJavaElement> types = new HashMap<>();
+		Map<String, IJavaElement> methods = new HashMap<>();
+		List<IJavaElement> separateTargets = new ArrayList<>();
+		Map<String, Integer> nameCounts = new HashMap<>();
+		for (IJavaElement target : targets) {
+			nameCounts.merge(target.getElementType() + target.getElementName(), 1, Integer::sum);
+		}
+		for (IJavaElement target : targets) {
+			references.put(target.getHandleIdentifier(), new ArrayList<>());
+			if (nameCounts.get(target.getElementType() + target.getElementName()) > 1 || (target instanceof IMethod && ((IMethod) target).isConstructor())) {
+				separateTargets.add(target);
+			} else {
+				(target instanceof IType ? types : methods).put(target.getElementName(), target);
+			}
+		}
+		SearchPattern pattern = null;
+		for (IJavaElement target : targets) {
+			if (!separateTargets.contains(target)) {
+				SearchPattern targetPattern = SearchPattern.createPattern(target, IJavaSearchConstants.REFERENCES);
+				if (targetPattern != null) {
+					pattern = pattern == null ? targetPattern : SearchPattern.createOrPattern(pattern, targetPattern);
+				}
+			}
+		}
+		if (pattern != null) {
+			boolean[] unattributed = new boolean[1];
+			SearchEngine engine = new SearchEngine();
+			engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, createSearchScope(), new SearchRequestor() {
+
+				@Override
+				public void acceptSearchMatch(SearchMatch match) throws CoreException {
+					Object o = match.getElement();
+					if (o instanceof IJavaElement) {
+						IJavaElement element = (IJavaElement) o;
+						ICompilationUnit compilationUnit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+						if (compilationUnit == null) {
+							return;
+						}
+						String name = getReferencedName(compilationUnit.getBuffer().getText(match.getOffset(), match.getLength()));
+						IJavaElement target = null;
+						if (match instanceof TypeReferenceMatch) {
+							target = types.get(name);
+						} else if (match instanceof MethodReferenceMatch) {
+							target = methods.get(name);
+						}
+						if (target == null) {
+							unattributed[0] = true;
+							return;
+						}
+						Location location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
+						references.get(target.getHandleIdentifier()).add(location);
+					}
+				}
+			}, monitor);
+			if (unattributed[0]) {
+				// fall back to separate searches rather than reporting wrong counts
+				separateTargets = targets;
+			}
+		}
+		for (IJavaElement target : separateTargets) {
+			if (monitor.isCanceled()) {
+				break;
+			}
+			references.put(target.getHandleIdentifier(), findReferences(target, monitor));
+		}
+		return references;
+	}
+
+	/**
+	 * Returns the simple name referenced by the source range of a reference
+	 * match, like <code>Bar</code> for <code>foo.Bar&lt;String&gt;</code> or
+	 * <code>bar</code> for <code>bar(1, 2)</code>.
+	 */
+	static String getReferencedName(String text) {
+		int end = text.length();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '<' || c == '(') {
+				end = i;
+				break;
+			}
+		}
+		while (end > 0 && !Character.isJavaIdentifierPart(text.charAt(end - 1))) {
+			end--;
+		}
+		int start = end;
+		while (start > 0 && Character.isJavaIdentifierPart(text.charAt(start - 1))) {
+			start--;
+		}
+		return text.substring(start, end);
+	}
+
 	private List<Location> findReferences(IJavaElement element, IProgressMonitor monitor)
 			throws JavaModelException, CoreException {
 		if (element == null) {
@@ -204,16 +338,8 @@ public class CodeLensHandler {
 			}
 			if (element.getElementType() == IJavaElement.TYPE) {
 				collectCodeLenses(typeRoot, ((IType) element).getChildren(), lenses, monitor);
-			} else if (element.getElementType() == IJavaElement.METHOD) {
-				if (JDTUtils.isHiddenGeneratedElement(element)) {
-					continue;
-				}
-				//ignore element if method range overlaps the type range, happens for generated bytcode, i.e. with lombok
-				IJavaElement parentType = element.getAncestor(IJavaElement.TYPE);
-				if (parentType != null && overlaps(((ISourceReference) parentType).getNameRange(), ((ISourceReference) element).getNameRange())) {
-					continue;
-				}
-			} else {//neither a type nor a method, we bail
+			}
+			if (!isCodeLensTarget(element)) {
 				continue;
 			}
 
@@ -235,6 +361,32 @@ public class CodeLensHandler {
 		}
 	}
 
+	private void collectReferencesTargets(IJavaElement[] elements, List<IJavaElement> targets) throws JavaModelException {
+		for (IJavaElement element : elements) {
+			if (element.getElementType() == IJavaElement.TYPE) {
+				collectReferencesTargets(((IType) element).getChildren(), targets);
+			}
+			if (isCodeLensTarget(element)) {
+				targets.add(element);
+			}
+		}
+	}
+
+	private boolean isCodeLensTarget(IJavaElement element) throws JavaModelException {
+		if (element.getElementType() == IJavaElement.TYPE) {
+			return true;
+		} else if (element.getElementType() == IJavaElement.METHOD) {
+			if (JDTUtils.isHiddenGeneratedElement(element)) {
+				return false;
+			}
+			//ignore element if method range overlaps the type range, happens for generated bytcode, i.e. with lombok
+			IJavaElement parentType = element.getAncestor(IJavaElement.TYPE);
+			return parentType == null || !overlaps(((ISourceReference) parentType).getNameRange(), ((ISourceReference) element).getNameRange());
+		}
+		//neither a type nor a method, we bail
+		return false;
+	}
+
 	private boolean overlaps(ISourceRange typeRange, ISourceRange methodRange) {
 		if (typeRange == null || methodRange == null) {
 			return false;
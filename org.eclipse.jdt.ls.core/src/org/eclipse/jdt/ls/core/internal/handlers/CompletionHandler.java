@@ -40,12 +40,13 @@ public class CompletionHandler{
 
 	Either<List<CompletionItem>, CompletionList> completion(CompletionParams position,
 			IProgressMonitor monitor) {
+		CompletionList $ = new CompletionList();
 		List<CompletionItem> completionItems = null;
 		try {
 			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
 			completionItems = this.computeContentAssist(unit,
 					position.getPosition().getLine(),
-					position.getPosition().getCharacter(), monitor);
+					position.getPosition().getCharacter(), $, monitor);
 		} catch (OperationCanceledException ignorable) {
 			// No need to pollute logs when query is cancelled
 			monitor.setCanceled(true);
@@ -53,7 +54,6 @@ public class CompletionHandler{
 			JavaLanguageServerPlugin.logException("Problem with codeComplete for " +  position.getTextDocument().getUri(), e);
 			monitor.setCanceled(true);
 		}
-		CompletionList $ = new CompletionList();
 		if (monitor.isCanceled()) {
 			$.setIsIncomplete(true);
 			completionItems = null;
@@ -65,7 +65,7 @@ public class CompletionHandler{
 		return Either.forRight($);
 	}
 
-	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) throws JavaModelException {
+	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, CompletionList completionList, IProgressMonitor monitor) throws JavaModelException {
 		CompletionResponses.clear();
 		if (unit == null) {
 			return Collections.emptyList();
@@ -73,6 +73,15 @@ public class CompletionHandler{
 		List<CompletionItem> proposals = new ArrayList<>();
 
 		final int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+		String source = unit.getBuffer() == null ? null : unit.getBuffer().getContents();
+		if (source != null && offset > -1) {
+			// the user kept typing the same identifier, filter the proposals of the previous request
+			CompletionSession session = CompletionSession.get(unit, source, offset);
+			if (session != null) {
+				return session.getCompletionItems(source, offset, completionList);
+			}
+		}
+		CompletionSession.clear();
 		CompletionProposalRequestor collector = new CompletionProposalRequestor(unit, offset);
 		// Allow completions for unresolved types - since 3.3
 		collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_REF, true);
@@ -113,8 +122,16 @@ public class CompletionHandler{
 				try {
 					unit.codeComplete(offset, collector, subMonitor);
 					proposals.addAll(collector.getCompletionItems());
-					proposals.addAll(SnippetCompletionProposal.getSnippets(unit, collector.getContext(), subMonitor));
-					proposals.addAll(new JavadocCompletionProposal().getProposals(unit, offset, collector, subMonitor));
+					// more proposals than the max results, the client must ask again as the user types
+					completionList.setIsIncomplete(!collector.isComplete());
+					List<CompletionItem> snippets = SnippetCompletionProposal.getSnippets(unit, collector.getContext(), subMonitor);
+					List<CompletionItem> javadocProposals = new JavadocCompletionProposal().getProposals(unit, offset, collector, subMonitor);
+					proposals.addAll(snippets);
+					proposals.addAll(javadocProposals);
+					// snippets and javadoc proposals depend on the exact token, they're not reused
+					if (source != null && snippets.isEmpty() && javadocProposals.isEmpty() && !subMonitor.isCanceled()) {
+						CompletionSession.store(unit, collector, source, offset);
+					}
 				} catch (OperationCanceledException e) {
 					monitor.setCanceled(true);
 				}
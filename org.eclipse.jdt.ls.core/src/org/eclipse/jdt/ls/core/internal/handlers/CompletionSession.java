@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.CompletionContext;
+import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequestor;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+
+/**
+ * Proposals computed by a code assist invocation, kept so the next completion
+ * requests, sent while the user keeps typing the same identifier, are answered
+ * by filtering them instead of running code assist again.
+ *
+ * A session is only reused when the document is unchanged except for
+ * identifier characters appended to the completed token. Code assist filtered
+ * the proposals on that token, so a deletion or an edit within the token runs
+ * code assist again.
+ */
+public class CompletionSession {
+
+	private static volatile CompletionSession current;
+
+	private final ICompilationUnit unit;
+	private final IBuffer buffer;
+	private final CompletionProposalRequestor collector;
+	private final String source;
+	private final int tokenStart;
+	private final int offset;
+	private final boolean substringMatch;
+	private final String[] favoriteMembers;
+	private final boolean snippetsSupported;
+
+	/**
+	 * offset the replace ranges of the proposals are currently computed for
+	 */
+	private int rangeOffset;
+
+	private CompletionSession(ICompilationUnit unit, CompletionProposalRequestor collector, String source, int tokenStart, int offset) {
+		this.unit = unit;
+		this.buffer = getBuffer(unit);
+		this.collector = collector;
+		this.source = source;
+		this.tokenStart = tokenStart;
+		this.offset = offset;
+		this.rangeOffset = offset;
+		this.favoriteMembers = getFavoriteMembers();
+		this.snippetsSupported = isSnippetSupported();
+		IJavaProject project = unit.getJavaProject();
+		this.substringMatch = project != null && JavaCore.ENABLED.equals(project.getOption(JavaCore.CODEASSIST_SUBSTRING_MATCH, true));
+	}
+
+	/**
+	 * Returns the session that can answer a completion request at the given
+	 * offset, or <code>null</code> if code assist must run.
+	 */
+	static CompletionSession get(ICompilationUnit unit, String source, int offset) {
+		CompletionSession session = current;
+		if (session != null && session.isValidFor(unit, source, offset)) {
+			return session;
+		}
+		return null;
+	}
+
+	/**
+	 * Remembers the proposals collected by code assist for the next requests,
+	 * when they can be filtered on the client token.
+	 */
+	static void store(ICompilationUnit unit, CompletionProposalRequestor collector, String source, int offset) {
+		current = null;
+		CompletionContext context = collector.getContext();
+		if (context == null || context.isInJavadoc() || context.getTokenKind() != CompletionContext.TOKEN_KIND_NAME) {
+			return;
+		}
+		int tokenStart = context.getTokenStart();
+		char[] token = context.getToken();
+		if (tokenStart < 0 || tokenStart > offset || offset > source.length() || token == null || token.length != offset - tokenStart) {
+			return;
+		}
+		if (!isIdentifier(source, tokenStart, offset)) {
+			return;
+		}
+		current = new CompletionSession(unit, collector, source, tokenStart, offset);
+	}
+
+	/**
+	 * Forgets the current session, so the next completion request runs code
+	 * assist.
+	 */
+	public static void clear() {
+		current = null;
+	}
+
+	private boolean isValidFor(ICompilationUnit unit, String newSource, int newOffset) {
+		// a new buffer means the working copy was discarded in between
+		if (!this.unit.equals(unit) || buffer == null || buffer != getBuffer(unit) || newOffset < offset) {
+			return false;
+		}
+		// proposals depend on these preferences
+		if (!Arrays.equals(favoriteMembers, getFavoriteMembers()) || snippetsSupported != isSnippetSupported()) {
+			return false;
+		}
+		int delta = newOffset - offset;
+		if (newSource.length() != source.length() + delta) {
+			return false;
+		}
+		// everything before the cursor, token included, and after it must be unchanged
+		if (!newSource.regionMatches(0, source, 0, offset)) {
+			return false;
+		}
+		if (!newSource.regionMatches(newOffset, source, offset, source.length() - offset)) {
+			return false;
+		}
+		return isIdentifier(newSource, tokenStart, newOffset);
+	}
+
+	private static IBuffer getBuffer(ICompilationUnit unit) {
+		try {
+			return unit.getBuffer();
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	private static String[] getFavoriteMembers() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		return preferenceManager == null ? null : preferenceManager.getPreferences().getJavaCompletionFavoriteMembers();
+	}
+
+	private static boolean isSnippetSupported() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		return preferenceManager != null && preferenceManager.getClientPreferences() != null && preferenceManager.getClientPreferences().isCompletionSnippetsSupported();
+	}
+
+	private static boolean isIdentifier(String source, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = source.charAt(i);
+			if (i == start ? !Character.isJavaIdentifierStart(c) : !Character.isJavaIdentifierPart(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the completion items of the proposals matching the token typed so
+	 * far at the given offset, and flags the completion list as incomplete when
+	 * they were truncated.
+	 */
+	List<CompletionItem> getCompletionItems(String newSource, int newOffset, CompletionList completionList) {
+		char[] prefix = newSource.substring(tokenStart, newOffset).toCharArray();
+		List<CompletionProposal> matches = new ArrayList<>();
+		synchronized (this) {
+			int shift = newOffset - rangeOffset;
+			for (CompletionProposal proposal : collector.getProposals()) {
+				if (shift != 0) {
+					shiftRanges(proposal, shift);
+				}
+				if (matches(prefix, getMatchName(proposal))) {
+					matches.add(proposal);
+				}
+			}
+			rangeOffset = newOffset;
+			List<CompletionItem> items = collector.getCompletionItems(matches, newOffset);
+			completionList.setIsIncomplete(!collector.isComplete());
+			return items;
+		}
+	}
+
+	private void shiftRanges(CompletionProposal proposal, int shift) {
+		if (proposal.getReplaceEnd() >= rangeOffset) {
+			proposal.setReplaceRange(proposal.getReplaceStart(), proposal.getReplaceEnd() + shift);
+		}
+		if (proposal.getTokenEnd() >= rangeOffset) {
+			proposal.setTokenRange(proposal.getTokenStart(), proposal.getTokenEnd() + shift);
+		}
+		CompletionProposal[] requiredProposals = proposal.getRequiredProposals();
+		if (requiredProposals != null) {
+			for (CompletionProposal requiredProposal : requiredProposals) {
+				shiftRanges(requiredProposal, shift);
+			}
+		}
+	}
+
+	private boolean matches(char[] prefix, char[] name) {
+		if (name == null) {
+			return false;
+		}
+		if (prefix.length == 0) {
+			return true;
+		}
+		return CharOperation.prefixEquals(prefix, name, false) || CharOperation.camelCaseMatch(prefix, name) || (substringMatch && CharOperation.substringMatch(prefix, name));
+	}
+
+	/**
+	 * Returns the name code assist matched against the completion token for the
+	 * given proposal.
+	 */
+	private static char[] getMatchName(CompletionProposal proposal) {
+		switch (proposal.getKind()) {
+			case CompletionProposal.TYPE_REF:
+			case CompletionProposal.JAVADOC_TYPE_REF:
+				char[] signature = proposal.getSignature();
+				if (signature == null) {
+					break;
+				}
+				char[] simpleName = Signature.getSignatureSimpleName(signature);
+				int genericStart = CharOperation.indexOf(Signature.C_GENERIC_START, simpleName);
+				return genericStart < 0 ? simpleName : CharOperation.subarray(simpleName, 0, genericStart);
+			case CompletionProposal.PACKAGE_REF:
+				return proposal.getDeclarationSignature();
+			default:
+				char[] name = proposal.getName();
+				if (name != null && name.length > 0) {
+					return name;
+				}
+				break;
+		}
+		char[] completion = proposal.getCompletion();
+		if (completion == null) {
+			return null;
+		}
+		int end = 0;
+		while (end < completion.length && Character.isJavaIdentifierPart(completion[end])) {
+			end++;
+		}
+		return CharOperation.subarray(completion, 0, end);
+	}
+
+}
@@ -15,8 +15,10 @@ import static com.google.common.collect.Lists.newArrayList;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
@@ -42,13 +44,13 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
-import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
 import org.eclipse.jdt.ls.core.internal.ActionableNotification;
 import org.eclipse.jdt.ls.core.internal.DocumentAdapter;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService;
 import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService.HighlightedPositionDiffContext;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
@@ -56,9 +58,6 @@ import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences.Severity;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.BadPositionCategoryException;
-import org.eclipse.jface.text.Document;
-import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.Command;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
@@ -66,6 +65,7 @@ import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
 import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticHighlightingInformation;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 import org.eclipse.text.edits.DeleteEdit;
@@ -74,8 +74,6 @@ import org.eclipse.text.edits.MalformedTreeException;
 import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEdit;
 
-import com.google.common.collect.Iterables;
-
 public class DocumentLifeCycleHandler {
 
 	public static final String DOCUMENT_LIFE_CYCLE_JOBS = "DocumentLifeCycleJobs";
@@ -84,17 +82,19 @@ public class DocumentLifeCycleHandler {
 	private PreferenceManager preferenceManager;
 	private ProjectsManager projectsManager;
 
-	private CoreASTProvider sharedASTProvider;
+	private SharedASTProvider sharedASTProvider;
 	private WorkspaceJob validationTimer;
 	private WorkspaceJob publishDiagnosticsJob;
 	private Set<ICompilationUnit> toReconcile = new HashSet<>();
+	private Set<ICompilationUnit> toPublish = new HashSet<>();
+	private Map<ICompilationUnit, ApiFingerprint> apiFingerprints = new HashMap<>();
 	private SemanticHighlightingService semanticHighlightingService;
 
 	public DocumentLifeCycleHandler(JavaClientConnection connection, PreferenceManager preferenceManager, ProjectsManager projectsManager, boolean delayValidation) {
 		this.connection = connection;
 		this.preferenceManager = preferenceManager;
 		this.projectsManager = projectsManager;
-		this.sharedASTProvider = CoreASTProvider.getInstance();
+		this.sharedASTProvider = SharedASTProvider.getInstance();
 		this.semanticHighlightingService = new SemanticHighlightingService(this.connection, this.sharedASTProvider, this.preferenceManager);
 		if (delayValidation) {
 			this.validationTimer = new WorkspaceJob("Validate documents") {
@@ -137,7 +137,6 @@ public class DocumentLifeCycleHandler {
 	private void triggerValidation(ICompilationUnit cu, long delay) throws JavaModelException {
 		synchronized (toReconcile) {
 			toReconcile.add(cu);
-			sharedASTProvider.setActiveJavaElement(cu);
 		}
 		if (validationTimer != null) {
 			validationTimer.cancel();
@@ -163,10 +162,15 @@ public class DocumentLifeCycleHandler {
 		}
 		// first reconcile all units with content changes
 		SubMonitor progress = SubMonitor.convert(monitor, cusToReconcile.size() + 1);
+		Set<ICompilationUnit> affected = new HashSet<>(cusToReconcile);
 		for (ICompilationUnit cu : cusToReconcile) {
 			cu.reconcile(ICompilationUnit.NO_AST, true, null, progress.newChild(1));
+			affected.addAll(collectDependents(cu));
+		}
+		JavaLanguageServerPlugin.logInfo("Reconciled " + cusToReconcile.size() + ", " + (affected.size() - cusToReconcile.size()) + " dependent(s) to validate. Took " + (System.currentTimeMillis() - start) + " ms");
+		synchronized (toPublish) {
+			toPublish.addAll(affected);
 		}
-		JavaLanguageServerPlugin.logInfo("Reconciled " + toReconcile.size() + ". Took " + (System.currentTimeMillis() - start) + " ms");
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
@@ -184,37 +188,88 @@ public class DocumentLifeCycleHandler {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Returns the open working copies that need to be re-validated because the
+	 * public API of the given, freshly reconciled unit changed, and drops their
+	 * shared ASTs.
+	 */
+	private List<ICompilationUnit> collectDependents(ICompilationUnit cu) throws JavaModelException {
+		ApiFingerprint fingerprint = ApiFingerprint.compute(cu);
+		ApiFingerprint previous;
+		synchronized (apiFingerprints) {
+			previous = apiFingerprints.put(cu, fingerprint);
+		}
+		// when the unit was just opened, its content may differ from what the other units were validated against
+		Set<String> changedNames = fingerprint.getChangedNames(previous == null ? ApiFingerprint.empty() : previous);
+		List<ICompilationUnit> dependents = new ArrayList<>();
+		if (changedNames.isEmpty()) {
+			return dependents;
+		}
+		for (ICompilationUnit workingCopy : JavaCore.getWorkingCopies(null)) {
+			if (ApiFingerprint.isAffected(workingCopy, cu, changedNames)) {
+				// the bindings of its AST may be stale
+				sharedASTProvider.invalidate(workingCopy);
+				dependents.add(workingCopy);
+			}
+		}
+		return dependents;
+	}
+
 	private IStatus publishDiagnostics(IProgressMonitor monitor) throws JavaModelException {
 		long start = System.currentTimeMillis();
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
-		this.sharedASTProvider.disposeAST();
-		List<ICompilationUnit> toValidate = Arrays.asList(JavaCore.getWorkingCopies(null));
+		Set<ICompilationUnit> affected;
+		synchronized (toPublish) {
+			affected = new HashSet<>(toPublish);
+			toPublish.clear();
+		}
+		// keep the order of the working copies, so the diagnostics are published consistently
+		List<ICompilationUnit> workingCopies = Arrays.asList(JavaCore.getWorkingCopies(null));
+		List<ICompilationUnit> toValidate = new ArrayList<>();
+		for (ICompilationUnit workingCopy : workingCopies) {
+			if (affected.contains(workingCopy)) {
+				toValidate.add(workingCopy);
+			}
+		}
 		SubMonitor progress = SubMonitor.convert(monitor, toValidate.size() + 1);
 		List<CompilationUnit> astRoots = new ArrayList<>();
 		if (monitor.isCanceled()) {
+			reschedulePublish(toValidate);
 			return Status.CANCEL_STATUS;
 		}
 		for (ICompilationUnit rootToValidate : toValidate) {
-			CompilationUnit astRoot = this.sharedASTProvider.getAST(rootToValidate, CoreASTProvider.WAIT_YES, monitor);
+			CompilationUnit astRoot = this.sharedASTProvider.getAST(rootToValidate, monitor);
 			astRoots.add(astRoot);
 			if (monitor.isCanceled()) {
+				reschedulePublish(toValidate);
 				return Status.CANCEL_STATUS;
 			}
 		}
-		for (CompilationUnit astRoot : astRoots) {
+		for (int i = 0; i < astRoots.size(); i++) {
 			if (monitor.isCanceled()) {
+				reschedulePublish(toValidate.subList(i, toValidate.size()));
 				return Status.CANCEL_STATUS;
 			}
 			// report errors, even if there are no problems in the file: The client need to know that they got fixed.
-			ICompilationUnit unit = (ICompilationUnit) astRoot.getTypeRoot();
+			ICompilationUnit unit = (ICompilationUnit) astRoots.get(i).getTypeRoot();
 			publishDiagnostics(unit, progress.newChild(1));
 		}
-		JavaLanguageServerPlugin.logInfo("Validated " + toValidate.size() + ". Took " + (System.currentTimeMillis() - start) + " ms");
+		JavaLanguageServerPlugin.logInfo("Validated " + toValidate.size() + " of " + workingCopies.size() + " open working copies. Took " + (System.currentTimeMillis() - start) + " ms");
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Keeps the units that couldn't be validated by a cancelled job, so the next
+	 * validation cycle picks them up.
+	 */
+	private void reschedulePublish(List<ICompilationUnit> units) {
+		synchronized (toPublish) {
+			toPublish.addAll(units);
+		}
+	}
+
 	private void publishDiagnostics(ICompilationUnit unit, IProgressMonitor monitor) throws JavaModelException {
 		final DiagnosticsHandler handler = new DiagnosticsHandler(connection, unit);
 		WorkingCopyOwner wcOwner = new WorkingCopyOwner() {
@@ -354,7 +409,7 @@ public class DocumentLifeCycleHandler {
 			installSemanticHighlightings(unit);
 			// see https://github.com/redhat-developer/vscode-java/issues/274
 			checkPackageDeclaration(uri, unit);
-		} catch (JavaModelException | BadPositionCategoryException e) {
+		} catch (JavaModelException e) {
 			JavaLanguageServerPlugin.logException("Error while opening document. URI: " + uri, e);
 		}
 	}
@@ -368,11 +423,9 @@ public class DocumentLifeCycleHandler {
 		}
 
 		try {
-			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
-				sharedASTProvider.disposeAST();
-			}
+			sharedASTProvider.invalidate(unit);
 			List<TextDocumentContentChangeEvent> contentChanges = params.getContentChanges();
-			List<HighlightedPositionDiffContext> diffContexts = newArrayList();
+			List<SemanticHighlightingInformation> highlightingInfos = newArrayList();
 			for (TextDocumentContentChangeEvent changeEvent : contentChanges) {
 
 				Range range = changeEvent.getRange();
@@ -398,31 +451,21 @@ public class DocumentLifeCycleHandler {
 					edit = new ReplaceEdit(startOffset, length, text);
 				}
 
+				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 				// Avoid any computation if the `SemanticHighlightingService#isEnabled` is `false`.
 				if (semanticHighlightingService.isEnabled()) {
-					IDocument oldState = new Document(unit.getBuffer().getContents());
-					IDocument newState = JsonRpcHelpers.toDocument(unit.getBuffer());
-					//@formatter:off
-					List<HighlightedPositionCore> oldPositions = diffContexts.isEmpty()
-						? semanticHighlightingService.getHighlightedPositions(uri)
-						: Iterables.getLast(diffContexts).newPositions;
-					//@formatter:on
-					edit.apply(newState, TextEdit.NONE);
-					// This is a must. Make the document immutable.
-					// Otherwise, any consecutive `newStates` get out-of-sync due to the shared buffer from the compilation unit.
-					newState = new Document(newState.get());
-					List<HighlightedPositionCore> newPositions = semanticHighlightingService.calculateHighlightedPositions(unit, true);
-					DocumentEvent event = new DocumentEvent(newState, startOffset, length, text);
-					diffContexts.add(new HighlightedPositionDiffContext(oldState, event, oldPositions, newPositions));
+					// the edit is described against the document before it's applied
+					HighlightedPositionDiffContext context = new HighlightedPositionDiffContext(document, startOffset, length, text);
+					edit.apply(document, TextEdit.NONE);
+					highlightingInfos.addAll(semanticHighlightingService.reconcile(unit, context));
 				} else {
-					IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 					edit.apply(document, TextEdit.NONE);
 				}
 
 			}
 			triggerValidation(unit);
-			updateSemanticHighlightings(params.getTextDocument(), diffContexts);
-		} catch (JavaModelException | MalformedTreeException | BadLocationException | BadPositionCategoryException e) {
+			updateSemanticHighlightings(params.getTextDocument(), highlightingInfos);
+		} catch (JavaModelException | MalformedTreeException | BadLocationException e) {
 			JavaLanguageServerPlugin.logException("Error while handling document change. URI: " + uri, e);
 		}
 	}
@@ -437,6 +480,14 @@ public class DocumentLifeCycleHandler {
 			synchronized (toReconcile) {
 				toReconcile.remove(unit);
 			}
+			synchronized (toPublish) {
+				toPublish.remove(unit);
+			}
+			synchronized (apiFingerprints) {
+				apiFingerprints.remove(unit);
+			}
+			// the markers of the unit are published again from now on
+			connection.forgetDiagnostics(ResourceUtils.toClientUri(JDTUtils.toURI(unit)));
 			if (JDTUtils.isDefaultProject(unit) || !JDTUtils.isOnClassPath(unit) || unit.getResource().isDerived()) {
 				new DiagnosticsHandler(connection, unit).clearDiagnostics();
 			} else if (hasUnsavedChanges(unit)) {
@@ -444,9 +495,7 @@ public class DocumentLifeCycleHandler {
 				unit.becomeWorkingCopy(new NullProgressMonitor());
 				publishDiagnostics(unit, new NullProgressMonitor());
 			}
-			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
-				sharedASTProvider.disposeAST();
-			}
+			sharedASTProvider.invalidate(unit);
 			unit.discardWorkingCopy();
 			if (JDTUtils.isDefaultProject(unit)) {
 				File f = new File(unit.getUnderlyingResource().getLocationURI());
@@ -497,7 +546,7 @@ public class DocumentLifeCycleHandler {
 	private ICompilationUnit checkPackageDeclaration(String uri, ICompilationUnit unit) {
 		if (unit.getResource() != null && unit.getJavaProject() != null && unit.getJavaProject().getProject().getName().equals(ProjectsManager.DEFAULT_PROJECT_NAME)) {
 			try {
-				CompilationUnit astRoot = CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+				CompilationUnit astRoot = sharedASTProvider.getAST(unit, new NullProgressMonitor());
 				IProblem[] problems = astRoot.getProblems();
 				for (IProblem problem : problems) {
 					if (problem.getID() == IProblem.PackageIsNotExpectedPackage) {
@@ -519,9 +568,7 @@ public class DocumentLifeCycleHandler {
 						}
 						if (toRemove) {
 							file.delete(true, new NullProgressMonitor());
-							if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
-								sharedASTProvider.disposeAST();
-							}
+							sharedASTProvider.invalidate(unit);
 							unit.discardWorkingCopy();
 							unit = JDTUtils.resolveCompilationUnit(uri);
 							unit.becomeWorkingCopy(new NullProgressMonitor());
@@ -538,7 +585,7 @@ public class DocumentLifeCycleHandler {
 		return unit;
 	}
 
-	protected void installSemanticHighlightings(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException {
+	protected void installSemanticHighlightings(ICompilationUnit unit) throws JavaModelException {
 		this.semanticHighlightingService.install(unit);
 	}
 
@@ -546,8 +593,8 @@ public class DocumentLifeCycleHandler {
 		this.semanticHighlightingService.uninstall(uri);
 	}
 
-	protected void updateSemanticHighlightings(VersionedTextDocumentIdentifier textDocument, List<HighlightedPositionDiffContext> diffContexts) throws BadLocationException, BadPositionCategoryException, JavaModelException {
-		this.semanticHighlightingService.update(textDocument, diffContexts);
+	protected void updateSemanticHighlightings(VersionedTextDocumentIdentifier textDocument, List<SemanticHighlightingInformation> infos) {
+		this.semanticHighlightingService.update(textDocument, infos);
 	}
 
 }
@@ -22,17 +22,18 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.compiler.env.IModule;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
+import org.eclipse.jdt.ls.core.internal.managers.FormatterManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -94,20 +95,34 @@ public class FormatterHandler {
 			return Collections.emptyList();
 		}
 
-		return format(cu, document, region, options, preferenceManager.getPreferences().isJavaFormatComments(), monitor);
+		return format(cu, document, region, options, preferenceManager.getPreferences().isJavaFormatComments(), false, monitor);
 	}
 
-	private List<org.eclipse.lsp4j.TextEdit> format(ICompilationUnit cu, IDocument document, IRegion region, FormattingOptions options, boolean includeComments, IProgressMonitor monitor) {
+	private List<org.eclipse.lsp4j.TextEdit> format(ICompilationUnit cu, IDocument document, IRegion region, FormattingOptions options, boolean includeComments, boolean onType, IProgressMonitor monitor) {
 		if (cu == null || document == null || region == null || monitor.isCanceled()) {
 			return Collections.emptyList();
 		}
 
-		CodeFormatter formatter = ToolFactory.createCodeFormatter(getOptions(options, cu));
-
-		String lineDelimiter = TextUtilities.getDefaultLineDelimiter(document);
-		String sourceToFormat = document.get();
-		int kind = getFormattingKind(cu, includeComments);
-		TextEdit format = formatter.format(kind, sourceToFormat, region.getOffset(), region.getLength(), 0, lineDelimiter);
+		Map<String, String> eclipseOptions = getOptions(options, cu);
+		CodeFormatter formatter = FormatterManager.acquireFormatter(eclipseOptions);
+		TextEdit format;
+		try {
+			String lineDelimiter = TextUtilities.getDefaultLineDelimiter(document);
+			int kind = getFormattingKind(cu, includeComments);
+			// members aligned on columns depend on each other
+			boolean memberScoped = onType && (kind & CodeFormatter.K_COMPILATION_UNIT) != 0 && !DefaultCodeFormatterConstants.TRUE.equals(eclipseOptions.get(DefaultCodeFormatterConstants.FORMATTER_ALIGN_TYPE_MEMBERS_ON_COLUMNS));
+			MemberSource member = memberScoped ? getMemberSource(cu, document, region, lineDelimiter) : null;
+			if (member != null) {
+				format = formatter.format(kind, member.source, region.getOffset() - member.delta, region.getLength(), 0, lineDelimiter);
+				if (format != null) {
+					format.moveTree(member.delta);
+				}
+			} else {
+				format = formatter.format(kind, document.get(), region.getOffset(), region.getLength(), 0, lineDelimiter);
+			}
+		} finally {
+			FormatterManager.releaseFormatter(eclipseOptions, formatter);
+		}
 		if (format == null || format.getChildren().length == 0 || monitor.isCanceled()) {
 			// nothing to return
 			return Collections.<org.eclipse.lsp4j.TextEdit>emptyList();
@@ -116,6 +131,103 @@ public class FormatterHandler {
 		return convertEdits(flatEdit.getChildren(), document);
 	}
 
+	/**
+	 * Returns the source of the member of a class, interface, enum or
+	 * annotation type enclosing the given region, so the formatter parses much
+	 * less than the whole file when a single member is edited. The member is
+	 * preceded by the source of the file up to the body of the top level type,
+	 * the headers of the enclosing member types, and the previous member of the
+	 * same type, so it's formatted in the context it has in the file.
+	 *
+	 * @return the member source, or <code>null</code> if the region isn't
+	 *         enclosed in such a member
+	 */
+	private static MemberSource getMemberSource(ICompilationUnit cu, IDocument document, IRegion region, String lineDelimiter) {
+		CompilationUnit astRoot = SharedASTProvider.getInstance().getAST(cu, null);
+		if (astRoot == null || astRoot.getLength() != document.getLength()) {
+			// the shared AST doesn't match the document being edited
+			return null;
+		}
+		try {
+			return getMemberSource(document, astRoot.types(), region, new StringBuilder(), 0, lineDelimiter);
+		} catch (BadLocationException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+		}
+		return null;
+	}
+
+	/**
+	 * @param declarations
+	 *            the top level types, or the body declarations of a type
+	 * @param source
+	 *            the source preceding the body declarations
+	 * @param depth
+	 *            the number of types enclosing the body declarations
+	 */
+	private static MemberSource getMemberSource(IDocument document, List<?> declarations, IRegion region, StringBuilder source, int depth, String lineDelimiter) throws BadLocationException {
+		int regionEnd = region.getOffset() + region.getLength();
+		for (int i = 0; i < declarations.size(); i++) {
+			ASTNode node = (ASTNode) declarations.get(i);
+			int start = getLineStart(document, node.getStartPosition());
+			int end = getLineEnd(document, node.getStartPosition() + node.getLength());
+			if (start < 0 || end < 0 || region.getOffset() < start || end < regionEnd) {
+				continue;
+			}
+			if (node instanceof AbstractTypeDeclaration) {
+				List<?> members = ((AbstractTypeDeclaration) node).bodyDeclarations();
+				// enum constants are kept with the header
+				int bodyOffset = members.isEmpty() ? -1 : getLineStart(document, ((ASTNode) members.get(0)).getStartPosition());
+				if (bodyOffset >= 0 && bodyOffset <= region.getOffset()) {
+					int length = source.length();
+					int headerOffset = depth == 0 ? 0 : start;
+					source.append(document.get(headerOffset, bodyOffset - headerOffset));
+					MemberSource member = getMemberSource(document, members, region, source, depth + 1, lineDelimiter);
+					if (member != null) {
+						return member;
+					}
+					source.setLength(length);
+				}
+			}
+			if (depth == 0) {
+				// a whole top level type
+				return null;
+			}
+			// the formatting of a member depends on the kind of the previous one
+			int contextStart = i == 0 ? start : getLineStart(document, ((ASTNode) declarations.get(i - 1)).getStartPosition());
+			if (contextStart < 0) {
+				return null;
+			}
+			int delta = contextStart - source.length();
+			source.append(document.get(contextStart, end - contextStart));
+			for (int j = 0; j < depth; j++) {
+				source.append(lineDelimiter).append(CLOSING_BRACE);
+			}
+			source.append(lineDelimiter);
+			return new MemberSource(source.toString(), delta);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the start of the line of the given offset, or -1 if the line
+	 *         doesn't start with the offset, ignoring whitespaces
+	 */
+	private static int getLineStart(IDocument document, int offset) throws BadLocationException {
+		int lineStart = document.getLineOffset(document.getLineOfOffset(offset));
+		return document.get(lineStart, offset - lineStart).trim().isEmpty() ? lineStart : -1;
+	}
+
+	/**
+	 * @return the end of the line of the given offset, line delimiter
+	 *         excluded, or -1 if the line doesn't end with the offset, ignoring
+	 *         whitespaces
+	 */
+	private static int getLineEnd(IDocument document, int offset) throws BadLocationException {
+		IRegion line = document.getLineInformationOfOffset(offset);
+		int lineEnd = line.getOffset() + line.getLength();
+		return document.get(offset, lineEnd - offset).trim().isEmpty() ? lineEnd : -1;
+	}
+
 	private int getFormattingKind(ICompilationUnit cu, boolean includeComments) {
 		int kind = includeComments ? CodeFormatter.F_INCLUDE_COMMENTS : 0;
 		if (cu.getResource() != null && cu.getResource().getName().equals(IModule.MODULE_INFO_JAVA)) {
@@ -171,6 +283,21 @@ public class FormatterHandler {
 		}
 	}
 
+	private static final class MemberSource {
+		private final String source;
+
+		/**
+		 * offset of the member in the document, relative to its offset in the
+		 * source
+		 */
+		private final int delta;
+
+		private MemberSource(String source, int delta) {
+			this.source = source;
+			this.delta = delta;
+		}
+	}
+
 	private static List<org.eclipse.lsp4j.TextEdit> convertEdits(TextEdit[] edits, IDocument document) {
 		return Arrays.stream(edits).map(t -> convertEdit(t, document)).collect(Collectors.toList());
 	}
@@ -224,7 +351,7 @@ public class FormatterHandler {
 		if (region == null) {
 			return Collections.emptyList();
 		}
-		return format(cu, document, region, options, false, monitor);
+		return format(cu, document, region, options, false, true, monitor);
 	}
 
 	private IRegion getRegion(ICompilationUnit cu, IDocument document, Position position, String trigger) {
@@ -276,7 +403,7 @@ public class FormatterHandler {
 
 			if (triggerChar == CLOSING_BRACE) {
 				//Format whole block, from beginning of line to end of last line
-				CompilationUnit astRoot = CoreASTProvider.getInstance().getAST(cu, CoreASTProvider.WAIT_YES, null);
+				CompilationUnit astRoot = SharedASTProvider.getInstance().getAST(cu, null);
 				NodeFinder finder = new NodeFinder(astRoot, offset, length);
 				ASTNode block = finder.getCoveredNode();
 				if (block == null) {
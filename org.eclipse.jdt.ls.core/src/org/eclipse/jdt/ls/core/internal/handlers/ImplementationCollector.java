@@ -42,7 +42,6 @@ import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SuperMethodInvocation;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
@@ -56,6 +55,8 @@ import org.eclipse.jdt.internal.corext.util.JdtFlags;
 import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.Messages;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
+import org.eclipse.jdt.ls.core.internal.TypeHierarchyCache;
 import org.eclipse.jface.text.IRegion;
 
 
@@ -124,7 +125,7 @@ public class ImplementationCollector<T> {
 		try {
 			String typeLabel = JavaElementLabelsCore.getElementLabel(type, JavaElementLabelsCore.DEFAULT_QUALIFIED);
 			monitor.beginTask(Messages.format(JavaElementImplementationHyperlink_search_method_implementors, typeLabel), 10);
-			IType[] allTypes = type.newTypeHierarchy(monitor).getAllSubtypes(type);
+			IType[] allTypes = TypeHierarchyCache.getInstance().getTypeHierarchy(type, monitor).getAllSubtypes(type);
 			results = Arrays.stream(allTypes).map(el -> mapper.convert(el, 0, 0)).filter(Objects::nonNull).collect(Collectors.toList());
 			if (monitor.isCanceled()) {
 				throw new OperationCanceledException();
@@ -150,7 +151,7 @@ public class ImplementationCollector<T> {
 			typeRoot = (IClassFile) method.getAncestor(IJavaElement.CLASS_FILE);
 		}
 
-		CompilationUnit ast = CoreASTProvider.getInstance().getAST(typeRoot, CoreASTProvider.WAIT_YES, monitor);
+		CompilationUnit ast = SharedASTProvider.getInstance().getAST(typeRoot, monitor);
 		if (ast == null) {
 			return null;
 		}
@@ -269,7 +270,7 @@ public class ImplementationCollector<T> {
 	 * @since 3.6
 	 */
 	private static boolean isFullHierarchyNeeded(IProgressMonitor monitor, IMethod method, IType receiverType) throws JavaModelException {
-		ITypeHierarchy superTypeHierarchy= receiverType.newSupertypeHierarchy(monitor);
+		ITypeHierarchy superTypeHierarchy= TypeHierarchyCache.getInstance().getSupertypeHierarchy(receiverType, monitor);
 		MethodOverrideTester methodOverrideTester= new MethodOverrideTester(receiverType, superTypeHierarchy);
 		return methodOverrideTester.findOverriddenMethodInType(receiverType, method) == null;
 	}
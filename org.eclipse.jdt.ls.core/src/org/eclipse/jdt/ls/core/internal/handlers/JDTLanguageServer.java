@@ -22,6 +22,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -47,6 +48,10 @@ import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.JobHelpers;
 import org.eclipse.jdt.ls.core.internal.LanguageServerWorkingCopyOwner;
+import org.eclipse.jdt.ls.core.internal.MetricsReport;
+import org.eclipse.jdt.ls.core.internal.RequestLatency;
+import org.eclipse.jdt.ls.core.internal.RequestScheduler;
+import org.eclipse.jdt.ls.core.internal.ServerMetrics;
 import org.eclipse.jdt.ls.core.internal.ServiceStatus;
 import org.eclipse.jdt.ls.core.internal.codemanipulation.GenerateGetterSetterOperation.AccessorField;
 import org.eclipse.jdt.ls.core.internal.handlers.GenerateAccessorsHandler.GenerateAccessorsParams;
@@ -117,7 +122,6 @@ import org.eclipse.lsp4j.WillSaveTextDocumentParams;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
-import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.services.JsonDelegate;
 import org.eclipse.lsp4j.services.LanguageServer;
@@ -147,6 +151,10 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 
 	private ProgressReporterManager progressReporterManager;
 
+	private final ServerMetrics metrics;
+
+	private final RequestScheduler scheduler;
+
 	public LanguageServerWorkingCopyOwner getWorkingCopyOwner() {
 		return workingCopyOwner;
 	}
@@ -155,6 +163,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		this.pm = projects;
 		this.preferenceManager = preferenceManager;
 		this.jvmConfigurator = new JVMConfigurator();
+		this.metrics = JavaLanguageServerPlugin.getMetrics();
+		this.scheduler = JavaLanguageServerPlugin.getRequestScheduler();
 		JavaRuntime.addVMInstallChangedListener(jvmConfigurator);
 	}
 
@@ -243,7 +253,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 				try {
 					JobHelpers.waitForBuildJobs(60 * 60 * 1000); // 1 hour
 					logInfo(">> build jobs finished");
-					workspaceDiagnosticsHandler = new WorkspaceDiagnosticsHandler(JDTLanguageServer.this.client, pm);
+					workspaceDiagnosticsHandler = new WorkspaceDiagnosticsHandler(JDTLanguageServer.this.client, pm, true);
 					workspaceDiagnosticsHandler.publishDiagnostics(monitor);
 					workspaceDiagnosticsHandler.addResourceChangeListener();
 					pm.registerWatchers();
@@ -316,7 +326,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<Object> shutdown() {
 		logInfo(">> shutdown");
-		return computeAsync((monitor) -> {
+		return computeAsync("shutdown", (monitor) -> {
 			try {
 				JavaRuntime.removeVMInstallChangedListener(jvmConfigurator);
 				if (workspaceDiagnosticsHandler != null) {
@@ -372,7 +382,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params) {
 		logInfo(">> workspace/symbol");
 		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("workspace/symbol", (monitor) -> {
 			return handler.search(params.getQuery(), monitor);
 		});
 	}
@@ -439,7 +449,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Object> executeCommand(ExecuteCommandParams params) {
 		logInfo(">> workspace/executeCommand " + (params == null ? null : params.getCommand()));
 		WorkspaceExecuteCommandHandler handler = new WorkspaceExecuteCommandHandler();
-		return computeAsync((monitor) -> {
+		return computeAsync("workspace/executeCommand", (monitor) -> {
 			return handler.executeCommand(params, monitor);
 		});
 	}
@@ -451,19 +461,14 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion(CompletionParams position) {
 		logInfo(">> document/completion");
 		CompletionHandler handler = new CompletionHandler();
-		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync((monitor) -> {
-			monitors[0] = monitor;
+		return computeAsync("textDocument/completion", position.getTextDocument().getUri(), (monitor) -> {
 			if (Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION)) {
 				waitForLifecycleJobs(monitor);
 			}
-			return handler.completion(position, monitor);
+			Either<List<CompletionItem>, CompletionList> result = handler.completion(position, monitor);
+			checkCanceled(monitor);
+			return result;
 		});
-		result.join();
-		if (monitors[0].isCanceled()) {
-			result.cancel(true);
-		}
-		return result;
 	}
 
 	/* (non-Javadoc)
@@ -473,19 +478,14 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
 		logInfo(">> document/resolveCompletionItem");
 		CompletionResolveHandler handler = new CompletionResolveHandler(preferenceManager);
-		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<CompletionItem> result = computeAsync((monitor) -> {
-			monitors[0] = monitor;
+		return computeAsync("completionItem/resolve", (monitor) -> {
 			if ((Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION))) {
 				waitForLifecycleJobs(monitor);
 			}
-			return handler.resolve(unresolved, monitor);
+			CompletionItem result = handler.resolve(unresolved, monitor);
+			checkCanceled(monitor);
+			return result;
 		});
-		result.join();
-		if (monitors[0].isCanceled()) {
-			result.cancel(true);
-		}
-		return result;
 	}
 
 	/* (non-Javadoc)
@@ -495,7 +495,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Hover> hover(TextDocumentPositionParams position) {
 		logInfo(">> document/hover");
 		HoverHandler handler = new HoverHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.hover(position, monitor));
+		return computeAsync("textDocument/hover", position.getTextDocument().getUri(), (monitor) -> handler.hover(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -505,7 +505,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<SignatureHelp> signatureHelp(TextDocumentPositionParams position) {
 		logInfo(">> document/signatureHelp");
 		SignatureHelpHandler handler = new SignatureHelpHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.signatureHelp(position, monitor));
+		return computeAsync("textDocument/signatureHelp", position.getTextDocument().getUri(), (monitor) -> handler.signatureHelp(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -515,7 +515,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> definition(TextDocumentPositionParams position) {
 		logInfo(">> document/definition");
 		NavigateToDefinitionHandler handler = new NavigateToDefinitionHandler(this.preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/definition", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.definition(position, monitor);
 		});
@@ -528,7 +528,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> typeDefinition(TextDocumentPositionParams position) {
 		logInfo(">> document/typeDefinition");
 		NavigateToTypeDefinitionHandler handler = new NavigateToTypeDefinitionHandler();
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/typeDefinition", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.typeDefinition(position, monitor);
 		});
@@ -541,7 +541,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
 		logInfo(">> document/references");
 		ReferencesHandler handler = new ReferencesHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.findReferences(params, monitor));
+		return computeAsync("textDocument/references", (monitor) -> handler.findReferences(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -551,7 +551,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams position) {
 		logInfo(">> document/documentHighlight");
 		DocumentHighlightHandler handler = new DocumentHighlightHandler();
-		return computeAsync((monitor) -> handler.documentHighlight(position, monitor));
+		return computeAsync("textDocument/documentHighlight", position.getTextDocument().getUri(), (monitor) -> handler.documentHighlight(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -562,7 +562,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/documentSymbol");
 		boolean hierarchicalDocumentSymbolSupported = preferenceManager.getClientPreferences().isHierarchicalDocumentSymbolSupported();
 		DocumentSymbolHandler handler = new DocumentSymbolHandler(hierarchicalDocumentSymbolSupported);
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/documentSymbol", params.getTextDocument().getUri(), (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.documentSymbol(params, monitor);
 		});
@@ -575,7 +575,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
 		logInfo(">> document/codeAction");
 		CodeActionHandler handler = new CodeActionHandler(this.preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/codeAction", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeActionCommands(params, monitor);
 		});
@@ -588,7 +588,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends CodeLens>> codeLens(CodeLensParams params) {
 		logInfo(">> document/codeLens");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/codeLens", params.getTextDocument().getUri(), (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeLensSymbols(params.getTextDocument().getUri(), monitor);
 		});
@@ -601,7 +601,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
 		logInfo(">> codeLens/resolve");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("codeLens/resolve", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.resolve(unresolved, monitor);
 		});
@@ -614,7 +614,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
 		logInfo(">> document/formatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.formatting(params, monitor));
+		return computeAsync("textDocument/formatting", (monitor) -> handler.formatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -624,7 +624,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
 		logInfo(">> document/rangeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rangeFormatting(params, monitor));
+		return computeAsync("textDocument/rangeFormatting", (monitor) -> handler.rangeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -634,7 +634,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> onTypeFormatting(DocumentOnTypeFormattingParams params) {
 		logInfo(">> document/onTypeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.onTypeFormatting(params, monitor));
+		return computeAsync("textDocument/onTypeFormatting", (monitor) -> handler.onTypeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -645,7 +645,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/prepareRename");
 
 		PrepareRenameHandler handler = new PrepareRenameHandler();
-		return computeAsync((monitor) -> handler.prepareRename(params, monitor));
+		return computeAsync("textDocument/prepareRename", (monitor) -> handler.prepareRename(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -655,7 +655,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
 		logInfo(">> document/rename");
 		RenameHandler handler = new RenameHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rename(params, monitor));
+		return computeAsyncWithClientProgress("textDocument/rename", null, (monitor) -> handler.rename(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -692,7 +692,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<TextEdit>> willSaveWaitUntil(WillSaveTextDocumentParams params) {
 		logInfo(">> document/willSaveWaitUntil");
 		SaveActionHandler handler = new SaveActionHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.willSaveWaitUntil(params, monitor));
+		return computeAsync("textDocument/willSaveWaitUntil", (monitor) -> handler.willSaveWaitUntil(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -712,7 +712,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> java/classFileContents");
 		ContentProviderManager handler = JavaLanguageServerPlugin.getContentProviderManager();
 		URI uri = JDTUtils.toURI(param.getUri());
-		return computeAsync((monitor) -> handler.getContent(uri, monitor));
+		return computeAsync("java/classFileContents", (monitor) -> handler.getContent(uri, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -732,7 +732,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<BuildWorkspaceStatus> buildWorkspace(boolean forceReBuild) {
 		logInfo(">> java/buildWorkspace (" + (forceReBuild ? "full)" : "incremental)"));
 		BuildWorkspaceHandler handler = new BuildWorkspaceHandler(client, pm);
-		return computeAsync((monitor) -> handler.buildWorkspace(forceReBuild, monitor));
+		return computeAsync("java/buildWorkspace", (monitor) -> handler.buildWorkspace(forceReBuild, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -748,7 +748,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends Location>> implementation(TextDocumentPositionParams position) {
 		logInfo(">> document/implementation");
-		return computeAsyncWithClientProgress((monitor) -> new ImplementationsHandler(preferenceManager).findImplementations(position, monitor));
+		return computeAsyncWithClientProgress("textDocument/implementation", null, (monitor) -> new ImplementationsHandler(preferenceManager).findImplementations(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -757,7 +757,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params) {
 		logInfo(">> document/foldingRange");
-		return computeAsyncWithClientProgress((monitor) -> {
+		return computeAsyncWithClientProgress("textDocument/foldingRange", params.getTextDocument().getUri(), (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return new FoldingRangeHandler().foldingRange(params, monitor);
 		});
@@ -766,79 +766,88 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<OverridableMethodsResponse> listOverridableMethods(CodeActionParams params) {
 		logInfo(">> java/listOverridableMethods");
-		return computeAsync((monitor) -> OverrideMethodsHandler.listOverridableMethods(params));
+		return computeAsync("java/listOverridableMethods", (monitor) -> OverrideMethodsHandler.listOverridableMethods(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> addOverridableMethods(AddOverridableMethodParams params) {
 		logInfo(">> java/addOverridableMethods");
-		return computeAsync((monitor) -> OverrideMethodsHandler.addOverridableMethods(params));
+		return computeAsync("java/addOverridableMethods", (monitor) -> OverrideMethodsHandler.addOverridableMethods(params));
 	}
 
 	@Override
 	public CompletableFuture<CheckHashCodeEqualsResponse> checkHashCodeEqualsStatus(CodeActionParams params) {
 		logInfo(">> java/checkHashCodeEqualsStatus");
-		return computeAsync((monitor) -> HashCodeEqualsHandler.checkHashCodeEqualsStatus(params));
+		return computeAsync("java/checkHashCodeEqualsStatus", (monitor) -> HashCodeEqualsHandler.checkHashCodeEqualsStatus(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> generateHashCodeEquals(GenerateHashCodeEqualsParams params) {
 		logInfo(">> java/generateHashCodeEquals");
-		return computeAsync((monitor) -> HashCodeEqualsHandler.generateHashCodeEquals(params));
+		return computeAsync("java/generateHashCodeEquals", (monitor) -> HashCodeEqualsHandler.generateHashCodeEquals(params));
 	}
 
 	@Override
 	public CompletableFuture<CheckToStringResponse> checkToStringStatus(CodeActionParams params) {
 		logInfo(">> java/checkToStringStatus");
-		return computeAsync((monitor) -> GenerateToStringHandler.checkToStringStatus(params));
+		return computeAsync("java/checkToStringStatus", (monitor) -> GenerateToStringHandler.checkToStringStatus(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> generateToString(GenerateToStringParams params) {
 		logInfo(">> java/generateToString");
-		return computeAsync((monitor) -> GenerateToStringHandler.generateToString(params));
+		return computeAsync("java/generateToString", (monitor) -> GenerateToStringHandler.generateToString(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> organizeImports(CodeActionParams params) {
 		logInfo(">> java/organizeImports");
-		return computeAsync((monitor) -> OrganizeImportsHandler.organizeImports(client, params));
+		return computeAsync("java/organizeImports", (monitor) -> OrganizeImportsHandler.organizeImports(client, params));
 	}
 
 	@Override
 	public CompletableFuture<AccessorField[]> resolveUnimplementedAccessors(CodeActionParams params) {
 		logInfo(">> java/resolveUnimplementedAccessors");
-		return computeAsync((monitor) -> GenerateAccessorsHandler.getUnimplementedAccessors(params));
+		return computeAsync("java/resolveUnimplementedAccessors", (monitor) -> GenerateAccessorsHandler.getUnimplementedAccessors(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> generateAccessors(GenerateAccessorsParams params) {
 		logInfo(">> java/generateAccessors");
-		return computeAsync((monitor) -> GenerateAccessorsHandler.generateAccessors(params));
+		return computeAsync("java/generateAccessors", (monitor) -> GenerateAccessorsHandler.generateAccessors(params));
 	}
 
 	@Override
 	public CompletableFuture<CheckConstructorsResponse> checkConstructorsStatus(CodeActionParams params) {
 		logInfo(">> java/checkConstructorsStatus");
-		return computeAsync((monitor) -> GenerateConstructorsHandler.checkConstructorsStatus(params));
+		return computeAsync("java/checkConstructorsStatus", (monitor) -> GenerateConstructorsHandler.checkConstructorsStatus(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> generateConstructors(GenerateConstructorsParams params) {
 		logInfo(">> java/generateConstructors");
-		return computeAsync((monitor) -> GenerateConstructorsHandler.generateConstructors(params));
+		return computeAsync("java/generateConstructors", (monitor) -> GenerateConstructorsHandler.generateConstructors(params));
 	}
 
 	@Override
 	public CompletableFuture<CheckDelegateMethodsResponse> checkDelegateMethodsStatus(CodeActionParams params) {
 		logInfo(">> java/checkDelegateMethodsStatus");
-		return computeAsync((monitor) -> GenerateDelegateMethodsHandler.checkDelegateMethodsStatus(params));
+		return computeAsync("java/checkDelegateMethodsStatus", (monitor) -> GenerateDelegateMethodsHandler.checkDelegateMethodsStatus(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> generateDelegateMethods(GenerateDelegateMethodsParams params) {
 		logInfo(">> java/generateDelegateMethods");
-		return computeAsync((monitor) -> GenerateDelegateMethodsHandler.generateDelegateMethods(params));
+		return computeAsync("java/generateDelegateMethods", (monitor) -> GenerateDelegateMethodsHandler.generateDelegateMethods(params));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.ls.core.internal.lsp.JavaProtocolExtensions#metrics()
+	 */
+	@Override
+	public CompletableFuture<MetricsReport> metrics() {
+		logInfo(">> java/metrics");
+		return CompletableFuture.completedFuture(metrics.getReport());
 	}
 
 	public void sendStatus(ServiceStatus serverStatus, String status) {
@@ -871,21 +880,56 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		return client;
 	}
 
-	private <R> CompletableFuture<R> computeAsync(Function<IProgressMonitor, R> code) {
-		return CompletableFutures.computeAsync(cc -> code.apply(toMonitor(cc)));
+	private <R> CompletableFuture<R> computeAsync(String method, Function<IProgressMonitor, R> code) {
+		return computeAsync(method, null, code);
 	}
 
-	private <R> CompletableFuture<R> computeAsyncWithClientProgress(Function<IProgressMonitor, R> code) {
-		return CompletableFutures.computeAsync((cc) -> {
-			IProgressMonitor monitor = progressReporterManager.getProgressReporter(cc);
-			return code.apply(monitor);
+	/**
+	 * Computes a request asynchronously, cancelling the pending request of
+	 * the same method for the same document.
+	 */
+	private <R> CompletableFuture<R> computeAsync(String method, String uri, Function<IProgressMonitor, R> code) {
+		return computeAsync(method, uri, cc -> toMonitor(cc), code);
+	}
+
+	private <R> CompletableFuture<R> computeAsyncWithClientProgress(String method, String uri, Function<IProgressMonitor, R> code) {
+		return computeAsync(method, uri, cc -> progressReporterManager.getProgressReporter(cc), code);
+	}
+
+	/**
+	 * Computes a request asynchronously with the {@link RequestScheduler},
+	 * recording its latencies in the {@link ServerMetrics}.
+	 */
+	private <R> CompletableFuture<R> computeAsync(String method, String uri, Function<CancelChecker, IProgressMonitor> monitorFactory, Function<IProgressMonitor, R> code) {
+		RequestLatency latency = metrics.getRequest(method);
+		long received = latency.received();
+		CompletableFuture<R> result = scheduler.schedule(method, uri, cc -> {
+			long started = System.nanoTime();
+			latency.getQueueWait().record(started - received);
+			try {
+				return code.apply(monitorFactory.apply(cc));
+			} finally {
+				latency.getExecution().record(System.nanoTime() - started);
+			}
 		});
+		result.whenComplete((value, error) -> latency.completed(error));
+		return result;
 	}
 
 	private IProgressMonitor toMonitor(CancelChecker checker) {
 		return new CancellableProgressMonitor(checker);
 	}
 
+	/**
+	 * Completes the request with a cancellation when the client cancelled it
+	 * while it was being computed.
+	 */
+	private void checkCanceled(IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new CancellationException();
+		}
+	}
+
 	private void waitForLifecycleJobs(IProgressMonitor monitor) {
 		try {
 			Job.getJobManager().join(DocumentLifeCycleHandler.DOCUMENT_LIFE_CYCLE_JOBS, monitor);
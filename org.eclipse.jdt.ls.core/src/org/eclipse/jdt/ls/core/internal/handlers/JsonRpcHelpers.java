@@ -38,7 +38,15 @@ final public class JsonRpcHelpers {
 	 */
 	public static int toOffset(IBuffer buffer, int line, int column){
 		if (buffer != null) {
-			return toOffset(toDocument(buffer), line, column);
+			IDocument document = getDocument(buffer);
+			if (document != null) {
+				return toOffset(document, line, column);
+			}
+			try {
+				return LineIndex.get(buffer).getLineOffset(line) + column;
+			} catch (BadLocationException e) {
+				JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			}
 		}
 		return -1;
 	}
@@ -68,7 +76,19 @@ final public class JsonRpcHelpers {
 	 * @return
 	 */
 	public static int[] toLine(IBuffer buffer, int offset){
-		return toLine(toDocument(buffer), offset);
+		IDocument document = getDocument(buffer);
+		if (document != null) {
+			return toLine(document, offset);
+		}
+		try {
+			LineIndex index = LineIndex.get(buffer);
+			int line = index.getLineOfOffset(offset);
+			int column = offset - index.getLineOffset(line);
+			return new int[] { line, column };
+		} catch (BadLocationException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+		}
+		return null;
 	}
 
 	/**
@@ -101,15 +121,27 @@ final public class JsonRpcHelpers {
 		if (buffer == null) {
 			return null;
 		}
+		IDocument document = getDocument(buffer);
+		if (document != null) {
+			return document;
+		}
+		return new org.eclipse.jdt.internal.core.DocumentAdapter(buffer);
+	}
+
+	/**
+	 * Returns the {@link IDocument} backing the given buffer, without copying
+	 * the buffer.
+	 *
+	 * @param buffer a buffer
+	 * @return the document of the buffer, or <code>null</code> if the buffer isn't backed by a document
+	 */
+	private static IDocument getDocument(IBuffer buffer) {
 		if (buffer instanceof IDocument) {
 			return (IDocument) buffer;
 		} else if (buffer instanceof org.eclipse.jdt.ls.core.internal.DocumentAdapter) {
-			IDocument document = ((org.eclipse.jdt.ls.core.internal.DocumentAdapter) buffer).getDocument();
-			if (document != null) {
-				return document;
-			}
+			return ((org.eclipse.jdt.ls.core.internal.DocumentAdapter) buffer).getDocument();
 		}
-		return new org.eclipse.jdt.internal.core.DocumentAdapter(buffer);
+		return null;
 	}
 
 
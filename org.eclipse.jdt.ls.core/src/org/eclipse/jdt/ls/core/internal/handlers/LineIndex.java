@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IBufferChangedListener;
+import org.eclipse.jface.text.BadLocationException;
+
+/**
+ * Offsets of the lines of a buffer which isn't backed by an
+ * {@link org.eclipse.jface.text.IDocument}, such as the source of a class
+ * file. Lines are delimited by <code>\r</code>, <code>\n</code> or
+ * <code>\r\n</code>, like in a {@link org.eclipse.jface.text.Document}.
+ *
+ * The indexes are shared, computed once per buffer contents and dropped as
+ * soon as their buffer changes or is garbage collected.
+ */
+final class LineIndex {
+
+	private static final Map<IBuffer, LineIndex> INDEXES = new WeakHashMap<>();
+
+	/**
+	 * buffers listened to, the listener stays registered until they're closed
+	 */
+	private static final Set<IBuffer> LISTENED = Collections.newSetFromMap(new WeakHashMap<>());
+
+	private static final IBufferChangedListener LISTENER = event -> {
+		synchronized (INDEXES) {
+			INDEXES.remove(event.getBuffer());
+		}
+	};
+
+	private final int length;
+
+	/**
+	 * offsets of the line starts, the first one is always 0
+	 */
+	private final int[] lineOffsets;
+
+	private LineIndex(char[] contents) {
+		this.length = contents.length;
+		int[] offsets = new int[16];
+		int lines = 1;
+		for (int i = 0; i < contents.length; i++) {
+			char c = contents[i];
+			if (c == '\r' && i + 1 < contents.length && contents[i + 1] == '\n') {
+				i++;
+			} else if (c != '\r' && c != '\n') {
+				continue;
+			}
+			if (lines == offsets.length) {
+				offsets = Arrays.copyOf(offsets, lines * 2);
+			}
+			offsets[lines++] = i + 1;
+		}
+		this.lineOffsets = Arrays.copyOf(offsets, lines);
+	}
+
+	/**
+	 * Returns the line index of the given buffer.
+	 *
+	 * @param buffer
+	 *            a buffer
+	 * @return the line index of the current contents of the buffer
+	 */
+	static LineIndex get(IBuffer buffer) {
+		synchronized (INDEXES) {
+			LineIndex index = INDEXES.get(buffer);
+			if (index != null && index.length == buffer.getLength()) {
+				return index;
+			}
+		}
+		char[] contents = buffer.getCharacters();
+		LineIndex index = new LineIndex(contents == null ? new char[0] : contents);
+		synchronized (INDEXES) {
+			INDEXES.put(buffer, index);
+			if (LISTENED.add(buffer)) {
+				buffer.addBufferChangedListener(LISTENER);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of lines, a line delimiter at the end of the contents
+	 *         starts an empty last line
+	 */
+	int getNumberOfLines() {
+		return lineOffsets.length;
+	}
+
+	/**
+	 * Returns the offset of the given line.
+	 *
+	 * @param line
+	 *            the 0-based line number
+	 * @return the offset of the first character of the line
+	 * @throws BadLocationException
+	 *             if the line doesn't exist
+	 */
+	int getLineOffset(int line) throws BadLocationException {
+		if (line < 0 || line >= lineOffsets.length) {
+			throw new BadLocationException("Line " + line + " is out of range [0, " + lineOffsets.length + "[");
+		}
+		return lineOffsets[line];
+	}
+
+	/**
+	 * Returns the line of the given offset.
+	 *
+	 * @param offset
+	 *            the offset, the length of the contents included
+	 * @return the 0-based line number
+	 * @throws BadLocationException
+	 *             if the offset is out of the contents
+	 */
+	int getLineOfOffset(int offset) throws BadLocationException {
+		if (offset < 0 || offset > length) {
+			throw new BadLocationException("Offset " + offset + " is out of range [0, " + length + "]");
+		}
+		int line = Arrays.binarySearch(lineOffsets, offset);
+		// the insertion point is after the start of the line containing the offset
+		return line >= 0 ? line : -line - 2;
+	}
+
+}
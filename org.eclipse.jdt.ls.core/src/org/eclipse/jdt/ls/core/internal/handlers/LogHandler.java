@@ -13,7 +13,16 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
 import org.eclipse.core.runtime.ILogListener;
 import org.eclipse.core.runtime.IStatus;
@@ -25,9 +34,35 @@ import org.eclipse.lsp4j.MessageType;
  * The LogHandler hooks in the Eclipse log and forwards all Eclipse log messages to
  * the the client. In VSCode you can see all the messages in the Output view, in the
  * 'Java Language Support' channel.
+ *
+ * The messages are sent by a single thread, so the threads logging never wait
+ * for the client. Identical messages logged together are sent once, at most
+ * {@link #MAX_MESSAGES_PER_SECOND} messages are sent per second, and the
+ * messages which don't fit in the queue are dropped, the client is told how
+ * many. The messages still queued when the handler is uninstalled are sent
+ * before it returns.
  */
 public class LogHandler {
 
+	/**
+	 * the number of messages waiting to be sent
+	 */
+	static final int QUEUE_CAPACITY = 1024;
+
+	static final int MAX_MESSAGES_PER_SECOND = 100;
+
+	/**
+	 * how long uninstalling waits for the queued messages to be sent, in
+	 * milliseconds
+	 */
+	private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+	private final BlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final AtomicInteger dropped = new AtomicInteger();
+	private final LongSupplier clock;
+	private Thread sender;
+	private long currentSecond;
+	private int sentInSecond;
 	private ILogListener logListener;
 	private DateFormat dateFormat;
 	private int logLevelMask;
@@ -39,13 +74,21 @@ public class LogHandler {
 	}
 
 	public LogHandler(ILogFilter filter) {
+		this(filter, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param clock
+	 *            the time stamps of the messages and of the rate cap, in
+	 *            milliseconds
+	 */
+	LogHandler(ILogFilter filter, LongSupplier clock) {
 		this.filter = filter;
+		this.clock = clock;
 	}
 
 	public void install(JavaClientConnection rcpConnection) {
-		this.dateFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
-		this.logLevelMask = getLogLevelMask(System.getProperty("log.level", ""));//Empty by default
-		this.connection = rcpConnection;
+		connect(rcpConnection);
 
 		this.logListener = new ILogListener() {
 			@Override
@@ -53,11 +96,32 @@ public class LogHandler {
 				processLogMessage(status);
 			}
 		};
+		this.sender = new Thread(this::sendMessages, "Log forwarder");
+		this.sender.setDaemon(true);
+		this.sender.start();
 		Platform.addLogListener(this.logListener);
 	}
 
+	/**
+	 * Sets the connection the messages are sent to, without listening to the
+	 * log nor sending them.
+	 */
+	void connect(JavaClientConnection rcpConnection) {
+		this.dateFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
+		this.logLevelMask = getLogLevelMask(System.getProperty("log.level", ""));//Empty by default
+		this.connection = rcpConnection;
+	}
+
 	public void uninstall() {
 		Platform.removeLogListener(this.logListener);
+		if (this.sender != null) {
+			this.sender.interrupt();
+			try {
+				this.sender.join(FLUSH_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
 	private int getLogLevelMask(String logLevel) {
@@ -73,22 +137,93 @@ public class LogHandler {
 		}
 	}
 
-	private void processLogMessage(IStatus status) {
+	void processLogMessage(IStatus status) {
 		if ((filter != null && !filter.accepts(status)) || !status.matches(this.logLevelMask)) {
 			//no op;
 			return;
 		}
-		String dateString = this.dateFormat.format(new Date());
-		String message = status.getMessage();
-		if (status.getException() != null) {
-			message = message + '\n' + status.getException().getMessage();
-			StringWriter sw = new StringWriter();
-			status.getException().printStackTrace(new PrintWriter(sw));
-			String exceptionAsString = sw.toString();
-			message = message + '\n' + exceptionAsString;
+		if (!queue.offer(new LogEntry(status, clock.getAsLong()))) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	private void sendMessages() {
+		List<LogEntry> entries = new ArrayList<>();
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				// wake up every second to report the dropped messages
+				LogEntry next = queue.poll(1, TimeUnit.SECONDS);
+				if (next != null) {
+					entries.add(next);
+				}
+				sendBatch(entries);
+			}
+		} catch (InterruptedException e) {
+			// uninstalled
+		}
+		// the messages logged before the handler was uninstalled
+		sendBatch(entries);
+	}
+
+	/**
+	 * Sends the queued messages, and the number of messages dropped so far.
+	 */
+	void flush() {
+		sendBatch(new ArrayList<>());
+	}
+
+	/**
+	 * Sends the given messages and the queued ones as a batch, in which
+	 * identical messages are sent once.
+	 */
+	private void sendBatch(List<LogEntry> entries) {
+		queue.drainTo(entries);
+		// message -> first entry, identical messages are sent once
+		Map<String, LogEntry> messages = new LinkedHashMap<>();
+		for (LogEntry entry : entries) {
+			messages.merge(entry.getSeverity() + entry.getMessage(), entry, (first, other) -> {
+				first.count++;
+				return first;
+			});
 		}
+		entries.clear();
+		for (LogEntry entry : messages.values()) {
+			String message = entry.getMessage();
+			if (entry.count > 1) {
+				message = message + "\n(logged " + entry.count + " times)";
+			}
+			if (!send(entry.getSeverity(), entry.timestamp, message)) {
+				dropped.addAndGet(entry.count);
+			}
+		}
+		int lost = dropped.get();
+		if (lost > 0 && send(IStatus.WARNING, clock.getAsLong(), lost + " log messages were dropped")) {
+			dropped.addAndGet(-lost);
+		}
+	}
 
-		connection.logMessage(getMessageTypeFromSeverity(status.getSeverity()), dateString + ' ' + message);
+	/**
+	 * Sends a message to the client, unless the rate cap is reached.
+	 *
+	 * @return <code>true</code> if the message was sent
+	 */
+	private boolean send(int severity, long timestamp, String message) {
+		long second = clock.getAsLong() / 1000;
+		if (second != currentSecond) {
+			currentSecond = second;
+			sentInSecond = 0;
+		}
+		if (sentInSecond >= MAX_MESSAGES_PER_SECOND) {
+			return false;
+		}
+		sentInSecond++;
+		String dateString = this.dateFormat.format(new Date(timestamp));
+		try {
+			connection.logMessage(getMessageTypeFromSeverity(severity), dateString + ' ' + message);
+		} catch (RuntimeException e) {
+			// the client is gone, logging the error would log it again
+		}
+		return true;
 	}
 
 	private MessageType getMessageTypeFromSeverity(int severity) {
@@ -104,4 +239,34 @@ public class LogHandler {
 		}
 	}
 
+	private static final class LogEntry {
+		private final IStatus status;
+		private final long timestamp;
+		private String message;
+		private int count = 1;
+
+		private LogEntry(IStatus status, long timestamp) {
+			this.status = status;
+			this.timestamp = timestamp;
+		}
+
+		private int getSeverity() {
+			return status.getSeverity();
+		}
+
+		private String getMessage() {
+			if (message == null) {
+				message = status.getMessage();
+				if (status.getException() != null) {
+					message = message + '\n' + status.getException().getMessage();
+					StringWriter sw = new StringWriter();
+					status.getException().printStackTrace(new PrintWriter(sw));
+					String exceptionAsString = sw.toString();
+					message = message + '\n' + exceptionAsString;
+				}
+			}
+			return message;
+		}
+	}
+
 }
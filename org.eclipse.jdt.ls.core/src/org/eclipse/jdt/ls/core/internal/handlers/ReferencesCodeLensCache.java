@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.lsp4j.Location;
+
+/**
+ * References of the code lens targets of the most recently resolved type
+ * roots. Entries are computed for a whole type root at once, and are dropped
+ * as soon as a Java element delta which may change references is reported.
+ */
+public final class ReferencesCodeLensCache {
+
+	private static final int MAX_TYPE_ROOTS = 10;
+
+	/**
+	 * flags of deltas which don't change the references in the workspace
+	 */
+	private static final int IGNORED_FLAGS = IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_PRIMARY_WORKING_COPY | IJavaElementDelta.F_PRIMARY_RESOURCE | IJavaElementDelta.F_AST_AFFECTED;
+
+	private static final ReferencesCodeLensCache INSTANCE = new ReferencesCodeLensCache();
+
+	private final AtomicLong modificationStamp = new AtomicLong();
+
+	/**
+	 * type root handle -> references
+	 */
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_TYPE_ROOTS;
+		}
+	};
+
+	private final IElementChangedListener listener = this::elementChanged;
+
+	private boolean listening;
+
+	private ReferencesCodeLensCache() {
+	}
+
+	public static ReferencesCodeLensCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return the current modification stamp, to pass to
+	 *         {@link #put(ITypeRoot, long, Map)} once the references computed
+	 *         from now on are known
+	 */
+	public long getModificationStamp() {
+		synchronized (entries) {
+			if (!listening) {
+				JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				listening = true;
+			}
+		}
+		return modificationStamp.get();
+	}
+
+	/**
+	 * Returns the cached references of the given element.
+	 *
+	 * @param typeRoot
+	 *            the type root declaring the element
+	 * @param element
+	 *            the code lens target
+	 * @return the references or <code>null</code> if they are unknown or stale
+	 */
+	public List<Location> get(ITypeRoot typeRoot, IJavaElement element) {
+		synchronized (entries) {
+			Entry entry = entries.get(typeRoot.getHandleIdentifier());
+			if (entry == null || entry.stamp != modificationStamp.get()) {
+				return null;
+			}
+			return entry.references.get(element.getHandleIdentifier());
+		}
+	}
+
+	/**
+	 * Caches the references of the code lens targets of the given type root.
+	 *
+	 * @param typeRoot
+	 *            the type root
+	 * @param stamp
+	 *            the modification stamp read before the references were
+	 *            searched
+	 * @param references
+	 *            element handle -> references
+	 */
+	public void put(ITypeRoot typeRoot, long stamp, Map<String, List<Location>> references) {
+		synchronized (entries) {
+			if (stamp == modificationStamp.get()) {
+				entries.put(typeRoot.getHandleIdentifier(), new Entry(stamp, references));
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			modificationStamp.incrementAndGet();
+		}
+	}
+
+	private void elementChanged(ElementChangedEvent event) {
+		if (isRelevant(event.getDelta())) {
+			clear();
+		}
+	}
+
+	private static boolean isRelevant(IJavaElementDelta delta) {
+		if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & ~IGNORED_FLAGS) != 0) {
+			return true;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (isRelevant(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class Entry {
+		private final long stamp;
+		private final Map<String, List<Location>> references;
+
+		private Entry(long stamp, Map<String, List<Location>> references) {
+			this.stamp = stamp;
+			this.references = references;
+		}
+	}
+
+}
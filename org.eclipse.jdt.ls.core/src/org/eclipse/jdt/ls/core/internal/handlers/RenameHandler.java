@@ -16,6 +16,7 @@ import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IPackageFragment;
@@ -84,15 +85,16 @@ public class RenameHandler {
 			}
 			RenameRefactoring renameRefactoring = renameSupport.getRenameRefactoring();
 
+			SubMonitor progress = SubMonitor.convert(monitor, 100);
 			CheckConditionsOperation check = new CheckConditionsOperation(renameRefactoring, CheckConditionsOperation.ALL_CONDITIONS);
 			CreateChangeOperation create = new CreateChangeOperation(check, RefactoringStatus.FATAL);
-			create.run(monitor);
+			create.run(progress.split(70));
 			if (check.getStatus().getSeverity() >= RefactoringStatus.FATAL) {
 				throw new ResponseErrorException(new ResponseError(ResponseErrorCode.InvalidRequest, check.getStatus().getMessageMatchingSeverity(RefactoringStatus.ERROR), null));
 			}
 
 			Change change = create.getChange();
-			ChangeUtil.convertCompositeChange(change, edit);
+			ChangeUtil.convertCompositeChange(change, edit, progress.split(30));
 		} catch (CoreException ex) {
 			JavaLanguageServerPlugin.logException("Problem with rename for " + params.getTextDocument().getUri(), ex);
 		}
@@ -33,10 +33,10 @@ import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.MethodRef;
 import org.eclipse.jdt.core.dom.NodeFinder;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.corext.template.java.SignatureUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.contentassist.SignatureHelpRequestor;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.SignatureHelp;
@@ -238,7 +238,7 @@ public class SignatureHelpHandler {
 
 	private ASTNode getNode(ICompilationUnit unit, int[] contextInfomation, IProgressMonitor monitor) {
 		if (contextInfomation[0] != -1) {
-			CompilationUnit ast = CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_YES, monitor);
+			CompilationUnit ast = SharedASTProvider.getInstance().getAST(unit, monitor);
 			ASTNode node = NodeFinder.perform(ast, contextInfomation[0], 1);
 			if (node instanceof MethodInvocation || node instanceof ClassInstanceCreation || node instanceof MethodRef || (contextInfomation[1] > 0 && node instanceof Block)) {
 				return node;
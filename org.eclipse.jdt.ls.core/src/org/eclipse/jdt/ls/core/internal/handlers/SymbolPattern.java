@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.core.compiler.CharOperation;
+
+/**
+ * A fuzzy pattern matching symbol names, such as <code>HaMa</code>,
+ * <code>hm</code> or <code>hashmap</code> for <code>HashMap</code>.
+ *
+ * The characters of the pattern are matched in order, ignoring case. The
+ * first one must match the first character of the name, and each other one
+ * must either follow the previous match or start a word of the name. An upper
+ * case character only follows the previous match if its case matches, so
+ * <code>NPE</code> matches <code>NullPointerException</code> but not
+ * <code>NetPermission</code>.
+ *
+ * Among the alignments of the pattern on a name, the best scoring one is
+ * kept: matching consecutive characters, word starts and the case all
+ * increase the score, while longer names decrease it.
+ *
+ * A query with <code>*</code> or <code>?</code> wildcards is matched as a
+ * {@link org.eclipse.jdt.core.search.SearchPattern#R_PATTERN_MATCH} pattern
+ * instead, ignoring case and ending with an implicit <code>*</code>, so
+ * <code>*Map</code> matches <code>HashMap</code> and
+ * <code>ConcurrentMapper</code>. The names matching the case of the query and
+ * the shorter names score higher.
+ */
+public final class SymbolPattern {
+
+	/**
+	 * The score of a name which doesn't match.
+	 */
+	public static final int NO_MATCH = Integer.MIN_VALUE;
+
+	private static final int MATCH = 1;
+	private static final int CASE_MATCH = 1;
+	private static final int CONSECUTIVE = 4;
+	private static final int WORD_START = 5;
+	private static final int PREFIX = 40;
+	private static final int EQUAL_IGNORING_CASE = 80;
+	private static final int EQUAL = 100;
+
+	private final char[] pattern;
+
+	private final char[] lowerCasePattern;
+
+	/**
+	 * the number of characters of the pattern which aren't wildcards
+	 */
+	private final int literals;
+
+	private final boolean wildcards;
+
+	/**
+	 * @param query
+	 *            the query, its characters which can't be part of an
+	 *            identifier nor be wildcards are ignored
+	 */
+	public SymbolPattern(String query) {
+		StringBuilder builder = new StringBuilder(query.length() + 1);
+		int literals = 0;
+		boolean wildcards = false;
+		for (int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (Character.isJavaIdentifierPart(c)) {
+				builder.append(c);
+				literals++;
+			} else if (c == '*' || c == '?') {
+				builder.append(c);
+				wildcards = true;
+			}
+		}
+		if (wildcards && builder.charAt(builder.length() - 1) != '*') {
+			builder.append('*');
+		}
+		this.pattern = builder.toString().toCharArray();
+		this.lowerCasePattern = builder.toString().toLowerCase().toCharArray();
+		this.literals = literals;
+		this.wildcards = wildcards;
+	}
+
+	/**
+	 * @return whether the pattern has no character but wildcards, and matches
+	 *         nothing
+	 */
+	public boolean isEmpty() {
+		return literals == 0;
+	}
+
+	/**
+	 * Returns a {@link org.eclipse.jdt.core.search.SearchPattern#R_PATTERN_MATCH}
+	 * pattern matching, ignoring case, all the names this pattern matches and
+	 * more, to look candidates up in the search indexes.
+	 *
+	 * @return the pattern, such as <code>h*m*</code> for <code>HM</code>, or
+	 *         <code>*Map*</code> for <code>*Map</code>
+	 */
+	public char[] toSearchPattern() {
+		if (wildcards) {
+			return pattern.clone();
+		}
+		char[] searchPattern = new char[pattern.length * 2];
+		for (int i = 0; i < pattern.length; i++) {
+			searchPattern[i * 2] = pattern[i];
+			searchPattern[i * 2 + 1] = '*';
+		}
+		return searchPattern;
+	}
+
+	/**
+	 * Scores a name.
+	 *
+	 * @param name
+	 *            a symbol name
+	 * @return the score of the name, higher is better, or {@link #NO_MATCH}
+	 */
+	public int match(String name) {
+		if (wildcards) {
+			return matchWildcards(name);
+		}
+		int length = name.length();
+		if (pattern.length == 0 || length < pattern.length || Character.toLowerCase(name.charAt(0)) != lowerCasePattern[0]) {
+			return NO_MATCH;
+		}
+		// best score of the pattern up to the current character, matched at each position of the name
+		int[] previous = new int[length];
+		int[] current = new int[length];
+		Arrays.fill(previous, NO_MATCH);
+		previous[0] = MATCH + WORD_START + (name.charAt(0) == pattern[0] ? CASE_MATCH : 0);
+		for (int i = 1; i < pattern.length; i++) {
+			Arrays.fill(current, NO_MATCH);
+			int bestBefore = NO_MATCH;
+			boolean upperCase = Character.isUpperCase(pattern[i]);
+			for (int j = i; j < length; j++) {
+				bestBefore = Math.max(bestBefore, previous[j - 1]);
+				char c = name.charAt(j);
+				if (Character.toLowerCase(c) != lowerCasePattern[i]) {
+					continue;
+				}
+				int score = MATCH + (c == pattern[i] ? CASE_MATCH : 0);
+				if (previous[j - 1] != NO_MATCH && (!upperCase || c == pattern[i])) {
+					current[j] = previous[j - 1] + score + CONSECUTIVE;
+				}
+				if (bestBefore != NO_MATCH && isWordStart(name, j)) {
+					current[j] = Math.max(current[j], bestBefore + score + WORD_START);
+				}
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		int best = NO_MATCH;
+		for (int score : previous) {
+			best = Math.max(best, score);
+		}
+		if (best == NO_MATCH) {
+			return NO_MATCH;
+		}
+		if (length == pattern.length) {
+			best += name.equals(String.valueOf(pattern)) ? EQUAL : EQUAL_IGNORING_CASE;
+		} else if (name.regionMatches(true, 0, String.valueOf(pattern), 0, pattern.length)) {
+			best += PREFIX;
+		}
+		return best - (length - pattern.length);
+	}
+
+	private int matchWildcards(String name) {
+		char[] chars = name.toCharArray();
+		if (literals == 0 || !CharOperation.match(pattern, chars, false)) {
+			return NO_MATCH;
+		}
+		int score = literals * MATCH;
+		if (CharOperation.match(pattern, chars, true)) {
+			score += literals * CASE_MATCH;
+		}
+		return score - (chars.length - literals);
+	}
+
+	private static boolean isWordStart(String name, int index) {
+		char c = name.charAt(index);
+		char previous = name.charAt(index - 1);
+		if (Character.isUpperCase(c)) {
+			// the last upper case character of an acronym starts the next word, as C in URLConnection
+			return !Character.isUpperCase(previous) || (index + 1 < name.length() && Character.isLowerCase(name.charAt(index + 1)));
+		}
+		if (Character.isDigit(c)) {
+			return !Character.isDigit(previous);
+		}
+		return (previous == '_' || previous == '$') && c != '_' && c != '$';
+	}
+
+}
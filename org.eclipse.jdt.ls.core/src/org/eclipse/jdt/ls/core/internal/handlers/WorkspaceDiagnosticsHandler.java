@@ -14,8 +14,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,10 +31,15 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
@@ -62,12 +69,41 @@ import org.eclipse.m2e.core.internal.Messages;
 public final class WorkspaceDiagnosticsHandler implements IResourceChangeListener, IResourceDeltaVisitor {
 
 	public static final String PROJECT_CONFIGURATION_IS_NOT_UP_TO_DATE_WITH_POM_XML = "Project configuration is not up-to-date with pom.xml, requires an update.";
+	public static final String PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS = "WorkspacePublishDiagnosticsJobs";
 	private final JavaClientConnection connection;
 	private final ProjectsManager projectsManager;
+	private final Set<IResource> toPublish = new LinkedHashSet<>();
+	private WorkspaceJob publishJob;
 
 	public WorkspaceDiagnosticsHandler(JavaClientConnection connection, ProjectsManager projectsManager) {
+		this(connection, projectsManager, false);
+	}
+
+	/**
+	 * @param delayPublish
+	 *            whether the marker changes of the deltas received within a short
+	 *            window are published together, instead of after each delta
+	 */
+	public WorkspaceDiagnosticsHandler(JavaClientConnection connection, ProjectsManager projectsManager, boolean delayPublish) {
 		this.connection = connection;
 		this.projectsManager = projectsManager;
+		if (delayPublish) {
+			this.publishJob = new WorkspaceJob("Publish workspace diagnostics") {
+				@Override
+				public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+					publishChanges(monitor);
+					return Status.OK_STATUS;
+				}
+
+				/* (non-Javadoc)
+				 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+				 */
+				@Override
+				public boolean belongsTo(Object family) {
+					return PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS.equals(family);
+				}
+			};
+		}
 	}
 
 	public void addResourceChangeListener() {
@@ -83,6 +119,12 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		try {
 			IResourceDelta delta = event.getDelta();
 			delta.accept(this);
+			if (publishJob != null) {
+				// a scheduled job publishes the changes of the next deltas as well
+				publishJob.schedule(200);
+			} else {
+				publishChanges(new NullProgressMonitor());
+			}
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("failed to send diagnostics", e);
 		}
@@ -113,46 +155,107 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (JavaLanguageServerPlugin.getProjectsManager().getDefaultProject().equals(resource.getProject())) {
 				return false;
 			}
-			IProject project = (IProject) resource;
 			// report problems for other projects
-			IMarker[] markers = project.findMarkers(null, true, IResource.DEPTH_ZERO);
-			publishMarkers(project, markers);
+			addToPublish(resource);
 			return true;
 		}
 		// No marker changes continue to visit
 		if ((delta.getFlags() & IResourceDelta.MARKERS) == 0) {
 			return false;
 		}
-		IFile file = (IFile) resource;
-		IDocument document = null;
+		addToPublish(resource);
+		return false;
+	}
+
+	private void addToPublish(IResource resource) {
+		synchronized (toPublish) {
+			toPublish.add(resource);
+		}
+	}
+
+	/**
+	 * Publishes the diagnostics of the resources whose markers changed since
+	 * the last call.
+	 */
+	private void publishChanges(IProgressMonitor monitor) throws CoreException {
+		List<IResource> resources;
+		synchronized (toPublish) {
+			resources = new ArrayList<>(toPublish);
+			toPublish.clear();
+		}
+		for (IResource resource : resources) {
+			if (monitor.isCanceled()) {
+				// publish them next time
+				synchronized (toPublish) {
+					toPublish.addAll(resources.subList(resources.indexOf(resource), resources.size()));
+				}
+				return;
+			}
+			if (!resource.isAccessible()) {
+				continue;
+			}
+			if (resource.getType() == IResource.PROJECT) {
+				IProject project = (IProject) resource;
+				IMarker[] markers = project.findMarkers(null, true, IResource.DEPTH_ZERO);
+				publishMarkers(project, markers);
+			} else if (resource.getType() == IResource.FILE) {
+				publishMarkers((IFile) resource);
+			}
+		}
+	}
+
+	private void publishMarkers(IFile file) throws CoreException {
 		IMarker[] markers = null;
 		// Check if it is a Java ...
 		if (JavaCore.isJavaLikeFileName(file.getName())) {
-			ICompilationUnit cu = (ICompilationUnit) JavaCore.create(file);
+			IJavaElement element = JavaCore.create(file);
 			// Clear the diagnostics for the resource not on the classpath
-			IJavaProject javaProject = cu.getJavaProject();
-			if (javaProject == null || !javaProject.isOnClasspath(cu)) {
-				String uri = JDTUtils.getFileURI(resource);
-				this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
-				return false;
+			IJavaProject javaProject = element == null ? null : element.getJavaProject();
+			if (javaProject == null || !javaProject.isOnClasspath(element)) {
+				publish(JDTUtils.getFileURI(file), Collections.emptyList());
+				return;
 			}
 
-			IMarker[] javaMarkers = resource.findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ONE);
-			IMarker[] taskMarkers = resource.findMarkers(IJavaModelMarker.TASK_MARKER, false, IResource.DEPTH_ONE);
+			IMarker[] javaMarkers = file.findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ONE);
+			IMarker[] taskMarkers = file.findMarkers(IJavaModelMarker.TASK_MARKER, false, IResource.DEPTH_ONE);
 			markers = Arrays.copyOf(javaMarkers, javaMarkers.length + taskMarkers.length);
 			System.arraycopy(taskMarkers, 0, markers, javaMarkers.length, taskMarkers.length);
-			document = JsonRpcHelpers.toDocument(cu.getBuffer());
 		} // or a build file
 		else if (projectsManager.isBuildFile(file)) {
 			//all errors on that build file should be relevant
 			markers = file.findMarkers(null, true, 1);
+		}
+		if (markers != null) {
+			publishMarkers(file, markers);
+		}
+	}
+
+	/**
+	 * Publishes the markers of a file. The contents of the file are only read
+	 * to convert the offsets of the markers into columns, from the buffer of
+	 * the compilation unit when it is already open.
+	 */
+	private void publishMarkers(IFile file, IMarker[] markers) {
+		String uri = JDTUtils.getFileURI(file);
+		if (markers.length == 0) {
+			publish(uri, Collections.emptyList());
+			return;
+		}
+		IDocument document = null;
+		IJavaElement element = JavaCore.isJavaLikeFileName(file.getName()) ? JavaCore.create(file) : null;
+		if (element instanceof ICompilationUnit && ((ICompilationUnit) element).isOpen()) {
+			try {
+				document = JsonRpcHelpers.toDocument(((ICompilationUnit) element).getBuffer());
+			} catch (JavaModelException e) {
+				JavaLanguageServerPlugin.logException("Failed to publish diagnostics for " + uri, e);
+			}
+		}
+		if (document == null) {
 			document = JsonRpcHelpers.toDocument(file);
 		}
 		if (document != null) {
-			String uri = JDTUtils.getFileURI(resource);
-			this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(document, markers)));
+			publish(uri, toDiagnosticsArray(document, markers));
 		}
-		return false;
 	}
 
 	private void publishMarkers(IProject project, IMarker[] markers) throws CoreException {
@@ -175,25 +278,39 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		}
 		List<Diagnostic> diagnostics = toDiagnosticArray(range, projectMarkers);
 		String clientUri = ResourceUtils.toClientUri(uri);
-		connection.publishDiagnostics(new PublishDiagnosticsParams(clientUri, diagnostics));
+		publish(clientUri, diagnostics);
 		if (pom.exists()) {
 			IDocument document = JsonRpcHelpers.toDocument(pom);
 			diagnostics = toDiagnosticsArray(document, pom.findMarkers(null, true, IResource.DEPTH_ZERO));
 			List<Diagnostic> diagnosicts2 = toDiagnosticArray(range, pomMarkers);
 			diagnostics.addAll(diagnosicts2);
-			connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(clientUri + "/pom.xml"), diagnostics));
+			publish(clientUri + "/pom.xml", diagnostics);
 		}
 	}
 
-	public List<IMarker> publishDiagnostics(IProgressMonitor monitor) throws CoreException {
-		List<IMarker> problemMarkers = getProblemMarkers(monitor);
-		publishDiagnostics(problemMarkers);
-		return problemMarkers;
+	/**
+	 * Publishes the diagnostics of a uri, unless they're the ones the client
+	 * already has.
+	 */
+	private void publish(String uri, List<Diagnostic> diagnostics) {
+		PublishDiagnosticsParams params = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics);
+		if (!connection.isPublished(params)) {
+			connection.publishDiagnostics(params);
+		}
 	}
 
-	private List<IMarker> getProblemMarkers(IProgressMonitor monitor) throws CoreException {
+	/**
+	 * Publishes the diagnostics of all the projects, one project after the
+	 * other.
+	 *
+	 * @param monitor
+	 *            a progress monitor
+	 * @return the published problem markers
+	 * @throws CoreException
+	 */
+	public List<IMarker> publishDiagnostics(IProgressMonitor monitor) throws CoreException {
 		IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-		List<IMarker> markers = new ArrayList<>();
+		List<IMarker> problemMarkers = new ArrayList<>();
 		for (IProject project : projects) {
 			if (monitor != null && monitor.isCanceled()) {
 				throw new OperationCanceledException();
@@ -201,19 +318,27 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (JavaLanguageServerPlugin.getProjectsManager().getDefaultProject().equals(project)) {
 				continue;
 			}
-			IMarker[] allMarkers = project.findMarkers(null, true, IResource.DEPTH_INFINITE);
-			for (IMarker marker : allMarkers) {
-				if (!marker.exists() || CheckMissingNaturesListener.MARKER_TYPE.equals(marker.getType())) {
-					continue;
-				}
-				if (IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER.equals(marker.getType()) || IJavaModelMarker.TASK_MARKER.equals(marker.getType())) {
-					markers.add(marker);
-					continue;
-				}
-				IResource resource = marker.getResource();
-				if (project.equals(resource) || projectsManager.isBuildFile(resource)) {
-					markers.add(marker);
-				}
+			List<IMarker> markers = getProblemMarkers(project);
+			publishDiagnostics(markers);
+			problemMarkers.addAll(markers);
+		}
+		return problemMarkers;
+	}
+
+	private List<IMarker> getProblemMarkers(IProject project) throws CoreException {
+		List<IMarker> markers = new ArrayList<>();
+		IMarker[] allMarkers = project.findMarkers(null, true, IResource.DEPTH_INFINITE);
+		for (IMarker marker : allMarkers) {
+			if (!marker.exists() || CheckMissingNaturesListener.MARKER_TYPE.equals(marker.getType())) {
+				continue;
+			}
+			if (IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER.equals(marker.getType()) || IJavaModelMarker.TASK_MARKER.equals(marker.getType())) {
+				markers.add(marker);
+				continue;
+			}
+			IResource resource = marker.getResource();
+			if (project.equals(resource) || projectsManager.isBuildFile(resource)) {
+				markers.add(marker);
 			}
 		}
 		return markers;
@@ -236,25 +361,16 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (file == null) {
 				continue;
 			}
-			IDocument document = null;
-			String uri = JDTUtils.getFileURI(file);
 			if (JavaCore.isJavaLikeFileName(file.getName())) {
-				ICompilationUnit cu = JDTUtils.resolveCompilationUnit(uri);
+				IJavaElement element = JavaCore.create(file);
 				//ignoring working copies, they're handled in the DocumentLifecycleHandler
-				if (!cu.isWorkingCopy()) {
-					try {
-						document = JsonRpcHelpers.toDocument(cu.getBuffer());
-					} catch (JavaModelException e) {
-						JavaLanguageServerPlugin.logException("Failed to publish diagnostics for " + uri, e);
-					}
+				if (!(element instanceof ICompilationUnit) || ((ICompilationUnit) element).isWorkingCopy()) {
+					continue;
 				}
-			} else if (projectsManager.isBuildFile(file)) {
-				document = JsonRpcHelpers.toDocument(file);
-			}
-			if (document != null) {
-				List<Diagnostic> diagnostics = WorkspaceDiagnosticsHandler.toDiagnosticsArray(document, entry.getValue().toArray(new IMarker[0]));
-				connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics));
+			} else if (!projectsManager.isBuildFile(file)) {
+				continue;
 			}
+			publishMarkers(file, entry.getValue().toArray(new IMarker[0]));
 		}
 	}
 
@@ -11,8 +11,10 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -23,8 +25,8 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IPackageFragment;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.util.Util;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -64,14 +66,23 @@ public class WorkspaceEventsHandler {
 	}
 
 	void didChangeWatchedFiles(DidChangeWatchedFilesParams param){
-		List<FileEvent> changes = param.getChanges().stream().distinct().collect(Collectors.toList());
-		for (FileEvent fileEvent : changes) {
-			CHANGE_TYPE changeType = toChangeType(fileEvent.getType());
+		Map<String, CHANGE_TYPE> changes = coalesce(param.getChanges());
+		if (changes.size() < param.getChanges().size()) {
+			JavaLanguageServerPlugin.logInfo("Collapsed " + param.getChanges().size() + " file events into " + changes.size() + " changes");
+		}
+		for (Iterator<Map.Entry<String, CHANGE_TYPE>> iterator = changes.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, CHANGE_TYPE> change = iterator.next();
+			String uri = change.getKey();
+			CHANGE_TYPE changeType = change.getValue();
 			if(changeType==CHANGE_TYPE.DELETED){
-				cleanUpDiagnostics(fileEvent.getUri());
-				handler.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(fileEvent.getUri())));
+				cleanUpDiagnostics(uri);
+				handler.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uri)));
+			}
+			// only Java files resolve to a compilation unit, don't look the others up
+			if (uri == null || !Util.isJavaLikeFileName(uri)) {
+				continue;
 			}
-			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(fileEvent.getUri());
+			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 			if (unit != null && changeType == CHANGE_TYPE.CREATED && !unit.exists()) {
 				final ICompilationUnit[] units = new ICompilationUnit[1];
 				units[0] = unit;
@@ -87,18 +98,29 @@ public class WorkspaceEventsHandler {
 				}
 				unit = units[0];
 			}
-			if (unit != null) {
-				if (unit.isWorkingCopy()) {
-					continue;
-				}
-				if (changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CHANGED) {
-					if (unit.equals(CoreASTProvider.getInstance().getActiveJavaElement())) {
-						CoreASTProvider.getInstance().disposeAST();
-					}
-				}
+			if (unit != null && unit.isWorkingCopy()) {
+				iterator.remove();
 			}
-			pm.fileChanged(fileEvent.getUri(), changeType);
 		}
+		pm.fileChanged(changes);
+	}
+
+	/**
+	 * Merges the events of the same file, the last event wins but a file
+	 * created then changed is still created.
+	 *
+	 * @param events
+	 *            the file events
+	 * @return the uris of the changed files and their type of change, in the
+	 *         order they first changed
+	 */
+	Map<String, CHANGE_TYPE> coalesce(List<FileEvent> events) {
+		Map<String, CHANGE_TYPE> changes = new LinkedHashMap<>();
+		for (FileEvent fileEvent : events) {
+			CHANGE_TYPE changeType = toChangeType(fileEvent.getType());
+			changes.merge(fileEvent.getUri(), changeType, (previous, next) -> previous == CHANGE_TYPE.CREATED && next == CHANGE_TYPE.CHANGED ? previous : next);
+		}
+		return changes;
 	}
 
 	private ICompilationUnit createCompilationUnit(ICompilationUnit unit) {
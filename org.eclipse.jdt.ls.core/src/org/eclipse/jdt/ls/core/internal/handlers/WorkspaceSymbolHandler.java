@@ -12,10 +12,14 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
@@ -25,13 +29,27 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.SymbolKind;
 
+/**
+ * Searches the types, methods and fields of the workspace sources in the
+ * {@link WorkspaceSymbolIndex}, and the types of the libraries in the search
+ * indexes, with a fuzzy {@link SymbolPattern}. Only the best matches are
+ * returned, up to {@link Preferences#getMaxSymbolResults()}, and their
+ * locations are only computed once they're selected.
+ */
 public class WorkspaceSymbolHandler{
 
+	private static final Comparator<Candidate> RANKING = Comparator.<Candidate> comparingInt(c -> c.score)
+			.thenComparing(c -> c.kind != SymbolKind.Method && c.kind != SymbolKind.Field && c.kind != SymbolKind.Constructor)
+			.thenComparing(c -> c.name, Comparator.reverseOrder())
+			.thenComparing(c -> c.containerName, Comparator.reverseOrder());
+
 	private PreferenceManager preferenceManager;
 
 	public WorkspaceSymbolHandler(PreferenceManager preferenceManager) {
@@ -42,46 +60,61 @@ public class WorkspaceSymbolHandler{
 		if (query == null || query.trim().isEmpty()) {
 			return Collections.emptyList();
 		}
+		SymbolPattern pattern = new SymbolPattern(query.trim());
+		if (pattern.isEmpty()) {
+			return Collections.emptyList();
+		}
 
 		try {
-			ArrayList<SymbolInformation> symbols = new ArrayList<>();
-			new SearchEngine().searchAllTypeNames(null,SearchPattern.R_PATTERN_MATCH, query.toCharArray(), SearchPattern.R_CAMELCASE_MATCH, IJavaSearchConstants.TYPE, createSearchScope(),new TypeNameMatchRequestor() {
-
-				@Override
-				public void acceptTypeNameMatch(TypeNameMatch match) {
-					SymbolInformation symbolInformation = new SymbolInformation();
-					symbolInformation.setContainerName(match.getTypeContainerName());
-					symbolInformation.setName(match.getSimpleTypeName());
-					symbolInformation.setKind(mapKind(match));
-					Location location;
-					try {
-						if (match.getType().isBinary()) {
-							location = JDTUtils.toLocation(match.getType().getClassFile());
-						}  else {
-							location = JDTUtils.toLocation(match.getType());
+			int maxResults = preferenceManager.getPreferences().getMaxSymbolResults();
+			// the worst of the best candidates is at the head
+			PriorityQueue<Candidate> candidates = new PriorityQueue<>(maxResults > 0 ? maxResults + 1 : 11, RANKING);
+			WorkspaceSymbolIndex.getInstance().search(ProjectUtils.getJavaProjects(), pattern, (symbol, score) -> {
+				offer(candidates, maxResults, new Candidate(symbol.getName(), symbol.getKind(), symbol.getContainerName(), symbol.getElement(), score));
+			}, monitor);
+			if (preferenceManager.isClientSupportsClassFileContent()) {
+				new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, pattern.toSearchPattern(), SearchPattern.R_PATTERN_MATCH, IJavaSearchConstants.TYPE, createSearchScope(), new TypeNameMatchRequestor() {
+
+					@Override
+					public void acceptTypeNameMatch(TypeNameMatch match) {
+						// source types are in the index
+						if (!match.getType().isBinary()) {
+							return;
+						}
+						String name = match.getSimpleTypeName();
+						int score = pattern.match(name);
+						if (score != SymbolPattern.NO_MATCH) {
+							offer(candidates, maxResults, new Candidate(name, mapKind(match), match.getTypeContainerName(), match.getType(), score));
 						}
-					} catch (Exception e) {
-						JavaLanguageServerPlugin.logException("Unable to determine location for " +  match.getSimpleTypeName(), e);
-						return;
 					}
-					symbolInformation.setLocation(location);
-					symbols.add(symbolInformation);
-				}
 
-				private SymbolKind mapKind(TypeNameMatch match) {
-					int flags= match.getModifiers();
-					if (Flags.isInterface(flags)) {
-						return SymbolKind.Interface;
-					}
-					if (Flags.isAnnotation(flags)) {
-						return SymbolKind.Property;
-					}
-					if (Flags.isEnum(flags)) {
-						return SymbolKind.Enum;
+					private SymbolKind mapKind(TypeNameMatch match) {
+						int flags= match.getModifiers();
+						if (Flags.isInterface(flags)) {
+							return SymbolKind.Interface;
+						}
+						if (Flags.isAnnotation(flags)) {
+							return SymbolKind.Property;
+						}
+						if (Flags.isEnum(flags)) {
+							return SymbolKind.Enum;
+						}
+						return SymbolKind.Class;
 					}
-					return SymbolKind.Class;
+				}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			}
+			List<Candidate> best = new ArrayList<>(candidates);
+			best.sort(RANKING.reversed());
+			List<SymbolInformation> symbols = new ArrayList<>(best.size());
+			for (Candidate candidate : best) {
+				if (monitor.isCanceled()) {
+					break;
+				}
+				SymbolInformation symbolInformation = toSymbolInformation(candidate);
+				if (symbolInformation != null) {
+					symbols.add(symbolInformation);
 				}
-			}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			}
 			return symbols;
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Problem getting search for" +  query, e);
@@ -89,8 +122,61 @@ public class WorkspaceSymbolHandler{
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Keeps a candidate if it's among the best ones, all of them when
+	 * <code>maxResults</code> is 0.
+	 */
+	private static void offer(PriorityQueue<Candidate> candidates, int maxResults, Candidate candidate) {
+		if (maxResults == 0 || candidates.size() < maxResults) {
+			candidates.add(candidate);
+		} else if (RANKING.compare(candidate, candidates.peek()) > 0) {
+			candidates.poll();
+			candidates.add(candidate);
+		}
+	}
+
+	private static SymbolInformation toSymbolInformation(Candidate candidate) {
+		Location location;
+		try {
+			IJavaElement element = candidate.element;
+			if (element instanceof IType && ((IType) element).isBinary()) {
+				location = JDTUtils.toLocation(((IType) element).getClassFile());
+			} else {
+				location = JDTUtils.toLocation(element);
+			}
+		} catch (Exception e) {
+			JavaLanguageServerPlugin.logException("Unable to determine location for " + candidate.name, e);
+			return null;
+		}
+		if (location == null) {
+			return null;
+		}
+		SymbolInformation symbolInformation = new SymbolInformation();
+		symbolInformation.setContainerName(candidate.containerName);
+		symbolInformation.setName(candidate.name);
+		symbolInformation.setKind(candidate.kind);
+		symbolInformation.setLocation(location);
+		return symbolInformation;
+	}
+
 	private IJavaSearchScope createSearchScope() throws JavaModelException {
 		return JDTUtils.createSearchScope(null, preferenceManager);
 	}
 
+	private static final class Candidate {
+		private final String name;
+		private final SymbolKind kind;
+		private final String containerName;
+		private final IJavaElement element;
+		private final int score;
+
+		private Candidate(String name, SymbolKind kind, String containerName, IJavaElement element, int score) {
+			this.name = name;
+			this.kind = kind;
+			this.containerName = containerName;
+			this.element = element;
+			this.score = score;
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,459 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeMemberDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * Types, methods and fields declared in the source compilation units of the
+ * workspace, to look workspace symbols up without searching.
+ *
+ * The symbols of a project are read the first time it's searched, then kept
+ * up to date from the Java element deltas: the units which were added or
+ * changed, saved or not, are read again on the next search, and a project is
+ * read again entirely when its classpath changes. The units which aren't open
+ * are parsed without their method bodies rather than opened, so the Java
+ * model doesn't hold all the units of the projects searched.
+ */
+public final class WorkspaceSymbolIndex {
+
+	private static final WorkspaceSymbolIndex INSTANCE = new WorkspaceSymbolIndex();
+
+	private static final Symbol[] NO_SYMBOLS = new Symbol[0];
+
+	private static final int PROJECT_CHANGES = IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	private static final int ROOT_CHANGES = IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	/**
+	 * project -> symbols
+	 */
+	private final Map<IJavaProject, ProjectSymbols> projects = new HashMap<>();
+
+	private final IElementChangedListener listener = event -> processDelta(event.getDelta());
+
+	private boolean listening;
+
+	private WorkspaceSymbolIndex() {
+	}
+
+	public static WorkspaceSymbolIndex getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the symbols of the given projects matching a pattern.
+	 *
+	 * @param javaProjects
+	 *            the projects to search
+	 * @param pattern
+	 *            the pattern
+	 * @param requestor
+	 *            the requestor of the matching symbols
+	 * @param monitor
+	 *            the progress monitor, the search stops when it's cancelled
+	 */
+	public void search(IJavaProject[] javaProjects, SymbolPattern pattern, SymbolRequestor requestor, IProgressMonitor monitor) {
+		for (IJavaProject javaProject : javaProjects) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			for (Symbol[] symbols : getSymbols(javaProject, monitor)) {
+				for (Symbol symbol : symbols) {
+					int score = pattern.match(symbol.getName());
+					if (score != SymbolPattern.NO_MATCH) {
+						requestor.acceptSymbol(symbol, score);
+					}
+				}
+			}
+		}
+	}
+
+	private List<Symbol[]> getSymbols(IJavaProject javaProject, IProgressMonitor monitor) {
+		ProjectSymbols projectSymbols;
+		synchronized (projects) {
+			if (!listening) {
+				JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				listening = true;
+			}
+			projectSymbols = projects.computeIfAbsent(javaProject, ProjectSymbols::new);
+		}
+		synchronized (projectSymbols) {
+			if (!projectSymbols.read) {
+				projectSymbols.read(monitor);
+			}
+		}
+		Set<ICompilationUnit> stale;
+		synchronized (projects) {
+			stale = new HashSet<>(projectSymbols.stale);
+			projectSymbols.stale.clear();
+		}
+		for (ICompilationUnit unit : stale) {
+			projectSymbols.put(unit, readSymbols(unit));
+		}
+		synchronized (projects) {
+			return new ArrayList<>(projectSymbols.units.values());
+		}
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		int kind = delta.getKind();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (kind == IJavaElementDelta.REMOVED || (flags & PROJECT_CHANGES) != 0) {
+					synchronized (projects) {
+						projects.remove(element);
+					}
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & ROOT_CHANGES) != 0) {
+					synchronized (projects) {
+						projects.remove(element.getJavaProject());
+					}
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind == IJavaElementDelta.ADDED) {
+					try {
+						for (ICompilationUnit unit : ((IPackageFragment) element).getCompilationUnits()) {
+							markStale(unit);
+						}
+					} catch (JavaModelException e) {
+						// the project is read again on the next search
+						synchronized (projects) {
+							projects.remove(element.getJavaProject());
+						}
+					}
+					return;
+				} else if (kind == IJavaElementDelta.REMOVED) {
+					removeUnits(element);
+					return;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit = (ICompilationUnit) element;
+				if (unit.getOwner() != null) {
+					// not the working copy of a client
+				} else if (kind == IJavaElementDelta.REMOVED) {
+					removeUnits(unit);
+				} else {
+					markStale(unit);
+				}
+				return;
+			default:
+				return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	private void markStale(ICompilationUnit unit) {
+		synchronized (projects) {
+			ProjectSymbols projectSymbols = projects.get(unit.getJavaProject());
+			if (projectSymbols != null) {
+				projectSymbols.stale.add(unit);
+			}
+		}
+	}
+
+	/**
+	 * Removes the symbols of the given unit or of the units of the given
+	 * package fragment.
+	 */
+	private void removeUnits(IJavaElement element) {
+		synchronized (projects) {
+			ProjectSymbols projectSymbols = projects.get(element.getJavaProject());
+			if (projectSymbols == null) {
+				return;
+			}
+			for (Iterator<ICompilationUnit> units = projectSymbols.units.keySet().iterator(); units.hasNext();) {
+				ICompilationUnit unit = units.next();
+				if (unit.equals(element) || unit.getParent().equals(element)) {
+					units.remove();
+					projectSymbols.stale.remove(unit);
+				}
+			}
+		}
+	}
+
+	private static Symbol[] readSymbols(ICompilationUnit unit) {
+		if (!unit.exists()) {
+			return NO_SYMBOLS;
+		}
+		if (!unit.isOpen()) {
+			return parseSymbols(unit);
+		}
+		List<Symbol> symbols = new ArrayList<>();
+		try {
+			for (IType type : unit.getTypes()) {
+				readSymbols(type, unit.getParent().getElementName(), symbols);
+			}
+		} catch (JavaModelException e) {
+			// the unit has no symbols until it changes
+		}
+		return symbols.toArray(NO_SYMBOLS);
+	}
+
+	/**
+	 * Reads the symbols of a unit which isn't open from its source, without
+	 * opening it. The handles of the symbols are the ones the unit would have
+	 * once open.
+	 */
+	private static Symbol[] parseSymbols(ICompilationUnit unit) {
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setSource(unit);
+		parser.setIgnoreMethodBodies(true);
+		CompilationUnit ast = (CompilationUnit) parser.createAST(null);
+		List<Symbol> symbols = new ArrayList<>();
+		for (Object declaration : ast.types()) {
+			AbstractTypeDeclaration typeDeclaration = (AbstractTypeDeclaration) declaration;
+			parseSymbols(typeDeclaration, unit.getType(typeDeclaration.getName().getIdentifier()), unit.getParent().getElementName(), symbols);
+		}
+		return symbols.toArray(NO_SYMBOLS);
+	}
+
+	private static void parseSymbols(AbstractTypeDeclaration declaration, IType type, String containerName, List<Symbol> symbols) {
+		symbols.add(new Symbol(type.getElementName(), getKind(declaration), containerName, type));
+		String typeName = type.getFullyQualifiedName('.');
+		if (declaration instanceof EnumDeclaration) {
+			for (Object constant : ((EnumDeclaration) declaration).enumConstants()) {
+				String name = ((EnumConstantDeclaration) constant).getName().getIdentifier();
+				symbols.add(new Symbol(name, SymbolKind.EnumMember, typeName, type.getField(name)));
+			}
+		}
+		for (Object member : declaration.bodyDeclarations()) {
+			if (member instanceof FieldDeclaration) {
+				FieldDeclaration field = (FieldDeclaration) member;
+				int flags = field.getModifiers();
+				SymbolKind kind = Flags.isStatic(flags) && Flags.isFinal(flags) ? SymbolKind.Constant : SymbolKind.Field;
+				for (Object fragment : field.fragments()) {
+					String name = ((VariableDeclarationFragment) fragment).getName().getIdentifier();
+					symbols.add(new Symbol(name, kind, typeName, type.getField(name)));
+				}
+			} else if (member instanceof MethodDeclaration) {
+				MethodDeclaration method = (MethodDeclaration) member;
+				String name = method.getName().getIdentifier();
+				List<?> parameters = method.parameters();
+				String[] parameterTypes = new String[parameters.size()];
+				for (int i = 0; i < parameterTypes.length; i++) {
+					parameterTypes[i] = getTypeSignature((SingleVariableDeclaration) parameters.get(i));
+				}
+				symbols.add(new Symbol(name, method.isConstructor() ? SymbolKind.Constructor : SymbolKind.Method, typeName, type.getMethod(name, parameterTypes)));
+			} else if (member instanceof AnnotationTypeMemberDeclaration) {
+				String name = ((AnnotationTypeMemberDeclaration) member).getName().getIdentifier();
+				symbols.add(new Symbol(name, SymbolKind.Method, typeName, type.getMethod(name, new String[0])));
+			} else if (member instanceof AbstractTypeDeclaration) {
+				AbstractTypeDeclaration memberType = (AbstractTypeDeclaration) member;
+				parseSymbols(memberType, type.getType(memberType.getName().getIdentifier()), typeName, symbols);
+			}
+		}
+	}
+
+	/**
+	 * @return the unresolved signature of the type of a parameter, as found in
+	 *         the source method handles
+	 */
+	private static String getTypeSignature(SingleVariableDeclaration parameter) {
+		StringBuilder typeName = new StringBuilder(parameter.getType().toString());
+		for (int i = 0; i < parameter.getExtraDimensions(); i++) {
+			typeName.append("[]");
+		}
+		if (parameter.isVarargs()) {
+			typeName.append("[]");
+		}
+		return Signature.createTypeSignature(typeName.toString(), false);
+	}
+
+	/**
+	 * @return the kind of a type, as {@link DocumentSymbolHandler#mapKind}
+	 *         maps it
+	 */
+	private static SymbolKind getKind(AbstractTypeDeclaration declaration) {
+		if (declaration instanceof EnumDeclaration) {
+			return SymbolKind.Enum;
+		}
+		if (declaration instanceof AnnotationTypeDeclaration || (declaration instanceof TypeDeclaration && ((TypeDeclaration) declaration).isInterface())) {
+			return SymbolKind.Interface;
+		}
+		return SymbolKind.Class;
+	}
+
+	private static void readSymbols(IType type, String containerName, List<Symbol> symbols) throws JavaModelException {
+		symbols.add(new Symbol(type.getElementName(), DocumentSymbolHandler.mapKind(type), containerName, type));
+		String typeName = type.getFullyQualifiedName('.');
+		for (IField field : type.getFields()) {
+			symbols.add(new Symbol(field.getElementName(), DocumentSymbolHandler.mapKind(field), typeName, field));
+		}
+		for (IMethod method : type.getMethods()) {
+			symbols.add(new Symbol(method.getElementName(), method.isConstructor() ? SymbolKind.Constructor : SymbolKind.Method, typeName, method));
+		}
+		for (IType memberType : type.getTypes()) {
+			readSymbols(memberType, typeName, symbols);
+		}
+	}
+
+	private final class ProjectSymbols {
+
+		private final IJavaProject javaProject;
+
+		/**
+		 * unit -> symbols, guarded by {@link WorkspaceSymbolIndex#projects}
+		 */
+		private final Map<ICompilationUnit, Symbol[]> units = new HashMap<>();
+
+		/**
+		 * units to read again, guarded by {@link WorkspaceSymbolIndex#projects}
+		 */
+		private final Set<ICompilationUnit> stale = new HashSet<>();
+
+		/**
+		 * whether all the units were read, guarded by this
+		 */
+		private boolean read;
+
+		private ProjectSymbols(IJavaProject javaProject) {
+			this.javaProject = javaProject;
+		}
+
+		private void read(IProgressMonitor monitor) {
+			try {
+				for (IPackageFragmentRoot root : javaProject.getPackageFragmentRoots()) {
+					if (root.getKind() != IPackageFragmentRoot.K_SOURCE) {
+						continue;
+					}
+					for (IJavaElement child : root.getChildren()) {
+						for (ICompilationUnit unit : ((IPackageFragment) child).getCompilationUnits()) {
+							if (monitor.isCanceled()) {
+								// read the remaining units on the next search
+								return;
+							}
+							put(unit, readSymbols(unit));
+						}
+					}
+				}
+				read = true;
+			} catch (JavaModelException e) {
+				// the project is read again on the next search
+			}
+		}
+
+		private void put(ICompilationUnit unit, Symbol[] symbols) {
+			synchronized (projects) {
+				// the unit may have been removed while it was read
+				if (unit.exists()) {
+					units.put(unit, symbols);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * A symbol declared in a source compilation unit.
+	 */
+	public static final class Symbol {
+
+		private final String name;
+		private final SymbolKind kind;
+		private final String containerName;
+		private final IJavaElement element;
+
+		private Symbol(String name, SymbolKind kind, String containerName, IJavaElement element) {
+			this.name = name;
+			this.kind = kind;
+			this.containerName = containerName;
+			this.element = element;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public SymbolKind getKind() {
+			return kind;
+		}
+
+		public String getContainerName() {
+			return containerName;
+		}
+
+		/**
+		 * @return the handle of the type, method or field
+		 */
+		public IJavaElement getElement() {
+			return element;
+		}
+
+	}
+
+	/**
+	 * A requestor of the symbols matching a search.
+	 */
+	public interface SymbolRequestor {
+
+		/**
+		 * Accepts a matching symbol.
+		 *
+		 * @param symbol
+		 *            the symbol
+		 * @param score
+		 *            the score of its name, see {@link SymbolPattern#match}
+		 */
+		void acceptSymbol(Symbol symbol, int score);
+
+	}
+
+}
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.highlighting;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * The highlighted positions of a document, sorted by offset, stored as
+ * <code>(offset, length, scope)</code> triples of an int array. The scope is
+ * an index of {@link SemanticHighlightingService#getScopes(int)}.
+ *
+ * The ranges of the method and initializer bodies the positions were computed
+ * from are kept as well, so the positions of a body can be computed again
+ * after an edit inside it, and the others shifted.
+ */
+public final class HighlightedPositions {
+
+	public static final HighlightedPositions EMPTY = new HighlightedPositions(new int[0], 0, new int[0]);
+
+	private static final int OFFSET = 0;
+	private static final int LENGTH = 1;
+	private static final int SCOPE = 2;
+	private static final int SIZE = 3;
+
+	/**
+	 * the (offset, length, scope) triples
+	 */
+	private final int[] positions;
+
+	private final int size;
+
+	/**
+	 * the (start, end) pairs of the bodies, the end being exclusive
+	 */
+	private final int[] bodies;
+
+	private HighlightedPositions(int[] positions, int size, int[] bodies) {
+		this.positions = positions;
+		this.size = size;
+		this.bodies = bodies;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int getOffset(int index) {
+		return positions[index * SIZE + OFFSET];
+	}
+
+	public int getLength(int index) {
+		return positions[index * SIZE + LENGTH];
+	}
+
+	public int getScope(int index) {
+		return positions[index * SIZE + SCOPE];
+	}
+
+	/**
+	 * @return the index of the first position starting at or after the
+	 *         offset, {@link #size()} if there is none
+	 */
+	public int indexOf(int offset) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getOffset(middle) < offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the number of method and initializer bodies
+	 */
+	public int getBodyCount() {
+		return bodies.length / 2;
+	}
+
+	public int getBodyStart(int index) {
+		return bodies[index * 2];
+	}
+
+	public int getBodyEnd(int index) {
+		return bodies[index * 2 + 1];
+	}
+
+	/**
+	 * Returns the index of the body an edit is strictly inside of, between
+	 * its braces.
+	 *
+	 * @param offset
+	 *            the offset of the edit
+	 * @param length
+	 *            the length of the replaced text
+	 * @return the index of the body, -1 if there is none
+	 */
+	public int getBodyAround(int offset, int length) {
+		int low = 0;
+		int high = getBodyCount() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (getBodyEnd(middle) <= offset) {
+				low = middle + 1;
+			} else if (getBodyStart(middle) >= offset) {
+				high = middle - 1;
+			} else {
+				return offset + length < getBodyEnd(middle) ? middle : -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the positions after an edit inside of a body: the positions
+	 * before the body are kept, the positions of the body are replaced, and
+	 * the positions after the body are shifted.
+	 *
+	 * @param body
+	 *            the index of the body
+	 * @param delta
+	 *            the difference between the lengths of the inserted and the
+	 *            replaced text
+	 * @param bodyPositions
+	 *            the positions of the body, after the edit
+	 * @return the positions after the edit
+	 */
+	public HighlightedPositions replaceBody(int body, int delta, HighlightedPositions bodyPositions) {
+		int start = indexOf(getBodyStart(body));
+		int end = indexOf(getBodyEnd(body));
+		int newSize = start + bodyPositions.size + size - end;
+		int[] newPositions = new int[newSize * SIZE];
+		System.arraycopy(positions, 0, newPositions, 0, start * SIZE);
+		System.arraycopy(bodyPositions.positions, 0, newPositions, start * SIZE, bodyPositions.size * SIZE);
+		int shifted = (start + bodyPositions.size) * SIZE;
+		System.arraycopy(positions, end * SIZE, newPositions, shifted, (size - end) * SIZE);
+		for (int i = shifted; i < newPositions.length; i += SIZE) {
+			newPositions[i + OFFSET] += delta;
+		}
+		int[] newBodies = bodies.clone();
+		newBodies[body * 2 + 1] += delta;
+		for (int i = (body + 1) * 2; i < newBodies.length; i++) {
+			newBodies[i] += delta;
+		}
+		return new HighlightedPositions(newPositions, newSize, newBodies);
+	}
+
+	/**
+	 * @return whether the bodies of an AST are the ones of these positions
+	 *         after an edit inside of a body
+	 */
+	public boolean hasBodies(CompilationUnit ast, int body, int delta) {
+		int[] astBodies = getBodies(ast);
+		if (astBodies.length != bodies.length) {
+			return false;
+		}
+		for (int i = 0; i < bodies.length; i++) {
+			int expected = bodies[i];
+			if (i > body * 2) {
+				expected += delta;
+			}
+			if (astBodies[i] != expected) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			builder.append(i == 0 ? "[" : ", ");
+			builder.append(getOffset(i)).append(':').append(getLength(i)).append(':').append(getScope(i));
+		}
+		return builder.append(size == 0 ? "[]" : "]").toString();
+	}
+
+	/**
+	 * @return the (start, end) pairs of the bodies of the methods and
+	 *         initializers of the types of an AST, in order
+	 */
+	static int[] getBodies(CompilationUnit ast) {
+		Builder builder = new Builder();
+		for (Object type : ast.types()) {
+			addBodies((AbstractTypeDeclaration) type, builder);
+		}
+		return builder.bodies == null ? new int[0] : Arrays.copyOf(builder.bodies, builder.bodyCount * 2);
+	}
+
+	private static void addBodies(AbstractTypeDeclaration type, Builder builder) {
+		for (Object declaration : type.bodyDeclarations()) {
+			Block body = null;
+			if (declaration instanceof MethodDeclaration) {
+				body = ((MethodDeclaration) declaration).getBody();
+			} else if (declaration instanceof Initializer) {
+				body = ((Initializer) declaration).getBody();
+			} else if (declaration instanceof AbstractTypeDeclaration) {
+				addBodies((AbstractTypeDeclaration) declaration, builder);
+			}
+			if (body != null && (body.getFlags() & ASTNode.MALFORMED) == 0) {
+				builder.addBody(body.getStartPosition(), body.getStartPosition() + body.getLength());
+			}
+		}
+	}
+
+	/**
+	 * Returns the body of the methods and initializers of an AST at a range.
+	 *
+	 * @return the body, or <code>null</code> if there is none
+	 */
+	static Block getBody(CompilationUnit ast, int start, int end) {
+		List<?> declarations = ast.types();
+		Block body = null;
+		while (declarations != null && body == null) {
+			List<?> members = null;
+			for (Object declaration : declarations) {
+				BodyDeclaration member = (BodyDeclaration) declaration;
+				if (member.getStartPosition() > start || member.getStartPosition() + member.getLength() < end) {
+					continue;
+				}
+				if (member instanceof AbstractTypeDeclaration) {
+					members = ((AbstractTypeDeclaration) member).bodyDeclarations();
+				} else if (member instanceof MethodDeclaration) {
+					body = ((MethodDeclaration) member).getBody();
+				} else if (member instanceof Initializer) {
+					body = ((Initializer) member).getBody();
+				}
+				break;
+			}
+			declarations = members;
+		}
+		if (body != null && body.getStartPosition() == start && body.getStartPosition() + body.getLength() == end) {
+			return body;
+		}
+		return null;
+	}
+
+	/**
+	 * Collects highlighted positions, in any order.
+	 */
+	public static final class Builder {
+
+		private int[] positions = new int[16 * SIZE];
+
+		private int size;
+
+		private int[] bodies;
+
+		private int bodyCount;
+
+		public void add(int offset, int length, int scope) {
+			if (positions.length == size * SIZE) {
+				positions = Arrays.copyOf(positions, positions.length * 2);
+			}
+			int i = size * SIZE;
+			positions[i + OFFSET] = offset;
+			positions[i + LENGTH] = length;
+			positions[i + SCOPE] = scope;
+			size++;
+		}
+
+		private void addBody(int start, int end) {
+			if (bodies == null) {
+				bodies = new int[16];
+			} else if (bodies.length == bodyCount * 2) {
+				bodies = Arrays.copyOf(bodies, bodies.length * 2);
+			}
+			bodies[bodyCount * 2] = start;
+			bodies[bodyCount * 2 + 1] = end;
+			bodyCount++;
+		}
+
+		/**
+		 * @return the positions, sorted and without duplicates
+		 */
+		public HighlightedPositions build() {
+			return build(new int[0]);
+		}
+
+		/**
+		 * @param ast
+		 *            the AST the positions were computed from
+		 * @return the positions, sorted and without duplicates, and the bodies
+		 *         of the AST
+		 */
+		public HighlightedPositions build(CompilationUnit ast) {
+			return build(getBodies(ast));
+		}
+
+		private HighlightedPositions build(int[] bodies) {
+			if (!isSorted()) {
+				sort();
+			}
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				int from = i * SIZE;
+				int to = (count - 1) * SIZE;
+				if (count > 0 && positions[to + OFFSET] == positions[from + OFFSET] && positions[to + LENGTH] == positions[from + LENGTH] && positions[to + SCOPE] == positions[from + SCOPE]) {
+					continue;
+				}
+				System.arraycopy(positions, from, positions, count * SIZE, SIZE);
+				count++;
+			}
+			return new HighlightedPositions(Arrays.copyOf(positions, count * SIZE), count, bodies);
+		}
+
+		private boolean isSorted() {
+			for (int i = 1; i < size; i++) {
+				if (positions[(i - 1) * SIZE + OFFSET] > positions[i * SIZE + OFFSET]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void sort() {
+			// the visitor mostly adds the positions in order, so this is rare
+			long[] keys = new long[size];
+			for (int i = 0; i < size; i++) {
+				keys[i] = ((long) positions[i * SIZE + OFFSET] << 32) | i;
+			}
+			Arrays.sort(keys);
+			int[] sorted = new int[positions.length];
+			for (int i = 0; i < size; i++) {
+				System.arraycopy(positions, ((int) keys[i]) * SIZE, sorted, i * SIZE, SIZE);
+			}
+			positions = sorted;
+		}
+
+	}
+
+}
@@ -168,6 +168,15 @@ public class SemanticHighlightingReconciler {
 		 *            The highlighting
 		 */
 		private void addPosition(int offset, int length, List<String> scopes) {
+			if (fJobBuilder != null) {
+				for (int i= 0, n= fJobHighlightings.size(); i < n; i++) {
+					if (fJobHighlightings.get(i) == scopes) {
+						fJobBuilder.add(offset, length, i);
+						break;
+					}
+				}
+				return;
+			}
 			boolean isExisting= false;
 			// TODO: use binary search
 			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
@@ -249,6 +258,11 @@ public class SemanticHighlightingReconciler {
 	 */
 	private List<String> fJobDeprecatedMemberHighlighting;
 
+	/**
+	 * The collected positions, only valid during {@link #collect(ASTNode, HighlightedPositions.Builder)}
+	 */
+	private HighlightedPositions.Builder fJobBuilder;
+
 	public List<HighlightedPositionCore> reconciled(IDocument document, ASTNode ast, boolean forced, IProgressMonitor progressMonitor) throws BadPositionCategoryException {
 		// ensure at most one thread can be reconciling at any time
 		synchronized (fReconcileLock) {
@@ -309,6 +323,45 @@ public class SemanticHighlightingReconciler {
 		}
 	}
 
+	/**
+	 * Collects the highlighted positions of an AST subtree, without tracking
+	 * them in a document.
+	 *
+	 * @param node the subtree
+	 * @param builder the builder to add the positions to, as indexes of the scopes
+	 */
+	public void collect(ASTNode node, HighlightedPositions.Builder builder) {
+		// ensure at most one thread can be reconciling at any time
+		synchronized (fReconcileLock) {
+			if (fIsReconciling) {
+				return;
+			} else {
+				fIsReconciling= true;
+			}
+		}
+		fJobSemanticHighlightings= fSemanticHighlightings;
+		fJobHighlightings= fHighlightings;
+		fJobBuilder= builder;
+		try {
+			fJobDeprecatedMemberHighlighting= null;
+			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
+				if (fJobSemanticHighlightings[i] instanceof DeprecatedMemberHighlighting) {
+					fJobDeprecatedMemberHighlighting= fJobHighlightings.get(i);
+					break;
+				}
+			}
+			node.accept(fCollector);
+		} finally {
+			fJobSemanticHighlightings= null;
+			fJobHighlightings= null;
+			fJobDeprecatedMemberHighlighting= null;
+			fJobBuilder= null;
+			synchronized (fReconcileLock) {
+				fIsReconciling= false;
+			}
+		}
+	}
+
 	/**
 	 * @param node Root node
 	 * @return Array of subtrees that may be affected by past document changes
@@ -18,7 +18,6 @@ import static java.util.Collections.emptyList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.Assert;
@@ -26,31 +25,26 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
-import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.BadPositionCategoryException;
-import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.Position;
 import org.eclipse.lsp4j.SemanticHighlightingInformation;
 import org.eclipse.lsp4j.SemanticHighlightingParams;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
-import org.eclipse.lsp4j.util.SemanticHighlightingTokens;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.BiMap;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableBiMap.Builder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
 
 /**
  * A stateful service for installing, un-installing, and updating semantic
@@ -106,45 +100,69 @@ public class SemanticHighlightingService {
 	}
 
 	/**
-	 * Wraps contextual information about highlighted position changes. Although the
-	 * instances are immutable, the references are not.
+	 * Describes an edit of a document, with the end of the replaced text before
+	 * the edit.
 	 */
 	public static class HighlightedPositionDiffContext {
 
-		//@formatter:off
-		public final IDocument oldState;
-		public final IDocument newState;
-		public final DocumentEvent event;
-		public final List<HighlightedPositionCore> oldPositions;
-		public final List<HighlightedPositionCore> newPositions;
-
-		public HighlightedPositionDiffContext(
-				IDocument oldState,
-				DocumentEvent event,
-				Iterable<? extends HighlightedPositionCore> oldPositions,
-				Iterable<? extends HighlightedPositionCore> newPositions) {
-
-			this.oldState = oldState;
-			this.newState = event.fDocument;
-			this.event = event;
-			this.oldPositions = ImmutableList.copyOf(oldPositions);
-			this.newPositions = ImmutableList.copyOf(newPositions);
+		/**
+		 * the offset of the edit
+		 */
+		public final int offset;
+
+		/**
+		 * the length of the replaced text
+		 */
+		public final int length;
+
+		public final String text;
+
+		/**
+		 * the column of the end of the replaced text, before the edit
+		 */
+		public final int oldEndColumn;
+
+		/**
+		 * the offset of the end of the line of the end of the replaced text,
+		 * before the edit
+		 */
+		public final int oldEndLineEnd;
+
+		/**
+		 * @param oldState
+		 *            the document, before the edit
+		 */
+		public HighlightedPositionDiffContext(IDocument oldState, int offset, int length, String text) throws BadLocationException {
+			this.offset = offset;
+			this.length = length;
+			this.text = text;
+			int oldEndLine = oldState.getLineOfOffset(offset + length);
+			int oldEndLineOffset = oldState.getLineOffset(oldEndLine);
+			this.oldEndColumn = offset + length - oldEndLineOffset;
+			this.oldEndLineEnd = oldEndLineOffset + oldState.getLineLength(oldEndLine);
+		}
+
+		/**
+		 * @return the difference between the lengths of the inserted and the
+		 *         replaced text
+		 */
+		public int getDelta() {
+			return text.length() - length;
 		}
-		//@formatter:on
 
 	}
 
 	private final Supplier<Boolean> enabled;
 	private final JavaClientConnection connection;
-	private final Map<String, List<HighlightedPositionCore>> cache;
-	private CoreASTProvider astProvider;
+	private final Map<String, HighlightedPositions> cache;
+	private SharedASTProvider astProvider;
 	private SemanticHighlightingDiffCalculator diffCalculator;
 
-	public SemanticHighlightingService(JavaClientConnection connection, CoreASTProvider astProvider, PreferenceManager preferenceManager) {
+	public SemanticHighlightingService(JavaClientConnection connection, SharedASTProvider astProvider, PreferenceManager preferenceManager) {
 		this(connection, astProvider, memoize(() -> preferenceManager.getClientPreferences().isSemanticHighlightingSupported()));
 	}
 
-	public SemanticHighlightingService(JavaClientConnection connection, CoreASTProvider astProvider, Supplier<Boolean> enabled) {
+	public SemanticHighlightingService(JavaClientConnection connection, SharedASTProvider astProvider, Supplier<Boolean> enabled) {
 		this.connection = connection;
 		this.astProvider = astProvider;
 		this.enabled = enabled; // XXX: move this out and have a factory instead, that creates a NOOP service instance.
@@ -162,83 +180,134 @@ public class SemanticHighlightingService {
 		}
 	}
 
-	public List<Position> install(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException {
+	public HighlightedPositions install(ICompilationUnit unit) throws JavaModelException {
 		if (enabled.get()) {
-			List<HighlightedPositionCore> positions = calculateHighlightedPositions(unit, false);
-			String uri = JDTUtils.getFileURI(unit.getResource());
-			this.cache.put(uri, positions);
+			HighlightedPositions positions = calculateHighlightedPositions(unit, true);
 			if (!positions.isEmpty()) {
+				String uri = JDTUtils.getFileURI(unit.getResource());
 				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 				List<SemanticHighlightingInformation> infos = toInfos(document, positions);
 				VersionedTextDocumentIdentifier textDocument = new VersionedTextDocumentIdentifier(uri, 1);
 				notifyClient(textDocument, infos);
 			}
-			return ImmutableList.copyOf(positions);
+			return positions;
 		}
-		return emptyList();
+		return HighlightedPositions.EMPTY;
 	}
 
-	public List<HighlightedPositionCore> calculateHighlightedPositions(ICompilationUnit unit, boolean cache) throws JavaModelException, BadPositionCategoryException {
+	public HighlightedPositions calculateHighlightedPositions(ICompilationUnit unit, boolean cache) throws JavaModelException {
 		if (enabled.get()) {
-			IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 			ASTNode ast = getASTNode(unit);
-			List<HighlightedPositionCore> positions = calculateHighlightedPositions(document, ast);
+			HighlightedPositions positions = ast instanceof CompilationUnit ? calculateHighlightedPositions((CompilationUnit) ast) : HighlightedPositions.EMPTY;
 			if (cache) {
 				String uri = JDTUtils.getFileURI(unit.getResource());
 				this.cache.put(uri, positions);
 			}
-			return ImmutableList.copyOf(positions);
+			return positions;
 		}
-		return emptyList();
+		return HighlightedPositions.EMPTY;
 	}
 
-	public List<HighlightedPositionCore> getHighlightedPositions(String uri) {
-		return ImmutableList.copyOf(cache.getOrDefault(uri, emptyList()));
+	public HighlightedPositions getHighlightedPositions(String uri) {
+		return cache.getOrDefault(uri, HighlightedPositions.EMPTY);
 	}
 
-	public void update(VersionedTextDocumentIdentifier textDocument, List<HighlightedPositionDiffContext> diffContexts) throws BadLocationException, BadPositionCategoryException, JavaModelException {
-		if (enabled.get() && !diffContexts.isEmpty()) {
-			List<SemanticHighlightingInformation> deltaInfos = newArrayList();
-			for (HighlightedPositionDiffContext context : diffContexts) {
-				deltaInfos.addAll(diffCalculator.getDiffInfos(context));
+	/**
+	 * Updates the highlighted positions of a document after an edit, and
+	 * returns the lines whose highlighting changed.
+	 *
+	 * When the edit is inside of a method or initializer body, and the bodies
+	 * are the same otherwise, only the positions of that body are computed
+	 * again: the positions before it are kept and the positions after it are
+	 * shifted. Otherwise, the positions of the whole document are computed
+	 * again.
+	 *
+	 * @param unit
+	 *            the edited unit
+	 * @param context
+	 *            the edit, already applied to the unit
+	 * @return the lines whose highlighting changed
+	 */
+	public List<SemanticHighlightingInformation> reconcile(ICompilationUnit unit, HighlightedPositionDiffContext context) throws JavaModelException, BadLocationException {
+		if (!enabled.get()) {
+			return emptyList();
+		}
+		String uri = JDTUtils.getFileURI(unit.getResource());
+		IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
+		HighlightedPositions oldPositions = getHighlightedPositions(uri);
+		ASTNode ast = getASTNode(unit);
+		HighlightedPositions newPositions = null;
+		// compare the positions of the whole document, unless only a body changed
+		int from = 0;
+		int to = document.getLength() + 1;
+		if (ast instanceof CompilationUnit) {
+			CompilationUnit astRoot = (CompilationUnit) ast;
+			int delta = context.getDelta();
+			int body = oldPositions.getBodyAround(context.offset, context.length);
+			if (body >= 0 && oldPositions.hasBodies(astRoot, body, delta)) {
+				int start = oldPositions.getBodyStart(body);
+				int end = oldPositions.getBodyEnd(body) + delta;
+				Block block = HighlightedPositions.getBody(astRoot, start, end);
+				if (block != null) {
+					newPositions = oldPositions.replaceBody(body, delta, calculateBodyPositions(block));
+					int editEndLine = document.getLineOfOffset(context.offset + context.text.length());
+					// the positions after the edit on its line may have moved to other columns
+					from = start;
+					to = Math.max(end, document.getLineOffset(editEndLine) + document.getLineLength(editEndLine));
+				}
 			}
-			if (!deltaInfos.isEmpty()) {
-				notifyClient(textDocument, deltaInfos);
+			if (newPositions == null) {
+				newPositions = calculateHighlightedPositions(astRoot);
 			}
+		} else {
+			newPositions = HighlightedPositions.EMPTY;
 		}
+		this.cache.put(uri, newPositions);
+		return diffCalculator.getDiffInfos(context, oldPositions, newPositions, document, from, to);
 	}
 
-	protected List<HighlightedPositionCore> calculateHighlightedPositions(IDocument document, ASTNode ast) throws BadPositionCategoryException {
-		return new SemanticHighlightingReconciler().reconciled(document, ast, false, new NullProgressMonitor());
+	public void update(VersionedTextDocumentIdentifier textDocument, List<SemanticHighlightingInformation> infos) {
+		if (enabled.get()) {
+			notifyClient(textDocument, infos);
+		}
+	}
+
+	/**
+	 * @return the highlighted positions of an AST, with the bodies of its
+	 *         methods and initializers
+	 */
+	protected HighlightedPositions calculateHighlightedPositions(CompilationUnit ast) {
+		HighlightedPositions.Builder builder = new HighlightedPositions.Builder();
+		new SemanticHighlightingReconciler().collect(ast, builder);
+		return builder.build(ast);
+	}
+
+	/**
+	 * @return the highlighted positions of a method or initializer body
+	 */
+	protected HighlightedPositions calculateBodyPositions(Block body) {
+		HighlightedPositions.Builder builder = new HighlightedPositions.Builder();
+		new SemanticHighlightingReconciler().collect(body, builder);
+		return builder.build();
 	}
 
 	protected ASTNode getASTNode(ICompilationUnit unit) {
-		// TODO: This seems odd here.
-		// I had problems when opened the second compilation unit in the editor.
-		// It was still using the previous AST.
-		this.astProvider.disposeAST();
-		return this.astProvider.getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
-	}
-
-	protected List<SemanticHighlightingInformation> toInfos(IDocument document, List<HighlightedPositionCore> positions) {
-		Multimap<Integer, SemanticHighlightingTokens.Token> infos = HashMultimap.create();
-		for (HighlightedPositionCore position : positions) {
-			int[] lineAndColumn = JsonRpcHelpers.toLine(document, position.offset);
-			if (lineAndColumn == null) {
-				JavaLanguageServerPlugin.logError("Cannot locate line and column information for the semantic highlighting position: " + position + ". Skipping it.");
-				continue;
+		return this.astProvider.getAST(unit, new NullProgressMonitor());
+	}
+
+	protected List<SemanticHighlightingInformation> toInfos(IDocument document, HighlightedPositions positions) {
+		List<SemanticHighlightingInformation> infos = newArrayList();
+		try {
+			int index = 0;
+			while (index < positions.size()) {
+				int line = document.getLineOfOffset(positions.getOffset(index));
+				infos.add(diffCalculator.getInformation(document, positions, line));
+				index = positions.indexOf(document.getLineOffset(line) + document.getLineLength(line));
 			}
-			int line = lineAndColumn[0];
-			int character = lineAndColumn[1];
-			int length = position.length;
-			int scope = LOOKUP_TABLE.inverse().get(position.getHighlighting());
-			infos.put(line, new SemanticHighlightingTokens.Token(character, length, scope));
+		} catch (BadLocationException e) {
+			JavaLanguageServerPlugin.logException("Cannot locate line and column information for the semantic highlighting positions. Skipping them.", e);
 		}
-		//@formatter:off
-		return infos.asMap().entrySet().stream()
-			.map(entry -> new SemanticHighlightingInformation(entry.getKey(), SemanticHighlightingTokens.encode(entry.getValue())))
-			.collect(Collectors.toList());
-		//@formatter:on
+		return infos;
 	}
 
 	protected void notifyClient(VersionedTextDocumentIdentifier textDocument, List<SemanticHighlightingInformation> infos) {
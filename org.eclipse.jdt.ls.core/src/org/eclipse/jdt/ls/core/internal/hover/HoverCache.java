@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.hover;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IBufferChangedListener;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IOpenable;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.lsp4j.MarkedString;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Rendered hovers of the most recently hovered elements. An entry is keyed by
+ * the handle of the element and a stamp: a modification stamp, increased
+ * whenever the workspace changes, a working copy is reconciled or the buffer
+ * of a hovered compilation unit changes, as a Javadoc may be inherited from
+ * another type, and for a class file, the archive and source attachment
+ * declaring it. The contents of the compilation units are never compared.
+ */
+public final class HoverCache {
+
+	private static final int MAX_ENTRIES = 100;
+
+	private static final HoverCache INSTANCE = new HoverCache();
+
+	private final AtomicLong modificationStamp = new AtomicLong();
+
+	/**
+	 * element handle -> hover
+	 */
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private final IElementChangedListener listener = event -> clear();
+
+	private final IBufferChangedListener bufferListener = event -> clear();
+
+	private boolean listening;
+
+	private HoverCache() {
+	}
+
+	public static HoverCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the stamp of the given element, to look its hover up and to cache
+	 * it.
+	 *
+	 * @param element
+	 *            the hovered element
+	 * @return the stamp, or <code>null</code> if the hover of the element
+	 *         can't be cached
+	 */
+	public String getStamp(IJavaElement element) {
+		synchronized (entries) {
+			if (!listening) {
+				JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				listening = true;
+			}
+		}
+		String stamp = getOpenableStamp(element.getOpenable(), bufferListener);
+		if (stamp == null) {
+			return null;
+		}
+		// Javadoc links to class files depend on the client support
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		boolean classFileLinks = preferenceManager == null || preferenceManager.isClientSupportsClassFileContent();
+		return modificationStamp.get() + ":" + classFileLinks + ":" + stamp;
+	}
+
+	/**
+	 * Returns the cached hover of the given element.
+	 *
+	 * @param element
+	 *            the hovered element
+	 * @param stamp
+	 *            the current stamp of the element
+	 * @return the hover contents, or <code>null</code> if they are unknown or
+	 *         stale
+	 */
+	public List<Either<String, MarkedString>> get(IJavaElement element, String stamp) {
+		synchronized (entries) {
+			Entry entry = entries.get(element.getHandleIdentifier());
+			if (entry == null || !entry.stamp.equals(stamp)) {
+				return null;
+			}
+			return entry.contents;
+		}
+	}
+
+	/**
+	 * Caches the hover of the given element.
+	 *
+	 * @param element
+	 *            the hovered element
+	 * @param stamp
+	 *            the stamp of the element read before the hover was computed
+	 * @param contents
+	 *            the hover contents
+	 */
+	public void put(IJavaElement element, String stamp, List<Either<String, MarkedString>> contents) {
+		synchronized (entries) {
+			entries.put(element.getHandleIdentifier(), new Entry(stamp, Collections.unmodifiableList(new ArrayList<>(contents))));
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			modificationStamp.incrementAndGet();
+		}
+	}
+
+	private static String getOpenableStamp(IOpenable openable, IBufferChangedListener bufferListener) {
+		try {
+			if (openable instanceof ICompilationUnit) {
+				IBuffer buffer = openable.getBuffer();
+				if (buffer == null || buffer.isClosed()) {
+					return null;
+				}
+				// the changes of the buffer increase the modification stamp, the listener is only added once
+				buffer.addBufferChangedListener(bufferListener);
+				return "";
+			} else if (openable instanceof IClassFile) {
+				IPackageFragmentRoot root = (IPackageFragmentRoot) ((IClassFile) openable).getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+				if (root == null) {
+					return null;
+				}
+				IResource resource = root.getResource();
+				long lastModified = resource != null ? resource.getModificationStamp() : new File(root.getPath().toOSString()).lastModified();
+				// sources may be attached after the first hover
+				IPath sourceAttachment = root.getSourceAttachmentPath();
+				return lastModified + ":" + sourceAttachment;
+			}
+		} catch (JavaModelException e) {
+			// not cached
+		}
+		return null;
+	}
+
+	private static final class Entry {
+		private final String stamp;
+		private final List<Either<String, MarkedString>> contents;
+
+		private Entry(String stamp, List<Either<String, MarkedString>> contents) {
+			this.stamp = stamp;
+			this.contents = contents;
+		}
+	}
+
+}
@@ -32,8 +32,8 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
-import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.TypeHierarchyCache;
 import org.eclipse.lsp4j.Location;
 
 /**
@@ -271,7 +271,7 @@ public class JavaElementLinks {
 									}
 
 									// reference can also point to method from supertype:
-									ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(type);
+									ITypeHierarchy hierarchy = TypeHierarchyCache.getInstance().getSupertypeHierarchy(type, null);
 									method = JavaModelUtil.findMethodInHierarchy(hierarchy, type, refMemberName, paramSignatures, false);
 									if (method != null) {
 										return method;
@@ -85,13 +85,13 @@ import org.eclipse.jdt.core.dom.PackageDeclaration;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.TagElement;
 import org.eclipse.jdt.core.dom.TextElement;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.JdtFlags;
 import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
-import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
+import org.eclipse.jdt.ls.core.internal.TypeHierarchyCache;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
 
 /**
@@ -504,14 +504,14 @@ public class JavadocContentAccess2 {
 
 		private ITypeHierarchy getTypeHierarchy() throws JavaModelException {
 			if (fTypeHierarchy == null) {
-				fTypeHierarchy = SuperTypeHierarchyCache.getTypeHierarchy(fStartingType);
+				fTypeHierarchy = TypeHierarchyCache.getInstance().getSupertypeHierarchy(fStartingType, null);
 			}
 			return fTypeHierarchy;
 		}
 
 		private MethodOverrideTester getOverrideTester() throws JavaModelException {
 			if (fOverrideTester == null) {
-				fOverrideTester = SuperTypeHierarchyCache.getMethodOverrideTester(fStartingType);
+				fOverrideTester = TypeHierarchyCache.getInstance().getMethodOverrideTester(fStartingType);
 			}
 			return fOverrideTester;
 		}
@@ -618,8 +618,8 @@ public class JavadocContentAccess2 {
 
 	private static StringBuffer createSuperMethodReferences(final IMethod method) throws JavaModelException {
 		IType type = method.getDeclaringType();
-		ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(type);
-		final MethodOverrideTester tester = SuperTypeHierarchyCache.getMethodOverrideTester(type);
+		ITypeHierarchy hierarchy = TypeHierarchyCache.getInstance().getSupertypeHierarchy(type, null);
+		final MethodOverrideTester tester = TypeHierarchyCache.getInstance().getMethodOverrideTester(type);
 
 		final ArrayList<IMethod> superInterfaceMethods = new ArrayList<>();
 		final IMethod[] superClassMethod = { null };
@@ -894,8 +894,8 @@ public class JavadocContentAccess2 {
 	 */
 	private static String findAttachedDocInHierarchy(final IMethod method) throws JavaModelException {
 		IType type = method.getDeclaringType();
-		ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(type);
-		final MethodOverrideTester tester = SuperTypeHierarchyCache.getMethodOverrideTester(type);
+		ITypeHierarchy hierarchy = TypeHierarchyCache.getInstance().getSupertypeHierarchy(type, null);
+		final MethodOverrideTester tester = TypeHierarchyCache.getInstance().getMethodOverrideTester(type);
 
 		return (String) new InheritDocVisitor() {
 			@Override
@@ -1608,7 +1608,7 @@ public class JavadocContentAccess2 {
 
 		ISourceRange nameRange = field.getNameRange();
 		if (SourceRange.isAvailable(nameRange)) {
-			CompilationUnit cuNode = CoreASTProvider.getInstance().getAST(field.getTypeRoot(), CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+			CompilationUnit cuNode = SharedASTProvider.getInstance().getAST(field.getTypeRoot(), new NullProgressMonitor());
 			if (cuNode != null) {
 				ASTNode nameNode = NodeFinder.perform(cuNode, nameRange);
 				if (nameNode instanceof SimpleName) {
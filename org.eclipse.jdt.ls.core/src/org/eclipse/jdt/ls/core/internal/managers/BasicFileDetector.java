@@ -10,30 +10,26 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
-import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
-import static java.nio.file.FileVisitResult.TERMINATE;
-
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystemLoopException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitOption;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -44,24 +40,33 @@ import org.eclipse.jdt.ls.core.internal.StatusFactory;
 
 /**
  * Searches recursively for all the directories containing a given filename.
+ * Sub-directories are walked in parallel.
  *
  * @author Fred Bricon
  */
 public class BasicFileDetector {
 
 	private static final String METADATA_FOLDER = "**/.metadata";
-	private static final Set<FileVisitOption> FOLLOW_LINKS_OPTION = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+
+	/**
+	 * directories which never contain projects, and can be too large to be
+	 * walked through
+	 */
+	private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<>(Arrays.asList(".git", "node_modules"));
+
 	private List<Path> directories;
 	private Path rootDir;
 	private String fileName;
 	private int maxDepth = 5;
 	private boolean includeNested = true;
 	private Set<String> exclusions = new HashSet<>(1);
+	private File listingCacheFile;
 
 	/**
 	 * Constructs a new BasicFileDetector for the given root directory, searching for a fileName.
 	 * By default, the search depth is limited to 5. Sub-directories of a found directory will be walked through.
-	 * The ".metadata" folder is excluded.
+	 * The ".metadata", ".git" and "node_modules" folders are excluded, as well as the
+	 * "target" and "build" output folders of Maven and Gradle projects.
 	 * @param rootDir the root directory to search for files
 	 * @param fileName the name of the file to search
 	 */
@@ -113,6 +118,17 @@ public class BasicFileDetector {
 		return this;
 	}
 
+	/**
+	 * Reuses the sub-directories listed by a previous scan for the directories
+	 * which weren't modified since, and saves the listings of this scan.
+	 * @param listingCacheFile the file the directory listings are persisted in
+	 * @return a reference to this object.
+	 */
+	public BasicFileDetector listingCache(File listingCacheFile) {
+		this.listingCacheFile = listingCacheFile;
+		return this;
+	}
+
 	/**
 	 * Returns the directories found to be containing the sought-after file.
 	 * @return an unmodifiable collection of {@link Path}s.
@@ -137,52 +153,181 @@ public class BasicFileDetector {
 	}
 
 	private void scanDir(Path dir, final IProgressMonitor monitor) throws IOException {
-		FileVisitor<Path> visitor = new SimpleFileVisitor<Path>() {
-			@Override
-			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-				if (monitor.isCanceled()) {
-					return TERMINATE;
-				}
-				Objects.requireNonNull(dir);
-				if (isExcluded(dir)) {
-					return SKIP_SUBTREE;
-				}
-				if (hasTargetFile(dir)) {
-					directories.add(dir);
-					return includeNested?CONTINUE:SKIP_SUBTREE;
-				}
-				return CONTINUE;
-			}
+		List<PathMatcher> matchers = new ArrayList<>(exclusions.size());
+		for (String pattern : exclusions) {
+			matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+		}
+		DirectoryListingCache listingCache = listingCacheFile == null ? null : new DirectoryListingCache(listingCacheFile);
+		BasicFileAttributes attributes = Files.readAttributes(dir, BasicFileAttributes.class);
+		if (!attributes.isDirectory()) {
+			return;
+		}
+		ScanTask task = new ScanTask(dir, attributes, 0, new Ancestor(getFileKey(dir, attributes), null), matchers, listingCache, monitor);
+		try {
+			directories.addAll(ForkJoinPool.commonPool().invoke(task));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		if (listingCache != null && !monitor.isCanceled()) {
+			listingCache.save(dir);
+		}
+	}
 
-			@Override
-			public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-				Objects.requireNonNull(file);
-    			if (exc instanceof FileSystemLoopException) {
-        			return CONTINUE;
-    			} else {
-        			throw exc;
-    			}
-			}
+	private static Object getFileKey(Path dir, BasicFileAttributes attributes) throws IOException {
+		Object fileKey = attributes.fileKey();
+		return fileKey != null ? fileKey : dir.toRealPath();
+	}
 
-		};
-		Files.walkFileTree(dir, FOLLOW_LINKS_OPTION, maxDepth, visitor);
+	private boolean hasTargetFile(Path dir) {
+		return Files.isRegularFile(dir.resolve(fileName));
 	}
 
-	private boolean isExcluded(Path dir) {
-		if (dir.getFileName() == null) {
+	/**
+	 * Whether the given sub-directory can be skipped without being walked
+	 * through.
+	 */
+	private static boolean isSkipped(Path dir, String name) {
+		if (SKIPPED_DIRECTORIES.contains(name)) {
 			return true;
 		}
-		for (String pattern : exclusions) {
-			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
-			if (matcher.matches(dir)) {
-				return true;
-			}
+		if ("target".equals(name)) {
+			return Files.isRegularFile(dir.resolve("pom.xml"));
+		}
+		if ("build".equals(name)) {
+			return Files.isRegularFile(dir.resolve("build.gradle")) || Files.isRegularFile(dir.resolve("build.gradle.kts"));
 		}
 		return false;
 	}
 
-	private boolean hasTargetFile(Path dir) {
-		return Files.isRegularFile(dir.resolve(fileName));
+	/**
+	 * The directories a directory is nested in, to detect symbolic link loops.
+	 */
+	private static final class Ancestor {
+		private final Object fileKey;
+		private final Ancestor parent;
+
+		private Ancestor(Object fileKey, Ancestor parent) {
+			this.fileKey = fileKey;
+			this.parent = parent;
+		}
+
+		private boolean contains(Object key) {
+			for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+				if (ancestor.fileKey.equals(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the directories containing the sought-after file in a directory
+	 * and its sub-directories, in depth-first order.
+	 */
+	private final class ScanTask extends RecursiveTask<List<Path>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path dir;
+		private final BasicFileAttributes attributes;
+		private final int depth;
+		private final Ancestor ancestors;
+		private final List<PathMatcher> matchers;
+		private final DirectoryListingCache listingCache;
+		private final IProgressMonitor monitor;
+
+		private ScanTask(Path dir, BasicFileAttributes attributes, int depth, Ancestor ancestors, List<PathMatcher> matchers, DirectoryListingCache listingCache, IProgressMonitor monitor) {
+			this.dir = dir;
+			this.attributes = attributes;
+			this.depth = depth;
+			this.ancestors = ancestors;
+			this.matchers = matchers;
+			this.listingCache = listingCache;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected List<Path> compute() {
+			if (monitor.isCanceled() || isExcluded(dir)) {
+				return Collections.emptyList();
+			}
+			List<Path> found = new ArrayList<>();
+			if (hasTargetFile(dir)) {
+				found.add(dir);
+				if (!includeNested) {
+					return found;
+				}
+			}
+			if (depth + 1 >= maxDepth) {
+				return found;
+			}
+			try {
+				List<ScanTask> subTasks = new ArrayList<>();
+				for (String name : getSubDirectories()) {
+					Path child = dir.resolve(name);
+					BasicFileAttributes childAttributes;
+					try {
+						childAttributes = Files.readAttributes(child, BasicFileAttributes.class);
+					} catch (NoSuchFileException e) {
+						// deleted since listed, or broken link
+						continue;
+					}
+					if (!childAttributes.isDirectory()) {
+						continue;
+					}
+					Object fileKey = getFileKey(child, childAttributes);
+					if (ancestors.contains(fileKey)) {
+						// symbolic link loop
+						continue;
+					}
+					subTasks.add(new ScanTask(child, childAttributes, depth + 1, new Ancestor(fileKey, ancestors), matchers, listingCache, monitor));
+				}
+				invokeAll(subTasks);
+				for (ScanTask subTask : subTasks) {
+					found.addAll(subTask.join());
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return found;
+		}
+
+		private List<String> getSubDirectories() throws IOException {
+			if (listingCache != null) {
+				List<String> children = listingCache.get(dir, attributes);
+				if (children != null) {
+					return children;
+				}
+			}
+			List<String> children = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+				for (Path entry : stream) {
+					String name = entry.getFileName().toString();
+					if (Files.isDirectory(entry) && !isSkipped(dir, name)) {
+						children.add(name);
+					}
+				}
+			}
+			Collections.sort(children);
+			if (listingCache != null) {
+				listingCache.put(dir, attributes, children);
+			}
+			return children;
+		}
+
+		private boolean isExcluded(Path dir) {
+			Objects.requireNonNull(dir);
+			if (dir.getFileName() == null) {
+				return true;
+			}
+			for (PathMatcher matcher : matchers) {
+				if (matcher.matches(dir)) {
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 
 }
@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Cache of the text contents computed for the classes of an archive (jar, JDK
+ * image), kept in memory for the most recently used entries and on disk so it
+ * survives restarts.
+ *
+ * Entries of an archive are stored in their own directory, along with the
+ * stamp (size and modification time) of the archive they were computed from.
+ * All the entries of an archive are discarded as soon as its stamp changes.
+ * The least recently used entries are deleted from the disk when their size
+ * exceeds the disk budget.
+ */
+public class ContentCache {
+
+	private static final String STAMP_FILE_NAME = ".stamp";
+	private static final String ENTRY_EXTENSION = ".txt";
+	private static final long DEFAULT_MAX_DISK_BYTES = 256L * 1024 * 1024;
+
+	private final File directory;
+	private final Map<String, String> memoryCache;
+	private final long maxDiskBytes;
+
+	/**
+	 * entry file -> size, in access order, or <code>null</code> until the
+	 * directory is read. Guarded by this cache.
+	 */
+	private LinkedHashMap<File, Long> diskEntries;
+	private long diskSize;
+
+	/**
+	 * @param directory
+	 *            the directory the entries are persisted in
+	 * @param maxMemoryEntries
+	 *            the number of entries kept in memory
+	 */
+	public ContentCache(File directory, int maxMemoryEntries) {
+		this(directory, maxMemoryEntries, DEFAULT_MAX_DISK_BYTES);
+	}
+
+	/**
+	 * @param directory
+	 *            the directory the entries are persisted in
+	 * @param maxMemoryEntries
+	 *            the number of entries kept in memory
+	 * @param maxDiskBytes
+	 *            the size of the entries kept on disk
+	 */
+	public ContentCache(File directory, int maxMemoryEntries, long maxDiskBytes) {
+		this.directory = directory;
+		this.maxDiskBytes = maxDiskBytes;
+		this.memoryCache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > maxMemoryEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached content.
+	 *
+	 * @param archive
+	 *            the archive the content was computed from
+	 * @param key
+	 *            the key of the content in the archive
+	 * @return the content or <code>null</code> if it isn't cached, or was
+	 *         computed from a different version of the archive
+	 */
+	public String get(Path archive, String key) {
+		String stamp = getStamp(archive);
+		if (stamp == null) {
+			return null;
+		}
+		String memoryKey = getMemoryKey(archive, stamp, key);
+		synchronized (memoryCache) {
+			String content = memoryCache.get(memoryKey);
+			if (content != null) {
+				return content;
+			}
+		}
+		File archiveDirectory = getArchiveDirectory(archive);
+		if (!stamp.equals(readStamp(archiveDirectory))) {
+			return null;
+		}
+		File entry = new File(archiveDirectory, hash(key) + ENTRY_EXTENSION);
+		if (!entry.isFile()) {
+			return null;
+		}
+		try {
+			String content = new String(Files.readAllBytes(entry.toPath()), StandardCharsets.UTF_8);
+			synchronized (memoryCache) {
+				memoryCache.put(memoryKey, content);
+			}
+			synchronized (this) {
+				if (diskEntries != null) {
+					diskEntries.get(entry);
+				}
+			}
+			// the last modification time orders the entries after a restart
+			entry.setLastModified(System.currentTimeMillis());
+			return content;
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to read cached content from " + entry, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Caches the given content.
+	 *
+	 * @param archive
+	 *            the archive the content was computed from
+	 * @param key
+	 *            the key of the content in the archive
+	 * @param content
+	 *            the content
+	 */
+	public void put(Path archive, String key, String content) {
+		String stamp = getStamp(archive);
+		if (stamp == null || content == null) {
+			return;
+		}
+		synchronized (memoryCache) {
+			memoryCache.put(getMemoryKey(archive, stamp, key), content);
+		}
+		File archiveDirectory = getArchiveDirectory(archive);
+		try {
+			synchronized (this) {
+				loadDiskEntries();
+				if (!stamp.equals(readStamp(archiveDirectory))) {
+					// the archive changed, or was never cached
+					forgetDiskEntries(archiveDirectory);
+					deleteEntries(archiveDirectory);
+					Files.createDirectories(archiveDirectory.toPath());
+					write(new File(archiveDirectory, STAMP_FILE_NAME).toPath(), stamp);
+				}
+				File entry = new File(archiveDirectory, hash(key) + ENTRY_EXTENSION);
+				write(entry.toPath(), content);
+				long size = entry.length();
+				Long previousSize = diskEntries.put(entry, size);
+				diskSize += size - (previousSize == null ? 0 : previousSize);
+				evictDiskEntries();
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to cache content in " + archiveDirectory, e);
+		}
+	}
+
+	/**
+	 * Discards all the cached contents.
+	 */
+	public void clear() {
+		synchronized (memoryCache) {
+			memoryCache.clear();
+		}
+		synchronized (this) {
+			File[] archiveDirectories = directory.listFiles();
+			if (archiveDirectories != null) {
+				for (File archiveDirectory : archiveDirectories) {
+					deleteEntries(archiveDirectory);
+				}
+			}
+			diskEntries = null;
+			diskSize = 0;
+		}
+	}
+
+	/**
+	 * Reads the entries persisted by a previous session, least recently used
+	 * first. Must be called holding this cache.
+	 */
+	private void loadDiskEntries() {
+		if (diskEntries != null) {
+			return;
+		}
+		diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+		diskSize = 0;
+		List<File> entries = new ArrayList<>();
+		File[] archiveDirectories = directory.listFiles();
+		if (archiveDirectories != null) {
+			for (File archiveDirectory : archiveDirectories) {
+				File[] files = archiveDirectory.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+				if (files != null) {
+					entries.addAll(Arrays.asList(files));
+				}
+			}
+		}
+		entries.sort(Comparator.comparingLong(File::lastModified));
+		for (File entry : entries) {
+			long size = entry.length();
+			diskEntries.put(entry, size);
+			diskSize += size;
+		}
+	}
+
+	/**
+	 * Forgets the entries of an archive about to be deleted. Must be called
+	 * holding this cache.
+	 */
+	private void forgetDiskEntries(File archiveDirectory) {
+		for (Iterator<Map.Entry<File, Long>> iterator = diskEntries.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<File, Long> entry = iterator.next();
+			if (archiveDirectory.equals(entry.getKey().getParentFile())) {
+				diskSize -= entry.getValue();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Deletes the least recently used entries until their size fits in the
+	 * budget, keeping the most recent one. Must be called holding this cache.
+	 */
+	private void evictDiskEntries() {
+		for (Iterator<Map.Entry<File, Long>> iterator = diskEntries.entrySet().iterator(); diskSize > maxDiskBytes && diskEntries.size() > 1 && iterator.hasNext();) {
+			Map.Entry<File, Long> entry = iterator.next();
+			iterator.remove();
+			diskSize -= entry.getValue();
+			File file = entry.getKey();
+			file.delete();
+			File archiveDirectory = file.getParentFile();
+			String[] remaining = archiveDirectory.list();
+			if (remaining != null && remaining.length == 1 && STAMP_FILE_NAME.equals(remaining[0])) {
+				deleteEntries(archiveDirectory);
+			}
+		}
+	}
+
+	private File getArchiveDirectory(Path archive) {
+		return new File(directory, hash(archive.toString()));
+	}
+
+	private static String getMemoryKey(Path archive, String stamp, String key) {
+		return archive + "|" + stamp + "|" + key;
+	}
+
+	private static String getStamp(Path archive) {
+		File file = archive.toFile();
+		if (!file.isFile()) {
+			return null;
+		}
+		return file.length() + "-" + file.lastModified();
+	}
+
+	private static String readStamp(File archiveDirectory) {
+		File stampFile = new File(archiveDirectory, STAMP_FILE_NAME);
+		if (!stampFile.isFile()) {
+			return null;
+		}
+		try {
+			return new String(Files.readAllBytes(stampFile.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static void deleteEntries(File archiveDirectory) {
+		File[] files = archiveDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		archiveDirectory.delete();
+	}
+
+	/**
+	 * Writes to a temporary file first, so concurrent readers never see a
+	 * partially written entry.
+	 */
+	private static void write(Path path, String content) throws IOException {
+		Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+		try {
+			Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+			try {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private static String hash(String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder builder = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				builder.append(String.format("%02x", b));
+			}
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-1 is always available
+			return Integer.toHexString(value.hashCode());
+		}
+	}
+
+}
@@ -10,21 +10,30 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.File;
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.ls.core.internal.IContentProvider;
 import org.eclipse.jdt.ls.core.internal.IDecompiler;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 
@@ -36,15 +45,29 @@ public class ContentProviderManager {
 	private static final String ID = "id";
 	private static final String PRIORITY = "priority";
 	private static final String URI_PATTERN = "uriPattern";
+	private static final String CACHEABLE = "cacheable";
+	private static final String CACHE_DIRECTORY = "contents";
+	private static final int MAX_MEMORY_ENTRIES = 100;
+	private static final int MAX_IDLE_PROVIDERS = 4;
 	private static final int DEFAULT_PRIORITY = 500;
 	private static final Pattern DEFAULT_URI_PATTERN = Pattern.compile("jdt://contents/.*\\.class.*");
 
 	private final PreferenceManager preferenceManager;
+	private final ContentCache contentCache;
 
 	private Set<ContentProviderDescriptor> descriptors;
 
 	public ContentProviderManager(PreferenceManager preferenceManager) {
+		this(preferenceManager, new ContentCache(getCacheDirectory(), MAX_MEMORY_ENTRIES));
+	}
+
+	public ContentProviderManager(PreferenceManager preferenceManager, ContentCache contentCache) {
 		this.preferenceManager = preferenceManager;
+		this.contentCache = contentCache;
+	}
+
+	private static File getCacheDirectory() {
+		return JavaLanguageServerPlugin.getInstance().getStateLocation().append(CACHE_DIRECTORY).toFile();
 	}
 
 	/**
@@ -85,15 +108,16 @@ public class ContentProviderManager {
 		if (monitor.isCanceled()) {
 			return EMPTY_CONTENT;
 		}
+		IClassFile classFile = source instanceof IClassFile ? (IClassFile) source : JDTUtils.resolveClassFile(uri);
+		Path archive = null;
+		if (classFile != null) {
+			// the same class gets the same contents whether it is asked by URI or by class file
+			cacheKey = classFile.getHandleIdentifier();
+			archive = getArchive(classFile);
+		}
 
 		int previousPriority = -1;
 		for (ContentProviderDescriptor match : matches) {
-			IContentProvider contentProvider = match.getContentProvider();
-			if (!providerType.isInstance(contentProvider)) {
-				JavaLanguageServerPlugin.logError("Unable to load " + providerType.getSimpleName() + " class for " + match.id);
-				continue;
-			}
-
 			if (monitor.isCanceled()) {
 				return EMPTY_CONTENT;
 			}
@@ -102,16 +126,34 @@ public class ContentProviderManager {
 				requestPreferredProvider(match.priority, matches);
 			}
 			try {
-				contentProvider.setPreferences(preferenceManager.getPreferences());
-				String content = null;
-				if (uri != null) {
-					content = contentProvider.getContent(uri, monitor);
-				} else if (source instanceof IClassFile) {
-					content = ((IDecompiler) contentProvider).getSource((IClassFile) source, monitor);
+				boolean cacheable = archive != null && match.cacheable;
+				String entryKey = match.id + "|" + cacheKey;
+				String content = cacheable ? contentCache.get(archive, entryKey) : null;
+				if (content != null) {
+					return content;
+				}
+				IContentProvider contentProvider = match.acquireContentProvider();
+				if (!providerType.isInstance(contentProvider)) {
+					JavaLanguageServerPlugin.logError("Unable to load " + providerType.getSimpleName() + " class for " + match.id);
+					continue;
+				}
+				// the provider is configured for the request it runs for, no other request uses it meanwhile
+				try {
+					contentProvider.setPreferences(preferenceManager.getPreferences());
+					if (uri != null) {
+						content = contentProvider.getContent(uri, monitor);
+					} else if (source instanceof IClassFile) {
+						content = ((IDecompiler) contentProvider).getSource((IClassFile) source, monitor);
+					}
+				} finally {
+					match.releaseContentProvider(contentProvider);
 				}
 				if (monitor.isCanceled()) {
 					return EMPTY_CONTENT;
 				} else if (content != null) {
+					if (cacheable) {
+						contentCache.put(archive, entryKey, content);
+					}
 					return content;
 				}
 			} catch (Exception e) {
@@ -124,6 +166,20 @@ public class ContentProviderManager {
 		return EMPTY_CONTENT;
 	}
 
+	/**
+	 * Returns the location of the archive holding the given class file, or
+	 * <code>null</code> if it doesn't come from an archive.
+	 */
+	private static Path getArchive(IClassFile classFile) {
+		IPackageFragmentRoot root = (IPackageFragmentRoot) classFile.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (root == null || !root.isArchive()) {
+			return null;
+		}
+		IResource resource = root.getResource();
+		IPath location = resource != null ? resource.getLocation() : root.getPath();
+		return location != null ? location.toFile().toPath() : null;
+	}
+
 	private synchronized Set<ContentProviderDescriptor> getDescriptors(List<String> preferredProviderIds) {
 		if (descriptors == null) {
 			IConfigurationElement[] elements = Platform.getExtensionRegistry().getConfigurationElementsFor(EXTENSION_POINT_ID);
@@ -169,6 +225,14 @@ public class ContentProviderManager {
 		private final int basePriority;
 		public int priority;
 		public final Pattern uriPattern;
+		public final boolean cacheable;
+
+		/**
+		 * the idle provider instances, guarded by the descriptor. A provider is
+		 * configured with the preferences of the request it runs for, so it's
+		 * only used by one request at a time.
+		 */
+		private final Deque<IContentProvider> idleProviders = new ArrayDeque<>();
 
 		public ContentProviderDescriptor(IConfigurationElement element) {
 			configurationElement = element;
@@ -177,6 +241,7 @@ public class ContentProviderManager {
 			priority = basePriority;
 			String uriPatternString = configurationElement.getAttribute(URI_PATTERN);
 			uriPattern = uriPatternString != null ? Pattern.compile(uriPatternString) : DEFAULT_URI_PATTERN;
+			cacheable = Boolean.parseBoolean(configurationElement.getAttribute(CACHEABLE));
 		}
 
 		private int parsePriority() {
@@ -197,7 +262,18 @@ public class ContentProviderManager {
 			}
 		}
 
-		public synchronized IContentProvider getContentProvider() {
+		/**
+		 * Returns an idle provider instance, or a new one, to give back with
+		 * {@link #releaseContentProvider(IContentProvider)} once done.
+		 *
+		 * @return the provider, or <code>null</code> if it couldn't be created
+		 */
+		public IContentProvider acquireContentProvider() {
+			synchronized (this) {
+				if (!idleProviders.isEmpty()) {
+					return idleProviders.pop();
+				}
+			}
 			try {
 				Object extension = configurationElement.createExecutableExtension(CLASS);
 				if (extension instanceof IContentProvider) {
@@ -211,5 +287,14 @@ public class ContentProviderManager {
 			}
 			return null;
 		}
+
+		/**
+		 * Gives a provider acquired with {@link #acquireContentProvider()} back.
+		 */
+		public synchronized void releaseContentProvider(IContentProvider contentProvider) {
+			if (contentProvider != null && idleProviders.size() < MAX_IDLE_PROVIDERS) {
+				idleProviders.push(contentProvider);
+			}
+		}
 	}
 }
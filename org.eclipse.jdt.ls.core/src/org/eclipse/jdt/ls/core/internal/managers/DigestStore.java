@@ -10,14 +10,21 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
@@ -34,19 +41,41 @@ import org.eclipse.jdt.ls.core.internal.StatusFactory;
  *         This class handles digests for build files. It serves to prevent
  *         unnecessary updating of maven/gradle, etc. info on workspace
  *         projects.
+ *
+ *         Digests are persisted in a binary journal: each update appends a
+ *         fixed layout record (path, size, modification time, raw MD5 digest)
+ *         and the journal is compacted once it holds mostly obsolete records.
+ *         Files whose size and modification time didn't change since their
+ *         last digest aren't read again.
  */
 public class DigestStore {
-	private Map<String, String> fileDigests;
-	private File stateFile;
 
-	private static final String SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final String SERIALIZATION_FILE_NAME = ".build-file-digests";
+	private static final String LEGACY_SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final int MAGIC = 0x4A444753;
+	private static final int VERSION = 1;
+	private static final int DIGEST_LENGTH = 16;
+	private static final int MIN_COMPACTION_RECORDS = 256;
+
+	/**
+	 * Modification times more recent than this, relative to the time the
+	 * digest is computed, aren't trusted to detect changes: the file may still
+	 * be written to within the same time stamp.
+	 */
+	private static final long RACY_MODIFICATION_MILLIS = 2000;
+
+	private static final long UNKNOWN = -1;
+
+	private final Map<String, Entry> fileDigests = new HashMap<>();
+	private final File stateFile;
+	private int records;
 
 	public DigestStore(File stateLocation) {
 		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
-		if (stateFile.isFile()) {
-			fileDigests = deserializeFileDigests();
-		} else {
-			fileDigests = new HashMap<>();
+		new File(stateLocation, LEGACY_SERIALIZATION_FILE_NAME).delete();
+		boolean valid = stateFile.isFile() && deserializeFileDigests();
+		if (!valid || needsCompaction()) {
+			serializeFileDigests();
 		}
 	}
 
@@ -61,45 +90,210 @@ public class DigestStore {
 	 *             if a digest cannot be computed
 	 */
 	public boolean updateDigest(Path p) throws CoreException {
+		FileDigest digest = checkDigest(p);
+		if (digest == null) {
+			return false;
+		}
+		recordDigest(digest);
+		return digest.isChanged();
+	}
+
+	/**
+	 * Computes the digest for the given path without recording it, so it can
+	 * be recorded once the associated project is updated.
+	 *
+	 * @param p
+	 *            Path to the file in questions
+	 * @return the digest to record, or <code>null</code> if the recorded one is
+	 *         up to date
+	 * @throws CoreException
+	 *             if a digest cannot be computed
+	 */
+	public FileDigest checkDigest(Path p) throws CoreException {
+		String key = p.toString();
 		try {
-			String digest = computeDigest(p);
+			BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+			long size = attributes.size();
+			long lastModified = attributes.lastModifiedTime().toMillis();
 			synchronized (fileDigests) {
-				if (!digest.equals(fileDigests.get(p.toString()))) {
-					fileDigests.put(p.toString(), digest);
-					serializeFileDigests();
-					return true;
-				} else {
-					return false;
+				Entry entry = fileDigests.get(key);
+				if (entry != null && entry.lastModified != UNKNOWN && entry.size == size && entry.lastModified == lastModified) {
+					return null;
 				}
 			}
+			byte[] digest = computeDigest(p);
+			if (System.currentTimeMillis() - lastModified < RACY_MODIFICATION_MILLIS) {
+				lastModified = UNKNOWN;
+			}
+			Entry newEntry = new Entry(size, lastModified, digest);
+			synchronized (fileDigests) {
+				Entry entry = fileDigests.get(key);
+				if (newEntry.equals(entry)) {
+					return null;
+				}
+				return new FileDigest(key, newEntry, entry == null || !Arrays.equals(entry.digest, digest));
+			}
 		} catch (NoSuchAlgorithmException | IOException e) {
 			throw new CoreException(StatusFactory.newErrorStatus("Exception updating digest for " + p, e));
 		}
+	}
+
+	/**
+	 * Records a digest computed by {@link #checkDigest(Path)}.
+	 *
+	 * @param digest
+	 *            the digest
+	 */
+	public void recordDigest(FileDigest digest) {
+		synchronized (fileDigests) {
+			if (digest.entry.equals(fileDigests.get(digest.key))) {
+				return;
+			}
+			fileDigests.put(digest.key, digest.entry);
+			appendFileDigest(digest.key, digest.entry);
+		}
+	}
+
+	private void appendFileDigest(String key, Entry entry) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile, true)))) {
+			writeRecord(out, key, entry);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+			return;
+		}
+		records++;
+		if (needsCompaction()) {
+			serializeFileDigests();
+		}
+	}
 
+	private boolean needsCompaction() {
+		return records > Math.max(MIN_COMPACTION_RECORDS, 2 * fileDigests.size());
 	}
 
+	/**
+	 * Rewrites the journal with a single record per file.
+	 */
 	private void serializeFileDigests() {
-		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
-			outStream.writeObject(fileDigests);
+		File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				for (Map.Entry<String, Entry> fileDigest : fileDigests.entrySet()) {
+					writeRecord(out, fileDigest.getKey(), fileDigest.getValue());
+				}
+			}
+			try {
+				Files.move(tmpFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			records = fileDigests.size();
 		} catch (IOException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private Map<String, String> deserializeFileDigests() {
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
-			return (Map<String, String>) ois.readObject();
-		} catch (IOException | ClassNotFoundException e) {
+	private static void writeRecord(DataOutputStream out, String key, Entry entry) throws IOException {
+		out.writeUTF(key);
+		out.writeLong(entry.size);
+		out.writeLong(entry.lastModified);
+		out.write(entry.digest);
+	}
+
+	/**
+	 * Reads the journal, ignoring a truncated last record.
+	 *
+	 * @return <code>false</code> if the journal is invalid, or was truncated
+	 */
+	private boolean deserializeFileDigests() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return false;
+			}
+			while (true) {
+				in.mark(1);
+				if (in.read() == -1) {
+					return true;
+				}
+				in.reset();
+				String key = in.readUTF();
+				long size = in.readLong();
+				long lastModified = in.readLong();
+				byte[] digest = new byte[DIGEST_LENGTH];
+				in.readFully(digest);
+				fileDigests.put(key, new Entry(size, lastModified, digest));
+				records++;
+			}
+		} catch (EOFException e) {
+			// the server stopped while appending the last record
+			return false;
+		} catch (IOException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while deserialization of file digests", e);
-			return new HashMap<>();
+			return false;
 		}
 	}
 
-	private String computeDigest(Path path) throws IOException, NoSuchAlgorithmException {
-		byte[] fileBytes = Files.readAllBytes(path);
-		byte[] digest = MessageDigest.getInstance("MD5").digest(fileBytes);
-		return Arrays.toString(digest);
+	private byte[] computeDigest(Path path) throws IOException, NoSuchAlgorithmException {
+		MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+		byte[] buffer = new byte[8192];
+		try (InputStream in = Files.newInputStream(path)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				messageDigest.update(buffer, 0, read);
+			}
+		}
+		return messageDigest.digest();
+	}
+
+	/**
+	 * The digest of a file, not recorded yet.
+	 */
+	public static final class FileDigest {
+		private final String key;
+		private final Entry entry;
+		private final boolean changed;
+
+		private FileDigest(String key, Entry entry, boolean changed) {
+			this.key = key;
+			this.entry = entry;
+			this.changed = changed;
+		}
+
+		/**
+		 * @return whether the file is considered changed and the associated
+		 *         project should be updated, rather than only touched
+		 */
+		public boolean isChanged() {
+			return changed;
+		}
+	}
+
+	private static final class Entry {
+		private final long size;
+		private final long lastModified;
+		private final byte[] digest;
+
+		private Entry(long size, long lastModified, byte[] digest) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.digest = digest;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			Entry other = (Entry) obj;
+			return size == other.size && lastModified == other.lastModified && Arrays.equals(digest, other.digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(digest);
+		}
 	}
 
 }
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Sub-directory names of the directories walked by a previous
+ * {@link BasicFileDetector} scan, persisted so the next scans don't list the
+ * directories which weren't modified since.
+ */
+public class DirectoryListingCache {
+
+	private static final int MAGIC = 0x4A444C43;
+	private static final int VERSION = 1;
+
+	/**
+	 * Modification times more recent than this, relative to the time the
+	 * directory is listed, aren't trusted: entries may still be added within
+	 * the same time stamp.
+	 */
+	private static final long RACY_MODIFICATION_MILLIS = 2000;
+
+	private static final long UNKNOWN = -1;
+
+	private final File file;
+	private final Map<String, Listing> previousListings;
+	private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+
+	/**
+	 * Loads the listings saved in the given file, if any.
+	 *
+	 * @param file
+	 *            the file the listings are persisted in
+	 */
+	public DirectoryListingCache(File file) {
+		this.file = file;
+		this.previousListings = file.isFile() ? load(file) : Collections.emptyMap();
+	}
+
+	/**
+	 * Returns the sub-directory names of the given directory, as listed by the
+	 * previous scan.
+	 *
+	 * @param dir
+	 *            the directory
+	 * @param attributes
+	 *            the current attributes of the directory
+	 * @return the sub-directory names, or <code>null</code> if the directory
+	 *         was modified or replaced since it was listed
+	 */
+	public List<String> get(Path dir, BasicFileAttributes attributes) {
+		String key = getKey(dir);
+		Listing listing = previousListings.get(key);
+		if (listing == null || listing.lastModified == UNKNOWN || listing.lastModified != attributes.lastModifiedTime().toMillis() || !listing.fileKey.equals(getFileKey(attributes))) {
+			return null;
+		}
+		listings.put(key, listing);
+		return listing.children;
+	}
+
+	/**
+	 * Records the sub-directory names of the given directory.
+	 */
+	public void put(Path dir, BasicFileAttributes attributes, List<String> children) {
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		if (System.currentTimeMillis() - lastModified < RACY_MODIFICATION_MILLIS) {
+			lastModified = UNKNOWN;
+		}
+		listings.put(getKey(dir), new Listing(lastModified, getFileKey(attributes), children));
+	}
+
+	/**
+	 * Saves the listings recorded since this cache was loaded. The listings
+	 * previously saved for directories outside of the given scanned root are
+	 * kept.
+	 *
+	 * @param root
+	 *            the root directory of the scan
+	 */
+	public void save(Path root) {
+		String rootKey = getKey(root);
+		Map<String, Listing> saved = new HashMap<>(listings);
+		for (Map.Entry<String, Listing> previous : previousListings.entrySet()) {
+			String key = previous.getKey();
+			if (!key.equals(rootKey) && !key.startsWith(rootKey + File.separator)) {
+				saved.putIfAbsent(key, previous.getValue());
+			}
+		}
+		File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(saved.size());
+				for (Map.Entry<String, Listing> entry : saved.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeLong(entry.getValue().lastModified);
+					out.writeUTF(entry.getValue().fileKey);
+					out.writeInt(entry.getValue().children.size());
+					for (String child : entry.getValue().children) {
+						out.writeUTF(child);
+					}
+				}
+			}
+			try {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to save directory listings in " + file, e);
+		}
+	}
+
+	private static Map<String, Listing> load(File file) {
+		Map<String, Listing> result = new HashMap<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return Collections.emptyMap();
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				String key = in.readUTF();
+				long lastModified = in.readLong();
+				String fileKey = in.readUTF();
+				int childCount = in.readInt();
+				List<String> children = new ArrayList<>(childCount);
+				for (int j = 0; j < childCount; j++) {
+					children.add(in.readUTF());
+				}
+				result.put(key, new Listing(lastModified, fileKey, children));
+			}
+			return result;
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to load directory listings from " + file, e);
+			return Collections.emptyMap();
+		}
+	}
+
+	private static String getKey(Path dir) {
+		return dir.toAbsolutePath().normalize().toString();
+	}
+
+	/**
+	 * a directory deleted and created again gets a new file key on file
+	 * systems supporting them
+	 */
+	private static String getFileKey(BasicFileAttributes attributes) {
+		Object fileKey = attributes.fileKey();
+		return fileKey == null ? "" : fileKey.toString();
+	}
+
+	private static final class Listing {
+		private final long lastModified;
+		private final String fileKey;
+		private final List<String> children;
+
+		private Listing(long lastModified, String fileKey, List<String> children) {
+			this.lastModified = lastModified;
+			this.fileKey = fileKey;
+			this.children = children;
+		}
+	}
+
+}
@@ -37,7 +37,8 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 	public boolean applies(IProgressMonitor monitor) throws CoreException {
 		if (directories == null) {
 			BasicFileDetector eclipseDetector = new BasicFileDetector(rootFolder.toPath(), DESCRIPTION_FILE_NAME)
-					.addExclusions("**/bin");//default Eclipse build dir
+					.addExclusions("**/bin")//default Eclipse build dir
+					.listingCache(JavaLanguageServerPlugin.getInstance().getStateLocation().append(".eclipse-directories").toFile());
 			directories = eclipseDetector.scan(monitor);
 		}
 		return !directories.isEmpty();
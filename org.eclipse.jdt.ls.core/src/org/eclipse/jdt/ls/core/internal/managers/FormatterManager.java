@@ -16,8 +16,11 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.xml.parsers.SAXParser;
@@ -27,6 +30,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
 import org.eclipse.jdt.ls.core.internal.IConstants;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -51,6 +56,28 @@ public class FormatterManager {
 
 	private final static String FORMATTER_OPTION_PREFIX = JavaCore.PLUGIN_ID + ".formatter"; //$NON-NLS-1$
 
+	private static final int MAX_POOLED_OPTIONS = 4;
+
+	/**
+	 * The compiler options a formatter depends on, besides the formatter
+	 * options
+	 */
+	private static final String[] FORMATTER_COMPILER_OPTIONS = { JavaCore.COMPILER_SOURCE, JavaCore.COMPILER_COMPLIANCE, JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JavaCore.COMPILER_PB_ENABLE_PREVIEW_FEATURES };
+
+	/**
+	 * Idle formatters, by the options they depend on, among the ones they were
+	 * created with. Formatters aren't thread safe, they're taken out of the pool
+	 * while they format.
+	 */
+	private static final Map<Map<String, String>, Deque<CodeFormatter>> FORMATTERS = new LinkedHashMap<Map<String, String>, Deque<CodeFormatter>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Map<String, String>, Deque<CodeFormatter>> eldest) {
+			return size() > MAX_POOLED_OPTIONS;
+		}
+	};
+
 	/**
 	 * A SAX event handler to parse the xml format for profiles.
 	 */
@@ -161,7 +188,62 @@ public class FormatterManager {
 		return handler.getSettings();
 	}
 
+	/**
+	 * Returns a code formatter created with the given options, to give back
+	 * with {@link #releaseFormatter(Map, CodeFormatter)} once done.
+	 *
+	 * @param options
+	 *            the formatter and compiler options
+	 * @return an idle formatter from the pool, or a new one
+	 */
+	public static CodeFormatter acquireFormatter(Map<String, String> options) {
+		Map<String, String> key = getFormatterOptions(options);
+		synchronized (FORMATTERS) {
+			Deque<CodeFormatter> formatters = FORMATTERS.get(key);
+			if (formatters != null && !formatters.isEmpty()) {
+				return formatters.pop();
+			}
+		}
+		return ToolFactory.createCodeFormatter(options);
+	}
+
+	/**
+	 * Gives a formatter acquired with {@link #acquireFormatter(Map)} back to
+	 * the pool.
+	 *
+	 * @param options
+	 *            the options the formatter was acquired with
+	 * @param formatter
+	 *            the formatter
+	 */
+	public static void releaseFormatter(Map<String, String> options, CodeFormatter formatter) {
+		Map<String, String> key = getFormatterOptions(options);
+		synchronized (FORMATTERS) {
+			FORMATTERS.computeIfAbsent(key, k -> new ArrayDeque<>()).push(formatter);
+		}
+	}
+
+	/**
+	 * @return the options a formatter depends on, so formatters are shared by
+	 *         projects and requests which only differ by other options
+	 */
+	private static Map<String, String> getFormatterOptions(Map<String, String> options) {
+		Map<String, String> formatterOptions = new HashMap<>();
+		options.forEach((key, value) -> {
+			if (key.startsWith(FORMATTER_OPTION_PREFIX)) {
+				formatterOptions.put(key, value);
+			}
+		});
+		for (String key : FORMATTER_COMPILER_OPTIONS) {
+			formatterOptions.put(key, options.get(key));
+		}
+		return formatterOptions;
+	}
+
 	public static void configureFormatter(PreferenceManager preferenceManager, ProjectsManager projectsManager) {
+		synchronized (FORMATTERS) {
+			FORMATTERS.clear();
+		}
 		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
 		Map<String, String> options = null;
 		if (formatterUrl != null) {
@@ -11,10 +11,21 @@
 package org.eclipse.jdt.ls.core.internal.managers;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.eclipse.buildship.core.GradleBuild;
 import org.eclipse.buildship.core.GradleCore;
+import org.eclipse.buildship.core.SynchronizationResult;
 import org.eclipse.buildship.core.internal.CorePlugin;
 import org.eclipse.buildship.core.internal.util.file.FileUtils;
 import org.eclipse.buildship.core.internal.workspace.WorkbenchShutdownEvent;
@@ -29,6 +40,8 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+import org.eclipse.jdt.ls.core.internal.StatusFactory;
+import org.eclipse.jdt.ls.core.internal.managers.DigestStore.FileDigest;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 
 /**
@@ -39,6 +52,13 @@ public class GradleBuildSupport implements IBuildSupport {
 
 	public static final String GRADLE_SUFFIX = ".gradle";
 	public static final String GRADLE_PROPERTIES = "gradle.properties";
+	public static final String GRADLE_SETTINGS = "settings.gradle";
+
+	/**
+	 * project -> build files reported changed since the project was last
+	 * updated, guarded by itself
+	 */
+	private static final Map<IProject, Set<Path>> changedBuildFiles = new HashMap<>();
 
 	@Override
 	public boolean applies(IProject project) {
@@ -50,16 +70,97 @@ public class GradleBuildSupport implements IBuildSupport {
 		if (!applies(project)) {
 			return;
 		}
-		JavaLanguageServerPlugin.logInfo("Starting Gradle update for "+project.getName());
-		Optional<GradleBuild> build = GradleCore.getWorkspace().getBuild(project);
-		if (build.isPresent()) {
-			build.get().synchronize(monitor);
+		Set<Path> buildFiles = getBuildFiles(project);
+		DigestStore digestStore = JavaLanguageServerPlugin.getDigestStore();
+		List<FileDigest> digests = new ArrayList<>(buildFiles.size());
+		boolean changed = false;
+		for (Path buildFile : buildFiles) {
+			if (!Files.isRegularFile(buildFile)) {
+				// a deleted build file
+				changed = true;
+				continue;
+			}
+			FileDigest digest = digestStore.checkDigest(buildFile);
+			if (digest != null) {
+				digests.add(digest);
+				changed |= digest.isChanged();
+			}
+		}
+		if (changed || force) {
+			JavaLanguageServerPlugin.logInfo("Starting Gradle update for "+project.getName());
+			Optional<GradleBuild> build = GradleCore.getWorkspace().getBuild(project);
+			if (!build.isPresent()) {
+				return;
+			}
+			SynchronizationResult result = build.get().synchronize(monitor);
+			if (!result.getStatus().isOK()) {
+				// the build files are still considered changed by the next update
+				JavaLanguageServerPlugin.log(result.getStatus());
+				return;
+			}
+		}
+		for (FileDigest digest : digests) {
+			digestStore.recordDigest(digest);
+		}
+		synchronized (changedBuildFiles) {
+			Set<Path> changedFiles = changedBuildFiles.get(project);
+			if (changedFiles != null) {
+				changedFiles.removeAll(buildFiles);
+				if (changedFiles.isEmpty()) {
+					changedBuildFiles.remove(project);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the build files the Gradle model of a project depends on: the
+	 * build files at the root of the project and of its enclosing build, if
+	 * any, and the build files reported changed since the project was last
+	 * updated, such as scripts applied from subfolders. The other folders
+	 * aren't walked.
+	 */
+	private static Set<Path> getBuildFiles(IProject project) throws CoreException {
+		Set<Path> buildFiles = new LinkedHashSet<>();
+		IPath location = project.getLocation();
+		if (location != null) {
+			Path projectFolder = location.toFile().toPath();
+			addBuildFiles(projectFolder, buildFiles);
+			if (!Files.isRegularFile(projectFolder.resolve(GRADLE_SETTINGS))) {
+				for (Path folder = projectFolder.getParent(); folder != null; folder = folder.getParent()) {
+					if (Files.isRegularFile(folder.resolve(GRADLE_SETTINGS))) {
+						addBuildFiles(folder, buildFiles);
+						break;
+					}
+				}
+			}
+		}
+		synchronized (changedBuildFiles) {
+			Set<Path> changedFiles = changedBuildFiles.get(project);
+			if (changedFiles != null) {
+				buildFiles.addAll(changedFiles);
+			}
+		}
+		return buildFiles;
+	}
+
+	private static void addBuildFiles(Path folder, Set<Path> buildFiles) throws CoreException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, file -> isBuildFileName(file.getFileName().toString()) && Files.isRegularFile(file))) {
+			for (Path file : files) {
+				buildFiles.add(file);
+			}
+		} catch (IOException e) {
+			throw new CoreException(StatusFactory.newErrorStatus("Unable to list the build files of " + folder, e));
 		}
 	}
 
+	private static boolean isBuildFileName(String name) {
+		return name.endsWith(GRADLE_SUFFIX) || name.equals(GRADLE_PROPERTIES);
+	}
+
 	@Override
 	public boolean isBuildFile(IResource resource) {
-		if (resource != null && resource.getType() == IResource.FILE && (resource.getName().endsWith(GRADLE_SUFFIX) || resource.getName().equals(GRADLE_PROPERTIES))
+		if (resource != null && resource.getType() == IResource.FILE && isBuildFileName(resource.getName())
 				&& ProjectUtils.isGradleProject(resource.getProject())) {
 			try {
 				if (!ProjectUtils.isJavaProject(resource.getProject())) {
@@ -98,7 +199,19 @@ public class GradleBuildSupport implements IBuildSupport {
 		if (resource == null || !applies(resource.getProject())) {
 			return false;
 		}
-		return IBuildSupport.super.fileChanged(resource, changeType, monitor) || isBuildFile(resource);
+		if (IBuildSupport.super.fileChanged(resource, changeType, monitor)) {
+			return true;
+		}
+		if (!isBuildFile(resource)) {
+			return false;
+		}
+		IPath location = resource.getLocation();
+		if (location != null) {
+			synchronized (changedBuildFiles) {
+				changedBuildFiles.computeIfAbsent(resource.getProject(), p -> new LinkedHashSet<>()).add(location.toFile().toPath());
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -67,7 +67,8 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 		if (directories == null) {
 			BasicFileDetector gradleDetector = new BasicFileDetector(rootFolder.toPath(), BUILD_GRADLE_DESCRIPTOR)
 					.includeNested(false)
-					.addExclusions("**/build");//default gradle build dir
+					.addExclusions("**/build")//default gradle build dir
+					.listingCache(JavaLanguageServerPlugin.getInstance().getStateLocation().append(".gradle-directories").toFile());
 			directories = gradleDetector.scan(monitor);
 		}
 		return !directories.isEmpty();
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.StatusFactory;
+
+/**
+ * Keeps the library entries of a project classpath in sync with the jars of
+ * its library folders.
+ *
+ * The jars are fingerprinted by size and modification time, and a checksum is
+ * only computed when the modification time of a known jar changes but not its
+ * size, so the jars touched but not modified are left alone once their
+ * checksum is known. The classpath is only set when library entries are added,
+ * removed or replaced. The jars modified in place are refreshed without
+ * touching the classpath.
+ */
+public final class LibraryFolderClasspathManager {
+
+	private static final String JAR_SUFFIX = ".jar";
+
+	private static final String SOURCE_JAR_SUFFIX = "-sources.jar";
+
+	/**
+	 * The checksum of a jar not read yet, out of the range of CRC-32 values
+	 */
+	private static final long UNKNOWN_CHECKSUM = -1;
+
+	private static final LibraryFolderClasspathManager INSTANCE = new LibraryFolderClasspathManager();
+
+	/**
+	 * jar -> fingerprint, guarded by itself
+	 */
+	private final Map<Path, Fingerprint> fingerprints = new HashMap<>();
+
+	public static LibraryFolderClasspathManager getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Updates the library entries of a project to the jars of library folders.
+	 * The sources of a jar are the <code>-sources.jar</code> next to it, if
+	 * any.
+	 *
+	 * @param javaProject
+	 *            the project
+	 * @param libFolderPaths
+	 *            the library folders
+	 * @param monitor
+	 *            the progress monitor
+	 * @throws CoreException
+	 *             if the folders couldn't be read or the classpath couldn't
+	 *             be set
+	 */
+	public void updateBinaries(IJavaProject javaProject, Set<IPath> libFolderPaths, IProgressMonitor monitor) throws CoreException {
+		Map<Path, BasicFileAttributes> binaries = new LinkedHashMap<>();
+		Set<Path> sources = new HashSet<>();
+		collectJars(libFolderPaths, binaries, sources, monitor);
+		if (monitor.isCanceled()) {
+			return;
+		}
+		List<IClasspathEntry> libraries = new ArrayList<>(binaries.size());
+		List<Path> modified = new ArrayList<>();
+		for (Map.Entry<Path, BasicFileAttributes> binary : binaries.entrySet()) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			Path file = binary.getKey();
+			if (fingerprint(file, binary.getValue())) {
+				modified.add(file);
+			}
+			IPath sourcePath = detectSources(file, sources);
+			libraries.add(JavaCore.newLibraryEntry(new org.eclipse.core.runtime.Path(file.toString()), sourcePath, null));
+		}
+
+		IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
+		ClasspathDelta delta = ClasspathDelta.compute(rawClasspath, libraries);
+		if (!delta.isEmpty()) {
+			for (IClasspathEntry entry : delta.added) {
+				JavaLanguageServerPlugin.logInfo("Adding " + entry.getPath() + " to the classpath");
+			}
+			for (IClasspathEntry entry : delta.removed) {
+				JavaLanguageServerPlugin.logInfo("Removing " + entry.getPath() + " from the classpath");
+				forget(entry.getPath());
+			}
+			javaProject.setRawClasspath(delta.apply(rawClasspath, libraries), monitor);
+		}
+		refresh(javaProject, modified, delta, monitor);
+	}
+
+	/**
+	 * Refreshes the jars modified in place, which are kept on the classpath.
+	 */
+	private static void refresh(IJavaProject javaProject, List<Path> modified, ClasspathDelta delta, IProgressMonitor monitor) throws CoreException {
+		List<IJavaElement> roots = new ArrayList<>(modified.size());
+		for (Path file : modified) {
+			IPath path = new org.eclipse.core.runtime.Path(file.toString());
+			if (!delta.isAdded(path)) {
+				IPackageFragmentRoot root = javaProject.getPackageFragmentRoot(file.toString());
+				JavaLanguageServerPlugin.logInfo("Refreshing " + path);
+				roots.add(root);
+			}
+		}
+		if (!roots.isEmpty()) {
+			javaProject.getJavaModel().refreshExternalArchives(roots.toArray(new IJavaElement[roots.size()]), monitor);
+		}
+	}
+
+	/**
+	 * Updates the fingerprint of a jar. A jar seen for the first time, or
+	 * whose size changed, isn't read. A jar whose modification time changed
+	 * but not its size is read, and is deemed modified if its previous
+	 * checksum isn't known.
+	 *
+	 * @return whether the contents of a known jar changed
+	 */
+	private boolean fingerprint(Path file, BasicFileAttributes attributes) throws CoreException {
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		Fingerprint fingerprint;
+		synchronized (fingerprints) {
+			fingerprint = fingerprints.get(file);
+		}
+		if (fingerprint != null && fingerprint.size == size && fingerprint.lastModified == lastModified) {
+			return false;
+		}
+		boolean modified;
+		long checksum;
+		if (fingerprint == null || fingerprint.size != size) {
+			modified = fingerprint != null;
+			checksum = UNKNOWN_CHECKSUM;
+		} else {
+			checksum = checksum(file);
+			modified = fingerprint.checksum == UNKNOWN_CHECKSUM || fingerprint.checksum != checksum;
+		}
+		synchronized (fingerprints) {
+			fingerprints.put(file, new Fingerprint(size, lastModified, checksum));
+		}
+		return modified;
+	}
+
+	private void forget(IPath path) {
+		synchronized (fingerprints) {
+			fingerprints.remove(Paths.get(path.toOSString()));
+		}
+	}
+
+	private static long checksum(Path file) throws CoreException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream in = Files.newInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw new CoreException(StatusFactory.newErrorStatus("Unable to read " + file, e));
+		}
+		return crc.getValue();
+	}
+
+	private static void collectJars(Set<IPath> libFolderPaths, Map<Path, BasicFileAttributes> binaries, Set<Path> sources, IProgressMonitor monitor) throws CoreException {
+		SimpleFileVisitor<Path> jarDetector = new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				if (monitor.isCanceled()) {
+					return FileVisitResult.TERMINATE;
+				}
+				String fileName = file.getFileName().toString();
+				//more robust approach would be to check if jar contains .class files or not
+				if (fileName.endsWith(SOURCE_JAR_SUFFIX)) {
+					sources.add(file);
+				} else if (fileName.endsWith(JAR_SUFFIX)) {
+					binaries.put(file, attrs);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+		};
+		for (IPath libFolderPath : libFolderPaths) {
+			String path = libFolderPath.toOSString();
+			try {
+				Path libFolder = Paths.get(path);
+				if (!Files.isDirectory(libFolder)) {
+					continue;
+				}
+				Files.walkFileTree(libFolder, jarDetector);
+			} catch (IOException e) {
+				throw new CoreException(StatusFactory.newErrorStatus("Unable to analyze " + path, e));
+			}
+		}
+	}
+
+	/**
+	 * @return the source jar of a jar, among the ones found next to the jars
+	 */
+	private static IPath detectSources(Path file, Set<Path> sources) {
+		String filename = file.getFileName().toString();
+		//better approach would be to (also) resolve sources using Maven central, or anything smarter really
+		String sourceName = filename.substring(0, filename.lastIndexOf(JAR_SUFFIX)) + SOURCE_JAR_SUFFIX;
+		Path sourcePath = file.resolveSibling(sourceName);
+		return sources.contains(sourcePath) ? new org.eclipse.core.runtime.Path(sourcePath.toString()) : null;
+	}
+
+	private static final class Fingerprint {
+
+		private final long size;
+
+		private final long lastModified;
+
+		private final long checksum;
+
+		private Fingerprint(long size, long lastModified, long checksum) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.checksum = checksum;
+		}
+
+	}
+
+	/**
+	 * The library entries added to, removed from and replaced in a classpath.
+	 */
+	static final class ClasspathDelta {
+
+		final List<IClasspathEntry> added = new ArrayList<>();
+
+		final List<IClasspathEntry> removed = new ArrayList<>();
+
+		final List<IClasspathEntry> replaced = new ArrayList<>();
+
+		/**
+		 * Computes the changes turning the library entries of a classpath
+		 * into other ones. An entry is replaced when its source attachment
+		 * changes.
+		 *
+		 * @param rawClasspath
+		 *            the classpath
+		 * @param libraries
+		 *            the new library entries
+		 * @return the changes
+		 */
+		static ClasspathDelta compute(IClasspathEntry[] rawClasspath, List<IClasspathEntry> libraries) {
+			ClasspathDelta delta = new ClasspathDelta();
+			Map<IPath, IClasspathEntry> oldLibraries = new LinkedHashMap<>();
+			for (IClasspathEntry entry : rawClasspath) {
+				if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+					oldLibraries.put(entry.getPath(), entry);
+				}
+			}
+			for (IClasspathEntry library : libraries) {
+				IClasspathEntry oldLibrary = oldLibraries.remove(library.getPath());
+				if (oldLibrary == null) {
+					delta.added.add(library);
+				} else if (!Objects.equals(oldLibrary.getSourceAttachmentPath(), library.getSourceAttachmentPath())) {
+					delta.replaced.add(library);
+				}
+			}
+			delta.removed.addAll(oldLibraries.values());
+			return delta;
+		}
+
+		boolean isEmpty() {
+			return added.isEmpty() && removed.isEmpty() && replaced.isEmpty();
+		}
+
+		boolean isAdded(IPath path) {
+			return added.stream().anyMatch(entry -> entry.getPath().equals(path));
+		}
+
+		/**
+		 * @return the classpath with its other entries, in order, and the new
+		 *         library entries
+		 */
+		IClasspathEntry[] apply(IClasspathEntry[] rawClasspath, List<IClasspathEntry> libraries) {
+			List<IClasspathEntry> newEntries = new ArrayList<>(rawClasspath.length + added.size());
+			for (IClasspathEntry entry : rawClasspath) {
+				if (entry.getEntryKind() != IClasspathEntry.CPE_LIBRARY) {
+					newEntries.add(entry);
+				}
+			}
+			newEntries.addAll(libraries);
+			return newEntries.toArray(new IClasspathEntry[newEntries.size()]);
+		}
+
+	}
+
+}
@@ -16,11 +16,18 @@ import java.nio.file.PathMatcher;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Parent;
+import org.apache.maven.project.MavenProject;
 import org.eclipse.core.internal.resources.Workspace;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IProject;
@@ -41,11 +48,14 @@ import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ProjectUtils;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.embedder.MavenModelManager;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.preferences.MavenConfigurationImpl;
 import org.eclipse.m2e.core.internal.preferences.ProblemSeverity;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectImportResult;
+import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 import org.eclipse.m2e.core.project.IProjectConfigurationManager;
 import org.eclipse.m2e.core.project.LocalProjectScanner;
 import org.eclipse.m2e.core.project.MavenProjectInfo;
@@ -54,9 +64,13 @@ import org.eclipse.m2e.core.project.ProjectImportConfiguration;
 @SuppressWarnings("restriction")
 public class MavenProjectImporter extends AbstractProjectImporter {
 
-	private static final int MAX_PROJECTS_TO_IMPORT = 50;
+	/**
+	 * the size of the first batch, which the heap retained by a project is
+	 * measured on, and the smallest batch size
+	 */
+	private static final int MIN_PROJECTS_TO_IMPORT = 10;
 
-	private static final long MAX_MEMORY = 1536 * 1024 * 1024; // 1.5g
+	private static final long MIN_PROJECT_FOOTPRINT = 1024 * 1024;
 
 	public static final String IMPORTING_MAVEN_PROJECTS = "Importing Maven project(s)";
 
@@ -131,7 +145,9 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		configurationImpl.setNotCoveredMojoExecutionSeverity(ProblemSeverity.ignore.toString());
 		SubMonitor subMonitor = SubMonitor.convert(monitor, 105);
 		subMonitor.setTaskName(IMPORTING_MAVEN_PROJECTS);
+		long start = System.nanoTime();
 		Set<MavenProjectInfo> files = getMavenProjectInfo(subMonitor.split(5));
+		long scanned = System.nanoTime();
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 		Collection<IProject> projects = new LinkedHashSet<>();
 		Collection<MavenProjectInfo> toImport = new LinkedHashSet<>();
@@ -141,7 +157,6 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 			File pom = projectInfo.getPomFile();
 			IContainer container = root.getContainerForLocation(new Path(pom.getAbsolutePath()));
 			if (container == null) {
-				digestStore.updateDigest(pom.toPath());
 				toImport.add(projectInfo);
 			} else {
 				IProject project = container.getProject();
@@ -149,48 +164,187 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 					projects.add(container.getProject());
 				} else if (project != null) {
 					//Project doesn't have the Maven nature, so we (re)import it
-					digestStore.updateDigest(pom.toPath());
 					// need to delete project due to m2e failing to create if linked and not the same name
 					project.delete(IProject.FORCE | IProject.NEVER_DELETE_PROJECT_CONTENT, subMonitor.split(5));
 					toImport.add(projectInfo);
 				}
 			}
 		}
+		updateDigests(toImport);
+		long prepared = System.nanoTime();
+		int batches = 0;
 		if (!toImport.isEmpty()) {
-			if (toImport.size() > MAX_PROJECTS_TO_IMPORT && Runtime.getRuntime().maxMemory() <= MAX_MEMORY) {
-				JavaLanguageServerPlugin.logInfo("Projects size:" + toImport.size());
-				Iterator<MavenProjectInfo> iter = toImport.iterator();
-				List<IMavenProjectImportResult> results = new ArrayList<>(MAX_PROJECTS_TO_IMPORT);
-				SubMonitor monitor2 = SubMonitor.convert(monitor, toImport.size() * 2);
-				int it = 1;
-				while (iter.hasNext()) {
-					int percent = Math.min(100, it++ * 100 * MAX_PROJECTS_TO_IMPORT / (toImport.size() + 1));
-					monitor2.setTaskName(percent + "% " + IMPORTING_MAVEN_PROJECTS);
-					List<MavenProjectInfo> importPartial = new ArrayList<>();
-					int i = 0;
-					while (i++ < MAX_PROJECTS_TO_IMPORT && iter.hasNext()) {
-						importPartial.add(iter.next());
-					}
-					ProjectImportConfiguration importConfig = new ProjectImportConfiguration();
-					List<IMavenProjectImportResult> result = configurationManager.importProjects(importPartial, importConfig, monitor2.split(MAX_PROJECTS_TO_IMPORT));
-					results.addAll(result);
-					monitor2.setWorkRemaining(toImport.size() * 2 - it * MAX_PROJECTS_TO_IMPORT);
-				}
-				List<IProject> imported = new ArrayList<>(results.size());
-				for (IMavenProjectImportResult result : results) {
-					imported.add(result.getProject());
+			JavaLanguageServerPlugin.logInfo("Projects size:" + toImport.size());
+			Iterator<MavenProjectInfo> iter = toImport.iterator();
+			List<IMavenProjectImportResult> results = new ArrayList<>(toImport.size());
+			Map<MavenProjectInfo, Integer> batchIndexes = new LinkedHashMap<>();
+			SubMonitor monitor2 = subMonitor.split(75).setWorkRemaining(toImport.size());
+			long projectFootprint = 0;
+			int remaining = toImport.size();
+			while (iter.hasNext()) {
+				// the first batch is small, the heap retained by its projects sizes the next ones
+				int batchSize = batches == 0 ? Math.min(remaining, MIN_PROJECTS_TO_IMPORT) : getBatchSize(remaining, getHeapHeadroom(), projectFootprint);
+				int percent = 100 * (toImport.size() - remaining) / toImport.size();
+				monitor2.setTaskName(percent + "% " + IMPORTING_MAVEN_PROJECTS);
+				List<MavenProjectInfo> importPartial = new ArrayList<>(batchSize);
+				while (importPartial.size() < batchSize && iter.hasNext()) {
+					MavenProjectInfo projectInfo = iter.next();
+					importPartial.add(projectInfo);
+					batchIndexes.put(projectInfo, batches);
 				}
-				monitor2.setTaskName("Updating Maven project(s)");
-				updateProjects(imported, lastWorkspaceStateSaved, monitor2.split(projects.size()));
-				monitor2.done();
-			} else {
+				long usedBefore = getUsedHeap();
 				ProjectImportConfiguration importConfig = new ProjectImportConfiguration();
-				configurationManager.importProjects(toImport, importConfig, subMonitor.split(75));
+				List<IMavenProjectImportResult> result = configurationManager.importProjects(importPartial, importConfig, monitor2.split(importPartial.size()));
+				results.addAll(result);
+				remaining -= importPartial.size();
+				batches++;
+				// garbage collections during the import make the measure a lower bound at best
+				long footprint = (getUsedHeap() - usedBefore) / importPartial.size();
+				projectFootprint = Math.max(MIN_PROJECT_FOOTPRINT, Math.max(footprint, projectFootprint / 2));
+			}
+			if (batches > 1) {
+				// the dependencies on the projects of the later batches are only resolved by an update,
+				// forced as the digests of their poms are already up to date
+				scheduleUpdate(getProjectsDependingOnLaterBatches(results, batchIndexes, subMonitor.split(5)), true);
 			}
 		}
+		long importedTime = System.nanoTime();
 		subMonitor.setWorkRemaining(20);
 		updateProjects(projects, lastWorkspaceStateSaved, subMonitor.split(20));
 		subMonitor.done();
+		long updated = System.nanoTime();
+		JavaLanguageServerPlugin.logInfo(String.format("Imported %d Maven project(s): scan %d ms, digests %d ms, import %d ms in %d batch(es), update %d ms", toImport.size(), TimeUnit.NANOSECONDS.toMillis(scanned - start),
+				TimeUnit.NANOSECONDS.toMillis(prepared - scanned), TimeUnit.NANOSECONDS.toMillis(importedTime - prepared), batches, TimeUnit.NANOSECONDS.toMillis(updated - importedTime)));
+	}
+
+	/**
+	 * Computes the digests of the poms of the projects to import concurrently,
+	 * as they are independent files.
+	 */
+	private void updateDigests(Collection<MavenProjectInfo> projectInfos) throws CoreException {
+		try {
+			projectInfos.parallelStream().forEach(projectInfo -> {
+				try {
+					digestStore.updateDigest(projectInfo.getPomFile().toPath());
+				} catch (CoreException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+		} catch (IllegalStateException e) {
+			if (e.getCause() instanceof CoreException) {
+				throw (CoreException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the projects depending on a project imported in a later batch,
+	 * as a dependency or as a parent, which were imported before it and
+	 * couldn't resolve it from the workspace. The dependencies are read from
+	 * the effective model of the projects, where the properties are
+	 * interpolated, the active profiles applied and the managed dependencies
+	 * merged.
+	 *
+	 * @param results
+	 *            the results of the import
+	 * @param batchIndexes
+	 *            the projects imported, and the index of their batch
+	 * @return the projects to update
+	 */
+	private List<IProject> getProjectsDependingOnLaterBatches(List<IMavenProjectImportResult> results, Map<MavenProjectInfo, Integer> batchIndexes, IProgressMonitor monitor) {
+		IMavenProjectRegistry registry = MavenPlugin.getMavenProjectRegistry();
+		Map<IMavenProjectFacade, Integer> facades = new LinkedHashMap<>();
+		Map<String, Integer> batchesByKey = new HashMap<>();
+		int lastBatch = 0;
+		for (IMavenProjectImportResult result : results) {
+			IMavenProjectFacade facade = result.getProject() == null ? null : registry.getProject(result.getProject());
+			Integer batch = batchIndexes.get(result.getMavenProjectInfo());
+			if (facade != null && batch != null) {
+				ArtifactKey key = facade.getArtifactKey();
+				batchesByKey.put(getKey(key.getGroupId(), key.getArtifactId()), batch);
+				facades.put(facade, batch);
+				lastBatch = Math.max(lastBatch, batch);
+			}
+		}
+		List<IProject> projects = new ArrayList<>();
+		SubMonitor progress = SubMonitor.convert(monitor, facades.size());
+		for (Map.Entry<IMavenProjectFacade, Integer> entry : facades.entrySet()) {
+			if (entry.getValue() == lastBatch) {
+				progress.worked(1);
+				continue;
+			}
+			try {
+				MavenProject mavenProject = entry.getKey().getMavenProject(progress.split(1));
+				if (dependsOnLaterBatch(mavenProject, entry.getValue(), batchesByKey)) {
+					projects.add(entry.getKey().getProject());
+				}
+			} catch (CoreException e) {
+				// the effective model can't be read, the project may depend on any batch
+				JavaLanguageServerPlugin.logException(e.getMessage(), e);
+				projects.add(entry.getKey().getProject());
+			}
+		}
+		return projects;
+	}
+
+	/**
+	 * @param mavenProject
+	 *            the effective model of a project
+	 * @param batch
+	 *            the index of the batch of the project
+	 * @param batchesByKey
+	 *            the index of the batch of the projects imported, by
+	 *            <code>groupId:artifactId</code>
+	 * @return whether the project depends on a project imported in a later
+	 *         batch, as a dependency or as a parent
+	 */
+	static boolean dependsOnLaterBatch(MavenProject mavenProject, int batch, Map<String, Integer> batchesByKey) {
+		List<String> keys = new ArrayList<>();
+		Parent parent = mavenProject.getModel().getParent();
+		if (parent != null) {
+			keys.add(getKey(parent.getGroupId(), parent.getArtifactId()));
+		}
+		for (Dependency dependency : mavenProject.getDependencies()) {
+			keys.add(getKey(dependency.getGroupId(), dependency.getArtifactId()));
+		}
+		for (String key : keys) {
+			Integer dependencyBatch = batchesByKey.get(key);
+			if (dependencyBatch != null && dependencyBatch > batch) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String getKey(String groupId, String artifactId) {
+		return groupId + ':' + artifactId;
+	}
+
+	/**
+	 * Returns the number of projects to import in the next batch, so that
+	 * importing them takes at most half of the available heap.
+	 *
+	 * @param remaining
+	 *            the number of projects left to import
+	 * @param heapHeadroom
+	 *            the heap available, in bytes
+	 * @param projectFootprint
+	 *            the heap estimated to be retained by a project, in bytes
+	 * @return the batch size
+	 */
+	static int getBatchSize(int remaining, long heapHeadroom, long projectFootprint) {
+		long batchSize = heapHeadroom / 2 / Math.max(1, projectFootprint);
+		return (int) Math.min(remaining, Math.max(MIN_PROJECTS_TO_IMPORT, batchSize));
+	}
+
+	private static long getUsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long getHeapHeadroom() {
+		return Runtime.getRuntime().maxMemory() - getUsedHeap();
 	}
 
 	private long getLastWorkspaceStateModified() {
@@ -220,10 +374,13 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 				iterator.remove();
 			}
 		}
+		scheduleUpdate(projects, false);
+	}
+
+	private void scheduleUpdate(Collection<IProject> projects, boolean force) {
 		if (projects.isEmpty()) {
 			return;
 		}
-
 		new WorkspaceJob("Update Maven project configuration") {
 			@Override
 			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
@@ -233,7 +390,7 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 					if (monitor.isCanceled()) {
 						return Status.CANCEL_STATUS;
 					}
-					mavenBuildSupport.update(project, false, monitor);
+					mavenBuildSupport.update(project, force, monitor);
 				}
 				return Status.OK_STATUS;
 			}
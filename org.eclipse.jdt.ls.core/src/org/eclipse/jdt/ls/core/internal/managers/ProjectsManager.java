@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.codehaus.plexus.util.StringUtils;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
@@ -46,6 +48,7 @@ import org.eclipse.core.resources.ISaveParticipant;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceDescription;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
@@ -93,6 +96,11 @@ import org.eclipse.lsp4j.TextDocumentIdentifier;
 public class ProjectsManager implements ISaveParticipant {
 
 	public static final String DEFAULT_PROJECT_NAME = "jdt.ls-java-project";
+	/**
+	 * the number of changed files of a folder from which the folder is refreshed
+	 * instead of the files
+	 */
+	private static final int MIN_CHANGES_PER_FOLDER_REFRESH = 4;
 	private static final Set<String> watchers = new LinkedHashSet<>();
 	private PreferenceManager preferenceManager;
 	private JavaLanguageClient client;
@@ -264,58 +272,136 @@ public class ProjectsManager implements ISaveParticipant {
 		if (uriString == null) {
 			return;
 		}
-		IResource resource = JDTUtils.getFileOrFolder(uriString);
-		if (resource == null) {
+		fileChanged(Collections.singletonMap(uriString, changeType));
+	}
+
+	/**
+	 * Handles the changes of several files at once, such as the changes of a
+	 * branch switch. The changes of a folder with many changed files are
+	 * refreshed together, in a single workspace operation, and a project whose
+	 * build files changed is updated only once.
+	 *
+	 * @param changes
+	 *            the uris of the changed files and the type of their change, in
+	 *            the order they changed
+	 */
+	public void fileChanged(Map<String, CHANGE_TYPE> changes) {
+		if (changes.isEmpty()) {
 			return;
 		}
-		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
-		if (formatterUrl != null) {
-			try {
-				URL url = getUrl(formatterUrl);
-				if (url != null) {
-					URI formatterUri = url.toURI();
-					URI uri = JDTUtils.toURI(uriString);
-					if (uri != null && uri.equals(formatterUri) && JavaLanguageServerPlugin.getInstance().getProtocol() != null) {
-						if (changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CREATED) {
-							registerWatchers();
-						}
-						FormatterManager.configureFormatter(preferenceManager, this);
+		long start = System.currentTimeMillis();
+		URI formatterUri = getFormatterUri();
+		CHANGE_TYPE[] formatterChange = new CHANGE_TYPE[1];
+		// project -> uri of its first changed build file
+		Map<IProject, String> configurationUpdates = new LinkedHashMap<>();
+		int[] refreshes = new int[1];
+		IWorkspaceRunnable runnable = monitor -> {
+			// folder -> changed resources of the folder and their uri, handled together
+			Map<IContainer, Map<IResource, String>> folders = new LinkedHashMap<>();
+			for (Map.Entry<String, CHANGE_TYPE> change : changes.entrySet()) {
+				String uriString = change.getKey();
+				if (uriString == null) {
+					continue;
+				}
+				if (formatterUri != null && formatterUri.equals(JDTUtils.toURI(uriString))) {
+					formatterChange[0] = change.getValue();
+				}
+				IResource resource = JDTUtils.getFileOrFolder(uriString);
+				if (resource == null) {
+					continue;
+				}
+				Optional<IBuildSupport> bs = getBuildSupport(resource.getProject());
+				if (!bs.isPresent()) {
+					continue;
+				}
+				IContainer folder = resource.getParent();
+				if (folder == null || folder.getType() == IResource.ROOT || bs.get().isBuildFile(resource) || isArchive(resource)) {
+					// build files and libraries are handled on their own
+					refreshes[0]++;
+					if (bs.get().fileChanged(resource, change.getValue(), monitor)) {
+						configurationUpdates.putIfAbsent(resource.getProject(), uriString);
 					}
+				} else {
+					folders.computeIfAbsent(folder, f -> new LinkedHashMap<>()).put(resource, uriString);
 				}
-			} catch (URISyntaxException e) {
-				// ignore
 			}
-		}
-
-		try {
-			Optional<IBuildSupport> bs = getBuildSupport(resource.getProject());
-			if (bs.isPresent()) {
-				IBuildSupport buildSupport = bs.get();
-				boolean requireConfigurationUpdate = buildSupport.fileChanged(resource, changeType, new NullProgressMonitor());
-				if (requireConfigurationUpdate) {
-					FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
-					switch (status) {
-						case automatic:
-							// do not force the build, because it's not started by user and should be done only if build file has changed
-							updateProject(resource.getProject(), false);
-							break;
-						case disabled:
-							break;
-						default:
-							if (client != null) {
-								String cmd = "java.projectConfiguration.status";
-								TextDocumentIdentifier uri = new TextDocumentIdentifier(uriString);
-								ActionableNotification updateProjectConfigurationNotification = new ActionableNotification().withSeverity(MessageType.Info)
-										.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?").withCommands(asList(new Command("Never", cmd, asList(uri, FeatureStatus.disabled)),
-												new Command("Now", cmd, asList(uri, FeatureStatus.interactive)), new Command("Always", cmd, asList(uri, FeatureStatus.automatic))));
-								client.sendActionableNotification(updateProjectConfigurationNotification);
-							}
+			for (Map.Entry<IContainer, Map<IResource, String>> folder : folders.entrySet()) {
+				IBuildSupport buildSupport = getBuildSupport(folder.getKey().getProject()).get();
+				if (folder.getValue().size() < MIN_CHANGES_PER_FOLDER_REFRESH) {
+					for (Map.Entry<IResource, String> change : folder.getValue().entrySet()) {
+						refreshes[0]++;
+						if (buildSupport.fileChanged(change.getKey(), changes.get(change.getValue()), monitor)) {
+							configurationUpdates.putIfAbsent(change.getKey().getProject(), change.getValue());
+						}
+					}
+				} else {
+					// refreshing the folder also refreshes its deleted files
+					refreshes[0]++;
+					if (buildSupport.fileChanged(folder.getKey(), CHANGE_TYPE.CHANGED, monitor)) {
+						configurationUpdates.putIfAbsent(folder.getKey().getProject(), folder.getValue().values().iterator().next());
 					}
 				}
 			}
+		};
+		try {
+			if (changes.size() == 1) {
+				runnable.run(new NullProgressMonitor());
+			} else {
+				ResourcesPlugin.getWorkspace().run(runnable, getWorkspaceRoot(), IWorkspace.AVOID_UPDATE, new NullProgressMonitor());
+			}
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
 		}
+		if (formatterChange[0] != null) {
+			if (formatterChange[0] == CHANGE_TYPE.DELETED || formatterChange[0] == CHANGE_TYPE.CREATED) {
+				registerWatchers();
+			}
+			FormatterManager.configureFormatter(preferenceManager, this);
+		}
+		for (Map.Entry<IProject, String> update : configurationUpdates.entrySet()) {
+			updateConfiguration(update.getKey(), update.getValue());
+		}
+		if (changes.size() > 1) {
+			logInfo("Handled " + changes.size() + " file changes with " + refreshes[0] + " refreshes and " + configurationUpdates.size() + " configuration updates in " + (System.currentTimeMillis() - start) + " ms");
+		}
+	}
+
+	private URI getFormatterUri() {
+		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
+		if (formatterUrl == null || JavaLanguageServerPlugin.getInstance().getProtocol() == null) {
+			return null;
+		}
+		try {
+			URL url = getUrl(formatterUrl);
+			return url == null ? null : url.toURI();
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	private static boolean isArchive(IResource resource) {
+		return resource.getType() == IResource.FILE && org.eclipse.jdt.internal.compiler.util.Util.isArchiveFileName(resource.getName());
+	}
+
+	private void updateConfiguration(IProject project, String uriString) {
+		FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
+		switch (status) {
+			case automatic:
+				// do not force the build, because it's not started by user and should be done only if build file has changed
+				updateProject(project, false);
+				break;
+			case disabled:
+				break;
+			default:
+				if (client != null) {
+					String cmd = "java.projectConfiguration.status";
+					TextDocumentIdentifier uri = new TextDocumentIdentifier(uriString);
+					ActionableNotification updateProjectConfigurationNotification = new ActionableNotification().withSeverity(MessageType.Info)
+							.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?").withCommands(asList(new Command("Never", cmd, asList(uri, FeatureStatus.disabled)),
+									new Command("Now", cmd, asList(uri, FeatureStatus.interactive)), new Command("Always", cmd, asList(uri, FeatureStatus.automatic))));
+					client.sendActionableNotification(updateProjectConfigurationNotification);
+				}
+		}
 	}
 
 	public URL getUrl(String formatterUrl) {
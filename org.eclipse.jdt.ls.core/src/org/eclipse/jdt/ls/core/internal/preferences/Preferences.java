@@ -158,6 +158,12 @@ public class Preferences {
 	 */
 	public static final String FOLDINGRANGE_ENABLED_KEY = "java.foldingRange.enabled";
 
+	/**
+	 * Preference key to enable/disable computing the edits of the code actions
+	 * only when they're applied.
+	 */
+	public static final String CODE_ACTION_LAZY_EDITS_ENABLED_KEY = "java.codeAction.lazyEdits.enabled";
+
 	/**
 	 * A named preference that holds the favorite static members.
 	 * <p>
@@ -185,6 +191,29 @@ public class Preferences {
 	 */
 	public static final String JAVA_COMPLETION_GUESS_METHOD_ARGUMENTS_KEY = "java.completion.guessMethodArguments";
 
+	/**
+	 * A named preference that defines the maximum number of completion items
+	 * returned by a completion request. The most relevant items are kept and the
+	 * list is flagged as incomplete, so the client requests it again as the user
+	 * types. 0 disables the limit.
+	 * <p>
+	 * Value is of type <code>Integer</code>.
+	 * </p>
+	 */
+	public static final String JAVA_COMPLETION_MAX_RESULTS_KEY = "java.completion.maxResults";
+	public static final int JAVA_COMPLETION_MAX_RESULTS_DEFAULT = 0;
+
+	/**
+	 * A named preference that defines the maximum number of symbols returned
+	 * by a workspace symbol request. The best matches are kept. 0 disables the
+	 * limit.
+	 * <p>
+	 * Value is of type <code>Integer</code>.
+	 * </p>
+	 */
+	public static final String JAVA_SYMBOLS_MAX_RESULTS_KEY = "java.symbols.maxResults";
+	public static final int JAVA_SYMBOLS_MAX_RESULTS_DEFAULT = 100;
+
 	/**
 	 * A named preference that defines how member elements are ordered by code
 	 * actions.
@@ -301,7 +330,10 @@ public class Preferences {
 	private boolean completionEnabled;
 	private boolean completionOverwrite;
 	private boolean foldingRangeEnabled;
+	private boolean codeActionLazyEditsEnabled;
 	private boolean guessMethodArguments;
+	private int maxCompletionResults;
+	private int maxSymbolResults;
 	private boolean javaFormatComments;
 	private boolean hashCodeEqualsTemplateUseJava7Objects;
 	private boolean hashCodeEqualsTemplateUseInstanceof;
@@ -411,7 +443,10 @@ public class Preferences {
 		completionEnabled = true;
 		completionOverwrite = true;
 		foldingRangeEnabled = true;
+		codeActionLazyEditsEnabled = false;
 		guessMethodArguments = false;
+		maxCompletionResults = JAVA_COMPLETION_MAX_RESULTS_DEFAULT;
+		maxSymbolResults = JAVA_SYMBOLS_MAX_RESULTS_DEFAULT;
 		javaFormatComments = true;
 		hashCodeEqualsTemplateUseJava7Objects = false;
 		hashCodeEqualsTemplateUseInstanceof = false;
@@ -491,8 +526,15 @@ public class Preferences {
 		boolean foldingRangeEnable = getBoolean(configuration, FOLDINGRANGE_ENABLED_KEY, true);
 		prefs.setFoldingRangeEnabled(foldingRangeEnable);
 
+		boolean codeActionLazyEditsEnabled = getBoolean(configuration, CODE_ACTION_LAZY_EDITS_ENABLED_KEY, false);
+		prefs.setCodeActionLazyEditsEnabled(codeActionLazyEditsEnabled);
+
 		boolean guessMethodArguments = getBoolean(configuration, JAVA_COMPLETION_GUESS_METHOD_ARGUMENTS_KEY, false);
 		prefs.setGuessMethodArguments(guessMethodArguments);
+		int maxCompletionResults = getInt(configuration, JAVA_COMPLETION_MAX_RESULTS_KEY, JAVA_COMPLETION_MAX_RESULTS_DEFAULT);
+		prefs.setMaxCompletionResults(maxCompletionResults);
+		int maxSymbolResults = getInt(configuration, JAVA_SYMBOLS_MAX_RESULTS_KEY, JAVA_SYMBOLS_MAX_RESULTS_DEFAULT);
+		prefs.setMaxSymbolResults(maxSymbolResults);
 
 		boolean hashCodeEqualsTemplateUseJava7Objects = getBoolean(configuration, JAVA_CODEGENERATION_HASHCODEEQUALS_USEJAVA7OBJECTS, false);
 		prefs.setHashCodeEqualsTemplateUseJava7Objects(hashCodeEqualsTemplateUseJava7Objects);
@@ -669,6 +711,11 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setCodeActionLazyEditsEnabled(boolean enabled) {
+		this.codeActionLazyEditsEnabled = enabled;
+		return this;
+	}
+
 	public Preferences setGuessMethodArguments(boolean guessMethodArguments) {
 		this.guessMethodArguments = guessMethodArguments;
 		return this;
@@ -746,6 +793,16 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setMaxCompletionResults(int maxCompletionResults) {
+		this.maxCompletionResults = maxCompletionResults > 0 ? maxCompletionResults : 0;
+		return this;
+	}
+
+	public Preferences setMaxSymbolResults(int maxSymbolResults) {
+		this.maxSymbolResults = maxSymbolResults > 0 ? maxSymbolResults : 0;
+		return this;
+	}
+
 	public Preferences setMaxBuildCount(int maxConcurrentBuilds) {
 		this.parallelBuildsCount = maxConcurrentBuilds;
 		return this;
@@ -851,10 +908,28 @@ public class Preferences {
 		return foldingRangeEnabled;
 	}
 
+	public boolean isCodeActionLazyEditsEnabled() {
+		return codeActionLazyEditsEnabled;
+	}
+
 	public boolean isGuessMethodArguments() {
 		return guessMethodArguments;
 	}
 
+	/**
+	 * @return the maximum number of completion items, 0 if there is no limit
+	 */
+	public int getMaxCompletionResults() {
+		return maxCompletionResults;
+	}
+
+	/**
+	 * @return the maximum number of workspace symbols, 0 if there is no limit
+	 */
+	public int getMaxSymbolResults() {
+		return maxSymbolResults;
+	}
+
 	public boolean isHashCodeEqualsTemplateUseJava7Objects() {
 		return hashCodeEqualsTemplateUseJava7Objects;
 	}
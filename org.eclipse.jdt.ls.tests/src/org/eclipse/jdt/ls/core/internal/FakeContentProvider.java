@@ -11,6 +11,8 @@
 package org.eclipse.jdt.ls.core.internal;
 
 import java.net.URI;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -36,6 +38,14 @@ public class FakeContentProvider implements IDecompiler {
 		} else if (returnValue instanceof IProgressMonitor) {
 			monitor.setCanceled(true);
 			return "Canceled";
+		} else if (returnValue instanceof CyclicBarrier) {
+			// waits for the concurrent requests
+			try {
+				((CyclicBarrier) returnValue).await(5, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				throw new CoreException(new Status(IStatus.ERROR, "test.plugin", "FakeContentProvider timeout", e));
+			}
+			return "Concurrent";
 		}
 		return (String) returnValue;
 	}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testEmpty() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50), 0);
+		assertEquals(0, histogram.getMean(), 0);
+	}
+
+	@Test
+	public void testPercentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(100, histogram.getCount());
+		double p50 = histogram.getPercentile(50);
+		assertTrue("Unexpected p50 " + p50, p50 >= 1 && p50 < 2);
+		double p99 = histogram.getPercentile(99);
+		assertTrue("Unexpected p99 " + p99, p99 >= 1 && p99 < 2);
+		assertEquals(100, histogram.getPercentile(100), 0.001);
+		assertEquals(100, histogram.getMax(), 0.001);
+		assertEquals(1.99, histogram.getMean(), 0.001);
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(TimeUnit.SECONDS.toNanos(1));
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax(), 0);
+	}
+
+}
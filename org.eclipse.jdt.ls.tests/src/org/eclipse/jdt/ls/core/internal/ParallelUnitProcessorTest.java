@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.Test;
+
+public class ParallelUnitProcessorTest {
+
+	private static final List<Integer> ITEMS = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+	@Test
+	public void testOrder() throws Exception {
+		AtomicInteger worked = new AtomicInteger();
+		NullProgressMonitor monitor = new NullProgressMonitor() {
+			@Override
+			public void worked(int work) {
+				worked.addAndGet(work);
+			}
+		};
+		List<String> results = ParallelUnitProcessor.process(ITEMS, item -> {
+			// the first items finish last
+			sleep(item < 4 ? 20 : 0);
+			return "unit" + item;
+		}, monitor);
+		assertEquals(ITEMS.stream().map(item -> "unit" + item).collect(Collectors.toList()), results);
+		assertEquals(ITEMS.size(), worked.get());
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		AtomicInteger running = new AtomicInteger();
+		try {
+			ParallelUnitProcessor.process(ITEMS, item -> {
+				running.incrementAndGet();
+				try {
+					if (item == 10) {
+						throw new CoreException(StatusFactory.newErrorStatus("unit" + item));
+					}
+					sleep(5);
+					return item;
+				} finally {
+					running.decrementAndGet();
+				}
+			}, null);
+			fail("The failure of an item wasn't reported");
+		} catch (CoreException e) {
+			assertEquals("unit10", e.getStatus().getMessage());
+		}
+		assertEquals(0, running.get());
+	}
+
+	@Test(expected = OperationCanceledException.class)
+	public void testCancel() throws Exception {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		ParallelUnitProcessor.process(ITEMS, item -> {
+			monitor.setCanceled(true);
+			return item;
+		}, monitor);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
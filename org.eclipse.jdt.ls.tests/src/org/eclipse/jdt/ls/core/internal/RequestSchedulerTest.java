@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.ls.core.internal.RequestScheduler.Priority;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestSchedulerTest {
+
+	private RequestScheduler scheduler;
+
+	private CountDownLatch blocker;
+
+	@Before
+	public void setUp() throws Exception {
+		scheduler = new RequestScheduler(1);
+		blocker = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		// keep the only worker busy
+		scheduler.schedule("workspace/executeCommand", null, cc -> {
+			started.countDown();
+			try {
+				blocker.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		blocker.countDown();
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testPriorities() throws Exception {
+		List<String> order = new CopyOnWriteArrayList<>();
+		CompletableFuture<String> codeLens = scheduler.schedule("codeLens/resolve", null, cc -> record(order, "codeLens"));
+		CompletableFuture<String> definition = scheduler.schedule("textDocument/definition", null, cc -> record(order, "definition"));
+		CompletableFuture<String> completion = scheduler.schedule("textDocument/completion", null, cc -> record(order, "completion"));
+		assertEquals(3, scheduler.getQueueDepth());
+		assertEquals(1, scheduler.getQueueDepth(Priority.INTERACTIVE));
+		assertEquals(1, scheduler.getQueueDepth(Priority.BACKGROUND));
+
+		blocker.countDown();
+		CompletableFuture.allOf(codeLens, definition, completion).get(10, TimeUnit.SECONDS);
+		assertEquals(Arrays.asList("completion", "definition", "codeLens"), order);
+		assertEquals(0, scheduler.getQueueDepth());
+	}
+
+	@Test
+	public void testSupersede() throws Exception {
+		CompletableFuture<String> first = scheduler.schedule("textDocument/codeLens", "file:///A.java", cc -> "first");
+		CompletableFuture<String> other = scheduler.schedule("textDocument/codeLens", "file:///B.java", cc -> "other");
+		CompletableFuture<String> second = scheduler.schedule("textDocument/codeLens", "file:///A.java", cc -> "second");
+		assertTrue(first.isCancelled());
+		assertEquals(1, scheduler.getSuperseded());
+
+		blocker.countDown();
+		assertEquals("second", second.get(10, TimeUnit.SECONDS));
+		assertEquals("other", other.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testRunningNotSuperseded() throws Exception {
+		RequestScheduler workers = new RequestScheduler(2);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CompletableFuture<String> first = workers.schedule("textDocument/codeLens", "file:///A.java", cc -> {
+				started.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "first";
+			});
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			CompletableFuture<String> second = workers.schedule("textDocument/codeLens", "file:///A.java", cc -> "second");
+			assertEquals("second", second.get(10, TimeUnit.SECONDS));
+			assertFalse(first.isCancelled());
+			assertEquals(0, workers.getSuperseded());
+
+			release.countDown();
+			assertEquals("first", first.get(10, TimeUnit.SECONDS));
+		} finally {
+			workers.shutdown();
+		}
+	}
+
+	@Test
+	public void testAging() throws Exception {
+		AtomicLong time = new AtomicLong();
+		RequestScheduler workers = new RequestScheduler(1, time::get);
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		try {
+			workers.schedule("workspace/executeCommand", null, cc -> {
+				started.countDown();
+				try {
+					blocker.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			});
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			List<String> order = new CopyOnWriteArrayList<>();
+			CompletableFuture<String> codeLens = workers.schedule("codeLens/resolve", null, cc -> record(order, "codeLens"));
+			time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+			CompletableFuture<String> hover = workers.schedule("textDocument/hover", null, cc -> record(order, "hover"));
+			time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+			// the code lens waited long enough
+			CompletableFuture<String> completion = workers.schedule("textDocument/completion", null, cc -> record(order, "completion"));
+
+			blocker.countDown();
+			CompletableFuture.allOf(codeLens, hover, completion).get(10, TimeUnit.SECONDS);
+			assertEquals(Arrays.asList("hover", "codeLens", "completion"), order);
+		} finally {
+			blocker.countDown();
+			workers.shutdown();
+		}
+	}
+
+	@Test
+	public void testGetPriority() {
+		assertEquals(Priority.INTERACTIVE, RequestScheduler.getPriority("textDocument/hover"));
+		assertEquals(Priority.BACKGROUND, RequestScheduler.getPriority("textDocument/foldingRange"));
+		assertEquals(Priority.NORMAL, RequestScheduler.getPriority("textDocument/rename"));
+	}
+
+	private static String record(List<String> order, String request) {
+		order.add(request);
+		return request;
+	}
+
+}
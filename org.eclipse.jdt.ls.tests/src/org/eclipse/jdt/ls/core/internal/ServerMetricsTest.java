@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.ls.core.internal.handlers.DocumentLifeCycleHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ServerMetricsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ServerMetrics metrics;
+
+	private File dumpFile;
+
+	@Before
+	public void setUp() throws Exception {
+		dumpFile = new File(folder.getRoot(), ServerMetrics.DUMP_FILE);
+		metrics = new ServerMetrics(dumpFile);
+		metrics.install();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		metrics.uninstall();
+	}
+
+	@Test
+	public void testRequests() throws Exception {
+		RequestLatency latency = metrics.getRequest("textDocument/hover");
+		latency.received();
+		assertEquals(1, latency.getInFlight());
+		latency.completed(null);
+		latency.received();
+		latency.completed(new CancellationException());
+		latency.received();
+		latency.completed(new CompletionException(new CancellationException()));
+		latency.received();
+		latency.completed(new CompletionException(new IllegalStateException()));
+
+		MetricsReport.Latencies hover = metrics.getReport().requests.get("textDocument/hover");
+		assertNotNull(hover);
+		assertEquals(4, hover.count);
+		assertEquals(0, hover.inFlight);
+		assertEquals(2, hover.cancelled);
+		assertEquals(1, hover.failed);
+	}
+
+	@Test
+	public void testJobs() throws Exception {
+		Job job = new Job("Validate") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return DocumentLifeCycleHandler.DOCUMENT_LIFE_CYCLE_JOBS.equals(family);
+			}
+		};
+		job.schedule();
+		job.join();
+		job.schedule(60000);
+		job.cancel();
+		job.join();
+
+		RequestLatency latency = metrics.getJobs("documentLifeCycle");
+		assertEquals(2, latency.getCount());
+		assertEquals(0, latency.getInFlight());
+		assertEquals(1, latency.getCancelled());
+		assertEquals(1, latency.getExecution().getCount());
+		assertEquals(0, metrics.getJobs("autoBuild").getCount());
+	}
+
+	@Test
+	public void testReport() throws Exception {
+		MetricsReport report = metrics.getReport();
+		assertTrue(report.memory.heapUsed > 0);
+		assertTrue(report.memory.heapCommitted >= report.memory.heapUsed);
+		assertTrue(report.jobs.containsKey("documentLifeCycle"));
+		assertTrue(report.jobs.containsKey("autoBuild"));
+		assertTrue(report.caches.containsKey("ast"));
+		assertTrue(report.caches.containsKey("typeHierarchy"));
+		assertTrue(!report.garbageCollectors.isEmpty());
+	}
+
+	@Test
+	public void testScheduler() throws Exception {
+		assertNull(metrics.getReport().scheduler);
+		RequestScheduler scheduler = new RequestScheduler(2);
+		try {
+			metrics.setScheduler(scheduler);
+			MetricsReport.Scheduler report = metrics.getReport().scheduler;
+			assertNotNull(report);
+			assertEquals(2, report.threads);
+			assertEquals(0, report.queueDepth);
+			assertEquals(Integer.valueOf(0), report.queued.get("interactive"));
+		} finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testDump() throws Exception {
+		metrics.getRequest("textDocument/completion").received();
+		metrics.dump();
+		assertTrue(dumpFile.exists());
+		String json = new String(Files.readAllBytes(dumpFile.toPath()), StandardCharsets.UTF_8);
+		MetricsReport report = JSONUtility.toModel(json, MetricsReport.class);
+		assertEquals(1, report.requests.get("textDocument/completion").count);
+	}
+
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedASTProviderTest extends AbstractProjectsManagerBasedTest {
+
+	private SharedASTProvider astProvider;
+
+	private IPackageFragment pack;
+
+	@Before
+	public void setUp() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		pack = sourceFolder.createPackageFragment("test1", false, null);
+		astProvider = new SharedASTProvider(Long.MAX_VALUE);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		astProvider.dispose();
+		for (ICompilationUnit unit : JavaCore.getWorkingCopies(null)) {
+			unit.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void testSameContents() throws Exception {
+		ICompilationUnit unit = openUnit("A", "public class A {}");
+		CompilationUnit ast = astProvider.getAST(unit, monitor);
+		assertNotNull(ast);
+		assertSame(ast, astProvider.getAST(unit, monitor));
+
+		CacheMetrics metrics = astProvider.getMetrics();
+		assertEquals(1, metrics.getMisses());
+		assertEquals(1, metrics.getHits());
+		assertEquals(1, metrics.getEntries());
+		assertEquals(1, metrics.getLoads().getCount());
+	}
+
+	@Test
+	public void testChangedContents() throws Exception {
+		ICompilationUnit unit = openUnit("A", "public class A {}");
+		CompilationUnit ast = astProvider.getAST(unit, monitor);
+		unit.getBuffer().setContents("package test1;\npublic class A { int i; }\n");
+		CompilationUnit newAst = astProvider.getAST(unit, monitor);
+		assertNotSame(ast, newAst);
+		assertEquals(2, astProvider.getMetrics().getMisses());
+		assertEquals(1, astProvider.getMetrics().getEntries());
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		ICompilationUnit unit = openUnit("A", "public class A {}");
+		CompilationUnit ast = astProvider.getAST(unit, monitor);
+		astProvider.invalidate(unit);
+		assertEquals(0, astProvider.getMetrics().getEntries());
+		assertEquals(0, astProvider.getMetrics().getSize());
+		assertNotSame(ast, astProvider.getAST(unit, monitor));
+	}
+
+	@Test
+	public void testDiscardWorkingCopy() throws Exception {
+		ICompilationUnit unit = openUnit("A", "public class A {}");
+		astProvider.getAST(unit, monitor);
+		unit.discardWorkingCopy();
+		assertEquals(0, astProvider.getMetrics().getEntries());
+		// the ASTs of units which aren't open aren't kept
+		assertNotNull(astProvider.getAST(unit, monitor));
+		assertEquals(0, astProvider.getMetrics().getEntries());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		astProvider.dispose();
+		astProvider = new SharedASTProvider(0);
+		ICompilationUnit unitA = openUnit("A", "public class A {}");
+		ICompilationUnit unitB = openUnit("B", "public class B {}");
+		CompilationUnit ast = astProvider.getAST(unitA, monitor);
+		astProvider.getAST(unitB, monitor);
+
+		CacheMetrics metrics = astProvider.getMetrics();
+		assertEquals(1, metrics.getEvictions());
+		assertEquals(1, metrics.getEntries());
+		// the most recent AST is kept
+		astProvider.getAST(unitB, monitor);
+		assertEquals(1, metrics.getHits());
+		assertNotSame(ast, astProvider.getAST(unitA, monitor));
+	}
+
+	@Test
+	public void testReopenWorkingCopy() throws Exception {
+		ICompilationUnit unit = openUnit("A", "public class A {}");
+		CompilationUnit ast = astProvider.getAST(unit, monitor);
+		unit.discardWorkingCopy();
+		unit.becomeWorkingCopy(null);
+		// same contents
+		assertEquals(1, astProvider.getMetrics().getEntries());
+		assertSame(ast, astProvider.getAST(unit, monitor));
+
+		unit.getBuffer().setContents("package test1;\npublic class A { int i; }\n");
+		unit.discardWorkingCopy();
+		unit.becomeWorkingCopy(null);
+		// the changes weren't saved
+		assertEquals(0, astProvider.getMetrics().getEntries());
+		assertNotSame(ast, astProvider.getAST(unit, monitor));
+	}
+
+	@Test
+	public void testOtherUnitChanged() throws Exception {
+		ICompilationUnit unitA = openUnit("A", "public class A {}");
+		ICompilationUnit unitB = pack.createCompilationUnit("B.java", "package test1;\npublic class B {}\n", false, null);
+		CompilationUnit ast = astProvider.getAST(unitA, monitor);
+		ResourceUtils.setContent((IFile) unitB.getResource(), "package test1;\npublic class B { int i; }\n");
+		assertSame(ast, astProvider.getAST(unitA, monitor));
+
+		pack.createCompilationUnit("C.java", "package test1;\npublic class C {}\n", false, null);
+		// the bindings may refer to the new unit
+		assertNotSame(ast, astProvider.getAST(unitA, monitor));
+	}
+
+	private ICompilationUnit openUnit(String name, String type) throws Exception {
+		ICompilationUnit unit = pack.createCompilationUnit(name + ".java", "package test1;\n" + type + "\n", false, null);
+		unit.becomeWorkingCopy(null);
+		return unit;
+	}
+
+}
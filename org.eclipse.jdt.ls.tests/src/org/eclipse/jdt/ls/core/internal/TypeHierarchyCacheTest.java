@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TypeHierarchyCacheTest extends AbstractProjectsManagerBasedTest {
+
+	private TypeHierarchyCache cache;
+
+	private IPackageFragment pack;
+
+	@Before
+	public void setUp() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		pack = sourceFolder.createPackageFragment("test1", false, null);
+		cache = new TypeHierarchyCache(Long.MAX_VALUE);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cache.clear();
+	}
+
+	@Test
+	public void testCachedHierarchy() throws Exception {
+		IType type = createType("I", "public interface I {}");
+		createType("A", "public class A implements I {}");
+		ITypeHierarchy hierarchy = cache.getTypeHierarchy(type, monitor);
+		assertEquals(1, hierarchy.getAllSubtypes(type).length);
+		assertSame(hierarchy, cache.getTypeHierarchy(type, monitor));
+		// a full hierarchy has the supertypes as well
+		assertSame(hierarchy, cache.getSupertypeHierarchy(type, monitor));
+
+		CacheMetrics metrics = cache.getMetrics();
+		assertEquals(1, metrics.getMisses());
+		assertEquals(2, metrics.getHits());
+		assertEquals(1, metrics.getEntries());
+	}
+
+	@Test
+	public void testSupertypeHierarchy() throws Exception {
+		IType type = createType("I", "public interface I {}");
+		createType("A", "public class A implements I {}");
+		ITypeHierarchy supertypes = cache.getSupertypeHierarchy(type, monitor);
+		ITypeHierarchy hierarchy = cache.getTypeHierarchy(type, monitor);
+		assertEquals(1, hierarchy.getAllSubtypes(type).length);
+		assertSame(hierarchy, cache.getSupertypeHierarchy(type, monitor));
+		assertEquals(2, cache.getMetrics().getMisses());
+		assertEquals(1, cache.getMetrics().getEntries());
+		assertEquals(0, supertypes.getAllSubtypes(type).length);
+	}
+
+	@Test
+	public void testChangedHierarchy() throws Exception {
+		IType type = createType("I", "public interface I {}");
+		createType("A", "public class A implements I {}");
+		ITypeHierarchy hierarchy = cache.getTypeHierarchy(type, monitor);
+		createType("B", "public class B implements I {}");
+		waitForBackgroundJobs();
+		ITypeHierarchy newHierarchy = cache.getTypeHierarchy(type, monitor);
+		assertNotSame(hierarchy, newHierarchy);
+		assertEquals(2, newHierarchy.getAllSubtypes(type).length);
+		// the hierarchy handed out before is left intact
+		assertEquals(1, hierarchy.getAllSubtypes(type).length);
+		assertSame(newHierarchy, cache.getTypeHierarchy(type, monitor));
+		assertEquals(1, cache.getMetrics().getMisses());
+	}
+
+	@Test
+	public void testMaxEntries() throws Exception {
+		cache = new TypeHierarchyCache(Long.MAX_VALUE, 2);
+		IType a = createType("A", "public class A {}");
+		IType b = createType("B", "public class B {}");
+		IType c = createType("C", "public class C {}");
+		cache.getTypeHierarchy(a, monitor);
+		cache.getTypeHierarchy(b, monitor);
+		cache.getTypeHierarchy(c, monitor);
+		assertEquals(2, cache.getMetrics().getEntries());
+		assertEquals(1, cache.getMetrics().getEvictions());
+	}
+
+	@Test
+	public void testFullHierarchyKeptOnSupertypeLookups() throws Exception {
+		cache = new TypeHierarchyCache(Long.MAX_VALUE, 2);
+		IType type = createType("I", "public interface I {}");
+		ITypeHierarchy hierarchy = cache.getTypeHierarchy(type, monitor);
+		// a burst of hovers
+		for (int i = 0; i < 5; i++) {
+			cache.getSupertypeHierarchy(createType("A" + i, "public class A" + i + " implements I {}"), monitor);
+		}
+		assertEquals(3, cache.getMetrics().getEntries());
+		assertEquals(3, cache.getMetrics().getEvictions());
+		assertSame(hierarchy, cache.getTypeHierarchy(type, monitor));
+		assertEquals(6, cache.getMetrics().getMisses());
+	}
+
+	@Test
+	public void testMethodOverrideTester() throws Exception {
+		IType type = createType("A", "public class A {}");
+		MethodOverrideTester tester = cache.getMethodOverrideTester(type);
+		assertSame(tester, cache.getMethodOverrideTester(type));
+		assertEquals(1, cache.getMetrics().getMisses());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		cache = new TypeHierarchyCache(1);
+		IType a = createType("A", "public class A {}");
+		IType b = createType("B", "public class B {}");
+		cache.getTypeHierarchy(a, monitor);
+		cache.getTypeHierarchy(b, monitor);
+		CacheMetrics metrics = cache.getMetrics();
+		assertEquals(1, metrics.getEntries());
+		assertEquals(1, metrics.getEvictions());
+		cache.getTypeHierarchy(b, monitor);
+		assertEquals(1, metrics.getHits());
+	}
+
+	private IType createType(String name, String contents) throws Exception {
+		return pack.createCompilationUnit(name + ".java", "package test1;\n" + contents + "\n", false, monitor).getType(name);
+	}
+
+}
@@ -18,9 +18,9 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.LanguageServerWorkingCopyOwner;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.junit.After;
@@ -72,6 +72,6 @@ public abstract class AbstractCompilationUnitBasedTest extends AbstractProjectsM
 
 	@After
 	public void shutdown() throws Exception {
-		CoreASTProvider.getInstance().disposeAST();
+		SharedASTProvider.getInstance().clear();
 	}
 }
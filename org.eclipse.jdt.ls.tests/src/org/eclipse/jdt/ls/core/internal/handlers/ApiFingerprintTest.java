@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.Test;
+
+public class ApiFingerprintTest extends AbstractProjectsManagerBasedTest {
+
+	@Test
+	public void testAffectedThroughExportedProjects() throws Exception {
+		IJavaProject base = newProject("base");
+		IJavaProject exporter = newProject("exporter");
+		IJavaProject hider = newProject("hider");
+		IJavaProject app = newProject("app");
+		IJavaProject app2 = newProject("app2");
+		addProjectEntry(exporter, base, true);
+		addProjectEntry(hider, base, false);
+		addProjectEntry(app, exporter, false);
+		addProjectEntry(app2, hider, false);
+
+		ICompilationUnit baseUnit = createUnit(base, "Base", "public class Base {}");
+		Set<String> changedNames = Collections.singleton("Base");
+
+		// a direct entry is visible, whether it's exported or not
+		assertTrue(ApiFingerprint.isAffected(createUnit(hider, "Hider", "public class Hider { Base base; }"), baseUnit, changedNames));
+		// base is exported by exporter
+		assertTrue(ApiFingerprint.isAffected(createUnit(app, "App", "public class App { Base base; }"), baseUnit, changedNames));
+		// base isn't exported by hider
+		assertFalse(ApiFingerprint.isAffected(createUnit(app2, "App2", "public class App2 { Base base; }"), baseUnit, changedNames));
+	}
+
+	private IJavaProject newProject(String name) throws Exception {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		projectsManager.createJavaProject(project, new Path(getWorkingProjectDirectory().getAbsolutePath()).append(name), "src", "bin", new NullProgressMonitor());
+		waitForBackgroundJobs();
+		return JavaCore.create(project);
+	}
+
+	private static void addProjectEntry(IJavaProject project, IJavaProject requiredProject, boolean exported) throws Exception {
+		IClasspathEntry[] classpath = project.getRawClasspath();
+		IClasspathEntry[] newClasspath = Arrays.copyOf(classpath, classpath.length + 1);
+		newClasspath[classpath.length] = JavaCore.newProjectEntry(requiredProject.getPath(), exported);
+		project.setRawClasspath(newClasspath, null);
+	}
+
+	private static ICompilationUnit createUnit(IJavaProject project, String name, String body) throws Exception {
+		IPackageFragment pack = project.getPackageFragmentRoot(project.getProject().getFolder("src")).createPackageFragment("test1", false, null);
+		return pack.createCompilationUnit(name + ".java", "package test1;\n" + body + "\n", false, null);
+	}
+
+}
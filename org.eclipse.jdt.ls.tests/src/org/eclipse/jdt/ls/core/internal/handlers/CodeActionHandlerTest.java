@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import static org.mockito.Mockito.when;
+
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
@@ -92,6 +95,41 @@ public class CodeActionHandlerTest extends AbstractCompilationUnitBasedTest {
 		Assert.assertEquals(CodeActionHandler.COMMAND_ID_APPLY_EDIT, c.getCommand());
 	}
 
+	@Test
+	public void testCodeAction_lazyEdits() throws Exception {
+		when(preferenceManager.getClientPreferences().isWorkspaceApplyEditSupported()).thenReturn(true);
+		preferences.setCodeActionLazyEditsEnabled(true);
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"import java.sql.*; \n" +
+						"public class Foo {\n"+
+						"	void foo() {\n"+
+						"	}\n"+
+				"}\n");
+
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = CodeActionUtil.getRange(unit, "java.sql");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.UnusedImport), range))));
+		List<Either<Command, CodeAction>> codeActions = getCodeActions(params);
+		Assert.assertEquals(codeActions.get(0).getRight().getKind(), CodeActionKind.QuickFix);
+		Command c = codeActions.get(0).getRight().getCommand();
+		Assert.assertEquals(CodeActionHandler.COMMAND_ID_APPLY_CODE_ACTION, c.getCommand());
+		WorkspaceEdit edit = CodeActionHandler.resolveCodeAction(c.getArguments());
+		List<org.eclipse.lsp4j.TextEdit> edits = edit.getChanges().get(JDTUtils.toURI(unit));
+		Assert.assertEquals(1, edits.size());
+		Assert.assertEquals("", edits.get(0).getNewText());
+
+		unit.getBuffer().append(" ");
+		try {
+			CodeActionHandler.resolveCodeAction(c.getArguments());
+			Assert.fail("The document changed since the code action was computed");
+		} catch (CoreException e) {
+			// expected
+		}
+	}
+
 	@Test
 	public void testCodeAction_removeUnterminatedString() throws Exception{
 		ICompilationUnit unit = getWorkingCopy(
@@ -21,11 +21,16 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
@@ -334,6 +339,44 @@ public class CodeLensHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertRange(5, 25, 28, loc.getRange());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testResolveCodeLensesOfTypeRootAtOnce() throws Exception {
+		CodeLens typeLens = handler.resolve(getParams(createCodeLensRequest("src/java/Foo.java", 5, 13, 16)), monitor);
+		assertEquals("1 reference", typeLens.getCommand().getTitle());
+
+		//the references of the other code lenses were searched along
+		IFile file = project.getFile("src/java/Foo.java");
+		ICompilationUnit unit = JavaCore.createCompilationUnitFrom(file);
+		IMethod foo = unit.getType("Foo").getMethod("foo", new String[0]);
+		IMethod main = unit.getType("Foo").getMethod("main", new String[] { "[QString;" });
+		ReferencesCodeLensCache cache = ReferencesCodeLensCache.getInstance();
+		assertEquals(1, cache.get(unit, foo).size());
+		assertEquals(0, cache.get(unit, main).size());
+
+		CodeLens methodLens = handler.resolve(getParams(createCodeLensRequest("src/java/Foo.java", 14, 13, 16)), monitor);
+		assertEquals("1 reference", methodLens.getCommand().getTitle());
+		List<Location> locations = (List<Location>) methodLens.getCommand().getArguments().get(2);
+		assertTrue(locations.get(0).getUri().endsWith("src/java/Bar.java"));
+
+		//references are searched again once the workspace changed
+		IFile bar = project.getFile("src/java/Bar.java");
+		bar.setContents(new ByteArrayInputStream("package java;\npublic class Bar {}".getBytes()), true, false, monitor);
+		assertNull(cache.get(unit, foo));
+		methodLens = handler.resolve(getParams(createCodeLensRequest("src/java/Foo.java", 14, 13, 16)), monitor);
+		assertEquals("0 references", methodLens.getCommand().getTitle());
+	}
+
+	@Test
+	public void testGetReferencedName() {
+		assertEquals("Bar", CodeLensHandler.getReferencedName("Bar"));
+		assertEquals("Bar", CodeLensHandler.getReferencedName("foo.Bar"));
+		assertEquals("Bar", CodeLensHandler.getReferencedName("foo.Bar<String>"));
+		assertEquals("bar", CodeLensHandler.getReferencedName("bar(1, \"a\")"));
+		assertEquals("bar", CodeLensHandler.getReferencedName("Foo::bar"));
+		assertEquals("bar", CodeLensHandler.getReferencedName("Foo#bar(int)"));
+	}
+
 	@Test
 	public void testResolveCodeLenseBoundaries() {
 		CodeLens result = handler.resolve(null, monitor);
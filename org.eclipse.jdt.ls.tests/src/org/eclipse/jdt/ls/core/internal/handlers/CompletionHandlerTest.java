@@ -69,6 +69,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.gson.Gson;
+
 /**
  * @author Gorkem Ercan
  *
@@ -223,6 +225,113 @@ public class CompletionHandlerTest extends AbstractCompilationUnitBasedTest {
 		}
 	}
 
+	@Test
+	public void testCompletion_narrowedWhileTyping() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"		Obj\n"+
+						"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "Obj");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertNotNull(list);
+		assertFalse("No proposals were found", list.getItems().isEmpty());
+
+		int offset = unit.getSource().lastIndexOf("Obj") + "Obj".length();
+		unit.getBuffer().replace(offset, 0, "ect");
+		loc = findCompletionLocation(unit, "Object");
+		CompletionList narrowed = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertNotNull(narrowed);
+		assertFalse("No proposals were found", narrowed.getItems().isEmpty());
+		assertTrue(narrowed.getItems().size() <= list.getItems().size());
+		assertTrue(narrowed.getItems().stream().anyMatch(item -> "Object - java.lang".equals(item.getLabel())));
+
+		// the narrowed proposals resolve against the current document
+		CompletionItem item = narrowed.getItems().stream().filter(i -> "Object - java.lang".equals(i.getLabel())).findFirst().get();
+		CompletionItem resolved = server.resolveCompletionItem(item).join();
+		assertTextEdit(2, 2, 8, "Object", resolved.getTextEdit());
+	}
+
+	@Test
+	public void testCompletion_notNarrowedAfterDeletion() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	int alpha1;\n"+
+						"	int alpha2;\n"+
+						"	void foo() {\n"+
+						"		alpha1\n"+
+						"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "alpha1");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse(list.getItems().stream().anyMatch(item -> item.getLabel().startsWith("alpha2")));
+
+		// the proposals of "alpha1" miss the ones of "alpha"
+		int offset = unit.getSource().lastIndexOf("alpha1") + "alpha".length();
+		unit.getBuffer().replace(offset, 1, "");
+		loc = findCompletionLocation(unit, "\t\talpha");
+		list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertTrue(list.getItems().stream().anyMatch(item -> item.getLabel().startsWith("alpha1")));
+		assertTrue(list.getItems().stream().anyMatch(item -> item.getLabel().startsWith("alpha2")));
+	}
+
+	@Test
+	public void testCompletion_notNarrowedAfterReplacement() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	int abc;\n"+
+						"	int abd;\n"+
+						"	void foo() {\n"+
+						"		abc\n"+
+						"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "\t\tabc");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse(list.getItems().stream().anyMatch(item -> item.getLabel().startsWith("abd")));
+
+		// same length, other token
+		int offset = unit.getSource().lastIndexOf("abc");
+		unit.getBuffer().replace(offset, 3, "abd");
+		loc = findCompletionLocation(unit, "\t\tabd");
+		list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertTrue(list.getItems().stream().anyMatch(item -> item.getLabel().startsWith("abd")));
+	}
+
+	@Test
+	public void testCompletion_maxResults() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"		Objec\n"+
+						"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "Objec");
+		int maxCompletionResults = JavaLanguageServerPlugin.getPreferencesManager().getPreferences().getMaxCompletionResults();
+		try {
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setMaxCompletionResults(0);
+			CompletionList all = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+			assertFalse(all.isIncomplete());
+			assertTrue("Not enough proposals to be truncated", all.getItems().size() > 2);
+
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setMaxCompletionResults(2);
+			CompletionList truncated = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+			assertTrue(truncated.isIncomplete());
+			assertEquals(2, truncated.getItems().size());
+			// the most relevant proposals are kept
+			String worstKept = truncated.getItems().stream().map(CompletionItem::getSortText).max(Comparator.naturalOrder()).get();
+			long moreRelevant = all.getItems().stream().filter(item -> item.getSortText().compareTo(worstKept) < 0).count();
+			assertTrue(moreRelevant < 2);
+			assertTrue(new Gson().toJson(truncated).length() < new Gson().toJson(all).length());
+		} finally {
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setMaxCompletionResults(maxCompletionResults);
+		}
+	}
+
 	@Test
 	public void testCompletion_dataFieldURI() throws Exception {
 		ICompilationUnit unit = getWorkingCopy(
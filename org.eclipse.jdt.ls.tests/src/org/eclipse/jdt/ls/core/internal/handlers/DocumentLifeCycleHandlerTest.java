@@ -12,6 +12,7 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.eclipse.jdt.ls.core.internal.Lsp4jAssertions.assertRange;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -43,6 +44,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
@@ -76,7 +78,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTest {
 
-	private CoreASTProvider sharedASTProvider;
+	private SharedASTProvider sharedASTProvider;
 
 	private DocumentLifeCycleHandler lifeCycleHandler;
 	private JavaClientConnection javaClient;
@@ -90,8 +92,8 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 	public void setup() throws Exception {
 		mockPreferences();
 
-		sharedASTProvider = CoreASTProvider.getInstance();
-		sharedASTProvider.disposeAST();
+		sharedASTProvider = SharedASTProvider.getInstance();
+		sharedASTProvider.clear();
 		//		sharedASTProvider.clearASTCreationCount();
 		javaClient = new JavaClientConnection(client);
 		lifeCycleHandler = new DocumentLifeCycleHandler(javaClient, preferenceManager, projectsManager, false);
@@ -230,6 +232,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(1);
 
+		FileUtils.writeStringToFile(cu1.getResource().getLocation().toFile(), cu1.getSource());
 		saveDocument(cu1);
 
 		assertEquals(true, cu1.isWorkingCopy());
@@ -336,6 +339,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(1);
 
+		FileUtils.writeStringToFile(cu1.getResource().getLocation().toFile(), cu1.getSource());
 		saveDocument(cu1);
 
 		assertEquals(true, cu1.isWorkingCopy());
@@ -397,7 +401,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
 		assertNewProblemReported(new ExpectedProblemReport(cu2, 1), new ExpectedProblemReport(cu1, 0));
-		assertEquals(1, getCacheSize());
+		assertEquals(2, getCacheSize());
 		assertNewASTsCreated(2);
 
 		buf = new StringBuilder();
@@ -413,7 +417,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
 		assertNewProblemReported(new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
-		assertEquals(1, getCacheSize());
+		assertEquals(2, getCacheSize());
 		assertNewASTsCreated(2);
 
 		saveDocument(cu1);
@@ -433,7 +437,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
 		assertNewProblemReported();
-		assertEquals(0, getCacheSize());
+		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(0);
 
 		closeDocument(cu2);
@@ -447,6 +451,64 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertNewASTsCreated(0);
 	}
 
+	@Test
+	public void testOnlyDependentsRevalidated() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class G123 {\n");
+		buf.append("  public static void foo() {}\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("G123.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class G456 {\n");
+		buf.append("  { G123.foo(); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu2 = pack1.createCompilationUnit("G456.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class G789 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu3 = pack1.createCompilationUnit("G789.java", buf.toString(), false, null);
+
+		openDocument(cu2, cu2.getSource(), 1);
+		openDocument(cu3, cu3.getSource(), 1);
+		openDocument(cu1, cu1.getSource(), 1);
+		getClientRequests("publishDiagnostics").clear();
+
+		// body only change: the API of G123 is unchanged, nothing else is validated
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class G123 {\n");
+		buf.append("  public static void foo() { int i = 0; }\n");
+		buf.append("}\n");
+		changeDocumentFull(cu1, buf.toString(), 2);
+		assertNewProblemReported(new ExpectedProblemReport(cu1, 0));
+
+		// API change: only G456, which references foo, is validated again
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class G123 {\n");
+		buf.append("  public static void bar() {}\n");
+		buf.append("}\n");
+		changeDocumentFull(cu1, buf.toString(), 3);
+		List<PublishDiagnosticsParams> diags = getClientRequests("publishDiagnostics");
+		assertEquals(2, diags.size());
+		for (PublishDiagnosticsParams diag : diags) {
+			assertNotEquals(JDTUtils.toURI(cu3), diag.getUri());
+			if (JDTUtils.toURI(cu2).equals(diag.getUri())) {
+				assertEquals(1, diag.getDiagnostics().size());
+			}
+		}
+		diags.clear();
+	}
+
 	@Test
 	public void testDidOpenStandaloneFile() throws Exception {
 		IJavaProject javaProject = newDefaultProject();
@@ -629,7 +691,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		changeDocumentFull(unit, fooContent, 1);
 		saveDocument(unit);
 		closeDocument(unit);
-		CompilationUnit astRoot = sharedASTProvider.getAST(bar, CoreASTProvider.WAIT_YES, null);
+		CompilationUnit astRoot = sharedASTProvider.getAST(bar, null);
 		IProblem[] problems = astRoot.getProblems();
 		assertEquals("Unexpected number of errors", 0, problems.length);
 	}
@@ -836,6 +898,6 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 	}
 
 	private int getCacheSize() {
-		return (sharedASTProvider.getCachedAST() != null) ? 1 : 0;
+		return sharedASTProvider.getMetrics().getEntries();
 	}
 }
@@ -12,10 +12,14 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Platform;
@@ -23,6 +27,7 @@ import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerTestPlugin;
@@ -576,6 +581,181 @@ public class FormatterHandlerTest extends AbstractCompilationUnitBasedTest {
 		assertEquals(expectedText, newText);
 	}
 
+	@Test // typing ; in a member should only format that line, with the indentation of the member
+	public void testFormattingOnTypeInMember() throws Exception {
+		ICompilationUnit unit = getWorkingCopy("src/org/sample/Baz.java",
+		//@formatter:off
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    int    first   ;\n"
+			+ "\n"
+			+ "    void foo() {\n"
+			+ "  int       i     =   0;\n"//typed ; here
+			+ "    }\n"
+			+ "\n"
+			+ "    int    last   ;\n"
+			+ "}\n"
+		//@formatter:on
+		);
+
+		String uri = JDTUtils.toURI(unit);
+		TextDocumentIdentifier textDocument = new TextDocumentIdentifier(uri);
+		FormattingOptions options = new FormattingOptions(4, true);// ident == 4 spaces
+
+		DocumentOnTypeFormattingParams params = new DocumentOnTypeFormattingParams(new Position(6, 23), ";");
+		params.setTextDocument(textDocument);
+		params.setOptions(options);
+
+		preferenceManager.getPreferences().setJavaFormatOnTypeEnabled(true);
+		List<? extends TextEdit> edits = server.onTypeFormatting(params).get();
+		assertNotNull(edits);
+
+		//@formatter:off
+		String expectedText =
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    int    first   ;\n"
+			+ "\n"
+			+ "    void foo() {\n"
+			+ "        int i = 0;\n"
+			+ "    }\n"
+			+ "\n"
+			+ "    int    last   ;\n"
+			+ "}\n";
+		//@formatter:on
+
+		String newText = TextEditUtil.apply(unit, edits);
+		assertEquals(expectedText, newText);
+	}
+
+	@Test // typing } in a member which isn't the first one should format the previous block
+	public void testFormattingOnTypeCloseBlockInMember() throws Exception {
+		ICompilationUnit unit = getWorkingCopy("src/org/sample/Baz.java",
+		//@formatter:off
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    int first;\n"
+			+ "\n"
+			+ "    void foo() {\n"
+			+ "  if (true)   {\n"
+			+ "  int   i = 0;\n"
+			+ "  }\n"//typed } here
+			+ "    }\n"
+			+ "}\n"
+		//@formatter:on
+		);
+
+		String uri = JDTUtils.toURI(unit);
+		TextDocumentIdentifier textDocument = new TextDocumentIdentifier(uri);
+		FormattingOptions options = new FormattingOptions(4, true);// ident == 4 spaces
+
+		DocumentOnTypeFormattingParams params = new DocumentOnTypeFormattingParams(new Position(8, 2), "}");
+		params.setTextDocument(textDocument);
+		params.setOptions(options);
+
+		preferenceManager.getPreferences().setJavaFormatOnTypeEnabled(true);
+		List<? extends TextEdit> edits = server.onTypeFormatting(params).get();
+		assertNotNull(edits);
+
+		//@formatter:off
+		String expectedText =
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    int first;\n"
+			+ "\n"
+			+ "    void foo() {\n"
+			+ "        if (true) {\n"
+			+ "            int i = 0;\n"
+			+ "        }\n"
+			+ "    }\n"
+			+ "}\n";
+		//@formatter:on
+
+		String newText = TextEditUtil.apply(unit, edits);
+		assertEquals(expectedText, newText);
+	}
+
+	@Test // typing ; in a member of a nested enum should only format that line, with the indentation of the member
+	public void testFormattingOnTypeInNestedMember() throws Exception {
+		ICompilationUnit unit = getWorkingCopy("src/org/sample/Baz.java",
+		//@formatter:off
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    int first;\n"
+			+ "\n"
+			+ "    enum Kind {\n"
+			+ "        A, B;\n"
+			+ "\n"
+			+ "        int    value   ;\n"
+			+ "\n"
+			+ "        void foo() {\n"
+			+ "  int       i     =   0;\n"//typed ; here
+			+ "        }\n"
+			+ "    }\n"
+			+ "}\n"
+		//@formatter:on
+		);
+
+		String uri = JDTUtils.toURI(unit);
+		TextDocumentIdentifier textDocument = new TextDocumentIdentifier(uri);
+		FormattingOptions options = new FormattingOptions(4, true);// ident == 4 spaces
+
+		DocumentOnTypeFormattingParams params = new DocumentOnTypeFormattingParams(new Position(11, 23), ";");
+		params.setTextDocument(textDocument);
+		params.setOptions(options);
+
+		preferenceManager.getPreferences().setJavaFormatOnTypeEnabled(true);
+		List<? extends TextEdit> edits = server.onTypeFormatting(params).get();
+		assertNotNull(edits);
+
+		//@formatter:off
+		String expectedText =
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    int first;\n"
+			+ "\n"
+			+ "    enum Kind {\n"
+			+ "        A, B;\n"
+			+ "\n"
+			+ "        int    value   ;\n"
+			+ "\n"
+			+ "        void foo() {\n"
+			+ "            int i = 0;\n"
+			+ "        }\n"
+			+ "    }\n"
+			+ "}\n";
+		//@formatter:on
+
+		String newText = TextEditUtil.apply(unit, edits);
+		assertEquals(expectedText, newText);
+	}
+
+	@Test
+	public void testFormattersPooled() throws Exception {
+		Map<String, String> options = javaProject.getOptions(true);
+		CodeFormatter formatter = FormatterManager.acquireFormatter(options);
+		assertNotSame(formatter, FormatterManager.acquireFormatter(options));
+		FormatterManager.releaseFormatter(options, formatter);
+		assertSame(formatter, FormatterManager.acquireFormatter(new HashMap<>(options)));
+
+		// formatters are shared by options which only differ by options not used by the formatter
+		Map<String, String> compilerOptions = new HashMap<>(options);
+		compilerOptions.put(JavaCore.COMPILER_PB_UNUSED_LOCAL, JavaCore.IGNORE.equals(options.get(JavaCore.COMPILER_PB_UNUSED_LOCAL)) ? JavaCore.WARNING : JavaCore.IGNORE);
+		FormatterManager.releaseFormatter(options, formatter);
+		assertSame(formatter, FormatterManager.acquireFormatter(compilerOptions));
+
+		Map<String, String> formatterOptions = new HashMap<>(options);
+		formatterOptions.put(DefaultCodeFormatterConstants.FORMATTER_TAB_SIZE, "13");
+		FormatterManager.releaseFormatter(options, formatter);
+		assertNotSame(formatter, FormatterManager.acquireFormatter(formatterOptions));
+	}
+
 	@Test
 	public void testDisableFormattingOnType() throws Exception {
 		//@formatter:off
@@ -597,6 +597,44 @@ public class HoverHandlerTest extends AbstractProjectsManagerBasedTest {
 
 	}
 
+	@Test
+	public void testHoverCachedUntilChanged() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("Cached.java", "package test1;\n/** First */\npublic class Cached {}\n", false, null);
+		Hover hover = getHover(cu, 2, 15);
+		assertEquals("First", hover.getContents().getLeft().get(1).getLeft());
+		assertEquals(hover.getContents(), getHover(cu, 2, 15).getContents());
+
+		cu.becomeWorkingCopy(monitor);
+		try {
+			cu.getBuffer().setContents("package test1;\n/** Second */\npublic class Cached {}\n");
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, monitor);
+			hover = getHover(cu, 2, 15);
+			assertEquals("Second", hover.getContents().getLeft().get(1).getLeft());
+		} finally {
+			cu.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void testInheritedHoverDroppedWhenSuperTypeChanged() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit base = pack1.createCompilationUnit("Base.java", "package test1;\npublic class Base {\n\t/** First */\n\tpublic void foo() {}\n}\n", false, null);
+		ICompilationUnit sub = pack1.createCompilationUnit("Sub.java", "package test1;\npublic class Sub extends Base {\n\tpublic void foo() {}\n}\n", false, null);
+		Hover hover = getHover(sub, 2, 14);
+		assertTrue(hover.getContents().getLeft().get(1).getLeft().contains("First"));
+
+		base.becomeWorkingCopy(monitor);
+		try {
+			base.getBuffer().setContents("package test1;\npublic class Base {\n\t/** Second */\n\tpublic void foo() {}\n}\n");
+			base.reconcile(ICompilationUnit.NO_AST, false, null, monitor);
+			hover = getHover(sub, 2, 14);
+			assertTrue(hover.getContents().getLeft().get(1).getLeft().contains("Second"));
+		} finally {
+			base.discardWorkingCopy();
+		}
+	}
+
 	@Test
 	public void testNoLinkWhenClassContentUnsupported() throws Exception {
 		initPreferenceManager(false);
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -28,11 +29,13 @@ import org.eclipse.core.resources.IWorkspaceDescription;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
+import org.eclipse.jdt.ls.core.internal.MetricsReport;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
+import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -168,6 +171,20 @@ public class JDTLanguageServerTest {
 		verify(client, never()).unregisterCapability(any());
 	}
 
+	@Test
+	public void testMetrics() throws Exception {
+		MetricsReport.Latencies before = server.metrics().get().requests.get("workspace/symbol");
+		long count = before == null ? 0 : before.count;
+		server.symbol(new WorkspaceSymbolParams("Abracadabra")).get();
+
+		MetricsReport report = server.metrics().get();
+		MetricsReport.Latencies symbol = report.requests.get("workspace/symbol");
+		assertEquals(count + 1, symbol.count);
+		assertEquals(count + 1, symbol.execution.count);
+		assertTrue(report.jobs.containsKey("documentLifeCycle"));
+		assertTrue(report.memory.heapUsed > 0);
+	}
+
 	private void setDynamicCapabilities(boolean enable) {
 		when(clientPreferences.isCodeLensDynamicRegistrationSupported()).thenReturn(enable);
 		when(clientPreferences.isFormattingDynamicRegistrationSupported()).thenReturn(enable);
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.jdt.core.BufferChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IBufferChangedListener;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class LineIndexTest {
+
+	@Test
+	public void testSameAsDocument() throws Exception {
+		String[] contents = { "", "a", "a\n", "\n\n", "a\r\nb\rc\nd", "a\r\n\r\n", "\r" };
+		for (String content : contents) {
+			IBuffer buffer = newBuffer(content);
+			IDocument document = new Document(content);
+			LineIndex index = LineIndex.get(buffer);
+			assertEquals(content, document.getNumberOfLines(), index.getNumberOfLines());
+			for (int line = 0; line < document.getNumberOfLines(); line++) {
+				assertEquals(content, document.getLineOffset(line), index.getLineOffset(line));
+			}
+			for (int offset = 0; offset <= content.length(); offset++) {
+				assertEquals(content, document.getLineOfOffset(offset), index.getLineOfOffset(offset));
+				assertArrayEquals(content, JsonRpcHelpers.toLine(document, offset), JsonRpcHelpers.toLine(buffer, offset));
+			}
+		}
+	}
+
+	@Test
+	public void testOutOfRange() throws Exception {
+		IBuffer buffer = newBuffer("a\nb");
+		assertEquals(-1, JsonRpcHelpers.toOffset(buffer, 2, 0));
+		assertEquals(null, JsonRpcHelpers.toLine(buffer, 4));
+	}
+
+	@Test
+	public void testInvalidatedOnChange() throws Exception {
+		IBuffer buffer = newBuffer("a\nb");
+		LineIndex index = LineIndex.get(buffer);
+		assertSame(index, LineIndex.get(buffer));
+		ArgumentCaptor<IBufferChangedListener> listener = ArgumentCaptor.forClass(IBufferChangedListener.class);
+		verify(buffer, times(1)).addBufferChangedListener(listener.capture());
+
+		when(buffer.getCharacters()).thenReturn("a\r\nb".toCharArray());
+		when(buffer.getLength()).thenReturn(3);
+		listener.getValue().bufferChanged(new BufferChangedEvent(buffer, 1, 1, "\r\n"));
+		index = LineIndex.get(buffer);
+		assertEquals(3, index.getLineOffset(1));
+		assertSame(index, LineIndex.get(buffer));
+
+		// a change the buffer didn't report
+		when(buffer.getCharacters()).thenReturn("a\n\nb".toCharArray());
+		when(buffer.getLength()).thenReturn(4);
+		assertNotSame(index, LineIndex.get(buffer));
+		assertEquals(3, LineIndex.get(buffer).getNumberOfLines());
+		verify(buffer, times(1)).addBufferChangedListener(listener.getValue());
+	}
+
+	private static IBuffer newBuffer(String content) {
+		IBuffer buffer = mock(IBuffer.class);
+		when(buffer.getCharacters()).thenReturn(content.toCharArray());
+		when(buffer.getLength()).thenReturn(content.length());
+		return buffer;
+	}
+
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.endsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.ls.core.internal.IConstants;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.lsp4j.MessageType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class LogHandlerTest {
+
+	private static final String PREFIX = "LogHandlerTest ";
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private JavaClientConnection connection;
+
+	private LogHandler handler;
+
+	@Before
+	public void setUp() {
+		connection = mock(JavaClientConnection.class);
+		// only the messages of the test, the log of the platform is forwarded once installed
+		handler = new LogHandler(status -> status.getMessage().startsWith(PREFIX), clock::get);
+	}
+
+	@Test
+	public void testRateLimit() {
+		handler.connect(connection);
+		int count = LogHandler.MAX_MESSAGES_PER_SECOND + 50;
+		for (int i = 0; i < count; i++) {
+			handler.processLogMessage(newStatus("message " + i));
+		}
+		handler.flush();
+		verify(connection, times(LogHandler.MAX_MESSAGES_PER_SECOND)).logMessage(any(MessageType.class), any(String.class));
+
+		// the dropped messages are reported the next second
+		clock.addAndGet(1000);
+		handler.flush();
+		List<String> messages = getSentMessages(LogHandler.MAX_MESSAGES_PER_SECOND + 1);
+		assertTrue(messages.get(0).endsWith(PREFIX + "message 0"));
+		assertTrue(messages.get(messages.size() - 1).endsWith("50 log messages were dropped"));
+	}
+
+	@Test
+	public void testDedupe() {
+		handler.connect(connection);
+		handler.processLogMessage(newStatus("same"));
+		handler.processLogMessage(newStatus("other"));
+		handler.processLogMessage(newStatus("same"));
+		handler.processLogMessage(newStatus("same"));
+		handler.flush();
+		List<String> messages = getSentMessages(2);
+		assertTrue(messages.get(0).endsWith(PREFIX + "same\n(logged 3 times)"));
+		assertTrue(messages.get(1).endsWith(PREFIX + "other"));
+
+		// only the messages of a batch are merged
+		handler.processLogMessage(newStatus("same"));
+		handler.flush();
+		messages = getSentMessages(3);
+		assertTrue(messages.get(2).endsWith(PREFIX + "same"));
+	}
+
+	@Test
+	public void testOverflow() {
+		handler.connect(connection);
+		for (int i = 0; i < LogHandler.QUEUE_CAPACITY + 10; i++) {
+			handler.processLogMessage(newStatus("message " + i));
+		}
+		handler.flush();
+		clock.addAndGet(1000);
+		handler.flush();
+		List<String> messages = getSentMessages(LogHandler.MAX_MESSAGES_PER_SECOND + 1);
+		// the messages which didn't fit in the queue and the ones above the rate cap
+		int dropped = LogHandler.QUEUE_CAPACITY + 10 - LogHandler.MAX_MESSAGES_PER_SECOND;
+		assertTrue(messages.get(messages.size() - 1).endsWith(dropped + " log messages were dropped"));
+	}
+
+	@Test
+	public void testFlushOnUninstall() {
+		handler.install(connection);
+		for (int i = 0; i < 10; i++) {
+			handler.processLogMessage(newStatus("message " + i));
+		}
+		handler.uninstall();
+		List<String> messages = getSentMessages(10);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(messages.get(i).endsWith(PREFIX + "message " + i));
+		}
+
+		// nothing is sent once uninstalled
+		handler.processLogMessage(newStatus("late"));
+		verify(connection, never()).logMessage(any(MessageType.class), endsWith("late"));
+	}
+
+	private List<String> getSentMessages(int count) {
+		ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+		verify(connection, times(count)).logMessage(any(MessageType.class), messages.capture());
+		assertEquals(count, messages.getAllValues().size());
+		return messages.getAllValues();
+	}
+
+	private static IStatus newStatus(String message) {
+		return new Status(IStatus.ERROR, IConstants.PLUGIN_ID, PREFIX + message);
+	}
+
+}
@@ -16,17 +16,25 @@ import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.ChangeUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.jdt.ls.core.internal.TextEditConverter;
 import org.eclipse.jdt.ls.core.internal.TextEditUtil;
+import org.eclipse.jdt.ls.core.internal.corext.refactoring.changes.DynamicValidationRefactoringChange;
+import org.eclipse.jdt.ls.core.internal.corext.refactoring.rename.RenameSupport;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
@@ -42,6 +50,13 @@ import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CheckConditionsOperation;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.CreateChangeOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextChange;
+import org.eclipse.ltk.core.refactoring.resource.ResourceChange;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -824,6 +839,75 @@ public class RenameHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertEquals(ResourceUtils.fixURI(cuB.getResource().getRawLocationURI()).replace("test2", "newpackage"), resourceChange2.getNewUri());
 	}
 
+	@Test
+	public void testRenameTypeInManyFilesKeepsOrder() throws Exception {
+		assertRenameTypeInManyFilesKeepsOrder(false);
+	}
+
+	@Test
+	public void testRenameTypeInManyFilesKeepsOrderWithResourceChanges() throws Exception {
+		assertRenameTypeInManyFilesKeepsOrder(true);
+	}
+
+	/**
+	 * The changes of the units are converted in parallel, the edit must be the
+	 * one of a conversion of the changes one after the other.
+	 */
+	private void assertRenameTypeInManyFilesKeepsOrder(boolean resourceOperationSupported) throws Exception {
+		when(clientPreferences.isResourceOperationSupported()).thenReturn(resourceOperationSupported);
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n}\n", false, null);
+		for (int i = 0; i < 12; i++) {
+			pack1.createCompilationUnit("User" + i + ".java", "package test1;\npublic class User" + i + " {\n	E e = new E();\n	E get() {\n		return e;\n	}\n}\n", false, null);
+		}
+
+		WorkspaceEdit edit = getRenameEdit(cu, new Position(1, 14), "Newname");
+
+		RenameSupport renameSupport = RenameSupport.create(cu.getType("E"), "Newname", RenameSupport.UPDATE_REFERENCES);
+		CheckConditionsOperation check = new CheckConditionsOperation(renameSupport.getRenameRefactoring(), CheckConditionsOperation.ALL_CONDITIONS);
+		CreateChangeOperation create = new CreateChangeOperation(check, RefactoringStatus.FATAL);
+		create.run(monitor);
+		WorkspaceEdit expected = new WorkspaceEdit();
+		for (Change change : ((CompositeChange) create.getChange()).getChildren()) {
+			Change[] children = change instanceof DynamicValidationRefactoringChange ? ((CompositeChange) change).getChildren() : new Change[] { change };
+			for (Change child : children) {
+				convertSequentially(child, expected);
+			}
+		}
+
+		if (resourceOperationSupported) {
+			assertEquals(expected.getDocumentChanges(), edit.getDocumentChanges());
+		} else {
+			assertEquals(13, edit.getChanges().size());
+			assertEquals(new ArrayList<>(expected.getChanges().entrySet()), new ArrayList<>(edit.getChanges().entrySet()));
+		}
+	}
+
+	private static void convertSequentially(Change change, WorkspaceEdit edit) throws CoreException {
+		if (!(change.getModifiedElement() instanceof IJavaElement)) {
+			return;
+		}
+		if (change instanceof ResourceChange) {
+			ChangeUtil.convertResourceChange((ResourceChange) change, edit);
+			return;
+		}
+		if (!(change instanceof TextChange) || ((TextChange) change).getEdit() == null) {
+			return;
+		}
+		ICompilationUnit unit = (ICompilationUnit) ((IJavaElement) change.getModifiedElement()).getAncestor(IJavaElement.COMPILATION_UNIT);
+		for (org.eclipse.text.edits.TextEdit textEdit : ((TextChange) change).getEdit().getChildren()) {
+			TextEditConverter converter = new TextEditConverter(unit, textEdit);
+			if (JavaLanguageServerPlugin.getPreferencesManager().getClientPreferences().isResourceOperationSupported()) {
+				if (edit.getDocumentChanges() == null) {
+					edit.setDocumentChanges(new LinkedList<>());
+				}
+				edit.getDocumentChanges().add(Either.forLeft(converter.convertToTextDocumentEdit(0)));
+			} else {
+				edit.getChanges().computeIfAbsent(JDTUtils.toURI(unit), uri -> new ArrayList<>()).addAll(converter.convert());
+			}
+		}
+	}
+
 	private Position mergeCode(StringBuilder builder, String[] codes) {
 		Position pos = null;
 		for (int i = 0; i < codes.length; i++) {
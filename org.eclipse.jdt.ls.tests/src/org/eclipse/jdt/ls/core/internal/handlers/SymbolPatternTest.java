@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SymbolPatternTest {
+
+	@Test
+	public void testMatch() {
+		assertMatches("HashMap", "HashMap", "hashmap", "HaMa", "HM", "hm", "hmap");
+		assertMatches("URLConnection", "URLC", "urlc", "UC", "uc", "ucon");
+		assertMatches("some_field", "sf", "some_f");
+		assertMatches("Base64", "b64", "Base6");
+		assertMatches("NullPointerException", "NPE", "npe", "NuPoEx");
+	}
+
+	@Test
+	public void testNoMatch() {
+		assertNoMatch("HashMap", "Map", "hsm", "HashMaps", "mh");
+		assertNoMatch("NetPermission", "NPE");
+		assertNoMatch("Hashtable", "HT");
+		assertNoMatch("anything", "");
+	}
+
+	@Test
+	public void testWildcards() {
+		assertMatches("HashMap", "Hash*", "H*Map", "*Map", "Has?Map", "hash*map", "*ash*");
+		assertNoMatch("HashMap", "*Set", "H?Map", "Map*");
+		assertBetter("HashMap", "hashmap", "Hash*");
+		assertBetter("HashMap", "HashMapper", "*Map");
+	}
+
+	@Test
+	public void testRanking() {
+		assertBetter("HashMap", "Hashtable", "Hash");
+		assertBetter("HashMap", "hashMap", "HashMap");
+		assertBetter("hashMap", "HashMapper", "HashMap");
+		assertBetter("HashMap", "HashSetMapping", "hm");
+		assertBetter("HashMap", "HashtableMap", "hmap");
+		assertBetter("List", "LinkedList", "l");
+	}
+
+	@Test
+	public void testSearchPattern() {
+		assertArrayEquals("H*M*".toCharArray(), new SymbolPattern("HM").toSearchPattern());
+		assertArrayEquals("h*m*".toCharArray(), new SymbolPattern(" h.m ").toSearchPattern());
+		assertTrue(new SymbolPattern("*?").isEmpty());
+		assertArrayEquals("*Map*".toCharArray(), new SymbolPattern("*Map").toSearchPattern());
+		assertArrayEquals("H?sh*".toCharArray(), new SymbolPattern("H?sh*").toSearchPattern());
+	}
+
+	private static void assertMatches(String name, String... queries) {
+		for (String query : queries) {
+			assertNotEquals(query + " should match " + name, SymbolPattern.NO_MATCH, new SymbolPattern(query).match(name));
+		}
+	}
+
+	private static void assertNoMatch(String name, String... queries) {
+		for (String query : queries) {
+			assertEquals(query + " should not match " + name, SymbolPattern.NO_MATCH, new SymbolPattern(query).match(name));
+		}
+	}
+
+	private static void assertBetter(String better, String worse, String query) {
+		SymbolPattern pattern = new SymbolPattern(query);
+		int betterScore = pattern.match(better);
+		int worseScore = pattern.match(worse);
+		assertTrue(better + " (" + betterScore + ") should rank before " + worse + " (" + worseScore + ") for " + query, betterScore > worseScore);
+	}
+
+}
@@ -13,8 +13,10 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,12 +34,16 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.m2e.core.internal.IMavenConstants;
@@ -439,6 +445,76 @@ public class WorkspaceDiagnosticsHandlerTest extends AbstractProjectsManagerBase
 
 	}
 
+	@Test
+	public void testUnchangedDiagnosticsNotPublished() throws Exception {
+		importProjects("maven/broken");
+		reset(connection);
+		when(connection.isPublished(any(PublishDiagnosticsParams.class))).thenReturn(true);
+		handler.publishDiagnostics(new NullProgressMonitor());
+		verify(connection, never()).publishDiagnostics(any(PublishDiagnosticsParams.class));
+	}
+
+	@Test
+	public void testPublishedDiagnostics() throws Exception {
+		JavaClientConnection javaClient = new JavaClientConnection(mock(JavaLanguageClient.class));
+		try {
+			Diagnostic diagnostic = new Diagnostic(new Range(new Position(0, 0), new Position(0, 1)), "Something's wrong Jim");
+			PublishDiagnosticsParams params = new PublishDiagnosticsParams("file:///Foo.java", Collections.singletonList(diagnostic));
+			assertFalse(javaClient.isPublished(params));
+			javaClient.publishDiagnostics(params);
+			Diagnostic same = new Diagnostic(new Range(new Position(0, 0), new Position(0, 1)), "Something's wrong Jim");
+			assertTrue(javaClient.isPublished(new PublishDiagnosticsParams("file:///Foo.java", Collections.singletonList(same))));
+			assertFalse(javaClient.isPublished(new PublishDiagnosticsParams("file:///Foo.java", Collections.emptyList())));
+			assertFalse(javaClient.isPublished(new PublishDiagnosticsParams("file:///Bar.java", Collections.singletonList(same))));
+			Diagnostic other = new Diagnostic(new Range(new Position(0, 0), new Position(0, 1)), "He's dead");
+			assertFalse(javaClient.isPublished(new PublishDiagnosticsParams("file:///Foo.java", Collections.singletonList(other))));
+
+			javaClient.forgetDiagnostics("file:///Foo.java");
+			assertFalse(javaClient.isPublished(params));
+
+			javaClient.publishDiagnostics(params);
+			javaClient.publishDiagnostics(new PublishDiagnosticsParams("file:///Foo.java", Collections.emptyList()));
+			// cleared diagnostics aren't kept
+			assertFalse(javaClient.isPublished(params));
+			assertFalse(javaClient.isPublished(new PublishDiagnosticsParams("file:///Foo.java", Collections.emptyList())));
+		} finally {
+			javaClient.disconnect();
+		}
+	}
+
+	@Test
+	public void testDelayedPublish() throws Exception {
+		importProjects("eclipse/hello");
+		handler.removeResourceChangeListener();
+		handler = new WorkspaceDiagnosticsHandler(connection, projectsManager, true);
+		handler.addResourceChangeListener();
+		waitForBackgroundJobs();
+		reset(connection);
+		IFile file = ResourcesPlugin.getWorkspace().getRoot().getProject("hello").getFile("src/java/Foo4.java");
+
+		IMarker first = file.createMarker(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER);
+		first.setAttributes(new String[] { IMarker.SEVERITY, IMarker.MESSAGE, IMarker.LINE_NUMBER, IMarker.CHAR_START, IMarker.CHAR_END }, new Object[] { IMarker.SEVERITY_ERROR, "Something's wrong Jim", 1, 0, 1 });
+		// the changes are published after a delay
+		verify(connection, never()).publishDiagnostics(any(PublishDiagnosticsParams.class));
+		IMarker second = file.createMarker(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER);
+		second.setAttributes(new String[] { IMarker.SEVERITY, IMarker.MESSAGE, IMarker.LINE_NUMBER, IMarker.CHAR_START, IMarker.CHAR_END }, new Object[] { IMarker.SEVERITY_WARNING, "He's dead", 1, 0, 1 });
+		Job.getJobManager().join(WorkspaceDiagnosticsHandler.PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS, monitor);
+
+		ArgumentCaptor<PublishDiagnosticsParams> captor = ArgumentCaptor.forClass(PublishDiagnosticsParams.class);
+		verify(connection, atLeastOnce()).publishDiagnostics(captor.capture());
+		List<PublishDiagnosticsParams> fooCalls = captor.getAllValues().stream().filter(p -> p.getUri().endsWith("Foo4.java")).collect(Collectors.toList());
+		assertFalse("No Foo4.java diagnostics were published", fooCalls.isEmpty());
+		List<Diagnostic> diags = fooCalls.get(fooCalls.size() - 1).getDiagnostics();
+		assertEquals(diags.toString(), 2, diags.size());
+
+		// unchanged markers aren't published again
+		reset(connection);
+		when(connection.isPublished(any(PublishDiagnosticsParams.class))).thenReturn(true);
+		first.setAttribute(IMarker.PRIORITY, IMarker.PRIORITY_HIGH);
+		Job.getJobManager().join(WorkspaceDiagnosticsHandler.PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS, monitor);
+		verify(connection, never()).publishDiagnostics(any(PublishDiagnosticsParams.class));
+	}
+
 	private IMarker createMarker(int severity, String msg, int line, int start, int end) {
 		IMarker m = mock(IMarker.class);
 		when(m.exists()).thenReturn(true);
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -18,7 +19,13 @@ import static org.mockito.Mockito.when;
 
 import java.util.List;
 
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
@@ -130,4 +137,110 @@ public class WorkspaceSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 		assertTrue("Did not find "+className, foundClass);
 	}
 
+	@Test
+	public void testMemberSearch() {
+		List<SymbolInformation> results = handler.search("somethingFromLombok", monitor);
+		assertNotNull(results);
+		assertEquals("Found " + results.size() + " results", 1, results.size());
+		SymbolInformation symbol = results.get(0);
+		assertEquals(SymbolKind.Method, symbol.getKind());
+		assertEquals("java.Bar", symbol.getContainerName());
+		Location location = symbol.getLocation();
+		assertNotEquals("Range should not equal the default range", JDTUtils.newRange(), location.getRange());
+		assertTrue("Unexpected uri " + location.getUri(), location.getUri().endsWith("Bar.java"));
+	}
+
+	@Test
+	public void testFuzzySearch() {
+		List<SymbolInformation> results = handler.search("sfl", monitor);
+		assertTrue(results.stream().anyMatch(s -> "somethingFromLombok".equals(s.getName())));
+		assertTrue(results.stream().anyMatch(s -> "somethingElseFromLombok".equals(s.getName())));
+		assertFalse(results.stream().anyMatch(s -> "somethingFromJPAModelGen".equals(s.getName())));
+
+		results = handler.search("hashmap", monitor);
+		assertEquals("HashMap", results.get(0).getName());
+
+		results = handler.search("hm", monitor);
+		assertTrue(results.stream().anyMatch(s -> "HashMap".equals(s.getName())));
+	}
+
+	@Test
+	public void testRanking() {
+		List<SymbolInformation> results = handler.search("Foo", monitor);
+		assertTrue(results.size() > 2);
+		// exact matches first, the types before the methods
+		assertEquals("Foo", results.get(0).getName());
+		assertEquals(SymbolKind.Class, results.get(0).getKind());
+		int lastType = 0;
+		int firstMethod = -1;
+		for (int i = 0; i < results.size(); i++) {
+			SymbolInformation symbol = results.get(i);
+			if ("Foo".equals(symbol.getName())) {
+				lastType = i;
+			} else if (firstMethod < 0 && "foo".equals(symbol.getName())) {
+				assertEquals(SymbolKind.Method, symbol.getKind());
+				firstMethod = i;
+			}
+		}
+		assertTrue("Unexpected order " + results, lastType < firstMethod);
+		assertTrue(results.size() <= preferences.getMaxSymbolResults());
+	}
+
+	@Test
+	public void testWildcardSearch() {
+		List<SymbolInformation> results = handler.search("Fo?3", monitor);
+		assertTrue(results.stream().anyMatch(s -> "Foo3".equals(s.getName())));
+		assertFalse(results.stream().anyMatch(s -> "Foo".equals(s.getName())));
+
+		results = handler.search("*FromLombok", monitor);
+		assertTrue(results.stream().anyMatch(s -> "somethingFromLombok".equals(s.getName())));
+		assertTrue(results.stream().anyMatch(s -> "somethingElseFromLombok".equals(s.getName())));
+	}
+
+	@Test
+	public void testMaxResults() {
+		preferences.setMaxSymbolResults(1);
+		List<SymbolInformation> results = handler.search("Foo", monitor);
+		assertEquals(1, results.size());
+		assertEquals("Foo", results.get(0).getName());
+		assertEquals(SymbolKind.Class, results.get(0).getKind());
+	}
+
+	@Test
+	public void testSearchDoesNotOpenUnits() throws Exception {
+		IProject project = WorkspaceHelper.getProject("hello");
+		ICompilationUnit unit = JavaCore.create(project).getPackageFragmentRoot(project.getFolder("src")).getPackageFragment("java").getCompilationUnit("Baz.java");
+		assertFalse(unit.isOpen());
+		handler.search("Abracadabra", monitor);
+		assertFalse(unit.isOpen());
+	}
+
+	@Test
+	public void testSearchAfterChanges() throws Exception {
+		assertEquals(0, handler.search("Abracadabra", monitor).size());
+
+		IProject project = WorkspaceHelper.getProject("hello");
+		IPackageFragmentRoot root = JavaCore.create(project).getPackageFragmentRoot(project.getFolder("src"));
+		IPackageFragment pack = root.getPackageFragment("java");
+		ICompilationUnit unit = pack.createCompilationUnit("Abracadabra.java", "package java;\npublic class Abracadabra {\n}\n", false, monitor);
+		List<SymbolInformation> results = handler.search("Abracadabra", monitor);
+		assertEquals(1, results.size());
+		assertEquals(SymbolKind.Class, results.get(0).getKind());
+
+		// unsaved changes are searched too
+		unit.becomeWorkingCopy(monitor);
+		try {
+			unit.getBuffer().setContents("package java;\npublic class Abracadabra {\n\tvoid abracadabra() {}\n}\n");
+			unit.reconcile(ICompilationUnit.NO_AST, false, null, monitor);
+			results = handler.search("Abracadabra", monitor);
+			assertEquals(2, results.size());
+			assertEquals(SymbolKind.Method, results.get(1).getKind());
+		} finally {
+			unit.discardWorkingCopy();
+		}
+
+		unit.delete(true, monitor);
+		assertEquals(0, handler.search("Abracadabra", monitor).size());
+	}
+
 }
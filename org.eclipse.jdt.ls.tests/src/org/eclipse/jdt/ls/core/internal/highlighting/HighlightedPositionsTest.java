@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.highlighting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.junit.Test;
+
+public class HighlightedPositionsTest {
+
+	//@formatter:off
+	private static final String SOURCE =
+		"class A {\n" +
+		"	int f;\n" +
+		"	void a() {\n" +
+		"		f = 1;\n" +
+		"	}\n" +
+		"	static {\n" +
+		"	}\n" +
+		"	class B {\n" +
+		"		void b() {\n" +
+		"		}\n" +
+		"	}\n" +
+		"	abstract void c();\n" +
+		"}\n";
+	//@formatter:on
+
+	@Test
+	public void testBuild() {
+		HighlightedPositions.Builder builder = new HighlightedPositions.Builder();
+		builder.add(10, 2, 1);
+		builder.add(0, 5, 3);
+		builder.add(10, 2, 1);
+		builder.add(10, 2, 2);
+		HighlightedPositions positions = builder.build();
+		assertEquals("[0:5:3, 10:2:1, 10:2:2]", positions.toString());
+		assertEquals(0, positions.indexOf(0));
+		assertEquals(1, positions.indexOf(1));
+		assertEquals(1, positions.indexOf(10));
+		assertEquals(3, positions.indexOf(11));
+		assertEquals(0, positions.getBodyCount());
+	}
+
+	@Test
+	public void testBodies() {
+		CompilationUnit ast = parse(SOURCE);
+		HighlightedPositions positions = new HighlightedPositions.Builder().build(ast);
+		assertEquals(3, positions.getBodyCount());
+		int a = SOURCE.indexOf("{", SOURCE.indexOf("a()"));
+		assertEquals(a, positions.getBodyStart(0));
+		assertEquals(SOURCE.indexOf("}", a) + 1, positions.getBodyEnd(0));
+		assertEquals(SOURCE.indexOf("{", SOURCE.indexOf("b()")), positions.getBodyStart(2));
+
+		int edit = SOURCE.indexOf("1;");
+		assertEquals(0, positions.getBodyAround(edit, 1));
+		assertEquals(-1, positions.getBodyAround(a, 1));
+		assertEquals(-1, positions.getBodyAround(SOURCE.indexOf("int f"), 1));
+		assertEquals(-1, positions.getBodyAround(edit, SOURCE.length() - edit));
+
+		Block body = HighlightedPositions.getBody(ast, positions.getBodyStart(2), positions.getBodyEnd(2));
+		assertNotNull(body);
+		assertNull(HighlightedPositions.getBody(ast, positions.getBodyStart(2), positions.getBodyEnd(2) + 1));
+	}
+
+	@Test
+	public void testReplaceBody() {
+		CompilationUnit ast = parse(SOURCE);
+		HighlightedPositions.Builder builder = new HighlightedPositions.Builder();
+		int f = SOURCE.indexOf("f;");
+		int fa = SOURCE.indexOf("f = 1");
+		int b = SOURCE.indexOf("b()");
+		builder.add(f, 1, 1);
+		builder.add(fa, 1, 1);
+		builder.add(b, 1, 2);
+		HighlightedPositions positions = builder.build(ast);
+
+		// "f = 1;" -> "f = 12;"
+		String newSource = SOURCE.replace("f = 1;", "f = 12;");
+		CompilationUnit newAst = parse(newSource);
+		assertTrue(positions.hasBodies(newAst, 0, 1));
+		assertFalse(positions.hasBodies(newAst, 0, 0));
+
+		HighlightedPositions.Builder bodyBuilder = new HighlightedPositions.Builder();
+		bodyBuilder.add(fa, 1, 3);
+		HighlightedPositions newPositions = positions.replaceBody(0, 1, bodyBuilder.build());
+		assertEquals("[" + f + ":1:1, " + fa + ":1:3, " + (b + 1) + ":1:2]", newPositions.toString());
+		assertEquals(positions.getBodyStart(0), newPositions.getBodyStart(0));
+		assertEquals(positions.getBodyEnd(0) + 1, newPositions.getBodyEnd(0));
+		assertEquals(positions.getBodyStart(2) + 1, newPositions.getBodyStart(2));
+	}
+
+	private static CompilationUnit parse(String source) {
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setSource(source.toCharArray());
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+}
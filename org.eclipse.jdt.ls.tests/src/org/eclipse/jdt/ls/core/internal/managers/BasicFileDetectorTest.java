@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
@@ -128,6 +129,58 @@ public class BasicFileDetectorTest {
 		}
 	}
 
+	@Test
+	public void testSkipHeavyDirectories() throws Exception {
+		Path root = Files.createTempDirectory("heavy_directories");
+		try {
+			for (String dir : list("node_modules/a", ".git/a", "maven/target/a", "gradle/build/a", "build/a")) {
+				Files.createDirectories(root.resolve(dir));
+				Files.createFile(root.resolve(dir).resolve("buildfile"));
+			}
+			Files.createFile(root.resolve("maven/pom.xml"));
+			Files.createFile(root.resolve("gradle/build.gradle"));
+			BasicFileDetector detector = new BasicFileDetector(root, "buildfile");
+			Collection<Path> dirs = detector.scan(null);
+			//build isn't a Gradle output folder when there's no Gradle build file next to it
+			assertEquals("Found " + dirs, Arrays.asList(root.resolve("build/a")), new ArrayList<>(dirs));
+		} finally {
+			FileUtils.deleteDirectory(root.toFile());
+		}
+	}
+
+	@Test
+	public void testReuseDirectoryListings() throws Exception {
+		Path root = Files.createTempDirectory("directory_listings");
+		File listingCache = new File(root.toFile(), ".listings");
+		try {
+			Path project = Files.createDirectories(root.resolve("projects/a"));
+			Files.createFile(project.resolve("buildfile"));
+			long lastModified = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+			setLastModified(lastModified, root, root.resolve("projects"), project);
+			Collection<Path> dirs = new BasicFileDetector(root, "buildfile").listingCache(listingCache).scan(null);
+			assertEquals("Found " + dirs, Arrays.asList(project), new ArrayList<>(dirs));
+
+			//projects is listed again only once its modification time changed
+			Path newProject = Files.createDirectories(root.resolve("projects/b"));
+			Files.createFile(newProject.resolve("buildfile"));
+			setLastModified(lastModified, root.resolve("projects"));
+			dirs = new BasicFileDetector(root, "buildfile").listingCache(listingCache).scan(null);
+			assertEquals("Found " + dirs, Arrays.asList(project), new ArrayList<>(dirs));
+
+			setLastModified(lastModified + 1000, root.resolve("projects"));
+			dirs = new BasicFileDetector(root, "buildfile").listingCache(listingCache).scan(null);
+			assertEquals("Found " + dirs, Arrays.asList(project, newProject), new ArrayList<>(dirs));
+		} finally {
+			FileUtils.deleteDirectory(root.toFile());
+		}
+	}
+
+	private void setLastModified(long lastModified, Path... dirs) {
+		for (Path dir : dirs) {
+			dir.toFile().setLastModified(lastModified);
+		}
+	}
+
 	@SafeVarargs
 	private final <E> List<E> list(E... elements) {
 		return new ArrayList<>(Arrays.asList(elements));
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContentCacheTest {
+
+	private File cacheDirectory;
+	private Path archive;
+
+	@Before
+	public void setUp() throws IOException {
+		cacheDirectory = Files.createTempDirectory("contentCache").toFile();
+		archive = Files.createTempFile("library", ".jar");
+		Files.write(archive, "classes".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(cacheDirectory);
+		Files.deleteIfExists(archive);
+	}
+
+	@Test
+	public void testPersisted() throws Exception {
+		ContentCache cache = new ContentCache(cacheDirectory, 1);
+		cache.put(archive, "Foo", "class Foo {}");
+		cache.put(archive, "Bar", "class Bar {}");
+		assertEquals("class Foo {}", cache.get(archive, "Foo"));
+		assertEquals("class Bar {}", new ContentCache(cacheDirectory, 1).get(archive, "Bar"));
+		assertNull(cache.get(archive, "Baz"));
+	}
+
+	@Test
+	public void testInvalidatedWhenArchiveChanges() throws Exception {
+		ContentCache cache = new ContentCache(cacheDirectory, 10);
+		cache.put(archive, "Foo", "class Foo {}");
+		Files.write(archive, "other classes".getBytes(StandardCharsets.UTF_8));
+		assertNull(cache.get(archive, "Foo"));
+		assertNull(new ContentCache(cacheDirectory, 10).get(archive, "Foo"));
+
+		cache.put(archive, "Bar", "class Bar {}");
+		assertEquals(2, cacheDirectory.listFiles()[0].listFiles().length);
+	}
+
+	@Test
+	public void testMissingArchive() throws Exception {
+		ContentCache cache = new ContentCache(cacheDirectory, 10);
+		Files.delete(archive);
+		cache.put(archive, "Foo", "class Foo {}");
+		assertNull(cache.get(archive, "Foo"));
+		assertEquals(0, cacheDirectory.listFiles().length);
+	}
+
+	@Test
+	public void testDiskBudget() throws Exception {
+		// 12 bytes per entry, room for 2
+		ContentCache cache = new ContentCache(cacheDirectory, 0, 30);
+		cache.put(archive, "Foo", "class Foo {}");
+		cache.put(archive, "Bar", "class Bar {}");
+		assertEquals("class Foo {}", cache.get(archive, "Foo"));
+		cache.put(archive, "Baz", "class Baz {}");
+		assertNull(cache.get(archive, "Bar"));
+		assertEquals("class Foo {}", cache.get(archive, "Foo"));
+		assertEquals("class Baz {}", new ContentCache(cacheDirectory, 0, 30).get(archive, "Baz"));
+		// the stamp and 2 entries
+		assertEquals(3, cacheDirectory.listFiles()[0].listFiles().length);
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		ContentCache cache = new ContentCache(cacheDirectory, 10);
+		cache.put(archive, "Foo", "class Foo {}");
+		cache.clear();
+		assertNull(cache.get(archive, "Foo"));
+		assertEquals(0, cacheDirectory.listFiles().length);
+	}
+
+}
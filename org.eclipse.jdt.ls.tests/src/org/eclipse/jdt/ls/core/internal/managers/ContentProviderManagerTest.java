@@ -17,10 +17,18 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
 import org.eclipse.jdt.ls.core.internal.DisassemblerContentProvider;
@@ -243,6 +251,42 @@ public class ContentProviderManagerTest extends AbstractProjectsManagerBasedTest
 		assertEquals(FakeContentProvider.returnValue, provider.getContent(sourcelessURI, monitor));
 	}
 
+	@Test
+	public void testConcurrentContent() throws Exception {
+		// each request waits for the other one, they'd time out if they ran one after the other
+		FakeContentProvider.returnValue = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> first = executor.submit(() -> provider.getContent(sourcelessURI, new NullProgressMonitor()));
+			Future<String> second = executor.submit(() -> provider.getContent(sourcelessURI, new NullProgressMonitor()));
+			assertEquals("Concurrent", first.get());
+			assertEquals("Concurrent", second.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCacheDisassembledContent() throws Exception {
+		when(preferences.getPreferredContentProviderIds()).thenReturn(Arrays.asList("disassemblerContentProvider"));
+		File cacheDirectory = Files.createTempDirectory("contentCache").toFile();
+		try {
+			provider = new ContentProviderManager(preferenceManager, new ContentCache(cacheDirectory, 10));
+			String result = provider.getContent(sourcelessURI, monitor);
+			assertTrue("disassembler header is missing from " + result, result.startsWith(DisassemblerContentProvider.DISASSEMBLED_HEADER));
+			File[] archiveDirectories = cacheDirectory.listFiles();
+			assertEquals(1, archiveDirectories.length);
+			assertEquals(2, archiveDirectories[0].listFiles().length);
+
+			// a new manager, as after a restart, reads the persisted content
+			provider = new ContentProviderManager(preferenceManager, new ContentCache(cacheDirectory, 10));
+			assertEquals(result, provider.getSource(sourcelessClassFile, monitor));
+			assertEquals(2, archiveDirectories[0].listFiles().length);
+		} finally {
+			FileUtils.deleteDirectory(cacheDirectory);
+		}
+	}
+
 	private void expectLoggedError(String expected) {
 		assertTrue("expected error " + expected, logListener.getErrors().stream().filter(e -> e.contains(expected)).findAny().isPresent());
 	}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.ls.core.internal.managers.DigestStore.FileDigest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DigestStoreTest {
+
+	private File stateLocation;
+	private Path pom;
+
+	@Before
+	public void setUp() throws IOException {
+		stateLocation = Files.createTempDirectory("digestStore").toFile();
+		pom = new File(stateLocation, "pom.xml").toPath();
+		write("<project/>", 0);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(stateLocation);
+	}
+
+	@Test
+	public void testUpdateDigest() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(pom));
+		assertFalse(store.updateDigest(pom));
+
+		//same contents, new time stamp
+		write("<project/>", 10000);
+		assertFalse(store.updateDigest(pom));
+
+		write("<project></project>", 20000);
+		assertTrue(store.updateDigest(pom));
+		assertFalse(store.updateDigest(pom));
+	}
+
+	@Test
+	public void testCheckDigest() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		FileDigest digest = store.checkDigest(pom);
+		assertTrue(digest.isChanged());
+		//not recorded until the project is updated
+		assertTrue(store.checkDigest(pom).isChanged());
+		store.recordDigest(digest);
+		assertNull(store.checkDigest(pom));
+		assertNull(new DigestStore(stateLocation).checkDigest(pom));
+
+		//same contents, new time stamp
+		write("<project/>", 10000);
+		digest = store.checkDigest(pom);
+		assertFalse(digest.isChanged());
+		store.recordDigest(digest);
+		assertNull(store.checkDigest(pom));
+	}
+
+	@Test
+	public void testPersisted() throws Exception {
+		assertTrue(new DigestStore(stateLocation).updateDigest(pom));
+		assertFalse(new DigestStore(stateLocation).updateDigest(pom));
+
+		write("<project></project>", 10000);
+		assertTrue(new DigestStore(stateLocation).updateDigest(pom));
+	}
+
+	@Test
+	public void testCompaction() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		for (int i = 0; i < 1000; i++) {
+			write("<project>" + i + "</project>", i * 10000);
+			assertTrue(store.updateDigest(pom));
+		}
+		File stateFile = new File(stateLocation, ".build-file-digests");
+		// records hold the path, size, time stamp and digest
+		int recordLength = 2 + pom.toString().length() + 8 + 8 + 16;
+		assertTrue("Journal not compacted: " + stateFile.length(), stateFile.length() < 300 * recordLength);
+		assertFalse(new DigestStore(stateLocation).updateDigest(pom));
+	}
+
+	@Test
+	public void testTruncatedJournal() throws Exception {
+		assertTrue(new DigestStore(stateLocation).updateDigest(pom));
+		File stateFile = new File(stateLocation, ".build-file-digests");
+		try (RandomAccessFile file = new RandomAccessFile(stateFile, "rw")) {
+			file.setLength(file.length() - 3);
+		}
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(pom));
+		assertFalse(new DigestStore(stateLocation).updateDigest(pom));
+	}
+
+	private void write(String content, long offset) throws IOException {
+		Files.write(pom, content.getBytes(StandardCharsets.UTF_8));
+		// older than the time stamps the store doesn't trust
+		pom.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1) + offset);
+	}
+
+}
@@ -18,7 +18,9 @@ import java.net.URI;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import org.junit.Test;
 
 /**
@@ -60,4 +62,27 @@ public class GradleBuildSupportTest extends AbstractGradleBasedTest {
 		assertEquals("1.7", ProjectUtils.getJavaSourceLevel(project));
 	}
 
+	@Test
+	public void testUpdateAppliedScript() throws Exception {
+		IProject project = importSimpleJavaProject();
+
+		URI gradleUri = project.getFile("build.gradle").getRawLocationURI();
+		IFile script = project.getFile("gradle/source.gradle");
+		URI scriptUri = script.getRawLocationURI();
+
+		setContent(scriptUri, "sourceCompatibility = 1.8\n");
+		setContent(gradleUri, getContent(gradleUri) + "\napply from: 'gradle/source.gradle'\n");
+		projectsManager.updateProject(project, false);
+		waitForBackgroundJobs();
+		assertEquals("1.8", ProjectUtils.getJavaSourceLevel(project));
+
+		//Only the applied script changes, it isn't at the root of the project
+		setContent(scriptUri, "sourceCompatibility = 1.7\n");
+		project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+		new GradleBuildSupport().fileChanged(script, CHANGE_TYPE.CHANGED, monitor);
+		projectsManager.updateProject(project, false);
+		waitForBackgroundJobs();
+		assertEquals("1.7", ProjectUtils.getJavaSourceLevel(project));
+	}
+
 }
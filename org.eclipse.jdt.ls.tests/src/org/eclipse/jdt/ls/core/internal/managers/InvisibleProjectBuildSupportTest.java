@@ -16,6 +16,7 @@ import static org.junit.Assert.assertNull;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
@@ -25,6 +26,8 @@ import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JavaProjectHelper;
@@ -139,4 +142,43 @@ public class InvisibleProjectBuildSupportTest extends AbstractInvisibleProjectBa
 
 	}
 
+	@Test
+	public void testUnchangedLibsKeepClasspath() throws Exception {
+		File projectFolder = createSourceFolderWithLibs("unchangedLibs");
+		IProject project = importRootFolder(projectFolder, "Test.java");
+		assertNoErrors(project);
+		IJavaProject javaProject = JavaCore.create(project);
+		Path libPath = projectFolder.toPath().resolve(InvisibleProjectBuildSupport.LIB_FOLDER);
+		Path jar = libPath.resolve("foo.jar");
+
+		int[] classpathChanges = new int[1];
+		IElementChangedListener listener = event -> {
+			for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+				if ((delta.getFlags() & IJavaElementDelta.F_CLASSPATH_CHANGED) != 0) {
+					classpathChanges[0]++;
+				}
+			}
+		};
+		try {
+			JavaCore.addElementChangedListener(listener);
+			//touch the jar without modifying it
+			Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+			projectsManager.fileChanged(jar.toUri().toString(), CHANGE_TYPE.CHANGED);
+			waitForBackgroundJobs();
+			assertEquals("Classpath should not have been set", 0, classpathChanges[0]);
+
+			//remove sources
+			Path sources = libPath.resolve("foo-sources.jar");
+			Files.deleteIfExists(sources);
+			projectsManager.fileChanged(sources.toUri().toString(), CHANGE_TYPE.DELETED);
+			waitForBackgroundJobs();
+			assertEquals("Classpath should have been set once", 1, classpathChanges[0]);
+		} finally {
+			JavaCore.removeElementChangedListener(listener);
+		}
+		IClasspathEntry[] classpath = javaProject.getRawClasspath();
+		assertEquals("Unexpected classpath:\n" + JavaProjectHelper.toString(classpath), 3, classpath.length);
+		assertNull(classpath[2].getSourceAttachmentPath());
+	}
+
 }
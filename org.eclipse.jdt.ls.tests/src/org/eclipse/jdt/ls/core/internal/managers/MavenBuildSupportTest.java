@@ -22,7 +22,9 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
@@ -150,6 +152,46 @@ public class MavenBuildSupportTest extends AbstractMavenBasedTest {
 		}
 	}
 
+	@Test
+	public void testBatchedFileChanges() throws Exception {
+		IProject project = importMavenProject("salut");
+		File folder = project.getFolder("src/main/java/org/sample").getLocation().toFile();
+		Map<String, CHANGE_TYPE> changes = new LinkedHashMap<>();
+		for (int i = 0; i < 20; i++) {
+			File file = new File(folder, "Batched" + i + ".java");
+			FileUtils.writeStringToFile(file, "package org.sample;\npublic class Batched" + i + " {}\n");
+			changes.put(file.toURI().toString(), CHANGE_TYPE.CREATED);
+		}
+		File bar = new File(folder, "Bar.java");
+		bar.delete();
+		changes.put(bar.toURI().toString(), CHANGE_TYPE.DELETED);
+		IFile pom = project.getFile("pom.xml");
+		changes.put(pom.getRawLocationURI().toString(), CHANGE_TYPE.CHANGED);
+
+		preferences.setUpdateBuildConfigurationStatus(FeatureStatus.automatic);
+		int[] updates = new int[1];
+		IJobChangeListener listener = new JobChangeAdapter() {
+			@Override
+			public void scheduled(IJobChangeEvent event) {
+				if (event.getJob().getName().contains("Update project")) {
+					updates[0]++;
+				}
+			}
+		};
+		try {
+			Job.getJobManager().addJobChangeListener(listener);
+			projectsManager.fileChanged(changes);
+			waitForBackgroundJobs();
+			assertEquals("Update project should have been triggered once", 1, updates[0]);
+		} finally {
+			Job.getJobManager().removeJobChangeListener(listener);
+		}
+		for (int i = 0; i < 20; i++) {
+			assertTrue(project.getFile("src/main/java/org/sample/Batched" + i + ".java").exists());
+		}
+		assertFalse(project.getFile("src/main/java/org/sample/Bar.java").exists());
+	}
+
 	@Test
 	public void testBuildHelperSupport() throws Exception {
 		IProject project = importMavenProject("buildhelped");
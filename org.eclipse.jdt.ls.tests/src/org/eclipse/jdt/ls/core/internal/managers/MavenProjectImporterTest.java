@@ -22,9 +22,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.project.MavenProject;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
@@ -34,6 +40,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -247,6 +254,59 @@ public class MavenProjectImporterTest extends AbstractMavenBasedTest {
 		assertNoErrors(project);
 	}
 
+	@Test
+	public void testBatchSize() throws Exception {
+		long mb = 1024 * 1024;
+		assertEquals(5, MavenProjectImporter.getBatchSize(5, 1024 * mb, mb));
+		assertEquals(100, MavenProjectImporter.getBatchSize(1000, 400 * mb, 2 * mb));
+		// the projects already imported are large, or the heap is almost full
+		assertEquals(10, MavenProjectImporter.getBatchSize(1000, 400 * mb, 100 * mb));
+		assertEquals(10, MavenProjectImporter.getBatchSize(1000, 0, mb));
+	}
+
+	@Test
+	public void testDependsOnLaterBatch() throws Exception {
+		Map<String, Integer> batchesByKey = new HashMap<>();
+		batchesByKey.put("org.acme:parent", 2);
+		batchesByKey.put("org.acme:api", 1);
+		batchesByKey.put("org.acme:impl", 0);
+		batchesByKey.put("org.acme:client", 0);
+		// the parent and the api are imported after their dependents
+		assertTrue(MavenProjectImporter.dependsOnLaterBatch(newMavenProject("impl", "org.acme:parent", "org.acme:api", "org.apache.commons:commons-lang3"), 0, batchesByKey));
+		assertTrue(MavenProjectImporter.dependsOnLaterBatch(newMavenProject("api", "org.acme:parent"), 1, batchesByKey));
+		assertFalse(MavenProjectImporter.dependsOnLaterBatch(newMavenProject("client", null, "org.acme:impl"), 0, batchesByKey));
+		assertFalse(MavenProjectImporter.dependsOnLaterBatch(newMavenProject("parent", null), 2, batchesByKey));
+	}
+
+	@Test
+	public void testDependencyOnLaterBatchResolved() throws Exception {
+		// module1 depends on ${project.groupId}:module11, imported in the second batch
+		importProjects("maven/batchdeps");
+		waitForBackgroundJobs();
+		IProject module11 = WorkspaceHelper.getProject("module11");
+		IJavaProject module1 = JavaCore.create(WorkspaceHelper.getProject("module1"));
+		assertTrue(Arrays.stream(module1.getResolvedClasspath(true)).anyMatch(entry -> entry.getEntryKind() == IClasspathEntry.CPE_PROJECT && entry.getPath().equals(module11.getFullPath())));
+	}
+
+	private static MavenProject newMavenProject(String artifactId, String parent, String... dependencies) {
+		Model model = new Model();
+		model.setGroupId("org.acme");
+		model.setArtifactId(artifactId);
+		if (parent != null) {
+			Parent parentModel = new Parent();
+			parentModel.setGroupId(parent.substring(0, parent.indexOf(':')));
+			parentModel.setArtifactId(parent.substring(parent.indexOf(':') + 1));
+			model.setParent(parentModel);
+		}
+		for (String key : dependencies) {
+			Dependency dependency = new Dependency();
+			dependency.setGroupId(key.substring(0, key.indexOf(':')));
+			dependency.setArtifactId(key.substring(key.indexOf(':') + 1));
+			model.addDependency(dependency);
+		}
+		return new MavenProject(model);
+	}
+
 	private static class MavenUpdateProjectJobSpy extends JobChangeAdapter {
 
 		int updateProjectJobCalled;